@@ -0,0 +1,42 @@
+package com.javadapters.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line, except that results
+ * are written as JSON to jmh-result.json unless -rf or -rff are given, so
+ * every run can be compared against a stored baseline.
+ */
+public class BenchmarkMain {
+
+   /** File the results are written to by default **/
+   public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+   public static void main(String[] args)
+         throws RunnerException, CommandLineOptionException, IOException {
+      CommandLineOptions options = new CommandLineOptions(args);
+      ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+      if(!options.getResultFormat().hasValue()) {
+         builder.resultFormat(ResultFormatType.JSON);
+      }
+      if(!options.getResult().hasValue()) {
+         builder.result(DEFAULT_RESULT_FILE);
+      }
+      if(options.shouldHelp() || options.shouldList() ||
+            options.shouldListWithParams() || options.shouldListProfilers() ||
+            options.shouldListResultFormats()) {
+         //Let the standard runner print what was asked for
+         org.openjdk.jmh.Main.main(args);
+         return;
+      }
+      new Runner(builder.build()).run();
+   }
+}
@@ -0,0 +1,95 @@
+package com.javadapters.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.Types;
+import com.javadapters.adapters.Adapter;
+
+/**
+ * Measures parsing a field holding a list of IDs, against splitting it and
+ * converting each part with a separate lookup. Run with -prof gc to compare
+ * the allocation rates.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollectionAdaptersBenchmark {
+
+   static final int SIZE = 32;
+
+   private String ids;
+   private Adapter<String, long[]> toLongArray;
+   private Adapter<String, List<Long>> toList;
+   private Type listType;
+
+   @Setup
+   public void setUp() throws AdapterNotFoundException {
+      Random random = new Random(17);
+      StringBuilder sb = new StringBuilder();
+      for(int i = 0; i < SIZE; ++i) {
+         sb.append(i > 0 ? ", " : "").append(random.nextInt(Integer.MAX_VALUE));
+      }
+      ids = sb.toString();
+      toLongArray = AdapterFactory.getAdapter(String.class, long[].class);
+      listType = Types.listOf(Long.class);
+      toList = AdapterFactory.getAdapter(String.class, listType);
+   }
+
+   @Benchmark
+   public long[] splitAndConvert() throws AdapterNotFoundException {
+      String[] parts = ids.split(",");
+      long[] values = new long[parts.length];
+      for(int i = 0; i < parts.length; ++i) {
+         values[i] = AdapterFactory.getAdapter(String.class, Long.class)
+               .convert(parts[i].trim(), Long.class);
+      }
+      return values;
+   }
+
+   @Benchmark
+   public long[] longArrayAdapter() {
+      return toLongArray.convert(ids, long[].class);
+   }
+
+   @Benchmark
+   public List<Long> splitToList() throws AdapterNotFoundException {
+      String[] parts = ids.split(",");
+      List<Long> values = new ArrayList<Long>(parts.length);
+      for(String part : parts) {
+         values.add(AdapterFactory.getAdapter(String.class, Long.class)
+               .convert(part.trim(), Long.class));
+      }
+      return values;
+   }
+
+   @Benchmark
+   public Adapter<String, List<Long>> lookupList() throws AdapterNotFoundException {
+      return AdapterFactory.getAdapter(String.class, listType);
+   }
+
+   @Benchmark
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   public List<Long> listAdapter() {
+      return toList.convert(ids, (Class)List.class);
+   }
+}
@@ -0,0 +1,176 @@
+package com.javadapters.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.AdapterRegistry;
+import com.javadapters.adapters.Adapter;
+
+/**
+ * Measures how lookup and convert throughput scales with the number of
+ * threads, against a registry that can change and a frozen one. The mixed
+ * group replaces an adapter on one thread while the others look up and
+ * convert, which throws away the resolved adapters each time.
+ * <p>
+ * Run a thread count with the usual -t option, or run {@link #main} to run
+ * every power of two up to the number of processors and print the speedup
+ * of each over one thread.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConcurrencyBenchmark {
+
+   /** Type whose adapter is replaced by the mixed group **/
+   public static class Widget {
+      Widget(int version) {
+         this.version = version;
+      }
+
+      final int version;
+   }
+
+   /**
+    * The adapters that are swapped in, one per thread so the writer doesn't
+    * share state with the readers
+    */
+   @State(Scope.Thread)
+   public static class Versions {
+
+      @Setup
+      public void setUp() {
+         for(int i = 0; i < adapters.length; ++i) {
+            final Widget widget = new Widget(i);
+            adapters[i] = new Adapter<String, Widget>() {
+               @Override
+               public Widget convert(String from, Class<Widget> clazz) {
+                  return widget;
+               }
+            };
+         }
+      }
+
+      @SuppressWarnings("unchecked")
+      final Adapter<String, Widget>[] adapters = new Adapter[4];
+      int next;
+   }
+
+   private AdapterRegistry registry;
+   private AdapterRegistry frozen;
+
+   @Setup
+   public void setUp() {
+      registry = AdapterRegistry.builder().addDefaults().build();
+      registry.addAdapter(String.class, Widget.class,
+            new Adapter<String, Widget>() {
+         @Override
+         public Widget convert(String from, Class<Widget> clazz) {
+            return null;
+         }
+      });
+      frozen = registry.freeze();
+   }
+
+   @Benchmark
+   public Adapter<?,?> lookup() {
+      return registry.tryGetAdapter(String.class, Integer.class);
+   }
+
+   @Benchmark
+   public Adapter<?,?> lookupFrozen() {
+      return frozen.tryGetAdapter(String.class, Integer.class);
+   }
+
+   @Benchmark
+   public int convert() throws AdapterNotFoundException {
+      return registry.getIntAdapter(String.class).convertToInt("12345");
+   }
+
+   @Benchmark
+   public int convertFrozen() throws AdapterNotFoundException {
+      return frozen.getIntAdapter(String.class).convertToInt("12345");
+   }
+
+   @Benchmark
+   @Group("mixed")
+   @GroupThreads(3)
+   public Object mixedRead() throws AdapterNotFoundException {
+      return registry.getAdapter(String.class, Widget.class)
+            .convert("widget", Widget.class);
+   }
+
+   @Benchmark
+   @Group("mixed")
+   @GroupThreads(1)
+   public void mixedReplace(Versions versions) {
+      registry.addAdapter(String.class, Widget.class,
+            versions.adapters[versions.next++ & 3]);
+   }
+
+   /**
+    * Runs the benchmarks, other than the mixed group, with 1, 2, 4 and so on
+    * threads up to the number of processors and prints the scaling
+    * @param args JMH options such as -i and -wi, other than -t
+    */
+   public static void main(String[] args)
+         throws RunnerException, CommandLineOptionException {
+      CommandLineOptions options = new CommandLineOptions(args);
+      int processors = Runtime.getRuntime().availableProcessors();
+      List<Integer> counts = new ArrayList<Integer>();
+      for(int threads = 1; threads < processors; threads *= 2) {
+         counts.add(threads);
+      }
+      counts.add(processors);
+
+      List<Collection<RunResult>> runs = new ArrayList<Collection<RunResult>>();
+      for(int threads : counts) {
+         runs.add(new Runner(new OptionsBuilder().parent(options)
+               .include(ConcurrencyBenchmark.class.getName() + "\\.(lookup|convert)")
+               .threads(threads)
+               .build()).run());
+      }
+
+      System.out.printf("%n%-16s %8s %14s %8s%n", "Benchmark", "Threads",
+            "ops/us", "Speedup");
+      for(RunResult single : runs.get(0)) {
+         String label = single.getParams().getBenchmark();
+         label = label.substring(label.lastIndexOf('.') + 1);
+         double base = single.getPrimaryResult().getScore();
+         for(int i = 0; i < counts.size(); ++i) {
+            for(RunResult result : runs.get(i)) {
+               if(result.getParams().getBenchmark().equals(
+                     single.getParams().getBenchmark())) {
+                  double score = result.getPrimaryResult().getScore();
+                  System.out.printf("%-16s %8d %14.1f %8.2f%n", label,
+                        counts.get(i), score, score / base);
+               }
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,90 @@
+package com.javadapters.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.javadapters.adapters.DateParser;
+
+/**
+ * Measures date parsing for each supported format, with and without sticky
+ * mode. Later formats are slower without sticky mode since the formats are
+ * tried in order.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateParserBenchmark {
+
+   /** A sample of each supported format, in the order they are tried **/
+   static final String[] SAMPLES = {
+      "20130704",
+      "4-7-2013",
+      "2013-7-4",
+      "7/4/2013",
+      "2013/7/4",
+      "4 Jul 2013",
+      "4 July 2013",
+      "201307041530",
+      "20130704 1530",
+      "4-7-2013 15:30",
+      "2013-7-4 15:30",
+      "7/4/2013 15:30",
+      "2013/7/4 15:30",
+      "4 Jul 2013 15:30",
+      "4 July 2013 15:30",
+      "20130704153045",
+      "20130704 153045",
+      "4-7-2013 15:30:45",
+      "2013-7-4 15:30:45",
+      "7/4/2013 15:30:45",
+      "2013/7/4 15:30:45",
+      "4 Jul 2013 15:30:45",
+      "4 July 2013 15:30:45",
+   };
+
+   @Param({"20130704", "4-7-2013", "2013-7-4", "7/4/2013", "2013/7/4",
+         "4 Jul 2013", "4 July 2013", "201307041530", "20130704 1530",
+         "4-7-2013 15:30", "2013-7-4 15:30", "7/4/2013 15:30", "2013/7/4 15:30",
+         "4 Jul 2013 15:30", "4 July 2013 15:30", "20130704153045",
+         "20130704 153045", "4-7-2013 15:30:45", "2013-7-4 15:30:45",
+         "7/4/2013 15:30:45", "2013/7/4 15:30:45", "4 Jul 2013 15:30:45",
+         "4 July 2013 15:30:45"})
+   public String text;
+
+   private DateParser parser;
+   private DateParser stickyParser;
+
+   @Setup
+   public void setUp() {
+      parser = new DateParser(false);
+      stickyParser = new DateParser(true);
+      if(parser.parse(text) == null) {
+         throw new IllegalStateException("Not a supported date: " + text);
+      }
+   }
+
+   @Benchmark
+   public Date parse() {
+      return parser.parse(text);
+   }
+
+   @Benchmark
+   public Date parseSticky() {
+      return stickyParser.parse(text);
+   }
+}
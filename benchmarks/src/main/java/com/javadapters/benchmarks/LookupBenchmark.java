@@ -0,0 +1,109 @@
+package com.javadapters.benchmarks;
+
+import java.lang.annotation.ElementType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterRegistry;
+import com.javadapters.adapters.Adapter;
+
+/**
+ * Measures adapter lookups. Warm lookups repeat the same lookup against the
+ * default registry and a frozen registry, cold lookups time the first lookup
+ * against a freshly built registry, which includes resolving the adapter.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LookupBenchmark {
+
+   /** Type no adapter converts to **/
+   public static class Unknown {
+   }
+
+   /**
+    * The kind of lookup: a registered pair, a primitive that is wrapped
+    * before the lookup, an enum found through the generic enum adapter and
+    * a pair with no adapter at all
+    */
+   @Param({"direct", "primitive", "enum", "miss"})
+   public String lookup;
+
+   private Class<?> fromType;
+   private Class<?> toType;
+   private AdapterRegistry frozen;
+
+   /**
+    * A new registry for every invocation, kept separate so that the warm
+    * benchmarks don't pay for the per invocation setup
+    */
+   @State(Scope.Thread)
+   public static class Cold {
+
+      @Setup(Level.Invocation)
+      public void setUp() {
+         registry = AdapterRegistry.builder().addDefaults().build();
+      }
+
+      AdapterRegistry registry;
+   }
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      fromType = String.class;
+      switch(lookup) {
+         case "direct":
+            toType = Integer.class;
+            break;
+         case "primitive":
+            toType = int.class;
+            break;
+         case "enum":
+            toType = ElementType.class;
+            break;
+         case "miss":
+            toType = Unknown.class;
+            break;
+         default:
+            throw new IllegalArgumentException(lookup);
+      }
+      frozen = AdapterRegistry.builder().addDefaults().build().freeze();
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   @OutputTimeUnit(TimeUnit.NANOSECONDS)
+   public Adapter<?,?> warmDefault() {
+      return AdapterFactory.tryGetAdapter(fromType, toType);
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   @OutputTimeUnit(TimeUnit.NANOSECONDS)
+   public Adapter<?,?> warmFrozen() {
+      return frozen.tryGetAdapter(fromType, toType);
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.SingleShotTime)
+   @OutputTimeUnit(TimeUnit.MICROSECONDS)
+   @Warmup(iterations = 10, batchSize = 1)
+   @Measurement(iterations = 200, batchSize = 1)
+   public Adapter<?,?> cold(Cold cold) {
+      return cold.registry.tryGetAdapter(fromType, toType);
+   }
+}
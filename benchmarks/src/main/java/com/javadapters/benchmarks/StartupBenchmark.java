@@ -0,0 +1,49 @@
+package com.javadapters.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.AdapterRegistry;
+import com.javadapters.adapters.SliceAdapters;
+import com.javadapters.adapters.StringAdapters;
+import com.javadapters.adapters.TextAdapters;
+
+/**
+ * Measures the first conversion in a fresh JVM, which includes building the
+ * registry and loading the adapter classes. The built-in adapters are read
+ * from their index and constructed on first use, against constructing all
+ * of them up front.
+ */
+@Fork(20)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StartupBenchmark {
+
+   @Benchmark
+   public Integer indexed() throws AdapterNotFoundException {
+      AdapterRegistry registry = AdapterRegistry.builder().addDefaults().build();
+      return registry.getAdapter(String.class, Integer.class)
+            .convert("42", Integer.class);
+   }
+
+   @Benchmark
+   public Integer eager() throws AdapterNotFoundException {
+      AdapterRegistry registry = AdapterRegistry.builder()
+            .addAll(StringAdapters.getAllAdapters())
+            .addAll(SliceAdapters.getAllAdapters())
+            .addAll(TextAdapters.getAllAdapters())
+            .build();
+      return registry.getAdapter(String.class, Integer.class)
+            .convert("42", Integer.class);
+   }
+}
@@ -0,0 +1,154 @@
+package com.javadapters.benchmarks;
+
+import java.lang.annotation.ElementType;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.adapters.Adapter;
+
+/**
+ * Measures each of the built-in string adapters over a fixed set of inputs in
+ * which the given percentage is malformed, through both
+ * {@link Adapter#convert}, which throws for malformed input, and
+ * {@link Adapter#tryConvert}, which doesn't. Times are per value.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StringAdaptersBenchmark {
+
+   /** Number of values converted per invocation **/
+   public static final int SIZE = 1024;
+
+   @Param({"Boolean", "Byte", "Character", "Date", "Double", "Enum", "Float",
+         "Integer", "Long", "Short"})
+   public String type;
+
+   /** Percentage of the inputs that are malformed **/
+   @Param({"0", "10", "50"})
+   public int invalidPercent;
+
+   private Class<Object> toType;
+   private Adapter<String, Object> adapter;
+   private String[] values;
+
+   @SuppressWarnings("unchecked")
+   @Setup
+   public void setUp() throws AdapterNotFoundException {
+      toType = (Class<Object>)("Enum".equals(type) ? ElementType.class :
+            "Date".equals(type) ? Date.class : forName("java.lang." + type));
+      adapter = AdapterFactory.getAdapter(String.class, toType);
+      Random random = new Random(42);
+      values = new String[SIZE];
+      for(int i = 0; i < SIZE; ++i) {
+         values[i] = (random.nextInt(100) < invalidPercent) ?
+               invalid(random) : valid(random);
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void convert(Blackhole blackhole) {
+      for(String value : values) {
+         try {
+            blackhole.consume(adapter.convert(value, toType));
+         } catch (RuntimeException e) {
+            blackhole.consume(e);
+         }
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void tryConvert(Blackhole blackhole) {
+      for(String value : values) {
+         blackhole.consume(adapter.tryConvert(value, toType, null));
+      }
+   }
+
+   /**
+    * @param random The source of randomness
+    * @return A well formed input for the type
+    */
+   private String valid(Random random) {
+      switch(type) {
+         case "Boolean":
+            return random.nextBoolean() ? "true" : "FALSE";
+         case "Byte":
+            return Integer.toString(random.nextInt(256) - 128);
+         case "Character":
+            return String.valueOf((char)('a' + random.nextInt(26)));
+         case "Date":
+            return DateParserBenchmark.SAMPLES[
+                  random.nextInt(DateParserBenchmark.SAMPLES.length)];
+         case "Double":
+            return random.nextBoolean() ? Double.toString(random.nextDouble() *
+                  1e6) : String.format(Locale.ROOT, "%.2f",
+                  random.nextDouble() * 1e4);
+         case "Enum":
+            ElementType[] constants = ElementType.values();
+            return constants[random.nextInt(constants.length)].name();
+         case "Float":
+            return Float.toString(random.nextFloat() * 1e3f);
+         case "Integer":
+            return Integer.toString(random.nextInt());
+         case "Long":
+            return Long.toString(random.nextLong());
+         case "Short":
+            return Integer.toString(random.nextInt(65536) - 32768);
+         default:
+            throw new IllegalArgumentException(type);
+      }
+   }
+
+   /**
+    * @param random The source of randomness
+    * @return A malformed input for the type
+    */
+   private String invalid(Random random) {
+      switch(type) {
+         case "Boolean":
+            return "yes";
+         case "Character":
+            return "";
+         case "Date":
+            return random.nextBoolean() ? "2013-13-45" : "not a date";
+         case "Enum":
+            return "type";
+         case "Byte":
+         case "Short":
+            return random.nextBoolean() ? "99999" : "12a";
+         default:
+            return random.nextBoolean() ? "1.2.3" : "n/a";
+      }
+   }
+
+   private static Class<?> forName(String name) {
+      try {
+         return Class.forName(name);
+      } catch (ClassNotFoundException e) {
+         throw new IllegalArgumentException(name, e);
+      }
+   }
+}
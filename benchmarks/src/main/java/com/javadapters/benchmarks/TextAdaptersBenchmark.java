@@ -0,0 +1,104 @@
+package com.javadapters.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.adapters.ToTextAdapter;
+
+/**
+ * Measures writing a batch of values as text into a reused buffer, against
+ * appending the String from the JDK toString methods.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TextAdaptersBenchmark {
+
+   static final int SIZE = 1024;
+
+   private Double[] doubles;
+   private Integer[] ints;
+   private ToTextAdapter<Double> doubleWriter;
+   private ToTextAdapter<Integer> intWriter;
+   private StringBuilder sb;
+   private char[] chars;
+
+   @Setup
+   public void setUp() throws AdapterNotFoundException {
+      Random random = new Random(17);
+      doubles = new Double[SIZE];
+      ints = new Integer[SIZE];
+      for(int i = 0; i < SIZE; ++i) {
+         doubles[i] = random.nextDouble() * Math.pow(10, random.nextInt(20) - 10);
+         ints[i] = random.nextInt() >> random.nextInt(32);
+      }
+      doubleWriter = AdapterFactory.getTextAdapter(Double.class);
+      intWriter = AdapterFactory.getTextAdapter(Integer.class);
+      sb = new StringBuilder(SIZE * 32);
+      chars = new char[SIZE * 32];
+   }
+
+   @Benchmark
+   public int doublesToString() {
+      sb.setLength(0);
+      for(Double d : doubles) {
+         sb.append(d.toString()).append(',');
+      }
+      return sb.length();
+   }
+
+   @Benchmark
+   public int doublesAppendTo() {
+      sb.setLength(0);
+      for(Double d : doubles) {
+         doubleWriter.appendTo(d, sb);
+         sb.append(',');
+      }
+      return sb.length();
+   }
+
+   @Benchmark
+   public int doublesWrite() {
+      int offset = 0;
+      for(Double d : doubles) {
+         offset = doubleWriter.write(d, chars, offset);
+         chars[offset++] = ',';
+      }
+      return offset;
+   }
+
+   @Benchmark
+   public int intsToString() {
+      sb.setLength(0);
+      for(Integer i : ints) {
+         sb.append(i.toString()).append(',');
+      }
+      return sb.length();
+   }
+
+   @Benchmark
+   public int intsWrite() {
+      int offset = 0;
+      for(Integer i : ints) {
+         offset = intWriter.write(i, chars, offset);
+         chars[offset++] = ',';
+      }
+      return offset;
+   }
+}
@@ -1,17 +1,37 @@
 package com.javadapters;
 
 import java.lang.annotation.ElementType;
-import java.util.HashMap;
+import java.lang.reflect.Type;
+import java.util.Date;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import com.javadapters.adapters.Adapter;
-import com.javadapters.adapters.SameTypeAdapter;
-import com.javadapters.adapters.StringAdapters;
+import com.javadapters.adapters.AdapterFor;
+import com.javadapters.adapters.CachingAdapter;
+import com.javadapters.adapters.LightweightExceptions;
+import com.javadapters.adapters.ToBooleanAdapter;
+import com.javadapters.adapters.ToDoubleAdapter;
+import com.javadapters.adapters.ToIntAdapter;
+import com.javadapters.adapters.ToLongAdapter;
+import com.javadapters.adapters.ToTextAdapter;
 
-@SuppressWarnings({"unchecked", "rawtypes"})
+/**
+ * Static access to the default {@link AdapterRegistry}, which holds the
+ * built-in adapters and the adapters annotated with {@link AdapterFor} on the
+ * class path. Adapters are constructed on first use. Code that needs its own
+ * set of adapters should build an {@link AdapterRegistry} instead of adding
+ * to the default one.
+ */
+@SuppressWarnings("unchecked")
 public class AdapterFactory {
 
+   /**
+    * @return The registry the static methods of this class delegate to
+    */
+   public static AdapterRegistry getDefaultRegistry() {
+      return sDefault;
+   }
+
    /**
     * Add an adapter type to the current supported set of adapters.
     * If an adapter for the specified types already exists then will overwrite
@@ -22,7 +42,25 @@ public class AdapterFactory {
     */
    public static <F,T> void addAdapter(Class<F> fromType, Class<T> toType,
          Adapter<F,T> adapter) {
-      sAdapters.put(new ClassPair<F,T>(fromType, toType), adapter);
+      sDefault.addAdapter(fromType, toType, adapter);
+   }
+
+   /**
+    * Wraps the current adapter from fromType to toType in a
+    * {@link CachingAdapter} and registers it in its place, so that repeated
+    * values are only converted once. Results are shared if toType is
+    * immutable (the primitive wrappers, String, BigDecimal, BigInteger and
+    * enums) and copied if it's a {@link Date}. For other types construct the
+    * {@link CachingAdapter} directly and add it with {@link #addAdapter}.
+    * @param fromType The type to convert from, its values are the cache keys
+    * @param toType The type to convert to
+    * @param maximumSize The maximum number of results to cache
+    * @return The caching adapter, for its hit and miss counters
+    * @throws AdapterNotFoundException If there is no adapter to wrap
+    */
+   public static <F,T> CachingAdapter<F,T> addCachingAdapter(Class<F> fromType,
+         Class<T> toType, int maximumSize) throws AdapterNotFoundException {
+      return sDefault.addCachingAdapter(fromType, toType, maximumSize);
    }
 
    /**
@@ -34,49 +72,221 @@ public class AdapterFactory {
     */
    public static <F,T> Adapter<F,T> getAdapter(Class<F> fromType,
          Class<T> toType) throws AdapterNotFoundException {
-      if(fromType == null || toType == null) {
-         throw getException(fromType, toType);
-      }
+      return sDefault.getAdapter(fromType, toType);
+   }
 
-      //If the types passed in are primitive, convert to wrapped types to find
-      //the appropriate adapter
-      fromType = getWrapper(fromType);
-      toType = getWrapper(toType);
+   /**
+    * Gets the adapter to convert between generic types, such as from String
+    * to List&lt;Integer&gt;, see {@link AdapterRegistry#getAdapter(Type, Type)}
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @return The adapter for the given types
+    * @throws AdapterNotFoundException
+    */
+   public static <F,T> Adapter<F,T> getAdapter(Type fromType, Type toType)
+         throws AdapterNotFoundException {
+      return sDefault.getAdapter(fromType, toType);
+   }
 
-      if(fromType.equals(toType)) {
-         return sSameTypeAdapter;
-      }
+   /**
+    * Gets the adapter to convert from fromType to a primitive int without
+    * boxing. If the registered adapter does not support primitive conversion
+    * then the boxed result of the registered adapter is unboxed instead.
+    * @param fromType The type to convert from
+    * @return The adapter for the given type
+    * @throws AdapterNotFoundException
+    */
+   public static <F> ToIntAdapter<F> getIntAdapter(Class<F> fromType)
+         throws AdapterNotFoundException {
+      return sDefault.getIntAdapter(fromType);
+   }
 
-      Adapter<F,T> adapter = (Adapter<F,T>)sAdapters.get(
-            new ClassPair<F,T>(fromType, toType));
-      if(adapter == null) {
-         //No adapter found...check some special cases
+   /**
+    * Gets the adapter to convert from fromType to a primitive long without
+    * boxing. If the registered adapter does not support primitive conversion
+    * then the boxed result of the registered adapter is unboxed instead.
+    * @param fromType The type to convert from
+    * @return The adapter for the given type
+    * @throws AdapterNotFoundException
+    */
+   public static <F> ToLongAdapter<F> getLongAdapter(Class<F> fromType)
+         throws AdapterNotFoundException {
+      return sDefault.getLongAdapter(fromType);
+   }
 
-         //If either type is an enum then check for the generic enum case
-         Class f = fromType.isEnum() ? Enum.class : fromType;
-         Class t = toType.isEnum() ? Enum.class : toType;
+   /**
+    * Gets the adapter to convert from fromType to a primitive double without
+    * boxing. If the registered adapter does not support primitive conversion
+    * then the boxed result of the registered adapter is unboxed instead.
+    * @param fromType The type to convert from
+    * @return The adapter for the given type
+    * @throws AdapterNotFoundException
+    */
+   public static <F> ToDoubleAdapter<F> getDoubleAdapter(Class<F> fromType)
+         throws AdapterNotFoundException {
+      return sDefault.getDoubleAdapter(fromType);
+   }
 
-         adapter = (Adapter<F,T>)sAdapters.get(new ClassPair<F,T>(f, t));
-         if(adapter == null) {
-            throw getException(fromType, toType);
-         }
-      }
+   /**
+    * Gets the adapter to convert from fromType to a primitive boolean without
+    * boxing. If the registered adapter does not support primitive conversion
+    * then the boxed result of the registered adapter is unboxed instead.
+    * @param fromType The type to convert from
+    * @return The adapter for the given type
+    * @throws AdapterNotFoundException
+    */
+   public static <F> ToBooleanAdapter<F> getBooleanAdapter(Class<F> fromType)
+         throws AdapterNotFoundException {
+      return sDefault.getBooleanAdapter(fromType);
+   }
 
-      return adapter;
+   /**
+    * Gets the adapter to write values of fromType as text straight into a
+    * buffer. If the registered adapter only converts to a String then the
+    * String is copied into the buffer instead.
+    * @param fromType The type to convert from
+    * @return The adapter for the given type
+    * @throws AdapterNotFoundException
+    */
+   public static <F> ToTextAdapter<F> getTextAdapter(Class<F> fromType)
+         throws AdapterNotFoundException {
+      return sDefault.getTextAdapter(fromType);
    }
 
    /**
-    * Builds and returns the exception if the adapter was not found
-    * @param fromType
-    * @param toType
-    * @return An {@link AdapterNotFoundException}
+    * Gets the binder to populate objects of the given type from a map of
+    * property name to string value. Binders are cached, so the type is only
+    * introspected once.
+    * @param type The type to bind
+    * @return The binder for the given type
     */
-   private static <F,T> AdapterNotFoundException getException(Class<F> fromType,
+   public static <T> Binder<T> binderFor(Class<T> type) {
+      return sDefault.binderFor(type);
+   }
+
+   /**
+    * Converts a batch of values from fromType to toType, in parallel if the
+    * batch is large. See {@link BatchConverter}.
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @param from The values to convert from
+    * @param to The array to hold the results, or null to allocate one
+    * @param errors Records the errors by index, or null to throw the first
+    * error
+    * @return The array holding the results
+    * @throws AdapterNotFoundException
+    */
+   public static <F,T> T[] convertAll(Class<F> fromType, Class<T> toType,
+         F[] from, T[] to, ConversionErrors errors)
+         throws AdapterNotFoundException {
+      return BatchConverter.getDefault().convert(getAdapter(fromType, toType),
+            from, to, toType, errors);
+   }
+
+   /**
+    * Converts a batch of values from fromType to int, in parallel if the
+    * batch is large. See {@link BatchConverter}.
+    * @param fromType The type to convert from
+    * @param from The values to convert from
+    * @param to The array to hold the results, or null to allocate one
+    * @param errors Records the errors by index, or null to throw the first
+    * error
+    * @return The array holding the results
+    * @throws AdapterNotFoundException
+    */
+   public static <F> int[] convertAllToInt(Class<F> fromType, F[] from,
+         int[] to, ConversionErrors errors) throws AdapterNotFoundException {
+      return BatchConverter.getDefault().convertToInt(getIntAdapter(fromType),
+            from, to, errors);
+   }
+
+   /**
+    * Converts a batch of values from fromType to long, in parallel if the
+    * batch is large. See {@link BatchConverter}.
+    * @param fromType The type to convert from
+    * @param from The values to convert from
+    * @param to The array to hold the results, or null to allocate one
+    * @param errors Records the errors by index, or null to throw the first
+    * error
+    * @return The array holding the results
+    * @throws AdapterNotFoundException
+    */
+   public static <F> long[] convertAllToLong(Class<F> fromType, F[] from,
+         long[] to, ConversionErrors errors) throws AdapterNotFoundException {
+      return BatchConverter.getDefault().convertToLong(getLongAdapter(fromType),
+            from, to, errors);
+   }
+
+   /**
+    * Converts a batch of values from fromType to double, in parallel if the
+    * batch is large. See {@link BatchConverter}.
+    * @param fromType The type to convert from
+    * @param from The values to convert from
+    * @param to The array to hold the results, or null to allocate one
+    * @param errors Records the errors by index, or null to throw the first
+    * error
+    * @return The array holding the results
+    * @throws AdapterNotFoundException
+    */
+   public static <F> double[] convertAllToDouble(Class<F> fromType, F[] from,
+         double[] to, ConversionErrors errors) throws AdapterNotFoundException {
+      return BatchConverter.getDefault().convertToDouble(getDoubleAdapter(fromType),
+            from, to, errors);
+   }
+
+   /**
+    * Converts a batch of values from fromType to boolean, in parallel if the
+    * batch is large. See {@link BatchConverter}.
+    * @param fromType The type to convert from
+    * @param from The values to convert from
+    * @param to The array to hold the results, or null to allocate one
+    * @param errors Records the errors by index, or null to throw the first
+    * error
+    * @return The array holding the results
+    * @throws AdapterNotFoundException
+    */
+   public static <F> boolean[] convertAllToBoolean(Class<F> fromType, F[] from,
+         boolean[] to, ConversionErrors errors) throws AdapterNotFoundException {
+      return BatchConverter.getDefault().convertToBoolean(getBooleanAdapter(fromType),
+            from, to, errors);
+   }
+
+   /**
+    * Gets the adapter to convert from fromType to toType without throwing
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @return The adapter for the given types, or null if there is none
+    */
+   public static <F,T> Adapter<F,T> tryGetAdapter(Class<F> fromType,
          Class<T> toType) {
-      StringBuilder sb = new StringBuilder("An adapter for the types <");
-      sb.append(fromType).append(", ").append(toType);
-      sb.append("> was not found!");
-      return new AdapterNotFoundException(sb.toString());
+      return sDefault.tryGetAdapter(fromType, toType);
+   }
+
+   /**
+    * Turns metrics on or off for the default registry, see
+    * {@link AdapterRegistry#setMetricsEnabled(boolean)}
+    * @param enabled True to record metrics
+    */
+   public static void setMetricsEnabled(boolean enabled) {
+      sDefault.setMetricsEnabled(enabled);
+   }
+
+   /**
+    * @return The metrics of the default registry
+    */
+   public static AdapterMetrics getMetrics() {
+      return sDefault.getMetrics();
+   }
+
+   /**
+    * Turns lightweight exceptions on or off. When on, a missing adapter and
+    * malformed input to the built-in adapters throw exceptions without a
+    * stack trace, whose message is only built if asked for. See
+    * {@link LightweightExceptions}.
+    * @param enabled True to throw lightweight exceptions
+    */
+   public static void setLightweightExceptions(boolean enabled) {
+      LightweightExceptions.setEnabled(enabled);
    }
 
    /**
@@ -86,35 +296,24 @@ public class AdapterFactory {
     * @return The wrapper class if primitive, otherwise just the passed in type
     */
    public static <T> Class<T> getWrapper(Class<T> type) {
-      Class<T> wrapped = (Class<T>) sPrimitiveToWrapperMap.get(type);
-      return (wrapped == null) ? type : wrapped;
+      return (type != null && type.isPrimitive()) ?
+            (Class<T>)sPrimitiveToWrapperMap.get(type) : type;
    }
 
-   /** Simple adapter if the types are the same **/
-   private static final Adapter sSameTypeAdapter = new SameTypeAdapter();
-
    /** Mapping from primitive type to wrapper type **/
    private static final Map<Class<?>, Class<?>> sPrimitiveToWrapperMap =
-         new HashMap<Class<?>, Class<?>>();
-
-   /** Cache of the current adapters **/
-   private static final Map<ClassPair<?, ?>, Adapter<?,?>> sAdapters =
-         new ConcurrentHashMap<>();
-
-   static {
-      //Add the default adapters
-      sAdapters.putAll(StringAdapters.getAllAdapters());
-
-      sPrimitiveToWrapperMap.put(boolean.class, Boolean.class);
-      sPrimitiveToWrapperMap.put(byte.class, Byte.class);
-      sPrimitiveToWrapperMap.put(char.class, Character.class);
-      sPrimitiveToWrapperMap.put(double.class, Double.class);
-      sPrimitiveToWrapperMap.put(float.class, Float.class);
-      sPrimitiveToWrapperMap.put(int.class, Integer.class);
-      sPrimitiveToWrapperMap.put(long.class, Long.class);
-      sPrimitiveToWrapperMap.put(short.class, Short.class);
-      sPrimitiveToWrapperMap.put(void.class, Void.class);
-   }
+         Map.of(boolean.class, Boolean.class, byte.class, Byte.class,
+               char.class, Character.class, double.class, Double.class,
+               float.class, Float.class, int.class, Integer.class,
+               long.class, Long.class, short.class, Short.class,
+               void.class, Void.class);
+
+   /**
+    * The default registry, holding the built-in adapters and those annotated
+    * with {@link AdapterFor} on the class path
+    **/
+   private static final AdapterRegistry sDefault =
+         AdapterRegistry.builder().addDefaults().addIndexed().build();
 
    public static void main(String[] args) {
       try {
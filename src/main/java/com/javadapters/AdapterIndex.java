@@ -0,0 +1,92 @@
+package com.javadapters;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.AdapterFor;
+
+/**
+ * Reads the index resources written by the {@link AdapterFor} annotation
+ * processor. Each entry becomes a {@link LazyAdapter}, so only the types an
+ * adapter converts between are loaded up front, and those are not
+ * initialized.
+ */
+final class AdapterIndex {
+
+   private AdapterIndex() {
+   }
+
+   /** Directory of the index resources **/
+   static final String DIRECTORY = "META-INF/javadapters/";
+   /** Index of the adapters of an application **/
+   static final String ADAPTERS = "adapters";
+   /** Index of the built-in adapters of this library **/
+   static final String DEFAULTS = "defaults";
+
+   /**
+    * Reads every index of the given name that the class loader can see
+    * @param name The name of the index
+    * @param loader The class loader to find the indexes and load the classes
+    * @return Mapping from the types to the placeholder for their adapter, in
+    * index order. Later entries for the same types replace earlier ones.
+    * @throws IllegalStateException If an index is malformed or names a type
+    * that can't be loaded
+    */
+   static Map<ClassPair<?,?>, Adapter<?,?>> load(String name,
+         ClassLoader loader) {
+      Map<ClassPair<?,?>, Adapter<?,?>> adapters =
+            new LinkedHashMap<ClassPair<?,?>, Adapter<?,?>>();
+      try {
+         Enumeration<URL> urls = loader.getResources(DIRECTORY + name);
+         while(urls.hasMoreElements()) {
+            read(urls.nextElement(), loader, adapters);
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException("Can't read adapter index " + name, e);
+      }
+      return adapters;
+   }
+
+   /**
+    * Reads one index
+    * @param url The index resource
+    * @param loader The class loader to load the classes
+    * @param adapters The map to add the entries to
+    */
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   private static void read(URL url, ClassLoader loader,
+         Map<ClassPair<?,?>, Adapter<?,?>> adapters) throws IOException {
+      try(BufferedReader reader = new BufferedReader(new InputStreamReader(
+            url.openStream(), StandardCharsets.UTF_8))) {
+         String line;
+         while((line = reader.readLine()) != null) {
+            line = line.trim();
+            if(line.isEmpty() || line.startsWith("#")) {
+               continue;
+            }
+            String[] names = line.split("\\s+");
+            if(names.length != 3) {
+               throw new IllegalStateException("Malformed entry in " + url +
+                     ": " + line);
+            }
+            try {
+               Class<?> from = Class.forName(names[0], false, loader);
+               Class<?> to = Class.forName(names[1], false, loader);
+               adapters.put(new ClassPair(from, to),
+                     new LazyAdapter(names[2], loader));
+            } catch (ClassNotFoundException e) {
+               throw new IllegalStateException("Can't load a type in " + url +
+                     ": " + line, e);
+            }
+         }
+      }
+   }
+}
@@ -0,0 +1,303 @@
+package com.javadapters;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Records how the adapters of an {@link AdapterRegistry} are used: for each
+ * pair of types, how often an adapter was looked up and not found, how often
+ * it converted and failed, and a histogram of conversion times. Counts are
+ * kept in {@link LongAdder}s so threads don't contend, and only a sample of
+ * the conversions are timed, see {@link #setSampleRate(int)}.
+ * <p>
+ * Metrics are off by default. Turn them on with
+ * {@link AdapterRegistry#setMetricsEnabled(boolean)}, which makes lookups
+ * return adapters that record their conversions. While off, lookups return
+ * the registered adapters themselves and nothing is recorded. Read the
+ * metrics with {@link #snapshot()} or through JMX after
+ * {@link #registerMBean(String)}.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class AdapterMetrics implements AdapterMetricsMXBean {
+
+   /** Default number of conversions per timed conversion **/
+   public static final int DEFAULT_SAMPLE_RATE = 64;
+
+   /** Number of buckets in the latency histograms **/
+   static final int BUCKETS = 40;
+
+   /** Value of {@link PairMetrics#startTiming} for conversions that are not timed **/
+   static final long NOT_TIMED = Long.MIN_VALUE;
+
+   /**
+    * Constructor
+    */
+   AdapterMetrics() {
+   }
+
+   @Override
+   public boolean isEnabled() {
+      return enabled;
+   }
+
+   /**
+    * Only called by the owning registry, which also swaps its adapters
+    * @param enabled True if metrics are being recorded
+    */
+   void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+   }
+
+   /**
+    * Sets how many conversions there are per timed conversion, on average.
+    * Timing every conversion costs two calls to {@link System#nanoTime()}.
+    * @param sampleRate The rate, rounded up to a power of two. 1 times every
+    * conversion.
+    */
+   public void setSampleRate(int sampleRate) {
+      if(sampleRate < 1) {
+         throw new IllegalArgumentException("Sample rate must be positive: " +
+               sampleRate);
+      }
+      sampleMask = (sampleRate == 1) ? 0 :
+            (Integer.highestOneBit(sampleRate - 1) << 1) - 1;
+   }
+
+   /**
+    * @return How many conversions there are per timed conversion
+    */
+   public int getSampleRate() {
+      return sampleMask + 1;
+   }
+
+   @Override
+   public long getLookups() {
+      long total = 0;
+      for(PairMetrics pair : pairs) {
+         total += pair.lookups.sum();
+      }
+      return total;
+   }
+
+   @Override
+   public long getMisses() {
+      long total = 0;
+      for(PairMetrics pair : pairs) {
+         total += pair.misses.sum();
+      }
+      return total;
+   }
+
+   @Override
+   public long getConversions() {
+      long total = 0;
+      for(PairMetrics pair : pairs) {
+         total += pair.conversions.sum();
+      }
+      return total;
+   }
+
+   @Override
+   public long getFailures() {
+      long total = 0;
+      for(PairMetrics pair : pairs) {
+         total += pair.failures.sum();
+      }
+      return total;
+   }
+
+   @Override
+   public List<AdapterStats> getStats() {
+      return snapshot();
+   }
+
+   /**
+    * Copies the current metrics. Counts that are updated during the copy may
+    * or may not be included.
+    * @return The metrics of each pair of types seen so far, sorted by type
+    * name
+    */
+   public List<AdapterStats> snapshot() {
+      List<AdapterStats> stats = new ArrayList<AdapterStats>();
+      for(PairMetrics pair : pairs) {
+         stats.add(pair.snapshot());
+      }
+      stats.sort(Comparator.comparing(AdapterStats::getFromType)
+            .thenComparing(AdapterStats::getToType));
+      return stats;
+   }
+
+   /**
+    * Gets the current metrics for a pair of types
+    * @param fromType The type converted from
+    * @param toType The type converted to
+    * @return The metrics of the pair
+    */
+   public AdapterStats snapshot(Class<?> fromType, Class<?> toType) {
+      return forPair(fromType, toType).snapshot();
+   }
+
+   @Override
+   public void reset() {
+      for(PairMetrics pair : pairs) {
+         pair.reset();
+      }
+   }
+
+   /**
+    * Registers these metrics with the platform MBean server under
+    * com.javadapters:type=AdapterMetrics,name=&lt;name&gt;
+    * @param name The name to tell this registry's metrics apart
+    * @return The name registered under
+    * @throws JMException If the metrics can't be registered
+    */
+   public ObjectName registerMBean(String name) throws JMException {
+      ObjectName objectName = new ObjectName(
+            "com.javadapters:type=AdapterMetrics,name=" + ObjectName.quote(name));
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      server.registerMBean(this, objectName);
+      return objectName;
+   }
+
+   /**
+    * Records a lookup
+    * @param fromType The type converted from
+    * @param toType The type converted to
+    * @param found True if an adapter was found
+    */
+   void lookup(Class<?> fromType, Class<?> toType, boolean found) {
+      PairMetrics pair = forPair(fromType, toType);
+      pair.lookups.increment();
+      if(!found) {
+         pair.misses.increment();
+      }
+   }
+
+   /**
+    * @param fromType The type converted from
+    * @param toType The type converted to
+    * @return The metrics of the pair, created on first use
+    */
+   PairMetrics forPair(Class<?> fromType, Class<?> toType) {
+      final Class<?> from = AdapterFactory.getWrapper(fromType);
+      final Class<?> to = AdapterFactory.getWrapper(toType);
+      ConcurrentMap<Class<?>, PairMetrics> byTo = byType.get(from);
+      if(byTo == null) {
+         byTo = byType.computeIfAbsent(from,
+               type -> new ConcurrentHashMap<Class<?>, PairMetrics>());
+      }
+      PairMetrics pair = byTo.get(to);
+      if(pair == null) {
+         pair = byPair.computeIfAbsent(new ClassPair(from, to),
+               key -> new PairMetrics(from, to));
+         byTo.putIfAbsent(to, pair);
+      }
+      return pair;
+   }
+
+   /**
+    * The counters of one pair of types
+    */
+   final class PairMetrics {
+
+      PairMetrics(Class<?> fromType, Class<?> toType) {
+         this.fromType = fromType;
+         this.toType = toType;
+         for(int i = 0; i < BUCKETS; ++i) {
+            latencies[i] = new LongAdder();
+         }
+      }
+
+      /**
+       * Records the start of a conversion
+       * @return The start time if the conversion is timed, otherwise
+       * {@link AdapterMetrics#NOT_TIMED}
+       */
+      long startTiming() {
+         conversions.increment();
+         if((ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return NOT_TIMED;
+         }
+         return System.nanoTime();
+      }
+
+      /**
+       * Records the end of a successful conversion
+       * @param start The value returned by {@link #startTiming()}
+       */
+      void stopTiming(long start) {
+         if(start != NOT_TIMED) {
+            long nanos = Math.max(System.nanoTime() - start, 0);
+            sampledNanos.add(nanos);
+            int bucket = 64 - Long.numberOfLeadingZeros(nanos);
+            latencies[Math.min(bucket, BUCKETS - 1)].increment();
+         }
+      }
+
+      /**
+       * Records a conversion that threw
+       */
+      void failed() {
+         failures.increment();
+      }
+
+      AdapterStats snapshot() {
+         long[] histogram = new long[BUCKETS];
+         for(int i = 0; i < BUCKETS; ++i) {
+            histogram[i] = latencies[i].sum();
+         }
+         return new AdapterStats(fromType.getName(), toType.getName(),
+               lookups.sum(), misses.sum(), conversions.sum(), failures.sum(),
+               sampledNanos.sum(), histogram);
+      }
+
+      void reset() {
+         lookups.reset();
+         misses.reset();
+         conversions.reset();
+         failures.reset();
+         sampledNanos.reset();
+         for(LongAdder latency : latencies) {
+            latency.reset();
+         }
+      }
+
+      private final Class<?> fromType;
+      private final Class<?> toType;
+      private final LongAdder lookups = new LongAdder();
+      private final LongAdder misses = new LongAdder();
+      private final LongAdder conversions = new LongAdder();
+      private final LongAdder failures = new LongAdder();
+      private final LongAdder sampledNanos = new LongAdder();
+      private final LongAdder[] latencies = new LongAdder[BUCKETS];
+   }
+
+   /** True if metrics are being recorded **/
+   private volatile boolean enabled;
+   /** Mask of the random bits that must be zero to time a conversion **/
+   private volatile int sampleMask = DEFAULT_SAMPLE_RATE - 1;
+   /** Every pair seen so far **/
+   private final ConcurrentMap<ClassPair<?,?>, PairMetrics> byPair =
+         new ConcurrentHashMap<ClassPair<?,?>, PairMetrics>();
+   /** The values of byPair, for snapshots **/
+   private final Collection<PairMetrics> pairs = byPair.values();
+   /**
+    * Metrics keyed by the from type and then by the to type, so recording
+    * doesn't allocate a key. Values come from byPair so racing threads share
+    * them.
+    **/
+   private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, PairMetrics>>
+         byType = new ConcurrentHashMap<Class<?>,
+               ConcurrentMap<Class<?>, PairMetrics>>();
+}
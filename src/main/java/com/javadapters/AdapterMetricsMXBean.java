@@ -0,0 +1,44 @@
+package com.javadapters;
+
+import java.util.List;
+
+/**
+ * Management interface of {@link AdapterMetrics}
+ */
+public interface AdapterMetricsMXBean {
+
+   /**
+    * @return True if metrics are being recorded
+    */
+   public boolean isEnabled();
+
+   /**
+    * @return The number of adapter lookups
+    */
+   public long getLookups();
+
+   /**
+    * @return The number of lookups that found no adapter
+    */
+   public long getMisses();
+
+   /**
+    * @return The number of conversions
+    */
+   public long getConversions();
+
+   /**
+    * @return The number of conversions that threw an exception
+    */
+   public long getFailures();
+
+   /**
+    * @return The metrics of each pair of types seen so far
+    */
+   public List<AdapterStats> getStats();
+
+   /**
+    * Sets every count back to zero
+    */
+   public void reset();
+}
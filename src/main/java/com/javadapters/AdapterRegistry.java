@@ -0,0 +1,1078 @@
+package com.javadapters;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.AdapterFor;
+import com.javadapters.adapters.CachingAdapter;
+import com.javadapters.adapters.ChainedAdapter;
+import com.javadapters.adapters.CollectionAdapters;
+import com.javadapters.adapters.LightweightExceptions;
+import com.javadapters.adapters.SameTypeAdapter;
+import com.javadapters.adapters.SliceAdapters;
+import com.javadapters.adapters.StringAdapters;
+import com.javadapters.adapters.TextAdapters;
+import com.javadapters.adapters.ToBooleanAdapter;
+import com.javadapters.adapters.ToDoubleAdapter;
+import com.javadapters.adapters.ToIntAdapter;
+import com.javadapters.adapters.ToLongAdapter;
+import com.javadapters.adapters.ToTextAdapter;
+
+/**
+ * A set of adapters and the lookups over them. Registries are created with a
+ * {@link Builder} and are independent of each other, so separate parts of an
+ * application can use different adapters without sharing a global map.
+ * <p>
+ * A registry can have adapters added until it is frozen. {@link #freeze()}
+ * returns an immutable copy whose registered adapters are resolved up front
+ * into an open addressed table keyed by class identity, so looking them up
+ * takes no locks and no volatile reads. Adapters that are only found
+ * through the enum fallback, a supertype or by chaining are resolved once on
+ * first use, and so are types with no adapter.
+ * <p>
+ * Adapters registered from an index, see {@link AdapterFor}, are only
+ * constructed when they are first resolved, or when the registry is frozen.
+ * <p>
+ * Each registry records how its adapters are used while metrics are on, see
+ * {@link AdapterMetrics}.
+ * <p>
+ * {@link AdapterFactory} delegates to a default registry holding the
+ * built-in adapters.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class AdapterRegistry {
+
+   /**
+    * @return A builder for a new, empty registry
+    */
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   /**
+    * Builds an {@link AdapterRegistry}
+    */
+   public static class Builder {
+
+      private Builder() {
+      }
+
+      /**
+       * Adds an adapter, replacing any adapter already added for the types
+       * @param fromType The type to convert from
+       * @param toType The type to convert to
+       * @param adapter The adapter to add
+       * @return This builder
+       */
+      public <F,T> Builder add(Class<F> fromType, Class<T> toType,
+            Adapter<F,T> adapter) {
+         adapters.put(new ClassPair<F,T>(fromType, toType), adapter);
+         return this;
+      }
+
+      /**
+       * Adds all the given adapters
+       * @param adapters Mapping from the types to the adapter for them
+       * @return This builder
+       */
+      public Builder addAll(Map<? extends ClassPair<?,?>,
+            ? extends Adapter<?,?>> adapters) {
+         this.adapters.putAll(adapters);
+         return this;
+      }
+
+      /**
+       * Adds the built-in adapters, see {@link StringAdapters},
+       * {@link SliceAdapters} and {@link TextAdapters}. They are read from
+       * the index this library is built with, and each adapter is only
+       * constructed the first time it's looked up.
+       * @return This builder
+       * @throws IllegalStateException If the index of the built-in adapters
+       * is missing
+       */
+      public Builder addDefaults() {
+         Map<ClassPair<?,?>, Adapter<?,?>> defaults = AdapterIndex.load(
+               AdapterIndex.DEFAULTS, AdapterRegistry.class.getClassLoader());
+         if(defaults.isEmpty()) {
+            throw new IllegalStateException("The index of the built-in " +
+                  "adapters is missing, the library was built without its " +
+                  "annotation processor");
+         }
+         adapters.putAll(defaults);
+         return this;
+      }
+
+      /**
+       * Adds the adapters annotated with {@link AdapterFor} in the indexes
+       * visible to the context class loader of the current thread, or to the
+       * class loader of this library if there is none
+       * @return This builder
+       */
+      public Builder addIndexed() {
+         ClassLoader loader = Thread.currentThread().getContextClassLoader();
+         return addIndexed((loader == null) ?
+               AdapterRegistry.class.getClassLoader() : loader);
+      }
+
+      /**
+       * Adds the adapters annotated with {@link AdapterFor} in the indexes
+       * visible to the given class loader. The indexes are written at build
+       * time by the annotation processor of this library, so the class path
+       * is not scanned, and each adapter is only constructed the first time
+       * it's looked up.
+       * @param loader The class loader to find the indexes and load the
+       * adapters with
+       * @return This builder
+       * @throws IllegalStateException If an index names a type that can't
+       * be loaded
+       */
+      public Builder addIndexed(ClassLoader loader) {
+         adapters.putAll(AdapterIndex.load(AdapterIndex.ADAPTERS, loader));
+         return this;
+      }
+
+      /**
+       * @return A new registry holding the added adapters, which can have
+       * more adapters added until it is frozen
+       */
+      public AdapterRegistry build() {
+         return new AdapterRegistry(
+               new ConcurrentHashMap<ClassPair<?,?>, Adapter<?,?>>(adapters),
+               new AdapterMetrics(), false);
+      }
+
+      /** The adapters added so far **/
+      private final Map<ClassPair<?,?>, Adapter<?,?>> adapters =
+            new LinkedHashMap<ClassPair<?,?>, Adapter<?,?>>();
+   }
+
+   /**
+    * Constructor
+    * @param adapters The registered adapters, owned by this registry
+    * @param metrics The metrics of this registry
+    * @param frozen True if the adapters will never change
+    */
+   private AdapterRegistry(Map<ClassPair<?,?>, Adapter<?,?>> adapters,
+         AdapterMetrics metrics, boolean frozen) {
+      this.adapters = adapters;
+      this.metrics = metrics;
+      this.frozen = frozen;
+      resolved = new ResolutionCache();
+      binders = new ConcurrentHashMap<Class<?>, Binder<?>>();
+      table = frozen ? new AdapterTable(this) : null;
+   }
+
+   /**
+    * Returns an immutable copy of this registry, with its registered adapters
+    * resolved into a table that is read without locks or volatile reads.
+    * Freezing a frozen registry returns it unchanged. The copy has metrics of
+    * its own, which are on if they are on for this registry.
+    * @return The frozen registry
+    */
+   public AdapterRegistry freeze() {
+      if(frozen) {
+         return this;
+      }
+      AdapterMetrics frozenMetrics = new AdapterMetrics();
+      frozenMetrics.setEnabled(metrics.isEnabled());
+      frozenMetrics.setSampleRate(metrics.getSampleRate());
+      return new AdapterRegistry(Collections.unmodifiableMap(
+            new HashMap<ClassPair<?,?>, Adapter<?,?>>(adapters)),
+            frozenMetrics, true);
+   }
+
+   /**
+    * @return True if this registry is frozen and can't have adapters added
+    */
+   public boolean isFrozen() {
+      return frozen;
+   }
+
+   /**
+    * Turns metrics on or off. While on, lookups are counted and return
+    * adapters that record their conversions, which are dropped again when
+    * metrics are turned off. Adapters that were looked up before the change
+    * keep their behavior. Counts are kept while metrics are off.
+    * @param enabled True to record metrics
+    * @throws UnsupportedOperationException If this registry is frozen, turn
+    * metrics on before freezing instead
+    */
+   public synchronized void setMetricsEnabled(boolean enabled) {
+      if(frozen) {
+         throw new UnsupportedOperationException(
+               "Metrics can't be turned on or off for a frozen registry");
+      }
+      metrics.setEnabled(enabled);
+      resolved = new ResolutionCache();
+      binders = new ConcurrentHashMap<Class<?>, Binder<?>>();
+   }
+
+   /**
+    * @return The metrics of this registry
+    */
+   public AdapterMetrics getMetrics() {
+      return metrics;
+   }
+
+   /**
+    * @return A builder holding the adapters of this registry, to derive a
+    * new registry from
+    */
+   public Builder toBuilder() {
+      return builder().addAll(adapters);
+   }
+
+   /**
+    * @return The registered adapters, keyed by the types they convert
+    * between. Adapters found through the enum fallback, a supertype or by
+    * chaining are not included, and adapters from an index that have not
+    * been looked up yet are placeholders that construct the adapter when
+    * they convert.
+    */
+   public Map<ClassPair<?,?>, Adapter<?,?>> getAdapters() {
+      return Collections.unmodifiableMap(adapters);
+   }
+
+   /**
+    * Add an adapter type to the current supported set of adapters.
+    * If an adapter for the specified types already exists then will overwrite
+    * it. Lookups that start after this returns see the new adapter, and a
+    * thread that has seen it never sees an earlier one again.
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @param adapter The adapter to add
+    * @throws UnsupportedOperationException If this registry is frozen
+    */
+   public synchronized <F,T> void addAdapter(Class<F> fromType,
+         Class<T> toType, Adapter<F,T> adapter) {
+      if(frozen) {
+         throw new UnsupportedOperationException(
+               "Adapters can't be added to a frozen registry");
+      }
+      adapters.put(new ClassPair<F,T>(fromType, toType), adapter);
+      //Drop every previously resolved adapter, any of them may have been
+      //resolved through the registration that was just replaced. Writers
+      //are serialized so each new cache copies every earlier registration
+      resolved = new ResolutionCache();
+      binders = new ConcurrentHashMap<Class<?>, Binder<?>>();
+   }
+
+   /**
+    * Wraps the current adapter from fromType to toType in a
+    * {@link CachingAdapter} and registers it in its place, so that repeated
+    * values are only converted once. Results are shared if toType is
+    * immutable (the primitive wrappers, String, BigDecimal, BigInteger and
+    * enums) and copied if it's a {@link Date}. For other types construct the
+    * {@link CachingAdapter} directly and add it with {@link #addAdapter}.
+    * @param fromType The type to convert from, its values are the cache keys
+    * @param toType The type to convert to
+    * @param maximumSize The maximum number of results to cache
+    * @return The caching adapter, for its hit and miss counters
+    * @throws AdapterNotFoundException If there is no adapter to wrap
+    * @throws UnsupportedOperationException If this registry is frozen
+    */
+   public <F,T> CachingAdapter<F,T> addCachingAdapter(Class<F> fromType,
+         Class<T> toType, int maximumSize) throws AdapterNotFoundException {
+      Class<F> from = AdapterFactory.getWrapper(fromType);
+      Class<T> to = AdapterFactory.getWrapper(toType);
+      UnaryOperator<T> copier = null;
+      if(Date.class.isAssignableFrom(to)) {
+         copier = new UnaryOperator<T>() {
+            @Override
+            public T apply(T date) {
+               return (T)((Date)date).clone();
+            }
+         };
+      } else if(!to.isEnum() && !sImmutableTypes.contains(to)) {
+         throw new IllegalArgumentException(to.getName() +
+               " is not known to be immutable");
+      }
+      Adapter<F,T> current = getAdapter(from, to);
+      if(current instanceof InstrumentedAdapter) {
+         //Record the conversions of the caching adapter, not the misses
+         current = ((InstrumentedAdapter<F,T>)current).getAdapter();
+      }
+      CachingAdapter<F,T> adapter = new CachingAdapter<F,T>(current, to,
+            maximumSize, copier);
+      addAdapter(from, to, adapter);
+      return adapter;
+   }
+
+   /**
+    * Gets the adapter to convert from fromType to toType. If none is
+    * registered for the exact types then, in order: values that already are
+    * a toType are returned as is, the adapter registered for the nearest
+    * supertype of fromType to toType or a single subtype of it is used, and
+    * otherwise a chain of adapters through other types. Each pair of types is
+    * only resolved once, including pairs with no adapter.
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @return The adapter for the given types
+    * @throws AdapterNotFoundException
+    */
+   public <F,T> Adapter<F,T> getAdapter(Class<F> fromType, Class<T> toType)
+         throws AdapterNotFoundException {
+      Adapter<F,T> adapter = tryGetAdapter(fromType, toType);
+      if(adapter == null) {
+         throw getException(fromType, toType);
+      }
+      return adapter;
+   }
+
+   /**
+    * Gets the adapter to convert from fromType to toType without throwing
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @return The adapter for the given types, or null if there is none
+    */
+   public <F,T> Adapter<F,T> tryGetAdapter(Class<F> fromType,
+         Class<T> toType) {
+      if(fromType == null || toType == null) {
+         return null;
+      }
+      if(table != null) {
+         Adapter<?,?> adapter = table.get(fromType, toType);
+         if(adapter != null) {
+            if(table.metrics != null) {
+               table.metrics.lookup(fromType, toType, true);
+            }
+            return (Adapter<F,T>)adapter;
+         }
+      }
+      ResolutionCache cache = resolved;
+      Adapter<?,?> adapter = cache.get(fromType, toType);
+      if(cache.metrics != null) {
+         cache.metrics.lookup(fromType, toType, adapter != null);
+      }
+      return (Adapter<F,T>)adapter;
+   }
+
+   /**
+    * Gets the adapter to convert between generic types, such as from String
+    * to List&lt;Integer&gt;. Text converts to arrays, collections and maps
+    * with the {@link CollectionAdapters}, whose element adapters come from
+    * this registry. Any other types are looked up by their classes. The types
+    * can come from reflection or from {@link Types}.
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @return The adapter for the given types
+    * @throws AdapterNotFoundException
+    */
+   public <F,T> Adapter<F,T> getAdapter(Type fromType, Type toType)
+         throws AdapterNotFoundException {
+      Adapter<F,T> adapter = tryGetAdapter(fromType, toType);
+      if(adapter == null) {
+         throw getException(fromType, toType);
+      }
+      return adapter;
+   }
+
+   /**
+    * Gets the adapter to convert between generic types without throwing, see
+    * {@link #getAdapter(Type, Type)}
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @return The adapter for the given types, or null if there is none
+    */
+   public <F,T> Adapter<F,T> tryGetAdapter(Type fromType, Type toType) {
+      if(fromType instanceof Class && toType instanceof Class) {
+         return tryGetAdapter((Class<F>)fromType, (Class<T>)toType);
+      }
+      Class<?> from = TypeAdapters.rawType(fromType);
+      Class<?> to = TypeAdapters.rawType(toType);
+      if(from == null || to == null) {
+         return null;
+      }
+      ResolutionCache cache = resolved;
+      //Keyed by the to type alone when converting from a class, so the
+      //common lookups such as String to List<Integer> don't allocate a key
+      Map<Object, Object> cached;
+      Object key;
+      if(fromType instanceof Class) {
+         cached = cache.fromClass(from);
+         key = toType;
+      } else {
+         cached = cache.types;
+         key = List.of(fromType, toType);
+      }
+      Object adapter = cached.get(key);
+      if(adapter == null) {
+         adapter = TypeAdapters.resolve(this, fromType, toType);
+         if(adapter != null) {
+            adapter = instrument((Adapter<?,?>)adapter, from, to, cache.metrics);
+         } else {
+            //Not a collection, so look it up by its classes
+            if(table != null) {
+               adapter = table.get(from, to);
+            }
+            if(adapter == null) {
+               adapter = cache.get(from, to);
+            }
+         }
+         Object previous = cached.putIfAbsent(key,
+               (adapter == null) ? sNotFound : adapter);
+         if(previous != null) {
+            adapter = previous;
+         }
+      }
+      if(adapter == sNotFound) {
+         adapter = null;
+      }
+      if(cache.metrics != null) {
+         cache.metrics.lookup(from, to, adapter != null);
+      }
+      return (Adapter<F,T>)adapter;
+   }
+
+   /**
+    * Gets the adapter to convert from fromType to a primitive int without
+    * boxing. If the registered adapter does not support primitive conversion
+    * then the boxed result of the registered adapter is unboxed instead.
+    * @param fromType The type to convert from
+    * @return The adapter for the given type
+    * @throws AdapterNotFoundException
+    */
+   public <F> ToIntAdapter<F> getIntAdapter(Class<F> fromType)
+         throws AdapterNotFoundException {
+      final Adapter<F,Integer> adapter = getAdapter(fromType, Integer.class);
+      if(adapter instanceof ToIntAdapter) {
+         return (ToIntAdapter<F>)adapter;
+      }
+      return new ToIntAdapter<F>() {
+         @Override
+         public int convertToInt(F from) {
+            return adapter.convert(from, Integer.class);
+         }
+      };
+   }
+
+   /**
+    * Gets the adapter to convert from fromType to a primitive long without
+    * boxing. If the registered adapter does not support primitive conversion
+    * then the boxed result of the registered adapter is unboxed instead.
+    * @param fromType The type to convert from
+    * @return The adapter for the given type
+    * @throws AdapterNotFoundException
+    */
+   public <F> ToLongAdapter<F> getLongAdapter(Class<F> fromType)
+         throws AdapterNotFoundException {
+      final Adapter<F,Long> adapter = getAdapter(fromType, Long.class);
+      if(adapter instanceof ToLongAdapter) {
+         return (ToLongAdapter<F>)adapter;
+      }
+      return new ToLongAdapter<F>() {
+         @Override
+         public long convertToLong(F from) {
+            return adapter.convert(from, Long.class);
+         }
+      };
+   }
+
+   /**
+    * Gets the adapter to convert from fromType to a primitive double without
+    * boxing. If the registered adapter does not support primitive conversion
+    * then the boxed result of the registered adapter is unboxed instead.
+    * @param fromType The type to convert from
+    * @return The adapter for the given type
+    * @throws AdapterNotFoundException
+    */
+   public <F> ToDoubleAdapter<F> getDoubleAdapter(Class<F> fromType)
+         throws AdapterNotFoundException {
+      final Adapter<F,Double> adapter = getAdapter(fromType, Double.class);
+      if(adapter instanceof ToDoubleAdapter) {
+         return (ToDoubleAdapter<F>)adapter;
+      }
+      return new ToDoubleAdapter<F>() {
+         @Override
+         public double convertToDouble(F from) {
+            return adapter.convert(from, Double.class);
+         }
+      };
+   }
+
+   /**
+    * Gets the adapter to convert from fromType to a primitive boolean without
+    * boxing. If the registered adapter does not support primitive conversion
+    * then the boxed result of the registered adapter is unboxed instead.
+    * @param fromType The type to convert from
+    * @return The adapter for the given type
+    * @throws AdapterNotFoundException
+    */
+   public <F> ToBooleanAdapter<F> getBooleanAdapter(Class<F> fromType)
+         throws AdapterNotFoundException {
+      final Adapter<F,Boolean> adapter = getAdapter(fromType, Boolean.class);
+      if(adapter instanceof ToBooleanAdapter) {
+         return (ToBooleanAdapter<F>)adapter;
+      }
+      return new ToBooleanAdapter<F>() {
+         @Override
+         public boolean convertToBoolean(F from) {
+            return adapter.convert(from, Boolean.class);
+         }
+      };
+   }
+
+   /**
+    * Gets the adapter to write values of fromType as text straight into a
+    * buffer. If the registered adapter only converts to a String then the
+    * String is copied into the buffer instead.
+    * @param fromType The type to convert from
+    * @return The adapter for the given type
+    * @throws AdapterNotFoundException
+    */
+   public <F> ToTextAdapter<F> getTextAdapter(Class<F> fromType)
+         throws AdapterNotFoundException {
+      return TextAdapters.fromStringAdapter(getAdapter(fromType, String.class));
+   }
+
+   /**
+    * Gets the binder to populate objects of the given type from a map of
+    * property name to string value, using the adapters of this registry.
+    * Binders are cached, so the type is only introspected once.
+    * @param type The type to bind
+    * @return The binder for the given type
+    */
+   public <T> Binder<T> binderFor(Class<T> type) {
+      Map<Class<?>, Binder<?>> cache = binders;
+      Binder<?> binder = cache.get(type);
+      if(binder == null) {
+         binder = new Binder<T>(type, this);
+         Binder<?> previous = cache.putIfAbsent(type, binder);
+         if(previous != null) {
+            binder = previous;
+         }
+      }
+      return (Binder<T>)binder;
+   }
+
+   /**
+    * Resolves the adapter to convert from fromType to toType against the
+    * registered adapters of a cache generation. Unlike {@link #getAdapter}
+    * this does not use the resolution cache.
+    * @param cache The cache generation, whose registrations are used
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @return The adapter for the given types or null if there is none
+    */
+   private Adapter<?,?> resolveAdapter(ResolutionCache cache,
+         Class<?> fromType, Class<?> toType) {
+      //If the types passed in are primitive, convert to wrapped types to find
+      //the appropriate adapter
+      fromType = AdapterFactory.getWrapper(fromType);
+      toType = AdapterFactory.getWrapper(toType);
+
+      if(fromType.equals(toType)) {
+         return sSameTypeAdapter;
+      }
+
+      Map<ClassPair<?,?>, Adapter<?,?>> adapters = cache.adapters;
+      Adapter<?,?> adapter = LazyAdapter.load(
+            adapters.get(new ClassPair(fromType, toType)));
+      if(adapter == null) {
+         //No adapter found...check some special cases
+
+         //If either type is an enum then check for the generic enum case
+         Class f = fromType.isEnum() ? Enum.class : fromType;
+         Class t = toType.isEnum() ? Enum.class : toType;
+
+         adapter = LazyAdapter.load(adapters.get(new ClassPair(f, t)));
+      }
+
+      if(adapter == null && toType.isAssignableFrom(fromType)) {
+         //The value already is a toType
+         adapter = sSameTypeAdapter;
+      }
+
+      if(adapter == null && toType.isArray()) {
+         //Text to an array of values
+         adapter = TypeAdapters.resolve(this, fromType, toType);
+      }
+
+      if(adapter == null) {
+         //Try adapters registered for supertypes of fromType
+         adapter = findInHierarchy(cache, fromType, toType);
+      }
+
+      if(adapter == null) {
+         //Still nothing, try converting through other types
+         adapter = findChain(cache, fromType, toType);
+      }
+
+      return adapter;
+   }
+
+   /**
+    * Finds the shortest chain of registered adapters that converts from
+    * fromType to toType, treating the adapters as edges of a graph of types.
+    * Only the last adapter in the chain may be a generic enum adapter since
+    * intermediate types must be concrete. Formatting a value as a String
+    * loses its type and precision, so a chain only passes through String
+    * from other text, such as a
+    * {@link com.javadapters.adapters.CharSlice}. Ties are broken by type name
+    * so the result doesn't depend on registration order.
+    * @param cache The cache generation, whose registrations are searched
+    * @param fromType The (wrapped) type to convert from
+    * @param toType The (wrapped) type to convert to
+    * @return The chained adapter, or null if there is no chain
+    */
+   private static Adapter<?,?> findChain(ResolutionCache cache,
+         Class<?> fromType, Class<?> toType) {
+      Map<Class<?>, List<ClassPair<?,?>>> edges = cache.edges();
+
+      //Breadth first search, so the first chain found is the shortest
+      Map<Class<?>, ClassPair<?,?>> reachedBy =
+            new HashMap<Class<?>, ClassPair<?,?>>();
+      ArrayDeque<Class<?>> queue = new ArrayDeque<Class<?>>();
+      reachedBy.put(fromType, null);
+      queue.add(fromType);
+      while(!queue.isEmpty()) {
+         Class<?> type = queue.poll();
+         List<ClassPair<?,?>> out = edges.get(type.isEnum() ? Enum.class : type);
+         if(out == null) {
+            continue;
+         }
+         for(ClassPair<?,?> pair : out) {
+            Class<?> next = pair.getToClass();
+            if(next == Enum.class) {
+               if(!toType.isEnum()) {
+                  continue;
+               }
+               next = toType;
+            }
+            if(reachedBy.containsKey(next) || (next == String.class &&
+                  next != toType && !CharSequence.class.isAssignableFrom(type))) {
+               continue;
+            }
+            reachedBy.put(next, pair);
+            if(next == toType) {
+               return buildChain(cache.adapters, reachedBy, toType);
+            }
+            queue.add(next);
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Finds the registered adapter from the nearest supertype of fromType to
+    * toType or a subtype of it. Supertypes are walked breadth first, each
+    * superclass before its interfaces in declaration order, and Object last.
+    * Among the adapters from the nearest supertypes the one whose target is
+    * nearest toType wins, and if they convert to the same target the
+    * supertype walked first wins. If the nearest targets are different types,
+    * such as from String to Number with adapters to both Integer and Long,
+    * there is no adapter. An adapter to Enum converts to any enum, as for the
+    * enum fallback.
+    * @param cache The cache generation, whose registrations are searched
+    * @param fromType The (wrapped) type to convert from
+    * @param toType The (wrapped) type to convert to
+    * @return The adapter, or null if there is none
+    */
+   private static Adapter<?,?> findInHierarchy(ResolutionCache cache,
+         Class<?> fromType, Class<?> toType) {
+      Map<Class<?>, List<ClassPair<?,?>>> edges = cache.edges();
+
+      Set<Class<?>> seen = new HashSet<Class<?>>();
+      seen.add(fromType);
+      for(List<Class<?>> level = Collections.<Class<?>>singletonList(fromType);
+            !level.isEmpty(); level = supertypes(level, seen)) {
+         ClassPair<?,?> best = null;
+         int bestDistance = Integer.MAX_VALUE;
+         boolean ambiguous = false;
+         for(Class<?> type : level) {
+            List<ClassPair<?,?>> out = edges.get(type);
+            if(out == null) {
+               continue;
+            }
+            for(ClassPair<?,?> pair : out) {
+               int distance = (pair.getToClass() == Enum.class &&
+                     toType.isEnum()) ? 0 : distance(pair.getToClass(), toType);
+               if(distance >= 0 && distance < bestDistance) {
+                  best = pair;
+                  bestDistance = distance;
+                  ambiguous = false;
+               } else if(distance == bestDistance &&
+                     pair.getToClass() != best.getToClass()) {
+                  ambiguous = true;
+               }
+            }
+         }
+         if(best != null) {
+            return ambiguous ? null : LazyAdapter.load(cache.adapters.get(best));
+         }
+      }
+      return null;
+   }
+
+   /**
+    * @param adapters The registered adapters
+    * @return The adapters from each type, sorted by the type they convert to
+    * so searches don't depend on registration order
+    */
+   private static Map<Class<?>, List<ClassPair<?,?>>> edges(
+         Map<ClassPair<?,?>, Adapter<?,?>> adapters) {
+      Map<Class<?>, List<ClassPair<?,?>>> edges =
+            new HashMap<Class<?>, List<ClassPair<?,?>>>();
+      for(ClassPair<?,?> pair : adapters.keySet()) {
+         List<ClassPair<?,?>> list = edges.get(pair.getFromClass());
+         if(list == null) {
+            list = new ArrayList<ClassPair<?,?>>();
+            edges.put(pair.getFromClass(), list);
+         }
+         list.add(pair);
+      }
+      for(List<ClassPair<?,?>> list : edges.values()) {
+         list.sort(Comparator.comparing(
+               (ClassPair<?,?> pair) -> pair.getToClass().getName()));
+      }
+      return edges;
+   }
+
+   /**
+    * @param type A type
+    * @param supertype A supertype of type
+    * @return The number of steps up the hierarchy from type to supertype, or
+    * -1 if it's not a supertype
+    */
+   private static int distance(Class<?> type, Class<?> supertype) {
+      if(!supertype.isAssignableFrom(type)) {
+         return -1;
+      }
+      Set<Class<?>> seen = new HashSet<Class<?>>();
+      seen.add(type);
+      int distance = 0;
+      for(List<Class<?>> level = Collections.<Class<?>>singletonList(type);
+            !level.contains(supertype); level = supertypes(level, seen)) {
+         ++distance;
+      }
+      return distance;
+   }
+
+   /**
+    * @param level Types at the same distance up the hierarchy
+    * @param seen The types already walked, which the result is added to
+    * @return The direct supertypes of the level that haven't been walked,
+    * or Object once there are no others
+    */
+   private static List<Class<?>> supertypes(List<Class<?>> level,
+         Set<Class<?>> seen) {
+      List<Class<?>> next = new ArrayList<Class<?>>();
+      for(Class<?> type : level) {
+         Class<?> superclass = type.getSuperclass();
+         if(superclass != null && superclass != Object.class &&
+               seen.add(superclass)) {
+            next.add(superclass);
+         }
+         for(Class<?> face : type.getInterfaces()) {
+            if(seen.add(face)) {
+               next.add(face);
+            }
+         }
+      }
+      if(next.isEmpty() && seen.add(Object.class)) {
+         next.add(Object.class);
+      }
+      return next;
+   }
+
+   /**
+    * Builds the chained adapter from the search results
+    * @param adapters The adapters that were searched
+    * @param reachedBy Mapping from each type to the adapter that reached it
+    * @param toType The type to convert to
+    * @return The chained adapter
+    */
+   private static Adapter<?,?> buildChain(
+         Map<ClassPair<?,?>, Adapter<?,?>> adapters,
+         Map<Class<?>, ClassPair<?,?>> reachedBy, Class<?> toType) {
+      LinkedList<Adapter<?,?>> chain = new LinkedList<Adapter<?,?>>();
+      LinkedList<Class<?>> types = new LinkedList<Class<?>>();
+      Class<?> type = toType;
+      for(ClassPair<?,?> pair = reachedBy.get(type); pair != null;
+            pair = reachedBy.get(type)) {
+         chain.addFirst(LazyAdapter.load(adapters.get(pair)));
+         types.addFirst(type);
+         type = pair.getFromClass();
+      }
+      return new ChainedAdapter(chain.toArray(new Adapter<?,?>[0]),
+            types.toArray(new Class<?>[0]));
+   }
+
+   /**
+    * Wraps an adapter to record its conversions if metrics are on
+    * @param adapter The adapter, or null if there is none
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @param metrics The metrics to record to, or null if metrics are off
+    * @return The adapter to return from lookups
+    */
+   private static Adapter<?,?> instrument(Adapter<?,?> adapter,
+         Class<?> fromType, Class<?> toType, AdapterMetrics metrics) {
+      if(adapter == null || metrics == null) {
+         return adapter;
+      }
+      return new InstrumentedAdapter(adapter,
+            metrics.forPair(fromType, toType));
+   }
+
+   /**
+    * Builds and returns the exception if the adapter was not found
+    * @param fromType
+    * @param toType
+    * @return An {@link AdapterNotFoundException}
+    */
+   private static AdapterNotFoundException getException(final Type fromType,
+         final Type toType) {
+      if(LightweightExceptions.isEnabled()) {
+         return new AdapterNotFoundException(null, null, false, false) {
+            private static final long serialVersionUID = 2640452479958153565L;
+
+            @Override
+            public String getMessage() {
+               return buildMessage(fromType, toType);
+            }
+         };
+      }
+      return new AdapterNotFoundException(buildMessage(fromType, toType));
+   }
+
+   /**
+    * Builds the message for a missing adapter
+    * @param fromType
+    * @param toType
+    * @return The message
+    */
+   private static String buildMessage(Type fromType, Type toType) {
+      StringBuilder sb = new StringBuilder("An adapter for the types <");
+      sb.append(fromType).append(", ").append(toType);
+      sb.append("> was not found!");
+      return sb.toString();
+   }
+
+   /**
+    * Read only table of the resolved adapters for the registered types of a
+    * frozen registry, and for the primitive forms of those types. Keys are
+    * compared by identity and probed linearly, the table is at most a quarter
+    * full so probes are short.
+    */
+   private static final class AdapterTable {
+
+      AdapterTable(AdapterRegistry registry) {
+         ResolutionCache cache = registry.resolved;
+         metrics = cache.metrics;
+         List<Class<?>> keys = new ArrayList<Class<?>>();
+         for(ClassPair<?,?> pair : registry.adapters.keySet()) {
+            for(Class<?> from : withPrimitive(pair.getFromClass())) {
+               for(Class<?> to : withPrimitive(pair.getToClass())) {
+                  keys.add(from);
+                  keys.add(to);
+               }
+            }
+         }
+         int capacity = Integer.highestOneBit(Math.max(keys.size() * 2, 8)) * 2;
+         mask = capacity - 1;
+         fromTypes = new Class<?>[capacity];
+         toTypes = new Class<?>[capacity];
+         values = new Adapter<?,?>[capacity];
+         for(int i = 0; i < keys.size(); i += 2) {
+            Class<?> from = keys.get(i);
+            Class<?> to = keys.get(i + 1);
+            if(get(from, to) == null) {
+               Adapter<?,?> adapter = instrument(
+                     registry.resolveAdapter(cache, from, to), from, to,
+                     metrics);
+               int slot = hash(from, to) & mask;
+               while(fromTypes[slot] != null) {
+                  slot = (slot + 1) & mask;
+               }
+               fromTypes[slot] = from;
+               toTypes[slot] = to;
+               values[slot] = adapter;
+            }
+         }
+      }
+
+      /**
+       * @param from The type to convert from
+       * @param to The type to convert to
+       * @return The adapter for the given types, or null if not in the table
+       */
+      Adapter<?,?> get(Class<?> from, Class<?> to) {
+         int slot = hash(from, to) & mask;
+         Class<?> key;
+         while((key = fromTypes[slot]) != null) {
+            if(key == from && toTypes[slot] == to) {
+               return values[slot];
+            }
+            slot = (slot + 1) & mask;
+         }
+         return null;
+      }
+
+      private static int hash(Class<?> from, Class<?> to) {
+         int h = System.identityHashCode(from) * 31 + System.identityHashCode(to);
+         return h ^ (h >>> 16);
+      }
+
+      /**
+       * @param type A registered type
+       * @return The type, and its primitive type if it's a primitive wrapper
+       */
+      private static List<Class<?>> withPrimitive(Class<?> type) {
+         Class<?> primitive = sWrapperToPrimitiveMap.get(type);
+         return (primitive == null) ? Collections.<Class<?>>singletonList(type)
+               : List.of(type, primitive);
+      }
+
+      /** The metrics to record lookups to, or null if metrics are off **/
+      final AdapterMetrics metrics;
+      /** Mask of the table capacity, which is a power of two **/
+      private final int mask;
+      /** The from type of each slot, or null if the slot is empty **/
+      private final Class<?>[] fromTypes;
+      /** The to type of each slot **/
+      private final Class<?>[] toTypes;
+      /** The resolved adapter of each slot **/
+      private final Adapter<?,?>[] values;
+   }
+
+   /**
+    * Cache of resolved adapters, keyed by the from type and then by the to
+    * type. Lookups through here do not allocate once warmed up. Each cache
+    * resolves against a copy of the registered adapters taken when it was
+    * created, so a cache that is replaced while resolving can't hold an
+    * adapter newer than the cache that replaced it. The tables are plain
+    * maps rather than class values, since a class value holds its values
+    * for as long as the class is loaded, and the resolved adapters lead back
+    * to the registry.
+    **/
+   private final class ResolutionCache {
+
+      ResolutionCache() {
+         metrics = AdapterRegistry.this.metrics.isEnabled() ?
+               AdapterRegistry.this.metrics : null;
+         adapters = frozen ? AdapterRegistry.this.adapters :
+               new HashMap<ClassPair<?,?>, Adapter<?,?>>(
+                     AdapterRegistry.this.adapters);
+      }
+
+      /**
+       * @return The registered adapters from each type, computed on first
+       * use
+       */
+      Map<Class<?>, List<ClassPair<?,?>>> edges() {
+         Map<Class<?>, List<ClassPair<?,?>>> result = edges;
+         if(result == null) {
+            //Racing threads compute the same edges, any of them will do
+            result = AdapterRegistry.edges(adapters);
+            edges = result;
+         }
+         return result;
+      }
+
+      /**
+       * @param fromType The type to convert from
+       * @param toType The type to convert to
+       * @return The resolved adapter for the given types, or null if there
+       * is none
+       */
+      Adapter<?,?> get(Class<?> fromType, Class<?> toType) {
+         Map<Class<?>, Object> cached = byType.get(fromType);
+         if(cached == null) {
+            cached = byType.computeIfAbsent(fromType,
+                  type -> new ConcurrentHashMap<Class<?>, Object>());
+         }
+         Object adapter = cached.get(toType);
+         if(adapter == null) {
+            adapter = instrument(resolveAdapter(this, fromType, toType),
+                  fromType, toType, metrics);
+            Object previous = cached.putIfAbsent(toType,
+                  (adapter == null) ? sNotFound : adapter);
+            if(previous != null) {
+               adapter = previous;
+            }
+         }
+         return (adapter == sNotFound) ? null : (Adapter<?,?>)adapter;
+      }
+
+      /**
+       * @param fromType The type to convert from
+       * @return The resolved adapters from the given class to generic types,
+       * keyed by the to type
+       */
+      Map<Object, Object> fromClass(Class<?> fromType) {
+         Map<Object, Object> cached = toGeneric.get(fromType);
+         if(cached == null) {
+            cached = toGeneric.computeIfAbsent(fromType,
+                  type -> new ConcurrentHashMap<Object, Object>());
+         }
+         return cached;
+      }
+
+      /** The metrics to record to, or null if metrics are off **/
+      final AdapterMetrics metrics;
+      /** The registered adapters this cache resolves against **/
+      final Map<ClassPair<?,?>, Adapter<?,?>> adapters;
+      /** The registered adapters from each type, or null until first used **/
+      private volatile Map<Class<?>, List<ClassPair<?,?>>> edges;
+      /** Resolved adapters, or {@link #sNotFound}, keyed by both classes **/
+      private final Map<Class<?>, Map<Class<?>, Object>> byType =
+            new ConcurrentHashMap<Class<?>, Map<Class<?>, Object>>();
+      /** Resolved adapters from each class to generic types **/
+      private final Map<Class<?>, Map<Object, Object>> toGeneric =
+            new ConcurrentHashMap<Class<?>, Map<Object, Object>>();
+      /** Resolved adapters between other generic types, keyed by both types **/
+      final Map<Object, Object> types = new ConcurrentHashMap<Object, Object>();
+   }
+
+   /** Marks types that have no adapter in the resolution cache **/
+   private static final Object sNotFound = new Object();
+
+   /** Simple adapter if the types are the same **/
+   private static final Adapter sSameTypeAdapter = new SameTypeAdapter();
+
+   /** Mapping from primitive wrapper type to primitive type **/
+   private static final Map<Class<?>, Class<?>> sWrapperToPrimitiveMap =
+         Map.of(Boolean.class, boolean.class, Byte.class, byte.class,
+               Character.class, char.class, Double.class, double.class,
+               Float.class, float.class, Integer.class, int.class,
+               Long.class, long.class, Short.class, short.class);
+
+   /** Types whose values can be shared by a {@link CachingAdapter} **/
+   private static final Set<Class<?>> sImmutableTypes = Set.of(Boolean.class,
+         Byte.class, Character.class, Double.class, Float.class, Integer.class,
+         Long.class, Short.class, String.class, BigDecimal.class,
+         BigInteger.class);
+
+   /** The registered adapters **/
+   private final Map<ClassPair<?,?>, Adapter<?,?>> adapters;
+   /** The metrics of this registry **/
+   private final AdapterMetrics metrics;
+   /** True if the registered adapters will never change **/
+   private final boolean frozen;
+   /** Resolved registered adapters if frozen, otherwise null **/
+   private final AdapterTable table;
+   /** Resolved adapters, replaced whenever the registered adapters change **/
+   private volatile ResolutionCache resolved;
+   /**
+    * Binders for each type, replaced whenever the registered adapters change.
+    * Not a class value, since the binders hold this registry.
+    **/
+   private volatile Map<Class<?>, Binder<?>> binders;
+}
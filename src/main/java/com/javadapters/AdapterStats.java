@@ -0,0 +1,159 @@
+package com.javadapters;
+
+/**
+ * Point in time copy of the metrics recorded for one pair of types, see
+ * {@link AdapterMetrics}. Types are given by name so that the statistics can
+ * be read through JMX as well.
+ */
+public class AdapterStats {
+
+   /**
+    * Constructor
+    * @param fromType The name of the type converted from
+    * @param toType The name of the type converted to
+    * @param lookups The number of lookups
+    * @param misses The number of lookups that found no adapter
+    * @param conversions The number of conversions
+    * @param failures The number of conversions that threw
+    * @param sampledNanos The total time of the timed conversions
+    * @param latencyHistogram The number of timed conversions in each bucket
+    */
+   AdapterStats(String fromType, String toType, long lookups, long misses,
+         long conversions, long failures, long sampledNanos,
+         long[] latencyHistogram) {
+      this.fromType = fromType;
+      this.toType = toType;
+      this.lookups = lookups;
+      this.misses = misses;
+      this.conversions = conversions;
+      this.failures = failures;
+      this.sampledNanos = sampledNanos;
+      this.latencyHistogram = latencyHistogram;
+      long samples = 0;
+      for(long count : latencyHistogram) {
+         samples += count;
+      }
+      sampledConversions = samples;
+   }
+
+   /**
+    * @return The name of the type converted from
+    */
+   public String getFromType() {
+      return fromType;
+   }
+
+   /**
+    * @return The name of the type converted to
+    */
+   public String getToType() {
+      return toType;
+   }
+
+   /**
+    * @return The number of times an adapter was looked up
+    */
+   public long getLookups() {
+      return lookups;
+   }
+
+   /**
+    * @return The number of lookups that found no adapter
+    */
+   public long getMisses() {
+      return misses;
+   }
+
+   /**
+    * @return The number of conversions
+    */
+   public long getConversions() {
+      return conversions;
+   }
+
+   /**
+    * @return The number of conversions that threw an exception
+    */
+   public long getFailures() {
+      return failures;
+   }
+
+   /**
+    * @return The number of conversions that were timed
+    */
+   public long getSampledConversions() {
+      return sampledConversions;
+   }
+
+   /**
+    * @return The mean time of the timed conversions in nanoseconds, or 0 if
+    * none were timed
+    */
+   public double getMeanLatencyNanos() {
+      return (sampledConversions == 0) ? 0 :
+            (double)sampledNanos / sampledConversions;
+   }
+
+   /**
+    * Gets the number of timed conversions by time. Bucket 0 holds those that
+    * took no measurable time and bucket i &gt; 0 holds those that took from
+    * 2<sup>i-1</sup> up to 2<sup>i</sup> nanoseconds, the last bucket also
+    * holds everything slower.
+    * @return The number of timed conversions in each bucket
+    */
+   public long[] getLatencyHistogram() {
+      return latencyHistogram.clone();
+   }
+
+   /**
+    * Estimates a percentile of the conversion time from the histogram, as the
+    * upper bound of the bucket holding it
+    * @param percentile The percentile, from 0 to 100
+    * @return The estimate in nanoseconds, or 0 if no conversions were timed
+    */
+   public long latencyPercentileNanos(double percentile) {
+      if(sampledConversions == 0) {
+         return 0;
+      }
+      long rank = (long)Math.ceil(sampledConversions * percentile / 100);
+      long seen = 0;
+      for(int i = 0; i < latencyHistogram.length; ++i) {
+         seen += latencyHistogram[i];
+         if(seen >= rank && seen > 0) {
+            return (i == 0) ? 0 : (1L << i);
+         }
+      }
+      return 1L << (latencyHistogram.length - 1);
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder sb = new StringBuilder("<");
+      sb.append(fromType).append(", ").append(toType).append(">");
+      sb.append(" lookups=").append(lookups);
+      sb.append(" misses=").append(misses);
+      sb.append(" conversions=").append(conversions);
+      sb.append(" failures=").append(failures);
+      sb.append(" meanLatencyNanos=").append(getMeanLatencyNanos());
+      return sb.toString();
+   }
+
+   /** Name of the type converted from **/
+   private final String fromType;
+   /** Name of the type converted to **/
+   private final String toType;
+   /** Number of lookups **/
+   private final long lookups;
+   /** Number of lookups that found no adapter **/
+   private final long misses;
+   /** Number of conversions **/
+   private final long conversions;
+   /** Number of conversions that threw **/
+   private final long failures;
+   /** Total time of the timed conversions **/
+   private final long sampledNanos;
+   /** Number of timed conversions **/
+   private final long sampledConversions;
+   /** Number of timed conversions in each bucket **/
+   private final long[] latencyHistogram;
+}
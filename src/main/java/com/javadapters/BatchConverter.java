@@ -0,0 +1,248 @@
+package com.javadapters;
+
+import java.lang.reflect.Array;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.ToBooleanAdapter;
+import com.javadapters.adapters.ToDoubleAdapter;
+import com.javadapters.adapters.ToIntAdapter;
+import com.javadapters.adapters.ToLongAdapter;
+
+/**
+ * Converts whole arrays of values at a time. Arrays larger than the
+ * threshold are split into chunks that are converted in parallel on a
+ * {@link ForkJoinPool}, smaller arrays are converted on the calling thread.
+ * <p>
+ * Every method takes a destination array, which is filled and returned so a
+ * buffer can be reused between batches. If it is null then a new array is
+ * allocated. Values that fail to convert are recorded in the
+ * {@link ConversionErrors} by index and the rest of the batch is still
+ * converted. If no {@link ConversionErrors} is given then the first error is
+ * thrown.
+ */
+public class BatchConverter {
+
+   /** Default number of values below which a batch is not split **/
+   public static final int DEFAULT_THRESHOLD = 8192;
+
+   /**
+    * Constructor using the common pool and the default threshold
+    */
+   public BatchConverter() {
+      this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+   }
+
+   /**
+    * Constructor
+    * @param pool The pool to convert large batches on
+    * @param threshold The number of values below which a batch is not split
+    */
+   public BatchConverter(ForkJoinPool pool, int threshold) {
+      if(pool == null) {
+         throw new NullPointerException("pool");
+      }
+      if(threshold < 1) {
+         throw new IllegalArgumentException("threshold must be positive: " +
+               threshold);
+      }
+      this.pool = pool;
+      this.threshold = threshold;
+   }
+
+   /**
+    * Converts each value of from to a T
+    * @param adapter The adapter to convert with
+    * @param from The values to convert from
+    * @param to The array to hold the results, or null to allocate one
+    * @param clazz The class type of T
+    * @param errors Records the errors, or null to throw the first error
+    * @return The array holding the results
+    */
+   @SuppressWarnings("unchecked")
+   public <F,T> T[] convert(final Adapter<F,T> adapter, final F[] from, T[] to,
+         final Class<T> clazz, final ConversionErrors errors) {
+      final T[] dest = (to != null) ? to : (T[])Array.newInstance(
+            AdapterFactory.getWrapper(clazz), from.length);
+      checkLength(from, dest.length);
+      run(from.length, new Range() {
+         @Override
+         public void convert(int start, int end) {
+            adapter.convertAll(from, dest, start, end, clazz, errors);
+         }
+      });
+      return dest;
+   }
+
+   /**
+    * Converts each value of from to an int
+    * @param adapter The adapter to convert with
+    * @param from The values to convert from
+    * @param to The array to hold the results, or null to allocate one
+    * @param errors Records the errors, or null to throw the first error
+    * @return The array holding the results
+    */
+   public <F> int[] convertToInt(final ToIntAdapter<F> adapter, final F[] from,
+         int[] to, final ConversionErrors errors) {
+      final int[] dest = (to != null) ? to : new int[from.length];
+      checkLength(from, dest.length);
+      run(from.length, new Range() {
+         @Override
+         public void convert(int start, int end) {
+            adapter.convertAllToInt(from, dest, start, end, errors);
+         }
+      });
+      return dest;
+   }
+
+   /**
+    * Converts each value of from to a long
+    * @param adapter The adapter to convert with
+    * @param from The values to convert from
+    * @param to The array to hold the results, or null to allocate one
+    * @param errors Records the errors, or null to throw the first error
+    * @return The array holding the results
+    */
+   public <F> long[] convertToLong(final ToLongAdapter<F> adapter, final F[] from,
+         long[] to, final ConversionErrors errors) {
+      final long[] dest = (to != null) ? to : new long[from.length];
+      checkLength(from, dest.length);
+      run(from.length, new Range() {
+         @Override
+         public void convert(int start, int end) {
+            adapter.convertAllToLong(from, dest, start, end, errors);
+         }
+      });
+      return dest;
+   }
+
+   /**
+    * Converts each value of from to a double
+    * @param adapter The adapter to convert with
+    * @param from The values to convert from
+    * @param to The array to hold the results, or null to allocate one
+    * @param errors Records the errors, or null to throw the first error
+    * @return The array holding the results
+    */
+   public <F> double[] convertToDouble(final ToDoubleAdapter<F> adapter,
+         final F[] from, double[] to, final ConversionErrors errors) {
+      final double[] dest = (to != null) ? to : new double[from.length];
+      checkLength(from, dest.length);
+      run(from.length, new Range() {
+         @Override
+         public void convert(int start, int end) {
+            adapter.convertAllToDouble(from, dest, start, end, errors);
+         }
+      });
+      return dest;
+   }
+
+   /**
+    * Converts each value of from to a boolean
+    * @param adapter The adapter to convert with
+    * @param from The values to convert from
+    * @param to The array to hold the results, or null to allocate one
+    * @param errors Records the errors, or null to throw the first error
+    * @return The array holding the results
+    */
+   public <F> boolean[] convertToBoolean(final ToBooleanAdapter<F> adapter,
+         final F[] from, boolean[] to, final ConversionErrors errors) {
+      final boolean[] dest = (to != null) ? to : new boolean[from.length];
+      checkLength(from, dest.length);
+      run(from.length, new Range() {
+         @Override
+         public void convert(int start, int end) {
+            adapter.convertAllToBoolean(from, dest, start, end, errors);
+         }
+      });
+      return dest;
+   }
+
+   /**
+    * @return The number of values below which a batch is not split
+    */
+   public int getThreshold() {
+      return threshold;
+   }
+
+   /**
+    * @return The pool large batches are converted on
+    */
+   public ForkJoinPool getPool() {
+      return pool;
+   }
+
+   /**
+    * @return The converter used by the batch methods of {@link AdapterFactory}
+    */
+   public static BatchConverter getDefault() {
+      return sDefault;
+   }
+
+   private static void checkLength(Object[] from, int length) {
+      if(length < from.length) {
+         throw new IllegalArgumentException("Destination length " + length +
+               " is less than the source length " + from.length);
+      }
+   }
+
+   /**
+    * Converts the range [0, length) either directly or in parallel
+    * @param length The number of values
+    * @param range Converts a sub range
+    */
+   private void run(int length, Range range) {
+      if(length <= threshold) {
+         range.convert(0, length);
+      } else {
+         pool.invoke(new RangeTask(range, 0, length, threshold));
+      }
+   }
+
+   /**
+    * Converts a range of a batch
+    */
+   private interface Range {
+      void convert(int start, int end);
+   }
+
+   /**
+    * Splits a range in half until it is below the threshold
+    */
+   private static final class RangeTask extends RecursiveAction {
+
+      private static final long serialVersionUID = -3012807425463392427L;
+
+      RangeTask(Range range, int start, int end, int threshold) {
+         this.range = range;
+         this.start = start;
+         this.end = end;
+         this.threshold = threshold;
+      }
+
+      @Override
+      protected void compute() {
+         if(end - start <= threshold) {
+            range.convert(start, end);
+         } else {
+            int middle = (start + end) >>> 1;
+            invokeAll(new RangeTask(range, start, middle, threshold),
+                  new RangeTask(range, middle, end, threshold));
+         }
+      }
+
+      private final Range range;
+      private final int start;
+      private final int end;
+      private final int threshold;
+   }
+
+   /** The converter used by the batch methods of {@link AdapterFactory} **/
+   private static final BatchConverter sDefault = new BatchConverter();
+
+   /** The pool large batches are converted on **/
+   private final ForkJoinPool pool;
+   /** The number of values below which a batch is not split **/
+   private final int threshold;
+}
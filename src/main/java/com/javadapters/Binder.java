@@ -0,0 +1,452 @@
+package com.javadapters;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.ToBooleanAdapter;
+import com.javadapters.adapters.ToDoubleAdapter;
+import com.javadapters.adapters.ToIntAdapter;
+import com.javadapters.adapters.ToLongAdapter;
+
+/**
+ * Populates objects of some type from a map of property name to string value.
+ * The type is introspected once when the binder is created: each public
+ * setter (setFoo(x) binds the property "foo") and public non-final field
+ * becomes a property, and the adapter to convert a string to the property
+ * type is resolved once. Binding a record then only does a map lookup per
+ * entry and a {@link MethodHandle} call, with no reflection, no adapter
+ * lookups and no boxing for int, long, double and boolean properties.
+ * <p>
+ * Properties of types that no adapter converts to are left out, and entries
+ * for unknown properties are ignored. Binders are immutable and thread safe.
+ * Use {@link AdapterRegistry#binderFor(Class)} or
+ * {@link AdapterFactory#binderFor(Class)} to get one.
+ * @param <T> The type to bind
+ */
+public class Binder<T> {
+
+   /**
+    * Constructor
+    * @param type The type to bind
+    * @param registry The registry to get the adapters from
+    */
+   Binder(Class<T> type, AdapterRegistry registry) {
+      this.type = type;
+      this.registry = registry;
+      Map<String, MethodHandle> handles = new HashMap<String, MethodHandle>();
+      for(Field field : type.getFields()) {
+         int modifiers = field.getModifiers();
+         if(!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers)) {
+            addSetter(handles, field.getName(), field);
+         }
+      }
+      //Setters take priority over fields of the same name. Bridge methods
+      //are left out, they take the erased type of a generic setter
+      Map<String, Method> methods = new HashMap<String, Method>();
+      for(Method method : type.getMethods()) {
+         String name = method.getName();
+         if(name.length() > 3 && name.startsWith("set") &&
+               method.getParameterCount() == 1 &&
+               !Modifier.isStatic(method.getModifiers()) &&
+               !method.isBridge() && !method.isSynthetic()) {
+            String property = decapitalize(name.substring(3));
+            Method other = methods.get(property);
+            if(other == null || isPreferred(method, other)) {
+               methods.put(property, method);
+            }
+         }
+      }
+      for(Entry<String, Method> entry : methods.entrySet()) {
+         addSetter(handles, entry.getKey(), entry.getValue());
+      }
+      Map<String, Property> props = new HashMap<String, Property>();
+      for(Entry<String, MethodHandle> entry : handles.entrySet()) {
+         Property property = createProperty(registry, entry.getValue(),
+               String.class);
+         if(property != null) {
+            props.put(entry.getKey(), property);
+         }
+      }
+      setters = handles;
+      properties = props;
+      constructor = findConstructor(type);
+   }
+
+   /**
+    * Creates a new object and sets its properties from the given record
+    * @param record Mapping from property name to the string value to set
+    * @return The new object
+    * @throws BinderException If the object can't be created or populated
+    */
+   public T bind(Map<String, String> record) {
+      T target = newInstance();
+      bind(record, target);
+      return target;
+   }
+
+   /**
+    * Creates a new object with its public no argument constructor
+    * @return The new object
+    * @throws BinderException If the object can't be created
+    */
+   public T newInstance() {
+      if(constructor == null) {
+         throw new BinderException(type.getName() +
+               " has no public no argument constructor");
+      }
+      try {
+         return type.cast(constructor.invoke());
+      } catch (RuntimeException | Error e) {
+         throw e;
+      } catch (Throwable e) {
+         throw new BinderException("Unable to create " + type.getName(), e);
+      }
+   }
+
+   /**
+    * Sets the properties of the given object from the given record
+    * @param record Mapping from property name to the string value to set
+    * @param target The object to populate
+    * @throws BinderException If a property can't be set
+    */
+   public void bind(Map<String, String> record, T target) {
+      for(Entry<String, String> entry : record.entrySet()) {
+         Property property = properties.get(entry.getKey());
+         if(property != null) {
+            try {
+               property.invoke(target, entry.getValue());
+            } catch (RuntimeException | Error e) {
+               throw e;
+            } catch (Throwable e) {
+               throw new BinderException("Unable to set " + entry.getKey() +
+                     " on " + type.getName(), e);
+            }
+         }
+      }
+   }
+
+   /**
+    * Sets a single property of the given object
+    * @param target The object to populate
+    * @param name The name of the property
+    * @param value The string value to set
+    * @return True if the property exists, false if it was ignored
+    * @throws BinderException If the property can't be set
+    */
+   public boolean bind(T target, String name, String value) {
+      Property property = properties.get(name);
+      if(property == null) {
+         return false;
+      }
+      try {
+         property.invoke(target, value);
+      } catch (RuntimeException | Error e) {
+         throw e;
+      } catch (Throwable e) {
+         throw new BinderException("Unable to set " + name + " on " +
+               type.getName(), e);
+      }
+      return true;
+   }
+
+   /**
+    * Gets a setter for a single property that converts values from the given
+    * type, for sources such as {@link com.javadapters.adapters.ByteSlice}
+    * fields that are not strings. The adapter is resolved once, so callers
+    * should hold on to the setter.
+    * @param name The name of the property
+    * @param fromType The type of values to set the property from
+    * @return The setter, or null if there is no such property or no adapter
+    * converts from fromType to the property type
+    */
+   @SuppressWarnings("unchecked")
+   public <F> Setter<T,F> setterFor(String name, Class<F> fromType) {
+      MethodHandle setter = setters.get(name);
+      return (setter == null) ? null :
+            (Setter<T,F>)createProperty(registry, setter, fromType);
+   }
+
+   /**
+    * Sets a single property of an object
+    * @param <T> The type of object
+    * @param <F> The type of value to convert from
+    */
+   public interface Setter<T,F> {
+
+      /**
+       * Converts the value and sets it on the object
+       * @param target The object to populate
+       * @param value The value to convert and set
+       * @throws BinderException If the property can't be set
+       */
+      public void set(T target, F value);
+   }
+
+   /**
+    * @return The type this binds
+    */
+   public Class<T> getType() {
+      return type;
+   }
+
+   /**
+    * @return The names of the properties this binds
+    */
+   public Set<String> getPropertyNames() {
+      return Collections.unmodifiableSet(properties.keySet());
+   }
+
+   /**
+    * Chooses between overloaded setters of the same property, so the choice
+    * doesn't depend on the order of {@link Class#getMethods()}. The setter
+    * with the most specific parameter type wins, then the one declared in
+    * the most derived class, then the parameter type that sorts first by
+    * name.
+    * @param method A setter
+    * @param other Another setter of the same property
+    * @return True if method should be used rather than other
+    */
+   private static boolean isPreferred(Method method, Method other) {
+      Class<?> type = method.getParameterTypes()[0];
+      Class<?> otherType = other.getParameterTypes()[0];
+      if(type != otherType) {
+         if(otherType.isAssignableFrom(type)) {
+            return true;
+         } else if(type.isAssignableFrom(otherType)) {
+            return false;
+         }
+      }
+      Class<?> declarer = method.getDeclaringClass();
+      Class<?> otherDeclarer = other.getDeclaringClass();
+      if(declarer != otherDeclarer) {
+         if(otherDeclarer.isAssignableFrom(declarer)) {
+            return true;
+         } else if(declarer.isAssignableFrom(otherDeclarer)) {
+            return false;
+         }
+      }
+      return type.getName().compareTo(otherType.getName()) < 0;
+   }
+
+   /**
+    * Adds the setter for a property if it's accessible
+    * @param setters The setters to add to
+    * @param name The name of the property
+    * @param member The setter method or field
+    */
+   private static void addSetter(Map<String, MethodHandle> setters,
+         String name, Object member) {
+      MethodHandle setter;
+      try {
+         if(member instanceof Method) {
+            Method method = (Method)member;
+            method.trySetAccessible();
+            setter = sLookup.unreflect(method);
+         } else {
+            Field field = (Field)member;
+            field.trySetAccessible();
+            setter = sLookup.unreflectSetter(field);
+         }
+      } catch (IllegalAccessException e) {
+         return;
+      }
+      //Erase the target type so the setter can be called exactly
+      setters.put(name, setter.asType(MethodType.methodType(void.class,
+            Object.class, setter.type().parameterType(1))));
+   }
+
+   /**
+    * Creates a property that converts values from the given type
+    * @param registry The registry to get the adapter from
+    * @param setter The setter of the property
+    * @param fromType The type of values to convert from
+    * @return The property, or null if no adapter converts from fromType to
+    * the property type
+    */
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   private static Property createProperty(AdapterRegistry registry,
+         MethodHandle setter, Class fromType) {
+      Class<?> propertyType = setter.type().parameterType(1);
+      try {
+         if(propertyType == int.class) {
+            return new IntProperty(setter,
+                  registry.getIntAdapter(fromType));
+         } else if(propertyType == long.class) {
+            return new LongProperty(setter,
+                  registry.getLongAdapter(fromType));
+         } else if(propertyType == double.class) {
+            return new DoubleProperty(setter,
+                  registry.getDoubleAdapter(fromType));
+         } else if(propertyType == boolean.class) {
+            return new BooleanProperty(setter,
+                  registry.getBooleanAdapter(fromType));
+         } else {
+            Class wrapper = AdapterFactory.getWrapper(propertyType);
+            return new ObjectProperty(setter.asType(MethodType.methodType(
+                  void.class, Object.class, Object.class)),
+                  registry.getAdapter(fromType, (Class)propertyType),
+                  wrapper);
+         }
+      } catch (AdapterNotFoundException e) {
+         //No way to convert to this property, leave it out
+         return null;
+      }
+   }
+
+   /**
+    * Finds the public no argument constructor of the type
+    * @param type The type
+    * @return The constructor, or null if there isn't one
+    */
+   private static MethodHandle findConstructor(Class<?> type) {
+      try {
+         return sLookup.unreflectConstructor(type.getConstructor())
+               .asType(MethodType.methodType(Object.class));
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+         return null;
+      }
+   }
+
+   /**
+    * Converts a setter name to a property name using the bean rules, so
+    * "Foo" becomes "foo" but "URL" stays "URL"
+    * @param name The name without the set prefix
+    * @return The property name
+    */
+   private static String decapitalize(String name) {
+      if(name.length() > 1 && Character.isUpperCase(name.charAt(1)) &&
+            Character.isUpperCase(name.charAt(0))) {
+         return name;
+      }
+      return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+   }
+
+   /**
+    * A property that can be set from values of some type
+    */
+   @SuppressWarnings("rawtypes")
+   private static abstract class Property implements Setter {
+
+      Property(MethodHandle setter) {
+         this.setter = setter;
+      }
+
+      abstract void invoke(Object target, Object value) throws Throwable;
+
+      @Override
+      public void set(Object target, Object value) {
+         try {
+            invoke(target, value);
+         } catch (RuntimeException | Error e) {
+            throw e;
+         } catch (Throwable e) {
+            throw new BinderException("Unable to set " + setter, e);
+         }
+      }
+
+      /** Setter of type (Object, property type)void **/
+      final MethodHandle setter;
+   }
+
+   private static final class ObjectProperty extends Property {
+
+      ObjectProperty(MethodHandle setter, Adapter<Object, Object> adapter,
+            Class<Object> propertyType) {
+         super(setter);
+         this.adapter = adapter;
+         this.propertyType = propertyType;
+      }
+
+      @Override
+      void invoke(Object target, Object value) throws Throwable {
+         setter.invokeExact(target, adapter.convert(value, propertyType));
+      }
+
+      private final Adapter<Object, Object> adapter;
+      private final Class<Object> propertyType;
+   }
+
+   private static final class IntProperty extends Property {
+
+      IntProperty(MethodHandle setter, ToIntAdapter<Object> adapter) {
+         super(setter);
+         this.adapter = adapter;
+      }
+
+      @Override
+      void invoke(Object target, Object value) throws Throwable {
+         setter.invokeExact(target, adapter.convertToInt(value));
+      }
+
+      private final ToIntAdapter<Object> adapter;
+   }
+
+   private static final class LongProperty extends Property {
+
+      LongProperty(MethodHandle setter, ToLongAdapter<Object> adapter) {
+         super(setter);
+         this.adapter = adapter;
+      }
+
+      @Override
+      void invoke(Object target, Object value) throws Throwable {
+         setter.invokeExact(target, adapter.convertToLong(value));
+      }
+
+      private final ToLongAdapter<Object> adapter;
+   }
+
+   private static final class DoubleProperty extends Property {
+
+      DoubleProperty(MethodHandle setter, ToDoubleAdapter<Object> adapter) {
+         super(setter);
+         this.adapter = adapter;
+      }
+
+      @Override
+      void invoke(Object target, Object value) throws Throwable {
+         setter.invokeExact(target, adapter.convertToDouble(value));
+      }
+
+      private final ToDoubleAdapter<Object> adapter;
+   }
+
+   private static final class BooleanProperty extends Property {
+
+      BooleanProperty(MethodHandle setter, ToBooleanAdapter<Object> adapter) {
+         super(setter);
+         this.adapter = adapter;
+      }
+
+      @Override
+      void invoke(Object target, Object value) throws Throwable {
+         setter.invokeExact(target, adapter.convertToBoolean(value));
+      }
+
+      private final ToBooleanAdapter<Object> adapter;
+   }
+
+   /** Lookup used to create the setters **/
+   private static final MethodHandles.Lookup sLookup = MethodHandles.lookup();
+
+   /** The type this binds **/
+   private final Class<T> type;
+   /** The registry to get adapters from **/
+   private final AdapterRegistry registry;
+   /** The no argument constructor, or null if there isn't one **/
+   private final MethodHandle constructor;
+   /** Mapping from property name to setter handle **/
+   private final Map<String, MethodHandle> setters;
+   /** Mapping from property name to property set from strings **/
+   private final Map<String, Property> properties;
+}
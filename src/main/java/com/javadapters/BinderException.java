@@ -0,0 +1,17 @@
+package com.javadapters;
+
+/**
+ * Thrown by a {@link Binder} when a value can't be set on an object
+ */
+public class BinderException extends RuntimeException {
+
+   private static final long serialVersionUID = -2186453306284412958L;
+
+   public BinderException(String message) {
+      super(message);
+   }
+
+   public BinderException(String message, Throwable cause) {
+      super(message, cause);
+   }
+}
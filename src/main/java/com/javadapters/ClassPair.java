@@ -17,6 +17,20 @@ public class ClassPair<F,T> {
       toClass = to;
    }
 
+   /**
+    * @return The from class type
+    */
+   public Class<F> getFromClass() {
+      return fromClass;
+   }
+
+   /**
+    * @return The to class type
+    */
+   public Class<T> getToClass() {
+      return toClass;
+   }
+
    @SuppressWarnings({ "rawtypes" })
    @Override
    public boolean equals(Object obj) {
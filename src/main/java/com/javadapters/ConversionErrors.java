@@ -0,0 +1,115 @@
+package com.javadapters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects the errors of a batch conversion by index, so a bad value does
+ * not abort the rest of the batch. Errors may be added from multiple threads.
+ */
+public class ConversionErrors {
+
+   /**
+    * Records the error converting the value at the given index
+    * @param index The index of the value that failed to convert
+    * @param error The error
+    */
+   public synchronized void add(int index, RuntimeException error) {
+      if(size == indexes.length) {
+         indexes = Arrays.copyOf(indexes, size * 2);
+      }
+      indexes[size++] = index;
+      errors.add(error);
+      sorted = false;
+   }
+
+   /**
+    * @return The number of values that failed to convert
+    */
+   public synchronized int size() {
+      return size;
+   }
+
+   /**
+    * @return True if every value converted
+    */
+   public synchronized boolean isEmpty() {
+      return size == 0;
+   }
+
+   /**
+    * @return The indexes of the values that failed to convert, in order
+    */
+   public synchronized int[] getIndexes() {
+      sort();
+      return Arrays.copyOf(indexes, size);
+   }
+
+   /**
+    * Gets the error for the given index
+    * @param index The index of the value
+    * @return The error, or null if the value at that index converted
+    */
+   public synchronized RuntimeException getError(int index) {
+      sort();
+      int i = Arrays.binarySearch(indexes, 0, size, index);
+      return (i < 0) ? null : errors.get(i);
+   }
+
+   /**
+    * Removes all the recorded errors so this can be reused
+    */
+   public synchronized void clear() {
+      size = 0;
+      errors.clear();
+      sorted = true;
+   }
+
+   @Override
+   public synchronized String toString() {
+      sort();
+      StringBuilder sb = new StringBuilder("ConversionErrors[");
+      for(int i = 0; i < size; ++i) {
+         if(i > 0) {
+            sb.append(", ");
+         }
+         sb.append(indexes[i]).append('=').append(errors.get(i));
+      }
+      return sb.append(']').toString();
+   }
+
+   /**
+    * Sorts the errors by index, errors from parallel conversions are added
+    * out of order
+    */
+   private void sort() {
+      if(sorted) {
+         return;
+      }
+      Integer[] order = new Integer[size];
+      for(int i = 0; i < size; ++i) {
+         order[i] = i;
+      }
+      final int[] unsorted = indexes;
+      Arrays.sort(order, (a, b) -> Integer.compare(unsorted[a], unsorted[b]));
+      int[] sortedIndexes = new int[indexes.length];
+      List<RuntimeException> sortedErrors = new ArrayList<RuntimeException>(size);
+      for(int i = 0; i < size; ++i) {
+         sortedIndexes[i] = indexes[order[i]];
+         sortedErrors.add(errors.get(order[i]));
+      }
+      indexes = sortedIndexes;
+      errors = sortedErrors;
+      sorted = true;
+   }
+
+   /** Indexes of the values that failed **/
+   private int[] indexes = new int[8];
+   /** Errors matching each index **/
+   private List<RuntimeException> errors = new ArrayList<RuntimeException>();
+   /** The number of errors **/
+   private int size;
+   /** True if the errors are in index order **/
+   private boolean sorted = true;
+}
@@ -0,0 +1,195 @@
+package com.javadapters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.TextAdapters;
+import com.javadapters.adapters.ToBooleanAdapter;
+import com.javadapters.adapters.ToDoubleAdapter;
+import com.javadapters.adapters.ToIntAdapter;
+import com.javadapters.adapters.ToLongAdapter;
+import com.javadapters.adapters.ToTextAdapter;
+
+/**
+ * Adapter that records the conversions of another adapter in
+ * {@link AdapterMetrics}. Lookups only return these while metrics are on.
+ * <p>
+ * It implements each of the primitive adapter interfaces and
+ * {@link ToTextAdapter} so that those conversions stay unboxed when the
+ * wrapped adapter supports them, which is only valid because the registry
+ * only casts an adapter to one of them when it converts to the matching
+ * wrapper type or to String. Failures are only counted
+ * when a conversion throws, not when tryConvert falls back to its default.
+ * @param <F> The type to convert from
+ * @param <T> The type to convert to
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+class InstrumentedAdapter<F,T> implements Adapter<F,T>, ToIntAdapter<F>,
+      ToLongAdapter<F>, ToDoubleAdapter<F>, ToBooleanAdapter<F>,
+      ToTextAdapter<F> {
+
+   /**
+    * Constructor
+    * @param adapter The adapter to record
+    * @param metrics The metrics of the pair of types it converts
+    */
+   InstrumentedAdapter(Adapter<F,T> adapter, AdapterMetrics.PairMetrics metrics) {
+      this.adapter = adapter;
+      this.metrics = metrics;
+   }
+
+   /**
+    * @return The adapter being recorded
+    */
+   Adapter<F,T> getAdapter() {
+      return adapter;
+   }
+
+   @Override
+   public T convert(F from, Class<T> clazz) {
+      long start = metrics.startTiming();
+      try {
+         T result = adapter.convert(from, clazz);
+         metrics.stopTiming(start);
+         return result;
+      } catch (RuntimeException e) {
+         metrics.failed();
+         throw e;
+      }
+   }
+
+   @Override
+   public T tryConvert(F from, Class<T> clazz, T defaultValue) {
+      long start = metrics.startTiming();
+      T result = adapter.tryConvert(from, clazz, defaultValue);
+      metrics.stopTiming(start);
+      return result;
+   }
+
+   @Override
+   public int convertToInt(F from) {
+      long start = metrics.startTiming();
+      try {
+         int result = (adapter instanceof ToIntAdapter) ?
+               ((ToIntAdapter<F>)adapter).convertToInt(from) :
+               ((Adapter<F,Integer>)adapter).convert(from, Integer.class);
+         metrics.stopTiming(start);
+         return result;
+      } catch (RuntimeException e) {
+         metrics.failed();
+         throw e;
+      }
+   }
+
+   @Override
+   public long convertToLong(F from) {
+      long start = metrics.startTiming();
+      try {
+         long result = (adapter instanceof ToLongAdapter) ?
+               ((ToLongAdapter<F>)adapter).convertToLong(from) :
+               ((Adapter<F,Long>)adapter).convert(from, Long.class);
+         metrics.stopTiming(start);
+         return result;
+      } catch (RuntimeException e) {
+         metrics.failed();
+         throw e;
+      }
+   }
+
+   @Override
+   public double convertToDouble(F from) {
+      long start = metrics.startTiming();
+      try {
+         double result = (adapter instanceof ToDoubleAdapter) ?
+               ((ToDoubleAdapter<F>)adapter).convertToDouble(from) :
+               ((Adapter<F,Double>)adapter).convert(from, Double.class);
+         metrics.stopTiming(start);
+         return result;
+      } catch (RuntimeException e) {
+         metrics.failed();
+         throw e;
+      }
+   }
+
+   @Override
+   public boolean convertToBoolean(F from) {
+      long start = metrics.startTiming();
+      try {
+         boolean result = (adapter instanceof ToBooleanAdapter) ?
+               ((ToBooleanAdapter<F>)adapter).convertToBoolean(from) :
+               ((Adapter<F,Boolean>)adapter).convert(from, Boolean.class);
+         metrics.stopTiming(start);
+         return result;
+      } catch (RuntimeException e) {
+         metrics.failed();
+         throw e;
+      }
+   }
+
+   @Override
+   public void appendTo(F from, StringBuilder to) {
+      long start = metrics.startTiming();
+      try {
+         text().appendTo(from, to);
+         metrics.stopTiming(start);
+      } catch (RuntimeException e) {
+         metrics.failed();
+         throw e;
+      }
+   }
+
+   @Override
+   public void appendTo(F from, Appendable to) throws IOException {
+      long start = metrics.startTiming();
+      try {
+         text().appendTo(from, to);
+         metrics.stopTiming(start);
+      } catch (RuntimeException | IOException e) {
+         metrics.failed();
+         throw e;
+      }
+   }
+
+   @Override
+   public int write(F from, char[] to, int offset) {
+      long start = metrics.startTiming();
+      try {
+         int result = text().write(from, to, offset);
+         metrics.stopTiming(start);
+         return result;
+      } catch (RuntimeException e) {
+         metrics.failed();
+         throw e;
+      }
+   }
+
+   @Override
+   public void write(F from, ByteBuffer to) {
+      long start = metrics.startTiming();
+      try {
+         text().write(from, to);
+         metrics.stopTiming(start);
+      } catch (RuntimeException e) {
+         metrics.failed();
+         throw e;
+      }
+   }
+
+   /**
+    * @return The wrapped adapter as a text adapter
+    */
+   private ToTextAdapter<F> text() {
+      return TextAdapters.fromStringAdapter((Adapter<F,String>)adapter);
+   }
+
+   @Override
+   public String toString() {
+      return "Instrumented(" + adapter + ")";
+   }
+
+   /** The adapter being recorded **/
+   private final Adapter<F,T> adapter;
+   /** The metrics to record to **/
+   private final AdapterMetrics.PairMetrics metrics;
+}
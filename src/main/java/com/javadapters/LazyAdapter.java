@@ -0,0 +1,81 @@
+package com.javadapters;
+
+import com.javadapters.adapters.Adapter;
+
+/**
+ * Placeholder for an adapter from an index, which loads and constructs the
+ * adapter class the first time it's needed. Registries replace the
+ * placeholder with the adapter when they resolve it, so lookups return the
+ * adapter itself and its primitive adapter interfaces stay visible.
+ * @param <F> The type to convert from
+ * @param <T> The type to convert to
+ */
+class LazyAdapter<F,T> implements Adapter<F,T> {
+
+   /**
+    * Constructor
+    * @param className The binary name of the adapter class
+    * @param loader The class loader to load it with
+    */
+   LazyAdapter(String className, ClassLoader loader) {
+      this.className = className;
+      this.loader = loader;
+   }
+
+   /**
+    * @param adapter A registered adapter
+    * @return The adapter, loaded if it's a placeholder
+    */
+   static Adapter<?,?> load(Adapter<?,?> adapter) {
+      return (adapter instanceof LazyAdapter) ?
+            ((LazyAdapter<?,?>)adapter).get() : adapter;
+   }
+
+   /**
+    * @return The adapter, which is constructed on the first call
+    * @throws IllegalStateException If the adapter can't be constructed
+    */
+   @SuppressWarnings("unchecked")
+   Adapter<F,T> get() {
+      Adapter<F,T> result = adapter;
+      if(result == null) {
+         synchronized(this) {
+            result = adapter;
+            if(result == null) {
+               try {
+                  result = Class.forName(className, true, loader)
+                        .asSubclass(Adapter.class).getConstructor().newInstance();
+               } catch (ReflectiveOperationException | ClassCastException |
+                     LinkageError e) {
+                  throw new IllegalStateException("Can't construct adapter " +
+                        className, e);
+               }
+               adapter = result;
+            }
+         }
+      }
+      return result;
+   }
+
+   @Override
+   public T convert(F from, Class<T> clazz) {
+      return get().convert(from, clazz);
+   }
+
+   @Override
+   public T tryConvert(F from, Class<T> clazz, T defaultValue) {
+      return get().tryConvert(from, clazz, defaultValue);
+   }
+
+   @Override
+   public String toString() {
+      return "Lazy(" + className + ")";
+   }
+
+   /** The binary name of the adapter class **/
+   private final String className;
+   /** The class loader to load it with **/
+   private final ClassLoader loader;
+   /** The adapter, or null until it's constructed **/
+   private volatile Adapter<F,T> adapter;
+}
@@ -0,0 +1,183 @@
+package com.javadapters;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.ByteSlice;
+import com.javadapters.adapters.CharSlice;
+import com.javadapters.adapters.CollectionAdapters;
+import com.javadapters.adapters.CollectionAdapters.ToArrayAdapter;
+import com.javadapters.adapters.CollectionAdapters.ToBooleanArrayAdapter;
+import com.javadapters.adapters.CollectionAdapters.ToCollectionAdapter;
+import com.javadapters.adapters.CollectionAdapters.ToDoubleArrayAdapter;
+import com.javadapters.adapters.CollectionAdapters.ToIntArrayAdapter;
+import com.javadapters.adapters.CollectionAdapters.ToLongArrayAdapter;
+import com.javadapters.adapters.CollectionAdapters.ToMapAdapter;
+
+/**
+ * Creates the {@link CollectionAdapters} to convert text to array, collection
+ * and map types, with element adapters from a registry. Lists and other
+ * collections are created as an {@link ArrayList}, sets as a
+ * {@link LinkedHashSet} and maps as a {@link LinkedHashMap}. Elements must be
+ * plain classes, arrays of collections and collections of collections are
+ * not supported.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+final class TypeAdapters {
+
+   private TypeAdapters() {
+   }
+
+   /**
+    * @param registry The registry to get the element adapters from
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @return The adapter, or null if toType is not an array, collection or map
+    * type, fromType is not text, or there is no adapter for the elements
+    */
+   static Adapter<?,?> resolve(AdapterRegistry registry, Type fromType,
+         Type toType) {
+      Class<?> from = rawType(fromType);
+      if(from == null || !CharSequence.class.isAssignableFrom(from)) {
+         return null;
+      }
+      //The fields are viewed as the same kind of slice as the text
+      Class<?> view = ByteSlice.class.isAssignableFrom(from) ? ByteSlice.class :
+            CharSlice.class;
+      if(toType instanceof Class && ((Class<?>)toType).isArray()) {
+         return array(registry, view, ((Class<?>)toType).getComponentType());
+      }
+      if(!(toType instanceof ParameterizedType)) {
+         return null;
+      }
+      Class<?> raw = (Class<?>)((ParameterizedType)toType).getRawType();
+      Type[] arguments = ((ParameterizedType)toType).getActualTypeArguments();
+      if(raw.isAssignableFrom(LinkedHashMap.class)) {
+         Class key = elementType(arguments[0]);
+         Class value = elementType(arguments[1]);
+         Adapter keyAdapter = element(registry, view, key);
+         Adapter valueAdapter = element(registry, view, value);
+         if(keyAdapter == null || valueAdapter == null) {
+            return null;
+         }
+         return new ToMapAdapter(keyAdapter, key, valueAdapter, value,
+               CollectionAdapters.DEFAULT_DELIMITER,
+               CollectionAdapters.DEFAULT_SEPARATOR);
+      }
+      boolean list = raw.isAssignableFrom(ArrayList.class);
+      if(!list && !raw.isAssignableFrom(LinkedHashSet.class)) {
+         return null;
+      }
+      Class element = elementType(arguments[0]);
+      Adapter adapter = element(registry, view, element);
+      if(adapter == null) {
+         return null;
+      }
+      return new ToCollectionAdapter(adapter, element,
+            list ? ArrayList::new : LinkedHashSet::new,
+            CollectionAdapters.DEFAULT_DELIMITER);
+   }
+
+   /**
+    * @param type A type
+    * @return The class of the type, or null if it has none
+    */
+   static Class<?> rawType(Type type) {
+      if(type instanceof Class) {
+         return (Class<?>)type;
+      } else if(type instanceof ParameterizedType) {
+         return (Class<?>)((ParameterizedType)type).getRawType();
+      } else if(type instanceof GenericArrayType) {
+         Class<?> component = rawType(
+               ((GenericArrayType)type).getGenericComponentType());
+         return (component == null) ? null :
+               Array.newInstance(component, 0).getClass();
+      } else if(type instanceof WildcardType) {
+         return rawType(((WildcardType)type).getUpperBounds()[0]);
+      } else if(type instanceof TypeVariable) {
+         return rawType(((TypeVariable<?>)type).getBounds()[0]);
+      }
+      return null;
+   }
+
+   /**
+    * @param registry The registry to get the element adapters from
+    * @param view The type of slice the fields are viewed as
+    * @param component The component type of the array
+    * @return The adapter, or null if there is no adapter for the components
+    */
+   private static Adapter<?,?> array(AdapterRegistry registry, Class view,
+         Class<?> component) {
+      if(component.isArray()) {
+         return null;
+      }
+      char delimiter = CollectionAdapters.DEFAULT_DELIMITER;
+      try {
+         if(component == int.class) {
+            return new ToIntArrayAdapter(registry.getIntAdapter(view), delimiter);
+         } else if(component == long.class) {
+            return new ToLongArrayAdapter(registry.getLongAdapter(view), delimiter);
+         } else if(component == double.class) {
+            return new ToDoubleArrayAdapter(registry.getDoubleAdapter(view),
+                  delimiter);
+         } else if(component == boolean.class) {
+            return new ToBooleanArrayAdapter(registry.getBooleanAdapter(view),
+                  delimiter);
+         }
+         Adapter adapter = element(registry, view, component);
+         return (adapter == null) ? null :
+               new ToArrayAdapter(adapter, component, delimiter);
+      } catch (AdapterNotFoundException e) {
+         return null;
+      }
+   }
+
+   /**
+    * Gets the adapter for the elements. The view is reused for every field,
+    * so elements the view itself could be passed through as, such as
+    * CharSequence or Object, are copied to a String, and elements of the
+    * slice types are not supported.
+    * @param registry The registry to get the element adapters from
+    * @param view The type of slice the fields are viewed as
+    * @param element The type of element, or null if it's not supported
+    * @return The adapter for the elements, or null if there is none
+    */
+   private static Adapter<?,?> element(AdapterRegistry registry, Class view,
+         Class<?> element) {
+      if(element == null || element.isArray()) {
+         return null;
+      }
+      if(element.isAssignableFrom(view)) {
+         return element.isAssignableFrom(String.class) ? sCopyAdapter : null;
+      }
+      return registry.tryGetAdapter(view, element);
+   }
+
+   /** Copies each field to a String **/
+   private static final Adapter<CharSequence, Object> sCopyAdapter =
+         new Adapter<CharSequence, Object>() {
+      @Override
+      public Object convert(CharSequence from, Class<Object> clazz) {
+         return (from == null) ? null : from.toString();
+      }
+   };
+
+   /**
+    * @param argument A type argument of a collection or map
+    * @return The class of the elements, or null if they are generic
+    */
+   private static Class<?> elementType(Type argument) {
+      if(argument instanceof WildcardType) {
+         argument = ((WildcardType)argument).getUpperBounds()[0];
+      }
+      return (argument instanceof Class) ? (Class<?>)argument : null;
+   }
+}
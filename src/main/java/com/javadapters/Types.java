@@ -0,0 +1,131 @@
+package com.javadapters;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Creates the generic types to look adapters up by, see
+ * {@link AdapterRegistry#getAdapter(Type, Type)}. The types are equal to the
+ * ones from reflection, such as {@link java.lang.reflect.Field#getGenericType()},
+ * so either can be used.
+ */
+public final class Types {
+
+   private Types() {
+   }
+
+   /**
+    * @param element The type of element
+    * @return The type List&lt;element&gt;
+    */
+   public static ParameterizedType listOf(Type element) {
+      return parameterized(List.class, element);
+   }
+
+   /**
+    * @param element The type of element
+    * @return The type Set&lt;element&gt;
+    */
+   public static ParameterizedType setOf(Type element) {
+      return parameterized(Set.class, element);
+   }
+
+   /**
+    * @param key The type of key
+    * @param value The type of value
+    * @return The type Map&lt;key, value&gt;
+    */
+   public static ParameterizedType mapOf(Type key, Type value) {
+      return parameterized(Map.class, key, value);
+   }
+
+   /**
+    * @param rawType The generic class
+    * @param arguments The type arguments
+    * @return The type rawType&lt;arguments&gt;
+    * @throws IllegalArgumentException If the number of arguments doesn't
+    * match the type parameters of rawType
+    */
+   public static ParameterizedType parameterized(Class<?> rawType,
+         Type... arguments) {
+      TypeVariable<?>[] parameters = rawType.getTypeParameters();
+      if(parameters.length != arguments.length) {
+         throw new IllegalArgumentException(rawType.getName() + " takes " +
+               parameters.length + " type arguments, not " + arguments.length);
+      }
+      for(Type argument : arguments) {
+         Objects.requireNonNull(argument, "argument");
+      }
+      return new ParameterizedTypeImpl(rawType, arguments.clone());
+   }
+
+   /**
+    * A generic type, which has the same equals and hashCode as the types
+    * from reflection
+    */
+   private static final class ParameterizedTypeImpl implements ParameterizedType {
+
+      ParameterizedTypeImpl(Class<?> rawType, Type[] arguments) {
+         this.rawType = rawType;
+         this.arguments = arguments;
+         this.ownerType = rawType.getDeclaringClass();
+      }
+
+      @Override
+      public Type[] getActualTypeArguments() {
+         return arguments.clone();
+      }
+
+      @Override
+      public Type getRawType() {
+         return rawType;
+      }
+
+      @Override
+      public Type getOwnerType() {
+         return ownerType;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         if(!(obj instanceof ParameterizedType)) {
+            return false;
+         }
+         ParameterizedType other = (ParameterizedType)obj;
+         return rawType.equals(other.getRawType()) &&
+               Objects.equals(ownerType, other.getOwnerType()) &&
+               Arrays.equals(arguments, other.getActualTypeArguments());
+      }
+
+      @Override
+      public int hashCode() {
+         return Arrays.hashCode(arguments) ^ Objects.hashCode(ownerType) ^
+               rawType.hashCode();
+      }
+
+      @Override
+      public String toString() {
+         StringBuilder sb = new StringBuilder(rawType.getTypeName()).append('<');
+         for(int i = 0; i < arguments.length; ++i) {
+            if(i > 0) {
+               sb.append(", ");
+            }
+            sb.append(arguments[i].getTypeName());
+         }
+         return sb.append('>').toString();
+      }
+
+      /** The generic class **/
+      private final Class<?> rawType;
+      /** The type arguments **/
+      private final Type[] arguments;
+      /** The class rawType is a member of, or null **/
+      private final Type ownerType;
+   }
+}
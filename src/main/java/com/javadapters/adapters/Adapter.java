@@ -1,5 +1,7 @@
 package com.javadapters.adapters;
 
+import com.javadapters.ConversionErrors;
+
 /**
  * Adapter interface used to convert values of one type to another type.
  *
@@ -15,4 +17,48 @@ public interface Adapter<F,T> {
     * @return T value
     */
    public T convert(F from, Class<T> clazz);
+
+   /**
+    * Converts from type F to T without throwing. The built-in adapters
+    * validate their input rather than catching exceptions.
+    * @param from The value to convert from
+    * @param clazz The class type of T
+    * @param defaultValue The value to return if from can't be converted
+    * @return T value, or defaultValue if from can't be converted or converts
+    * to null
+    */
+   public default T tryConvert(F from, Class<T> clazz, T defaultValue) {
+      try {
+         T value = convert(from, clazz);
+         return (value == null) ? defaultValue : value;
+      } catch (RuntimeException e) {
+         return defaultValue;
+      }
+   }
+
+   /**
+    * Converts the values in the range [start, end) of from into the same
+    * indexes of to. A value that fails to convert is set to null and its
+    * error is recorded, the rest of the range is still converted.
+    * @param from The values to convert from
+    * @param to The array to hold the T values
+    * @param start The first index to convert
+    * @param end The index after the last index to convert
+    * @param clazz The class type of T
+    * @param errors Records the errors, or null to throw the first error
+    */
+   public default void convertAll(F[] from, T[] to, int start, int end,
+         Class<T> clazz, ConversionErrors errors) {
+      for(int i = start; i < end; ++i) {
+         try {
+            to[i] = convert(from[i], clazz);
+         } catch (RuntimeException e) {
+            if(errors == null) {
+               throw e;
+            }
+            to[i] = null;
+            errors.add(i, e);
+         }
+      }
+   }
 }
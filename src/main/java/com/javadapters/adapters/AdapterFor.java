@@ -0,0 +1,50 @@
+package com.javadapters.adapters;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Registers an {@link Adapter} class for a pair of types at build time. The
+ * annotation processor in this library writes every annotated class to an
+ * index resource, and {@link com.javadapters.AdapterRegistry.Builder#addIndexed()}
+ * reads the indexes to register the adapters without scanning the class
+ * path. An adapter is only loaded and constructed the first time it's looked
+ * up, so it needs a public constructor with no arguments.
+ * <p>
+ * The annotation can be repeated to register a class for several pairs, in
+ * which case each pair gets its own instance.
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+@Repeatable(AdapterFor.List.class)
+public @interface AdapterFor {
+
+   /**
+    * @return The type to convert from
+    */
+   Class<?> from();
+
+   /**
+    * @return The type to convert to
+    */
+   Class<?> to();
+
+   /**
+    * Holds repeated {@link AdapterFor} annotations
+    */
+   @Documented
+   @Retention(RetentionPolicy.CLASS)
+   @Target(ElementType.TYPE)
+   public @interface List {
+
+      /**
+       * @return The pairs of types the class is registered for
+       */
+      AdapterFor[] value();
+   }
+}
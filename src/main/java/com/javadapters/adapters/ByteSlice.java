@@ -0,0 +1,200 @@
+package com.javadapters.adapters;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable view over a range of bytes of a byte array or
+ * {@link ByteBuffer}, used to convert fields straight out of an I/O buffer
+ * without decoding them into a new String.
+ * <p>
+ * As a {@link CharSequence} each byte is one character, which is exact for
+ * ASCII text. That covers numeric, boolean and date fields. Use
+ * {@link #isAscii()} to check, and {@link #toString()} to decode the bytes as
+ * UTF-8 otherwise. The slice is not thread safe and does not copy the bytes,
+ * so the source must not change while it is in use.
+ */
+public class ByteSlice implements CharSequence {
+
+   /**
+    * Constructor for an empty slice
+    */
+   public ByteSlice() {
+      this(new byte[0], 0, 0);
+   }
+
+   /**
+    * Constructor
+    * @param source The bytes to view
+    * @param offset The index of the first byte
+    * @param length The number of bytes
+    */
+   public ByteSlice(byte[] source, int offset, int length) {
+      set(source, offset, length);
+   }
+
+   /**
+    * Constructor
+    * @param source The bytes to view
+    * @param offset The absolute index of the first byte in the buffer
+    * @param length The number of bytes
+    */
+   public ByteSlice(ByteBuffer source, int offset, int length) {
+      set(source, offset, length);
+   }
+
+   /**
+    * Points this slice at a new range of bytes
+    * @param source The bytes to view
+    * @param offset The index of the first byte
+    * @param length The number of bytes
+    * @return This slice
+    */
+   public ByteSlice set(byte[] source, int offset, int length) {
+      checkRange(offset, length, source.length);
+      this.array = source;
+      this.buffer = null;
+      this.offset = offset;
+      this.length = length;
+      return this;
+   }
+
+   /**
+    * Points this slice at a new range of bytes. The position and limit of the
+    * buffer are not used or changed.
+    * @param source The bytes to view
+    * @param offset The absolute index of the first byte in the buffer
+    * @param length The number of bytes
+    * @return This slice
+    */
+   public ByteSlice set(ByteBuffer source, int offset, int length) {
+      checkRange(offset, length, source.capacity());
+      if(source.hasArray()) {
+         this.array = source.array();
+         this.buffer = null;
+         this.offset = source.arrayOffset() + offset;
+      } else {
+         this.array = null;
+         this.buffer = source;
+         this.offset = offset;
+      }
+      this.length = length;
+      return this;
+   }
+
+   /**
+    * Points this slice at a range of the bytes of another slice
+    * @param source The slice to view part of
+    * @param start The index of the first byte relative to the source
+    * @param end The index after the last byte relative to the source
+    * @return This slice
+    */
+   ByteSlice set(ByteSlice source, int start, int end) {
+      checkRange(start, end - start, source.length);
+      this.array = source.array;
+      this.buffer = source.buffer;
+      this.offset = source.offset + start;
+      this.length = end - start;
+      return this;
+   }
+
+   /**
+    * Gets a byte of this slice
+    * @param index The index of the byte relative to the start of the slice
+    * @return The byte
+    */
+   public byte byteAt(int index) {
+      if(index < 0 || index >= length) {
+         throw new IndexOutOfBoundsException("index " + index + ", length " +
+               length);
+      }
+      return (array != null) ? array[offset + index] : buffer.get(offset + index);
+   }
+
+   /**
+    * Gets 8 bytes of this slice at once, the first in the lowest byte
+    * @param index The index of the first byte relative to the start of the
+    * slice
+    * @return The bytes
+    */
+   long getLong(int index) {
+      if(index < 0 || index > length - 8) {
+         throw new IndexOutOfBoundsException("index " + index + ", length " +
+               length);
+      }
+      return (array != null) ? (long)sLongArrayView.get(array, offset + index) :
+            (long)sLongBufferView.get(buffer, offset + index);
+   }
+
+   /**
+    * @return True if every byte of this slice is an ASCII character
+    */
+   public boolean isAscii() {
+      for(int i = 0; i < length; ++i) {
+         if(byteAt(i) < 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public int length() {
+      return length;
+   }
+
+   @Override
+   public char charAt(int index) {
+      return (char)(byteAt(index) & 0xFF);
+   }
+
+   @Override
+   public CharSequence subSequence(int start, int end) {
+      if(start < 0 || end < start || end > length) {
+         throw new IndexOutOfBoundsException("start " + start + ", end " + end +
+               ", length " + length);
+      }
+      return (array != null) ? new ByteSlice(array, offset + start, end - start) :
+            new ByteSlice(buffer, offset + start, end - start);
+   }
+
+   /**
+    * @return The bytes of this slice decoded as UTF-8
+    */
+   @Override
+   public String toString() {
+      if(array != null) {
+         return new String(array, offset, length, StandardCharsets.UTF_8);
+      }
+      byte[] bytes = new byte[length];
+      for(int i = 0; i < length; ++i) {
+         bytes[i] = buffer.get(offset + i);
+      }
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   private static void checkRange(int offset, int length, int capacity) {
+      if(offset < 0 || length < 0 || offset + length > capacity) {
+         throw new IndexOutOfBoundsException("offset " + offset + ", length " +
+               length + ", capacity " + capacity);
+      }
+   }
+
+   /** Views to read 8 bytes at once from an array or a buffer **/
+   private static final VarHandle sLongArrayView =
+         MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+   private static final VarHandle sLongBufferView =
+         MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+   /** The array being viewed, or null if viewing a direct buffer **/
+   private byte[] array;
+   /** The buffer being viewed if it has no accessible array **/
+   private ByteBuffer buffer;
+   /** The index of the first byte **/
+   private int offset;
+   /** The number of bytes **/
+   private int length;
+}
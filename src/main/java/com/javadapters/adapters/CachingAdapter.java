@@ -0,0 +1,274 @@
+package com.javadapters.adapters;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Adapter that remembers the results of another adapter, for columns with a
+ * small number of distinct values such as dates, codes or statuses. The
+ * cache holds at most a fixed number of entries and evicts with the CLOCK
+ * (second chance) policy: each hit marks its entry, and eviction sweeps the
+ * entries in insertion order, sparing and unmarking the marked ones. Hits
+ * are lock free, only misses take a lock to insert and evict.
+ * <p>
+ * The input is used as the cache key, so it must be immutable with
+ * meaningful equals and hashCode, such as a String. Other text, such as a
+ * reused {@link CharSlice} or {@link ByteSlice}, is looked up by its
+ * characters in place and only copied to a String when its result is
+ * stored, since it may change later. Results are shared
+ * between callers unless a copier is given, so results of mutable types
+ * such as {@link java.util.Date} must be copied. Failed conversions are not
+ * cached.
+ *
+ * @param <F> From type
+ * @param <T> To type
+ */
+public class CachingAdapter<F,T> implements Adapter<F,T> {
+
+   /**
+    * Constructor
+    * @param adapter The adapter whose results to cache
+    * @param toType The type every conversion is to
+    * @param maximumSize The maximum number of results to cache
+    * @param copier Copies a cached result before returning it, or null to
+    * return the cached result itself
+    */
+   public CachingAdapter(Adapter<F,T> adapter, Class<T> toType,
+         int maximumSize, UnaryOperator<T> copier) {
+      if(maximumSize < 1) {
+         throw new IllegalArgumentException("maximumSize must be positive: " +
+               maximumSize);
+      }
+      this.adapter = adapter;
+      this.toType = toType;
+      this.copier = copier;
+      entries = new ConcurrentHashMap<Object, Entry<T>>(maximumSize * 4 / 3 + 1);
+      clock = newClock(maximumSize);
+   }
+
+   @Override
+   public T convert(F from, Class<T> clazz) {
+      if(from == null) {
+         return adapter.convert(from, clazz);
+      }
+      Entry<T> entry = lookup(from);
+      if(entry != null) {
+         hits.increment();
+         if(!entry.referenced) {
+            entry.referenced = true;
+         }
+      } else {
+         misses.increment();
+         T value = adapter.convert(from, toType);
+         entry = insert(keyOf(from), value);
+      }
+      return (copier == null || entry.value == null) ? entry.value :
+            copier.apply(entry.value);
+   }
+
+   /**
+    * @return The number of conversions answered from the cache
+    */
+   public long getHits() {
+      return hits.sum();
+   }
+
+   /**
+    * @return The number of conversions that had to call the adapter
+    */
+   public long getMisses() {
+      return misses.sum();
+   }
+
+   /**
+    * @return The number of results evicted from the cache
+    */
+   public long getEvictions() {
+      return evictions.sum();
+   }
+
+   /**
+    * @return The fraction of conversions answered from the cache
+    */
+   public double getHitRate() {
+      long hitCount = hits.sum();
+      long total = hitCount + misses.sum();
+      return (total == 0) ? 0 : (double)hitCount / total;
+   }
+
+   /**
+    * @return The number of cached results
+    */
+   public int size() {
+      return entries.size();
+   }
+
+   /**
+    * @return The adapter whose results are cached
+    */
+   public Adapter<F,T> getAdapter() {
+      return adapter;
+   }
+
+   /**
+    * Removes all the cached results and resets the counters
+    */
+   public synchronized void clear() {
+      entries.clear();
+      for(int i = 0; i < clock.length; ++i) {
+         clock[i] = null;
+      }
+      hand = 0;
+      hits.reset();
+      misses.reset();
+      evictions.reset();
+   }
+
+   @Override
+   public String toString() {
+      return "CachingAdapter[" + adapter + ", hits=" + hits.sum() +
+            ", misses=" + misses.sum() + ", size=" + entries.size() + "]";
+   }
+
+   /**
+    * @param from The input
+    * @return The cached entry for the input, or null if there is none
+    */
+   private Entry<T> lookup(Object from) {
+      if(!(from instanceof CharSequence) || from instanceof String) {
+         return entries.get(from);
+      }
+      if(from instanceof ByteSlice && !((ByteSlice)from).isAscii()) {
+         //Its characters aren't its text, look it up by the decoded text
+         return entries.get(from.toString());
+      }
+      TextProbe probe = sProbes.get();
+      probe.set((CharSequence)from);
+      try {
+         return entries.get(probe);
+      } finally {
+         probe.set(null);
+      }
+   }
+
+   /**
+    * @param from The input
+    * @return The key to cache the result of the input under
+    */
+   private static Object keyOf(Object from) {
+      return (from instanceof CharSequence && !(from instanceof String)) ?
+            from.toString() : from;
+   }
+
+   @SuppressWarnings("unchecked")
+   private static <T> Entry<T>[] newClock(int size) {
+      return (Entry<T>[])new Entry<?>[size];
+   }
+
+   /**
+    * Adds a result to the cache, evicting another if it's full
+    * @param key The key of the input
+    * @param value The result
+    * @return The entry holding the result
+    */
+   private synchronized Entry<T> insert(Object key, T value) {
+      Entry<T> entry = entries.get(key);
+      if(entry != null) {
+         //Another thread got here first
+         return entry;
+      }
+      entry = new Entry<T>(key, value);
+      //Sweep for a free slot or an entry that wasn't used since the last pass
+      while(true) {
+         Entry<T> victim = clock[hand];
+         if(victim == null) {
+            break;
+         }
+         if(!victim.referenced) {
+            entries.remove(victim.key);
+            evictions.increment();
+            break;
+         }
+         victim.referenced = false;
+         hand = (hand + 1) % clock.length;
+      }
+      clock[hand] = entry;
+      hand = (hand + 1) % clock.length;
+      entries.put(key, entry);
+      return entry;
+   }
+
+   /**
+    * Looks up text by its characters without copying it. It hashes like a
+    * String and equals a String with the same characters, which is how the
+    * keys of text are stored, since maps compare the key looked up to the
+    * keys stored.
+    */
+   private static final class TextProbe {
+
+      /**
+       * @param text The text to look up, or null once done
+       */
+      void set(CharSequence text) {
+         this.text = text;
+         int h = 0;
+         if(text != null) {
+            for(int i = 0; i < text.length(); ++i) {
+               h = 31 * h + text.charAt(i);
+            }
+         }
+         hash = h;
+      }
+
+      @Override
+      public int hashCode() {
+         return hash;
+      }
+
+      @Override
+      public boolean equals(Object obj) {
+         return (obj instanceof String) && ((String)obj).contentEquals(text);
+      }
+
+      private CharSequence text;
+      private int hash;
+   }
+
+   /**
+    * A cached result
+    */
+   private static final class Entry<T> {
+
+      Entry(Object key, T value) {
+         this.key = key;
+         this.value = value;
+      }
+
+      final Object key;
+      final T value;
+      /** Set on a hit, cleared as the clock hand passes **/
+      volatile boolean referenced;
+   }
+
+   /** The adapter whose results are cached **/
+   private final Adapter<F,T> adapter;
+   /** The type every conversion is to **/
+   private final Class<T> toType;
+   /** Copies cached results, or null to share them **/
+   private final UnaryOperator<T> copier;
+   /** Cached results by the key of their input **/
+   private final ConcurrentHashMap<Object, Entry<T>> entries;
+   /** The entries in clock order, guarded by this **/
+   private final Entry<T>[] clock;
+   /** The position of the clock hand, guarded by this **/
+   private int hand;
+
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+
+   /** Probe to look text up with per thread **/
+   private static final ThreadLocal<TextProbe> sProbes =
+         ThreadLocal.withInitial(TextProbe::new);
+}
@@ -0,0 +1,50 @@
+package com.javadapters.adapters;
+
+import java.util.Arrays;
+
+/**
+ * Adapter that converts through a chain of other adapters, for example
+ * String to Long and then Long to some timestamp type. If any step returns
+ * null then the result is null.
+ *
+ * @param <F> From type
+ * @param <T> To type
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class ChainedAdapter<F,T> implements Adapter<F,T> {
+
+   /**
+    * Constructor
+    * @param adapters The adapters to convert through, in order
+    * @param types The type each adapter converts to, the last one is ignored
+    * since it's given by the caller of {@link #convert}
+    */
+   public ChainedAdapter(Adapter<?,?>[] adapters, Class<?>[] types) {
+      if(adapters.length == 0 || adapters.length != types.length) {
+         throw new IllegalArgumentException("Need one type per adapter");
+      }
+      this.adapters = adapters.clone();
+      this.types = types.clone();
+   }
+
+   @Override
+   public T convert(F from, Class<T> clazz) {
+      Object value = from;
+      int last = adapters.length - 1;
+      for(int i = 0; i < last && value != null; ++i) {
+         value = ((Adapter)adapters[i]).convert(value, types[i]);
+      }
+      return (value == null) ? null :
+            ((Adapter<Object,T>)adapters[last]).convert(value, clazz);
+   }
+
+   @Override
+   public String toString() {
+      return "ChainedAdapter" + Arrays.toString(adapters);
+   }
+
+   /** The adapters to convert through **/
+   private final Adapter<?,?>[] adapters;
+   /** The type each adapter converts to **/
+   private final Class<?>[] types;
+}
@@ -0,0 +1,80 @@
+package com.javadapters.adapters;
+
+/**
+ * A reusable view over a range of characters of some other
+ * {@link CharSequence}, used to convert fields of a larger buffer without
+ * copying them into a new String. The slice is not thread safe and does not
+ * copy the characters, so the source must not change while it is in use.
+ */
+public class CharSlice implements CharSequence {
+
+   /**
+    * Constructor for an empty slice
+    */
+   public CharSlice() {
+      this("", 0, 0);
+   }
+
+   /**
+    * Constructor
+    * @param source The characters to view
+    * @param start The index of the first character
+    * @param end The index after the last character
+    */
+   public CharSlice(CharSequence source, int start, int end) {
+      set(source, start, end);
+   }
+
+   /**
+    * Points this slice at a new range of characters
+    * @param source The characters to view
+    * @param start The index of the first character
+    * @param end The index after the last character
+    * @return This slice
+    */
+   public CharSlice set(CharSequence source, int start, int end) {
+      if(start < 0 || end < start || end > source.length()) {
+         throw new IndexOutOfBoundsException("start " + start + ", end " + end +
+               ", length " + source.length());
+      }
+      this.source = source;
+      this.start = start;
+      this.end = end;
+      return this;
+   }
+
+   @Override
+   public int length() {
+      return end - start;
+   }
+
+   @Override
+   public char charAt(int index) {
+      if(index < 0 || index >= end - start) {
+         throw new IndexOutOfBoundsException("index " + index + ", length " +
+               (end - start));
+      }
+      return source.charAt(start + index);
+   }
+
+   @Override
+   public CharSequence subSequence(int start, int end) {
+      if(start < 0 || end < start || end > this.end - this.start) {
+         throw new IndexOutOfBoundsException("start " + start + ", end " + end +
+               ", length " + (this.end - this.start));
+      }
+      return source.subSequence(this.start + start, this.start + end);
+   }
+
+   @Override
+   public String toString() {
+      return source.subSequence(start, end).toString();
+   }
+
+   /** The characters being viewed **/
+   private CharSequence source;
+   /** The index of the first character **/
+   private int start;
+   /** The index after the last character **/
+   private int end;
+}
@@ -0,0 +1,493 @@
+package com.javadapters.adapters;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.javadapters.AdapterFactory;
+
+/**
+ * Adapters that parse delimited text such as "1, 2, 3" or "a=1, b=2" into
+ * arrays, collections and maps in one pass over the text, without splitting
+ * it into a String[] first. Each field is trimmed and converted by an element
+ * adapter, which is resolved once when the adapter is created. Fields are
+ * passed as a {@link ByteSlice} if the text is a ByteSlice, otherwise as a
+ * {@link CharSlice}, so no String is created per field unless the elements
+ * are Strings. The primitive arrays are filled without boxing. The slice is
+ * reused for every field, so an element adapter must not return or keep it.
+ * <p>
+ * Blank text converts to an empty result, while an empty field is passed to
+ * the element adapter like any other. The registries create these adapters
+ * for array, collection and map types, see
+ * {@link com.javadapters.AdapterRegistry#getAdapter(java.lang.reflect.Type,
+ * java.lang.reflect.Type)}.
+ */
+public abstract class CollectionAdapters {
+
+   /** Default delimiter between fields **/
+   public static final char DEFAULT_DELIMITER = ',';
+   /** Default separator between the key and value of a map entry **/
+   public static final char DEFAULT_SEPARATOR = '=';
+
+   /**
+    * Base of the adapters, which finds the fields of the text
+    * @param <S> The type of text
+    * @param <T> The type of the result
+    */
+   public static abstract class DelimitedAdapter<S extends CharSequence, T>
+         implements Adapter<S, T> {
+
+      /**
+       * Constructor
+       * @param delimiter The delimiter between fields
+       */
+      DelimitedAdapter(char delimiter) {
+         this.delimiter = delimiter;
+      }
+
+      /**
+       * @return The delimiter between fields
+       */
+      public char getDelimiter() {
+         return delimiter;
+      }
+
+      /**
+       * @param text The text
+       * @param start The index the field starts at
+       * @return The index of the delimiter ending the field, or the length of
+       * the text if it's the last field
+       */
+      final int fieldEnd(CharSequence text, int start) {
+         int length = text.length();
+         for(int i = start; i < length; ++i) {
+            if(text.charAt(i) == delimiter) {
+               return i;
+            }
+         }
+         return length;
+      }
+
+      /** The delimiter between fields **/
+      final char delimiter;
+   }
+
+   /**
+    * Delimited text to int[] adapter
+    * @param <S> The type of text
+    */
+   public static class ToIntArrayAdapter<S extends CharSequence>
+         extends DelimitedAdapter<S, int[]> {
+
+      /**
+       * Constructor
+       * @param element The adapter to convert each field
+       * @param delimiter The delimiter between fields
+       */
+      public ToIntArrayAdapter(ToIntAdapter<? super CharSequence> element,
+            char delimiter) {
+         super(delimiter);
+         this.element = element;
+      }
+
+      @Override
+      public int[] convert(S from, Class<int[]> clazz) {
+         if(from == null) {
+            return null;
+         }
+         if(isBlank(from)) {
+            return new int[0];
+         }
+         int[] values = new int[initialCapacity(from)];
+         int count = 0;
+         CharSequence view = newView(from);
+         for(int start = 0, end = -1; end < from.length(); start = end + 1) {
+            end = fieldEnd(from, start);
+            if(count == values.length) {
+               values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = element.convertToInt(field(view, from, start, end));
+         }
+         return (count == values.length) ? values : Arrays.copyOf(values, count);
+      }
+
+      /** The adapter to convert each field **/
+      private final ToIntAdapter<? super CharSequence> element;
+   }
+
+   /**
+    * Delimited text to long[] adapter
+    * @param <S> The type of text
+    */
+   public static class ToLongArrayAdapter<S extends CharSequence>
+         extends DelimitedAdapter<S, long[]> {
+
+      /**
+       * Constructor
+       * @param element The adapter to convert each field
+       * @param delimiter The delimiter between fields
+       */
+      public ToLongArrayAdapter(ToLongAdapter<? super CharSequence> element,
+            char delimiter) {
+         super(delimiter);
+         this.element = element;
+      }
+
+      @Override
+      public long[] convert(S from, Class<long[]> clazz) {
+         if(from == null) {
+            return null;
+         }
+         if(isBlank(from)) {
+            return new long[0];
+         }
+         long[] values = new long[initialCapacity(from)];
+         int count = 0;
+         CharSequence view = newView(from);
+         for(int start = 0, end = -1; end < from.length(); start = end + 1) {
+            end = fieldEnd(from, start);
+            if(count == values.length) {
+               values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = element.convertToLong(field(view, from, start, end));
+         }
+         return (count == values.length) ? values : Arrays.copyOf(values, count);
+      }
+
+      /** The adapter to convert each field **/
+      private final ToLongAdapter<? super CharSequence> element;
+   }
+
+   /**
+    * Delimited text to double[] adapter
+    * @param <S> The type of text
+    */
+   public static class ToDoubleArrayAdapter<S extends CharSequence>
+         extends DelimitedAdapter<S, double[]> {
+
+      /**
+       * Constructor
+       * @param element The adapter to convert each field
+       * @param delimiter The delimiter between fields
+       */
+      public ToDoubleArrayAdapter(ToDoubleAdapter<? super CharSequence> element,
+            char delimiter) {
+         super(delimiter);
+         this.element = element;
+      }
+
+      @Override
+      public double[] convert(S from, Class<double[]> clazz) {
+         if(from == null) {
+            return null;
+         }
+         if(isBlank(from)) {
+            return new double[0];
+         }
+         double[] values = new double[initialCapacity(from)];
+         int count = 0;
+         CharSequence view = newView(from);
+         for(int start = 0, end = -1; end < from.length(); start = end + 1) {
+            end = fieldEnd(from, start);
+            if(count == values.length) {
+               values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = element.convertToDouble(field(view, from, start,
+                  end));
+         }
+         return (count == values.length) ? values : Arrays.copyOf(values, count);
+      }
+
+      /** The adapter to convert each field **/
+      private final ToDoubleAdapter<? super CharSequence> element;
+   }
+
+   /**
+    * Delimited text to boolean[] adapter
+    * @param <S> The type of text
+    */
+   public static class ToBooleanArrayAdapter<S extends CharSequence>
+         extends DelimitedAdapter<S, boolean[]> {
+
+      /**
+       * Constructor
+       * @param element The adapter to convert each field
+       * @param delimiter The delimiter between fields
+       */
+      public ToBooleanArrayAdapter(ToBooleanAdapter<? super CharSequence> element,
+            char delimiter) {
+         super(delimiter);
+         this.element = element;
+      }
+
+      @Override
+      public boolean[] convert(S from, Class<boolean[]> clazz) {
+         if(from == null) {
+            return null;
+         }
+         if(isBlank(from)) {
+            return new boolean[0];
+         }
+         boolean[] values = new boolean[initialCapacity(from)];
+         int count = 0;
+         CharSequence view = newView(from);
+         for(int start = 0, end = -1; end < from.length(); start = end + 1) {
+            end = fieldEnd(from, start);
+            if(count == values.length) {
+               values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = element.convertToBoolean(field(view, from, start,
+                  end));
+         }
+         return (count == values.length) ? values : Arrays.copyOf(values, count);
+      }
+
+      /** The adapter to convert each field **/
+      private final ToBooleanAdapter<? super CharSequence> element;
+   }
+
+   /**
+    * Delimited text to an array of any other component type, such as
+    * String[] or float[]
+    * @param <S> The type of text
+    */
+   public static class ToArrayAdapter<S extends CharSequence>
+         extends DelimitedAdapter<S, Object> {
+
+      /**
+       * Constructor
+       * @param element The adapter to convert each field
+       * @param componentType The component type of the array
+       * @param delimiter The delimiter between fields
+       */
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      public ToArrayAdapter(Adapter<? super CharSequence, ?> element,
+            Class<?> componentType, char delimiter) {
+         super(delimiter);
+         this.element = (Adapter)element;
+         this.componentType = componentType;
+         this.elementType = (Class)AdapterFactory.getWrapper(componentType);
+      }
+
+      @Override
+      public Object convert(S from, Class<Object> clazz) {
+         if(from == null) {
+            return null;
+         }
+         if(isBlank(from)) {
+            return Array.newInstance(componentType, 0);
+         }
+         Object[] values = new Object[initialCapacity(from)];
+         int count = 0;
+         CharSequence view = newView(from);
+         for(int start = 0, end = -1; end < from.length(); start = end + 1) {
+            end = fieldEnd(from, start);
+            if(count == values.length) {
+               values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = element.convert(field(view, from, start, end),
+                  elementType);
+         }
+         Object array = Array.newInstance(componentType, count);
+         if(componentType.isPrimitive()) {
+            for(int i = 0; i < count; ++i) {
+               Array.set(array, i, values[i]);
+            }
+         } else {
+            System.arraycopy(values, 0, array, 0, count);
+         }
+         return array;
+      }
+
+      /** The adapter to convert each field **/
+      private final Adapter<CharSequence, Object> element;
+      /** The component type of the array **/
+      private final Class<?> componentType;
+      /** The wrapped component type, which the elements are converted to **/
+      private final Class<Object> elementType;
+   }
+
+   /**
+    * Delimited text to collection adapter
+    * @param <S> The type of text
+    * @param <C> The type of collection
+    * @param <E> The type of element
+    */
+   public static class ToCollectionAdapter<S extends CharSequence,
+         C extends Collection<E>, E> extends DelimitedAdapter<S, C> {
+
+      /**
+       * Constructor
+       * @param element The adapter to convert each field
+       * @param elementType The type of element
+       * @param factory Creates the empty collection to add the elements to
+       * @param delimiter The delimiter between fields
+       */
+      public ToCollectionAdapter(Adapter<? super CharSequence, E> element,
+            Class<E> elementType, Supplier<? extends C> factory, char delimiter) {
+         super(delimiter);
+         this.element = element;
+         this.elementType = elementType;
+         this.factory = factory;
+      }
+
+      @Override
+      public C convert(S from, Class<C> clazz) {
+         if(from == null) {
+            return null;
+         }
+         C values = factory.get();
+         if(isBlank(from)) {
+            return values;
+         }
+         CharSequence view = newView(from);
+         for(int start = 0, end = -1; end < from.length(); start = end + 1) {
+            end = fieldEnd(from, start);
+            values.add(element.convert(field(view, from, start, end),
+                  elementType));
+         }
+         return values;
+      }
+
+      /** The adapter to convert each field **/
+      private final Adapter<? super CharSequence, E> element;
+      /** The type of element **/
+      private final Class<E> elementType;
+      /** Creates the empty collection **/
+      private final Supplier<? extends C> factory;
+   }
+
+   /**
+    * Delimited key and value pairs to {@link LinkedHashMap} adapter. Each
+    * field is split at the first separator, and both sides are trimmed.
+    * @param <S> The type of text
+    * @param <K> The type of key
+    * @param <V> The type of value
+    */
+   public static class ToMapAdapter<S extends CharSequence, K, V>
+         extends DelimitedAdapter<S, Map<K, V>> {
+
+      /**
+       * Constructor
+       * @param keyAdapter The adapter to convert each key
+       * @param keyType The type of key
+       * @param valueAdapter The adapter to convert each value
+       * @param valueType The type of value
+       * @param delimiter The delimiter between entries
+       * @param separator The separator between the key and value of an entry
+       */
+      public ToMapAdapter(Adapter<? super CharSequence, K> keyAdapter,
+            Class<K> keyType, Adapter<? super CharSequence, V> valueAdapter,
+            Class<V> valueType, char delimiter, char separator) {
+         super(delimiter);
+         this.keyAdapter = keyAdapter;
+         this.keyType = keyType;
+         this.valueAdapter = valueAdapter;
+         this.valueType = valueType;
+         this.separator = separator;
+      }
+
+      /**
+       * @throws IllegalArgumentException If an entry has no separator
+       */
+      @Override
+      public Map<K, V> convert(S from, Class<Map<K, V>> clazz) {
+         if(from == null) {
+            return null;
+         }
+         Map<K, V> values = new LinkedHashMap<K, V>();
+         if(isBlank(from)) {
+            return values;
+         }
+         CharSequence view = newView(from);
+         for(int start = 0, end = -1; end < from.length(); start = end + 1) {
+            end = fieldEnd(from, start);
+            int split = start;
+            while(split < end && from.charAt(split) != separator) {
+               ++split;
+            }
+            if(split == end) {
+               throw new IllegalArgumentException("No '" + separator +
+                     "' in entry \"" + from.subSequence(start, end) + "\"");
+            }
+            K key = keyAdapter.convert(field(view, from, start, split), keyType);
+            values.put(key, valueAdapter.convert(field(view, from, split + 1, end),
+                  valueType));
+         }
+         return values;
+      }
+
+      /**
+       * @return The separator between the key and value of an entry
+       */
+      public char getSeparator() {
+         return separator;
+      }
+
+      /** The adapter to convert each key **/
+      private final Adapter<? super CharSequence, K> keyAdapter;
+      /** The type of key **/
+      private final Class<K> keyType;
+      /** The adapter to convert each value **/
+      private final Adapter<? super CharSequence, V> valueAdapter;
+      /** The type of value **/
+      private final Class<V> valueType;
+      /** The separator between the key and value of an entry **/
+      private final char separator;
+   }
+
+   /**
+    * @param text The text to split
+    * @return A reusable view of the fields of the text
+    */
+   static CharSequence newView(CharSequence text) {
+      return (text instanceof ByteSlice) ? new ByteSlice() : new CharSlice();
+   }
+
+   /**
+    * Points a view at a field, leaving out the whitespace around it
+    * @param view The view from {@link #newView(CharSequence)}
+    * @param text The text
+    * @param start The index the field starts at
+    * @param end The index after the field
+    * @return The view
+    */
+   static CharSequence field(CharSequence view, CharSequence text, int start,
+         int end) {
+      while(start < end && text.charAt(start) <= ' ') {
+         ++start;
+      }
+      while(end > start && text.charAt(end - 1) <= ' ') {
+         --end;
+      }
+      if(view instanceof ByteSlice) {
+         return ((ByteSlice)view).set((ByteSlice)text, start, end);
+      }
+      return ((CharSlice)view).set(text, start, end);
+   }
+
+   /**
+    * @param text The text
+    * @return True if the text is empty or only whitespace
+    */
+   static boolean isBlank(CharSequence text) {
+      for(int i = 0, length = text.length(); i < length; ++i) {
+         if(text.charAt(i) > ' ') {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * @param text The text
+    * @return The number of elements to size an array for, a guess from the
+    * length of the text that is grown if it's too small
+    */
+   static int initialCapacity(CharSequence text) {
+      return Math.min((text.length() >>> 1) + 1, 16);
+   }
+}
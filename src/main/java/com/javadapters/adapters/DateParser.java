@@ -0,0 +1,326 @@
+package com.javadapters.adapters;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+
+/**
+ * Parses dates in any of a default set of formats. The format of a value is
+ * classified with a single pass over its characters, and parsing is done with
+ * immutable, thread safe {@link DateTimeFormatter}s that are built only once.
+ * <p>
+ * The all digit formats, such as uuuuMMdd, skip the classification and
+ * the formatter and are converted 8 digits at a time.
+ * <p>
+ * In sticky mode the parser remembers the last format that matched and tries
+ * it first, which is the common case when all the values of a column share
+ * the same format. A sticky parser should only be shared between callers that
+ * parse the same kind of data.
+ */
+public class DateParser {
+
+   /**
+    * Constructor
+    * @param sticky True to try the last matching format first
+    */
+   public DateParser(boolean sticky) {
+      this.sticky = sticky;
+   }
+
+   /**
+    * Parses the given string
+    * @param text The text to parse
+    * @return The parsed date, or null if the text is not in a known format
+    */
+   public Date parse(CharSequence text) {
+      return (text == null) ? null : parse(text, 0, text.length());
+   }
+
+   /**
+    * Parses the given range of characters
+    * @param text The text to parse
+    * @param start The index of the first character
+    * @param end The index after the last character
+    * @return The parsed date, or null if the text is not in a known format
+    */
+   public Date parse(CharSequence text, int start, int end) {
+      int length = end - start;
+      if(length == 8 || length == 12 || length == 14) {
+         //uuuuMMdd, uuuuMMddHHmm and uuuuMMddHHmmss are the only formats of
+         //these lengths made up of nothing but digits
+         long date = NumberParser.parseEightDigits(text, start);
+         long time = (date < 0 || length == 8) ? 0 :
+               NumberParser.parseDigits(text, start + 8, end);
+         if(date >= 0 && time >= 0) {
+            return compactDate((int)date, (int)time, length);
+         }
+      }
+      DateFormat format = determineDateFormat(text, start, end);
+      return (format == null) ? null : format.parse(text, start, end);
+   }
+
+   /**
+    * Builds the date of one of the all digit formats, with the same checks
+    * as the strict formatters
+    * @param date The uuuuMMdd digits
+    * @param time The HHmm or HHmmss digits, if any
+    * @param length The number of digits in all
+    * @return The date, or null if it's not a valid date
+    */
+   private static Date compactDate(int date, int time, int length) {
+      int year = date / 10000;
+      int month = date / 100 % 100;
+      int day = date % 100;
+      int hour = 0;
+      int minute = 0;
+      int second = 0;
+      if(length == 12) {
+         hour = time / 100;
+         minute = time % 100;
+      } else if(length == 14) {
+         hour = time / 10000;
+         minute = time / 100 % 100;
+         second = time % 100;
+      }
+      if(month < 1 || month > 12 || day < 1 ||
+            day > Month.of(month).length(Year.isLeap(year)) ||
+            hour > 23 || minute > 59 || second > 59) {
+         return null;
+      }
+      LocalDateTime dateTime = LocalDateTime.of(year, month, day, hour, minute,
+            second);
+      return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+   }
+
+   /**
+    * Determines the format matching the given range of characters
+    * @param text The text to check
+    * @param start The index of the first character
+    * @param end The index after the last character
+    * @return The matching format, or null if unknown
+    */
+   private DateFormat determineDateFormat(CharSequence text, int start, int end) {
+      if(sticky) {
+         int last = lastFormat;
+         if(last >= 0 && sDateFormats[last].matches(text, start, end)) {
+            return sDateFormats[last];
+         }
+      }
+      for(int i = 0; i < sDateFormats.length; ++i) {
+         if(sDateFormats[i].matches(text, start, end)) {
+            if(sticky) {
+               lastFormat = i;
+            }
+            return sDateFormats[i];
+         }
+      }
+      return null; // Unknown format.
+   }
+
+   /** Token types of a date format template **/
+   private static final int DIGITS = 0;
+   private static final int LETTERS = 1;
+   private static final int SPACE = 2;
+   private static final int LITERAL = 3;
+
+   /**
+    * A supported date format, made up of a template used to classify the text
+    * and the formatter used to parse it. Adjacent template tokens never share
+    * a character class, so each token can consume its characters greedily.
+    */
+   static final class DateFormat {
+
+      /**
+       * Constructor
+       * @param pattern The {@link DateTimeFormatter} pattern
+       * @param template The template, as triples of (type, min, max) where
+       * min is the literal character for {@link #LITERAL} tokens
+       */
+      DateFormat(String pattern, int... template) {
+         this.pattern = pattern;
+         this.template = template;
+         hasTime = pattern.indexOf('H') >= 0;
+         formatter = new DateTimeFormatterBuilder()
+               .parseCaseInsensitive()
+               .appendPattern(pattern)
+               .toFormatter()
+               .withResolverStyle(ResolverStyle.STRICT);
+      }
+
+      /**
+       * Checks if the given range of characters matches this format
+       * @param text The text to check
+       * @param start The index of the first character
+       * @param end The index after the last character
+       * @return True if it matches
+       */
+      boolean matches(CharSequence text, int start, int end) {
+         int pos = start;
+         for(int i = 0; i < template.length; i += 3) {
+            int type = template[i];
+            if(type == LITERAL || type == SPACE) {
+               if(pos >= end) {
+                  return false;
+               }
+               char c = text.charAt(pos++);
+               if(type == LITERAL ? c != template[i + 1] : !isSpace(c)) {
+                  return false;
+               }
+            } else {
+               int runStart = pos;
+               while(pos < end && (type == DIGITS ? isDigit(text.charAt(pos))
+                     : isLetter(text.charAt(pos)))) {
+                  ++pos;
+               }
+               int length = pos - runStart;
+               if(length < template[i + 1] || length > template[i + 2]) {
+                  return false;
+               }
+            }
+         }
+         return pos == end;
+      }
+
+      /**
+       * Parses the given range of characters, which must match this format
+       * @param text The text to parse
+       * @param start The index of the first character
+       * @param end The index after the last character
+       * @return The parsed date, or null if the text is not a valid date
+       */
+      Date parse(CharSequence text, int start, int end) {
+         try {
+            CharSequence value = (start == 0 && end == text.length()) ?
+                  text : text.subSequence(start, end);
+            TemporalAccessor parsed = formatter.parse(value);
+            LocalDateTime dateTime = hasTime ? LocalDateTime.from(parsed) :
+                  LocalDate.from(parsed).atStartOfDay();
+            return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+         } catch (DateTimeParseException e) {
+            return null;
+         }
+      }
+
+      @Override
+      public String toString() {
+         return pattern;
+      }
+
+      /** The {@link DateTimeFormatter} pattern **/
+      private final String pattern;
+      /** The template used to classify text **/
+      private final int[] template;
+      /** True if the format includes a time of day **/
+      private final boolean hasTime;
+      /** The formatter used to parse **/
+      private final DateTimeFormatter formatter;
+   }
+
+   private static boolean isDigit(char c) {
+      return c >= '0' && c <= '9';
+   }
+
+   private static boolean isLetter(char c) {
+      return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+   }
+
+   private static boolean isSpace(char c) {
+      return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' ||
+            c == '\f' || c == '\r';
+   }
+
+   /*
+    * Helpers to build the format templates
+    */
+   private static int[] digits(int min, int max) {
+      return new int[] {DIGITS, min, max};
+   }
+
+   private static int[] digits(int count) {
+      return digits(count, count);
+   }
+
+   private static int[] letters(int min, int max) {
+      return new int[] {LETTERS, min, max};
+   }
+
+   private static int[] space() {
+      return new int[] {SPACE, 0, 0};
+   }
+
+   private static int[] literal(char c) {
+      return new int[] {LITERAL, c, 0};
+   }
+
+   private static DateFormat format(String pattern, int[]... tokens) {
+      int[] template = new int[tokens.length * 3];
+      for(int i = 0; i < tokens.length; ++i) {
+         System.arraycopy(tokens[i], 0, template, i * 3, 3);
+      }
+      return new DateFormat(pattern, template);
+   }
+
+   /*
+    * Common template pieces
+    */
+   private static final int[] D12 = digits(1, 2);
+   private static final int[] D2 = digits(2);
+   private static final int[] D4 = digits(4);
+   private static final int[] DASH = literal('-');
+   private static final int[] SLASH = literal('/');
+   private static final int[] COLON = literal(':');
+   private static final int[] SP = space();
+   private static final int[] MON = letters(3, 3);
+   private static final int[] MONTH = letters(4, Integer.MAX_VALUE);
+
+   /**
+    * The supported date formats. Logic and formats in here adapted from
+    * DateUtil by BalusC.
+    * @see
+    * @link http://balusc.blogspot.com/2007/09/dateutil.html
+    **/
+   static final DateFormat[] sDateFormats = new DateFormat[] {
+      format("uuuuMMdd", digits(8)),
+      format("d-M-uuuu", D12, DASH, D12, DASH, D4),
+      format("uuuu-M-d", D4, DASH, D12, DASH, D12),
+      format("M/d/uuuu", D12, SLASH, D12, SLASH, D4),
+      format("uuuu/M/d", D4, SLASH, D12, SLASH, D12),
+      format("d MMM uuuu", D12, SP, MON, SP, D4),
+      format("d MMMM uuuu", D12, SP, MONTH, SP, D4),
+      format("uuuuMMddHHmm", digits(12)),
+      format("uuuuMMdd HHmm", digits(8), SP, D4),
+      format("d-M-uuuu H:mm", D12, DASH, D12, DASH, D4, SP, D12, COLON, D2),
+      format("uuuu-M-d H:mm", D4, DASH, D12, DASH, D12, SP, D12, COLON, D2),
+      format("M/d/uuuu H:mm", D12, SLASH, D12, SLASH, D4, SP, D12, COLON, D2),
+      format("uuuu/M/d H:mm", D4, SLASH, D12, SLASH, D12, SP, D12, COLON, D2),
+      format("d MMM uuuu H:mm", D12, SP, MON, SP, D4, SP, D12, COLON, D2),
+      format("d MMMM uuuu H:mm", D12, SP, MONTH, SP, D4, SP, D12, COLON, D2),
+      format("uuuuMMddHHmmss", digits(14)),
+      format("uuuuMMdd HHmmss", digits(8), SP, digits(6)),
+      format("d-M-uuuu H:mm:ss", D12, DASH, D12, DASH, D4, SP, D12, COLON, D2,
+            COLON, D2),
+      format("uuuu-M-d H:mm:ss", D4, DASH, D12, DASH, D12, SP, D12, COLON, D2,
+            COLON, D2),
+      format("M/d/uuuu H:mm:ss", D12, SLASH, D12, SLASH, D4, SP, D12, COLON, D2,
+            COLON, D2),
+      format("uuuu/M/d H:mm:ss", D4, SLASH, D12, SLASH, D12, SP, D12, COLON, D2,
+            COLON, D2),
+      format("d MMM uuuu H:mm:ss", D12, SP, MON, SP, D4, SP, D12, COLON, D2,
+            COLON, D2),
+      format("d MMMM uuuu H:mm:ss", D12, SP, MONTH, SP, D4, SP, D12, COLON, D2,
+            COLON, D2),
+   };
+
+   /** True to try the last matching format first **/
+   private final boolean sticky;
+   /** Index of the last matching format, only used in sticky mode **/
+   private volatile int lastFormat = -1;
+}
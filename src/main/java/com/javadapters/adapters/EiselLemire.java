@@ -0,0 +1,191 @@
+package com.javadapters.adapters;
+
+import java.math.BigInteger;
+
+/**
+ * Converts a decimal mantissa and power of ten to the nearest double or float
+ * with the Eisel-Lemire algorithm: the mantissa is multiplied by a 128 bit
+ * approximation of the power of ten, which gives the correctly rounded
+ * result unless the product is too close to halfway between two values to
+ * tell. Those rare cases, and results that are subnormal, are left to the
+ * caller to parse some other way.
+ * @see <a href="https://arxiv.org/abs/2101.11408">Number Parsing at a
+ * Gigabyte per Second</a>
+ */
+final class EiselLemire {
+
+   private EiselLemire() {
+   }
+
+   /**
+    * Computes the double nearest to w * 10^q
+    * @param w The mantissa, as an unsigned value
+    * @param q The power of ten
+    * @param negative True if the value is negative
+    * @return The value, or NaN if it can't be computed exactly
+    */
+   static double toDouble(long w, int q, boolean negative) {
+      if(w == 0 || q < MIN_POW10) {
+         return negative ? -0.0 : 0.0;
+      }
+      if(q > MAX_DOUBLE_POW10) {
+         return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+      }
+      int lz = Long.numberOfLeadingZeros(w);
+      w <<= lz;
+      long exponent = ((217706L * q) >> 16) + 64 + 1023 - lz;
+
+      int index = (q - MIN_POW10) * 2;
+      long hi = unsignedMultiplyHigh(w, POW10[index]);
+      long lo = w * POW10[index];
+      if((hi & 0x1FF) == 0x1FF && Long.compareUnsigned(lo + w, w) < 0) {
+         //The truncated power may be too small, use the rest of it
+         long yHi = unsignedMultiplyHigh(w, POW10[index + 1]);
+         long yLo = w * POW10[index + 1];
+         long mergedHi = hi;
+         long mergedLo = lo + yHi;
+         if(Long.compareUnsigned(mergedLo, lo) < 0) {
+            ++mergedHi;
+         }
+         if((mergedHi & 0x1FF) == 0x1FF && mergedLo == -1 &&
+               Long.compareUnsigned(yLo + w, w) < 0) {
+            return Double.NaN;
+         }
+         hi = mergedHi;
+         lo = mergedLo;
+      }
+
+      long msb = hi >>> 63;
+      long mantissa = hi >>> (msb + 9);
+      exponent -= 1 ^ msb;
+      if(lo == 0 && (hi & 0x1FF) == 0 && (mantissa & 3) == 1) {
+         //Exactly halfway, the rounding can't be decided from here
+         return Double.NaN;
+      }
+      mantissa += mantissa & 1;
+      mantissa >>>= 1;
+      if((mantissa >>> 53) != 0) {
+         mantissa >>>= 1;
+         ++exponent;
+      }
+      if(exponent <= 0 || exponent >= 0x7FF) {
+         //Subnormal or infinite
+         return Double.NaN;
+      }
+      long bits = (exponent << 52) | (mantissa & 0xFFFFFFFFFFFFFL);
+      if(negative) {
+         bits |= Long.MIN_VALUE;
+      }
+      return Double.longBitsToDouble(bits);
+   }
+
+   /**
+    * Computes the float nearest to w * 10^q
+    * @param w The mantissa, as an unsigned value
+    * @param q The power of ten
+    * @param negative True if the value is negative
+    * @return The value, or NaN if it can't be computed exactly
+    */
+   static double toFloat(long w, int q, boolean negative) {
+      if(w == 0 || q < MIN_FLOAT_POW10) {
+         return negative ? -0.0f : 0.0f;
+      }
+      if(q > MAX_FLOAT_POW10) {
+         return negative ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+      }
+      int lz = Long.numberOfLeadingZeros(w);
+      w <<= lz;
+      long exponent = ((217706L * q) >> 16) + 64 + 127 - lz;
+
+      int index = (q - MIN_POW10) * 2;
+      long hi = unsignedMultiplyHigh(w, POW10[index]);
+      long lo = w * POW10[index];
+      if((hi & 0x3FFFFFFFFFL) == 0x3FFFFFFFFFL &&
+            Long.compareUnsigned(lo + w, w) < 0) {
+         long yHi = unsignedMultiplyHigh(w, POW10[index + 1]);
+         long yLo = w * POW10[index + 1];
+         long mergedHi = hi;
+         long mergedLo = lo + yHi;
+         if(Long.compareUnsigned(mergedLo, lo) < 0) {
+            ++mergedHi;
+         }
+         if((mergedHi & 0x3FFFFFFFFFL) == 0x3FFFFFFFFFL && mergedLo == -1 &&
+               Long.compareUnsigned(yLo + w, w) < 0) {
+            return Double.NaN;
+         }
+         hi = mergedHi;
+         lo = mergedLo;
+      }
+
+      long msb = hi >>> 63;
+      long mantissa = hi >>> (msb + 38);
+      exponent -= 1 ^ msb;
+      if(lo == 0 && (hi & 0x3FFFFFFFFFL) == 0 && (mantissa & 3) == 1) {
+         return Double.NaN;
+      }
+      mantissa += mantissa & 1;
+      mantissa >>>= 1;
+      if((mantissa >>> 24) != 0) {
+         mantissa >>>= 1;
+         ++exponent;
+      }
+      if(exponent <= 0 || exponent >= 0xFF) {
+         return Double.NaN;
+      }
+      int bits = (int)((exponent << 23) | (mantissa & 0x7FFFFF));
+      if(negative) {
+         bits |= Integer.MIN_VALUE;
+      }
+      return Float.intBitsToFloat(bits);
+   }
+
+   /**
+    * @return The high 64 bits of the unsigned 128 bit product of x and y
+    */
+   private static long unsignedMultiplyHigh(long x, long y) {
+      return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+   }
+
+   /**
+    * Powers of ten below this are zero, as doubles, for any 64 bit mantissa
+    **/
+   private static final int MIN_POW10 = -342;
+   /** Powers of ten above this are infinite, as doubles, for any mantissa **/
+   private static final int MAX_DOUBLE_POW10 = 308;
+   /** Powers of ten below this are zero, as floats **/
+   private static final int MIN_FLOAT_POW10 = -65;
+   /** Powers of ten above this are infinite, as floats **/
+   private static final int MAX_FLOAT_POW10 = 38;
+
+   /**
+    * The powers of ten from 10^MIN_POW10 to 10^MAX_DOUBLE_POW10, each as the
+    * high and then the low 64 bits of its 128 most significant bits. Negative
+    * powers are rounded up and positive ones are truncated, as the algorithm
+    * requires.
+    */
+   private static final long[] POW10 =
+         new long[(MAX_DOUBLE_POW10 - MIN_POW10 + 1) * 2];
+   static {
+      BigInteger limit = BigInteger.ONE.shiftLeft(128);
+      for(int q = MIN_POW10; q <= MAX_DOUBLE_POW10; ++q) {
+         BigInteger value;
+         if(q < 0) {
+            BigInteger power5 = BigInteger.valueOf(5).pow(-q);
+            int z = power5.bitLength();
+            int b = (q >= -27) ? z + 127 : 2 * z + 128;
+            value = BigInteger.ONE.shiftLeft(b).divide(power5).add(BigInteger.ONE);
+         } else {
+            value = BigInteger.valueOf(5).pow(q);
+            if(value.bitLength() < 128) {
+               value = value.shiftLeft(128 - value.bitLength());
+            }
+         }
+         if(value.compareTo(limit) >= 0) {
+            value = value.shiftRight(value.bitLength() - 128);
+         }
+         int index = (q - MIN_POW10) * 2;
+         POW10[index] = value.shiftRight(64).longValue();
+         POW10[index + 1] = value.longValue();
+      }
+   }
+}
@@ -0,0 +1,286 @@
+package com.javadapters.adapters;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Lookup table from names to the constants of an enum type. Besides the
+ * exact constant names it matches names ignoring case, ordinals and aliases
+ * such as codes from some upstream feed. Lookups work directly on any
+ * {@link CharSequence} and return null rather than throwing when nothing
+ * matches.
+ * <p>
+ * Lookups are immutable. The one for the constant names alone is built once
+ * per type and shared, see {@link #of(Class)}, and {@link #withAlias} returns
+ * a new lookup to give to an adapter, so aliases don't change what other
+ * adapters accept. The names are kept in open addressed hash tables at most
+ * a quarter full, so a lookup usually hashes the input once and compares one
+ * candidate.
+ * @param <E> The enum type
+ */
+public final class EnumLookup<E extends Enum<E>> {
+
+   /**
+    * Ways a name can match an enum constant
+    */
+   public enum Match {
+      /** The exact constant name or a registered alias **/
+      EXACT,
+      /** The constant name or a registered alias, ignoring case **/
+      IGNORE_CASE,
+      /** The ordinal of the constant as a decimal number **/
+      ORDINAL
+   }
+
+   /**
+    * Gets the lookup table for the given enum type, which has no aliases
+    * @param type The enum type
+    * @return The shared lookup table
+    */
+   @SuppressWarnings("unchecked")
+   public static <E extends Enum<E>> EnumLookup<E> of(Class<E> type) {
+      return (EnumLookup<E>)sLookups.get(type);
+   }
+
+   /**
+    * @param lookup A lookup for the enum type, or null
+    * @param type The enum type
+    * @return The lookup if it's for the type, otherwise the shared lookup
+    */
+   static <E extends Enum<E>> EnumLookup<E> of(EnumLookup<E> lookup,
+         Class<E> type) {
+      return (lookup != null && lookup.type == type) ? lookup : of(type);
+   }
+
+   /**
+    * Constructor
+    * @param type The enum type
+    * @param constants The constants, indexed by ordinal
+    * @param aliases The aliases, owned by this lookup
+    */
+   private EnumLookup(Class<E> type, E[] constants, Map<String, E> aliases) {
+      this.type = type;
+      this.constants = constants;
+      this.aliases = aliases;
+      tables = new Tables<E>(constants, aliases);
+   }
+
+   /**
+    * Returns a lookup that also matches another name for a constant. Aliases
+    * are matched just like constant names, and take priority over them. This
+    * lookup is not changed.
+    * @param alias The other name
+    * @param constant The constant it stands for
+    * @return The new lookup
+    */
+   public EnumLookup<E> withAlias(String alias, E constant) {
+      if(alias == null || constant == null) {
+         throw new NullPointerException();
+      }
+      Map<String, E> more = new LinkedHashMap<String, E>(aliases);
+      more.put(alias, constant);
+      return new EnumLookup<E>(type, constants, more);
+   }
+
+   /**
+    * Finds the constant with the exact given name or alias
+    * @param name The name
+    * @return The constant, or null if nothing matches
+    */
+   public E find(CharSequence name) {
+      return (name == null) ? null : tables.exact.find(name);
+   }
+
+   /**
+    * Finds the constant with the given name or alias, ignoring case
+    * @param name The name
+    * @return The constant, or null if nothing matches
+    */
+   public E findIgnoreCase(CharSequence name) {
+      return (name == null) ? null : tables.folded.find(name);
+   }
+
+   /**
+    * Finds the constant with the given ordinal
+    * @param ordinal The ordinal as a decimal number
+    * @return The constant, or null if it's not a valid ordinal
+    */
+   public E findOrdinal(CharSequence ordinal) {
+      if(ordinal == null || ordinal.length() == 0 || ordinal.length() > 9) {
+         return null;
+      }
+      int value = 0;
+      for(int i = 0; i < ordinal.length(); ++i) {
+         char c = ordinal.charAt(i);
+         if(c < '0' || c > '9') {
+            return null;
+         }
+         value = value * 10 + (c - '0');
+      }
+      return (value < constants.length) ? constants[value] : null;
+   }
+
+   /**
+    * Finds the constant matching the given name in any of the given ways,
+    * trying them in the order of {@link Match}
+    * @param name The name
+    * @param matches The ways to match
+    * @return The constant, or null if nothing matches
+    */
+   public E find(CharSequence name, Set<Match> matches) {
+      E constant = null;
+      if(matches.contains(Match.EXACT)) {
+         constant = find(name);
+      }
+      if(constant == null && matches.contains(Match.IGNORE_CASE)) {
+         constant = findIgnoreCase(name);
+      }
+      if(constant == null && matches.contains(Match.ORDINAL)) {
+         constant = findOrdinal(name);
+      }
+      return constant;
+   }
+
+   /**
+    * @return The enum type
+    */
+   public Class<E> getType() {
+      return type;
+   }
+
+   /**
+    * Folds a character for case insensitive matching, the same way as
+    * {@link String#equalsIgnoreCase(String)}
+    */
+   private static char fold(char c) {
+      return Character.toLowerCase(Character.toUpperCase(c));
+   }
+
+   /**
+    * The exact and case insensitive tables, built once per lookup
+    */
+   private static final class Tables<E> {
+
+      Tables(E[] constants, Map<String, E> aliases) {
+         int size = constants.length + aliases.size();
+         exact = new Table<E>(size, false);
+         folded = new Table<E>(size, true);
+         //Aliases first so they take priority
+         for(Entry<String, E> entry : aliases.entrySet()) {
+            exact.put(entry.getKey(), entry.getValue());
+            folded.put(entry.getKey(), entry.getValue());
+         }
+         for(E constant : constants) {
+            String name = ((Enum<?>)constant).name();
+            exact.put(name, constant);
+            folded.put(name, constant);
+         }
+      }
+
+      final Table<E> exact;
+      final Table<E> folded;
+   }
+
+   /**
+    * Open addressed hash table from name to constant
+    */
+   private static final class Table<E> {
+
+      @SuppressWarnings("unchecked")
+      Table(int size, boolean ignoreCase) {
+         int capacity = Integer.highestOneBit(Math.max(size, 1) * 4 - 1) << 1;
+         keys = new String[capacity];
+         values = (E[])new Object[capacity];
+         mask = capacity - 1;
+         this.ignoreCase = ignoreCase;
+      }
+
+      /**
+       * Adds the entry unless the key already exists
+       */
+      void put(String key, E value) {
+         int i = hash(key, ignoreCase) & mask;
+         while(keys[i] != null) {
+            if(matches(keys[i], key, ignoreCase)) {
+               return;
+            }
+            i = (i + 1) & mask;
+         }
+         keys[i] = key;
+         values[i] = value;
+      }
+
+      E find(CharSequence key) {
+         int i = hash(key, ignoreCase) & mask;
+         String candidate;
+         while((candidate = keys[i]) != null) {
+            if(matches(candidate, key, ignoreCase)) {
+               return values[i];
+            }
+            i = (i + 1) & mask;
+         }
+         return null;
+      }
+
+      private static int hash(CharSequence key, boolean ignoreCase) {
+         int h;
+         if(!ignoreCase && key instanceof String) {
+            //Cached by the string
+            h = key.hashCode();
+         } else {
+            h = 0;
+            for(int i = 0; i < key.length(); ++i) {
+               char c = key.charAt(i);
+               h = 31 * h + (ignoreCase ? fold(c) : c);
+            }
+         }
+         return h ^ (h >>> 16);
+      }
+
+      private static boolean matches(String candidate, CharSequence key,
+            boolean ignoreCase) {
+         int length = candidate.length();
+         if(key.length() != length) {
+            return false;
+         }
+         for(int i = 0; i < length; ++i) {
+            char a = candidate.charAt(i);
+            char b = key.charAt(i);
+            if(a != b && (!ignoreCase || fold(a) != fold(b))) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      private final String[] keys;
+      private final E[] values;
+      private final int mask;
+      private final boolean ignoreCase;
+   }
+
+   /** Lookup tables for each enum type **/
+   private static final ClassValue<EnumLookup<?>> sLookups =
+         new ClassValue<EnumLookup<?>>() {
+      @SuppressWarnings({ "unchecked", "rawtypes" })
+      @Override
+      protected EnumLookup<?> computeValue(Class<?> type) {
+         if(!type.isEnum()) {
+            throw new IllegalArgumentException(type + " is not an enum");
+         }
+         return new EnumLookup(type, (Enum[])type.getEnumConstants(),
+               new LinkedHashMap());
+      }
+   };
+
+   /** The enum type **/
+   private final Class<E> type;
+   /** The constants, indexed by ordinal **/
+   private final E[] constants;
+   /** The aliases **/
+   private final Map<String, E> aliases;
+   /** The lookup tables **/
+   private final Tables<E> tables;
+}
@@ -0,0 +1,102 @@
+package com.javadapters.adapters;
+
+/**
+ * Opt-in mode where the built-in adapters throw exceptions without a stack
+ * trace and with a message that is only built if asked for. Filling in the
+ * stack trace is by far the most expensive part of throwing, which adds up
+ * when converting data where a good share of the values are malformed.
+ * The exceptions are of the same types as in the normal mode.
+ */
+public final class LightweightExceptions {
+
+   private LightweightExceptions() {
+   }
+
+   /**
+    * @return True if the built-in adapters throw lightweight exceptions
+    */
+   public static boolean isEnabled() {
+      return sEnabled;
+   }
+
+   /**
+    * Turns lightweight exceptions on or off
+    * @param enabled True to throw lightweight exceptions
+    */
+   public static void setEnabled(boolean enabled) {
+      sEnabled = enabled;
+   }
+
+   /**
+    * Builds a lightweight exception for a number that can't be parsed
+    * @param input The text that couldn't be parsed
+    * @return The exception to throw
+    */
+   public static NumberFormatException numberFormat(CharSequence input) {
+      return new StacklessNumberFormatException(
+            (input == null) ? null : input.toString());
+   }
+
+   /**
+    * Builds a lightweight exception for an unknown enum constant
+    * @param type The enum type
+    * @param name The unknown name
+    * @return The exception to throw
+    */
+   public static IllegalArgumentException unknownConstant(Class<?> type,
+         CharSequence name) {
+      return new StacklessUnknownConstantException(type, name.toString());
+   }
+
+   private static final class StacklessNumberFormatException
+         extends NumberFormatException {
+
+      private static final long serialVersionUID = 4330311536209530563L;
+
+      StacklessNumberFormatException(String input) {
+         super(null);
+         this.input = input;
+      }
+
+      @Override
+      public String getMessage() {
+         return (input == null) ? "Cannot parse null string: null" :
+               "For input string: \"" + input + "\"";
+      }
+
+      @Override
+      public synchronized Throwable fillInStackTrace() {
+         return this;
+      }
+
+      private final String input;
+   }
+
+   private static final class StacklessUnknownConstantException
+         extends IllegalArgumentException {
+
+      private static final long serialVersionUID = -1528432811587218297L;
+
+      StacklessUnknownConstantException(Class<?> type, String name) {
+         super((String)null);
+         this.type = type;
+         this.name = name;
+      }
+
+      @Override
+      public String getMessage() {
+         return "No enum constant " + type.getCanonicalName() + "." + name;
+      }
+
+      @Override
+      public synchronized Throwable fillInStackTrace() {
+         return this;
+      }
+
+      private final Class<?> type;
+      private final String name;
+   }
+
+   /** True if lightweight exceptions are on **/
+   private static volatile boolean sEnabled;
+}
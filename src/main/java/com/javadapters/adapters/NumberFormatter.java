@@ -0,0 +1,172 @@
+package com.javadapters.adapters;
+
+/**
+ * Formats numbers directly into a char array without creating a String.
+ * Integers are written the same as {@link Long#toString(long)}. Doubles and
+ * floats are written with the fewest digits that parse back to the same
+ * value, see {@link #formatDouble(double, char[], int)}.
+ */
+public final class NumberFormatter {
+
+   private NumberFormatter() {
+   }
+
+   /** Most characters written for an int **/
+   public static final int MAX_INT_LENGTH = 11;
+   /** Most characters written for a long **/
+   public static final int MAX_LONG_LENGTH = 20;
+   /** Most characters written for a double **/
+   public static final int MAX_DOUBLE_LENGTH = ShortestDecimal.MAX_DOUBLE_LENGTH;
+   /** Most characters written for a float **/
+   public static final int MAX_FLOAT_LENGTH = ShortestDecimal.MAX_FLOAT_LENGTH;
+
+   /**
+    * Writes an int, see {@link Integer#toString(int)}
+    * @param value The value to write
+    * @param to The array to write to
+    * @param offset The index to write at
+    * @return The index after the last character written
+    * @throws ArrayIndexOutOfBoundsException If the array is too small
+    */
+   public static int formatInt(int value, char[] to, int offset) {
+      return formatLong(value, to, offset);
+   }
+
+   /**
+    * Writes a long, see {@link Long#toString(long)}
+    * @param value The value to write
+    * @param to The array to write to
+    * @param offset The index to write at
+    * @return The index after the last character written
+    * @throws ArrayIndexOutOfBoundsException If the array is too small
+    */
+   public static int formatLong(long value, char[] to, int offset) {
+      if(value < 0) {
+         if(value == Long.MIN_VALUE) {
+            MIN_LONG.getChars(0, MIN_LONG.length(), to, offset);
+            return offset + MIN_LONG.length();
+         }
+         to[offset++] = '-';
+         value = -value;
+      }
+      return formatDigits(value, digitCount(value), to, offset);
+   }
+
+   /**
+    * Writes the shortest decimal that parses back to the same double, in
+    * the layout of {@link Double#toString(double)}. The JDK before version
+    * 19 sometimes writes more digits than needed, so the text may be shorter
+    * than {@link Double#toString(double)} there.
+    * @param value The value to write
+    * @param to The array to write to
+    * @param offset The index to write at
+    * @return The index after the last character written
+    * @throws ArrayIndexOutOfBoundsException If the array is too small
+    */
+   public static int formatDouble(double value, char[] to, int offset) {
+      if(to.length - offset < MAX_DOUBLE_LENGTH) {
+         char[] buffer = new char[MAX_DOUBLE_LENGTH];
+         return copy(buffer, ShortestDecimal.formatDouble(value, buffer, 0),
+               to, offset);
+      }
+      return ShortestDecimal.formatDouble(value, to, offset);
+   }
+
+   /**
+    * Writes the shortest decimal that parses back to the same float, in
+    * the layout of {@link Float#toString(float)}
+    * @param value The value to write
+    * @param to The array to write to
+    * @param offset The index to write at
+    * @return The index after the last character written
+    * @throws ArrayIndexOutOfBoundsException If the array is too small
+    */
+   public static int formatFloat(float value, char[] to, int offset) {
+      if(to.length - offset < MAX_FLOAT_LENGTH) {
+         char[] buffer = new char[MAX_FLOAT_LENGTH];
+         return copy(buffer, ShortestDecimal.formatFloat(value, buffer, 0),
+               to, offset);
+      }
+      return ShortestDecimal.formatFloat(value, to, offset);
+   }
+
+   /**
+    * Formats a double as a String, see {@link #formatDouble(double, char[], int)}
+    * @param value The value to format
+    * @return The shortest decimal that parses back to the value
+    */
+   public static String toString(double value) {
+      char[] buffer = new char[MAX_DOUBLE_LENGTH];
+      return new String(buffer, 0, ShortestDecimal.formatDouble(value, buffer, 0));
+   }
+
+   /**
+    * Formats a float as a String, see {@link #formatFloat(float, char[], int)}
+    * @param value The value to format
+    * @return The shortest decimal that parses back to the value
+    */
+   public static String toString(float value) {
+      char[] buffer = new char[MAX_FLOAT_LENGTH];
+      return new String(buffer, 0, ShortestDecimal.formatFloat(value, buffer, 0));
+   }
+
+   /**
+    * @param value A non-negative value
+    * @return The number of decimal digits in the value
+    */
+   static int digitCount(long value) {
+      int count = 1;
+      for(long power = 10; count < 19 && value >= power; power *= 10) {
+         ++count;
+      }
+      return count;
+   }
+
+   /**
+    * Writes the digits of a non-negative value, two at a time from the end
+    * @param value The value to write
+    * @param count The number of digits in the value
+    * @param to The array to write to
+    * @param offset The index to write at
+    * @return The index after the last digit
+    */
+   static int formatDigits(long value, int count, char[] to, int offset) {
+      int end = offset + count;
+      int index = end;
+      while(value >= 100) {
+         int pair = (int)(value % 100);
+         value /= 100;
+         to[--index] = DIGIT_ONES[pair];
+         to[--index] = DIGIT_TENS[pair];
+      }
+      if(value >= 10) {
+         to[--index] = DIGIT_ONES[(int)value];
+         to[--index] = DIGIT_TENS[(int)value];
+      } else {
+         to[--index] = (char)('0' + value);
+      }
+      return end;
+   }
+
+   private static int copy(char[] buffer, int length, char[] to, int offset) {
+      if(length > to.length - offset) {
+         throw new ArrayIndexOutOfBoundsException("Need " + length +
+               " characters at " + offset + " of " + to.length);
+      }
+      System.arraycopy(buffer, 0, to, offset, length);
+      return offset + length;
+   }
+
+   private static final String MIN_LONG = Long.toString(Long.MIN_VALUE);
+
+   /** Tens digit of each number from 0 to 99 **/
+   private static final char[] DIGIT_TENS = new char[100];
+   /** Ones digit of each number from 0 to 99 **/
+   private static final char[] DIGIT_ONES = new char[100];
+   static {
+      for(int i = 0; i < 100; ++i) {
+         DIGIT_TENS[i] = (char)('0' + i / 10);
+         DIGIT_ONES[i] = (char)('0' + i % 10);
+      }
+   }
+}
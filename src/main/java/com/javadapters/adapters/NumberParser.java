@@ -0,0 +1,652 @@
+package com.javadapters.adapters;
+
+/**
+ * Parses numbers directly from a {@link CharSequence} without first copying
+ * it into a String. Results and errors are the same as the matching
+ * {@link Integer}, {@link Long}, {@link Double} etc. parse methods, unless
+ * {@link LightweightExceptions} are on. The tryParse methods validate the
+ * input without throwing and return a default value if it's invalid.
+ */
+public final class NumberParser {
+
+   private NumberParser() {
+   }
+
+   /**
+    * Parses a byte, see {@link Byte#parseByte(String)}
+    * @param s The text to parse
+    * @return The parsed value
+    * @throws NumberFormatException If the text is not a valid byte
+    */
+   public static byte parseByte(CharSequence s) {
+      return (byte)parseIntegral(s, Byte.MIN_VALUE, Byte.MAX_VALUE,
+            0, true);
+   }
+
+   /**
+    * Parses a byte without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not a valid byte
+    * @return The parsed value, or defaultValue
+    */
+   public static byte tryParseByte(CharSequence s, byte defaultValue) {
+      return (byte)parseIntegral(s, Byte.MIN_VALUE, Byte.MAX_VALUE,
+            defaultValue, false);
+   }
+
+   /**
+    * Parses a short, see {@link Short#parseShort(String)}
+    * @param s The text to parse
+    * @return The parsed value
+    * @throws NumberFormatException If the text is not a valid short
+    */
+   public static short parseShort(CharSequence s) {
+      return (short)parseIntegral(s, Short.MIN_VALUE, Short.MAX_VALUE,
+            0, true);
+   }
+
+   /**
+    * Parses a short without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not a valid short
+    * @return The parsed value, or defaultValue
+    */
+   public static short tryParseShort(CharSequence s, short defaultValue) {
+      return (short)parseIntegral(s, Short.MIN_VALUE, Short.MAX_VALUE,
+            defaultValue, false);
+   }
+
+   /**
+    * Parses an int, see {@link Integer#parseInt(String)}
+    * @param s The text to parse
+    * @return The parsed value
+    * @throws NumberFormatException If the text is not a valid int
+    */
+   public static int parseInt(CharSequence s) {
+      return (int)parseIntegral(s, Integer.MIN_VALUE, Integer.MAX_VALUE,
+            0, true);
+   }
+
+   /**
+    * Parses an int without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not a valid int
+    * @return The parsed value, or defaultValue
+    */
+   public static int tryParseInt(CharSequence s, int defaultValue) {
+      return (int)parseIntegral(s, Integer.MIN_VALUE, Integer.MAX_VALUE,
+            defaultValue, false);
+   }
+
+   /**
+    * Parses a long, see {@link Long#parseLong(String)}
+    * @param s The text to parse
+    * @return The parsed value
+    * @throws NumberFormatException If the text is not a valid long
+    */
+   public static long parseLong(CharSequence s) {
+      return parseIntegral(s, Long.MIN_VALUE, Long.MAX_VALUE,
+            0, true);
+   }
+
+   /**
+    * Parses a long without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not a valid long
+    * @return The parsed value, or defaultValue
+    */
+   public static long tryParseLong(CharSequence s, long defaultValue) {
+      return parseIntegral(s, Long.MIN_VALUE, Long.MAX_VALUE,
+            defaultValue, false);
+   }
+
+   /**
+    * Parses a boxed byte without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not valid
+    * @return The parsed value, or defaultValue
+    */
+   static Byte tryParseBoxedByte(CharSequence s, Byte defaultValue) {
+      //Only parse twice if the value could be the default
+      byte value = tryParseByte(s, (byte)0);
+      return (value != 0 || tryParseByte(s, (byte)1) == 0) ? Byte.valueOf(value) :
+            defaultValue;
+   }
+
+   /**
+    * Parses a boxed short without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not valid
+    * @return The parsed value, or defaultValue
+    */
+   static Short tryParseBoxedShort(CharSequence s, Short defaultValue) {
+      //Only parse twice if the value could be the default
+      short value = tryParseShort(s, (short)0);
+      return (value != 0 || tryParseShort(s, (short)1) == 0) ? Short.valueOf(value) :
+            defaultValue;
+   }
+
+   /**
+    * Parses a boxed int without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not valid
+    * @return The parsed value, or defaultValue
+    */
+   static Integer tryParseBoxedInt(CharSequence s, Integer defaultValue) {
+      //Only parse twice if the value could be the default
+      int value = tryParseInt(s, 0);
+      return (value != 0 || tryParseInt(s, 1) == 0) ?
+            Integer.valueOf(value) : defaultValue;
+   }
+
+   /**
+    * Parses a boxed long without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not valid
+    * @return The parsed value, or defaultValue
+    */
+   static Long tryParseBoxedLong(CharSequence s, Long defaultValue) {
+      //Only parse twice if the value could be the default
+      long value = tryParseLong(s, 0L);
+      return (value != 0 || tryParseLong(s, 1L) == 0) ?
+            Long.valueOf(value) : defaultValue;
+   }
+
+   /**
+    * Parses a boxed double without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not valid
+    * @return The parsed value, or defaultValue
+    */
+   static Double tryParseBoxedDouble(CharSequence s, Double defaultValue) {
+      //Only parse twice if the value could be the default
+      double value = tryParseDouble(s, 0.0);
+      return (value != 0 || tryParseDouble(s, 1.0) == 0) ?
+            Double.valueOf(value) : defaultValue;
+   }
+
+   /**
+    * Parses a boxed float without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not valid
+    * @return The parsed value, or defaultValue
+    */
+   static Float tryParseBoxedFloat(CharSequence s, Float defaultValue) {
+      //Only parse twice if the value could be the default
+      float value = tryParseFloat(s, 0f);
+      return (value != 0 || tryParseFloat(s, 1f) == 0) ?
+            Float.valueOf(value) : defaultValue;
+   }
+
+   /**
+    * Parses a decimal integer in the given range, accepting the same input
+    * as {@link Long#parseLong(String)}
+    * @param s The text to parse
+    * @param min The smallest valid value
+    * @param max The largest valid value
+    * @param defaultValue The value to return if the text is not valid
+    * @param throwOnError True to throw rather than return the default
+    * @return The parsed value, or defaultValue
+    */
+   private static long parseIntegral(CharSequence s, long min, long max,
+         long defaultValue, boolean throwOnError) {
+      int length = (s == null) ? 0 : s.length();
+      if(length > 0) {
+         int pos = 0;
+         boolean negative = false;
+         char first = s.charAt(0);
+         if(first == '-' || first == '+') {
+            negative = first == '-';
+            ++pos;
+         }
+         int digits = length - pos;
+         if(digits >= 8 && digits <= MAX_SWAR_DIGITS) {
+            //Long runs of ASCII digits, such as zero padded IDs, 8 at a time
+            long value = parseDigits(s, pos, length);
+            if(value >= 0) {
+               long result = negative ? -value : value;
+               if(result >= min && result <= max) {
+                  return result;
+               }
+            }
+         }
+         if(pos < length) {
+            //Accumulate negatively so the minimum value doesn't overflow
+            long limit = negative ? min : -max;
+            long multiplyMin = limit / 10;
+            long result = 0;
+            for(; pos < length; ++pos) {
+               int digit = Character.digit(s.charAt(pos), 10);
+               if(digit < 0 || result < multiplyMin) {
+                  break;
+               }
+               result *= 10;
+               if(result < limit + digit) {
+                  break;
+               }
+               result -= digit;
+            }
+            if(pos == length) {
+               return negative ? result : -result;
+            }
+         }
+      }
+      if(throwOnError) {
+         throw invalidIntegral(s, min, max);
+      }
+      return defaultValue;
+   }
+
+   /**
+    * Parses a run of ASCII digits, 8 at a time after any leading remainder
+    * @param s The text to parse
+    * @param start The index of the first digit
+    * @param end The index after the last digit, at most
+    * {@link #MAX_SWAR_DIGITS} after start
+    * @return The value, or -1 if any character is not an ASCII digit
+    */
+   static long parseDigits(CharSequence s, int start, int end) {
+      long value = 0;
+      int pos = start;
+      for(int head = start + (end - start) % 8; pos < head; ++pos) {
+         char c = s.charAt(pos);
+         if(c < '0' || c > '9') {
+            return -1;
+         }
+         value = value * 10 + (c - '0');
+      }
+      for(; pos < end; pos += 8) {
+         int chunk = parseEightDigits(s, pos);
+         if(chunk < 0) {
+            return -1;
+         }
+         value = value * 100000000 + chunk;
+      }
+      return value;
+   }
+
+   /**
+    * Parses 8 ASCII digits as one long with SIMD within a register
+    * arithmetic. A {@link ByteSlice} loads all 8 bytes with a single read,
+    * other text is packed a character at a time.
+    * @param s The text to parse
+    * @param index The index of the first digit
+    * @return The value, or -1 if any character is not an ASCII digit
+    */
+   static int parseEightDigits(CharSequence s, int index) {
+      long chunk;
+      if(s instanceof ByteSlice) {
+         chunk = ((ByteSlice)s).getLong(index);
+      } else {
+         chunk = 0;
+         int bits = 0;
+         for(int i = 0; i < 8; ++i) {
+            char c = s.charAt(index + i);
+            bits |= c;
+            chunk |= (long)c << (i << 3);
+         }
+         if(bits > 0x7F) {
+            return -1;
+         }
+      }
+      //Every byte must have a high nibble of 3 and a low nibble below 10
+      if(((chunk & 0xF0F0F0F0F0F0F0F0L) |
+            (((chunk + 0x0606060606060606L) & 0xF0F0F0F0F0F0F0F0L) >>> 4)) !=
+            0x3333333333333333L) {
+         return -1;
+      }
+      //Combine pairs of digits, then pairs of pairs, then the two halves
+      chunk = ((chunk & 0x0F0F0F0F0F0F0F0FL) * 2561) >>> 8;
+      chunk = ((chunk & 0x00FF00FF00FF00FFL) * 6553601) >>> 16;
+      return (int)(((chunk & 0x0000FFFF0000FFFFL) * 42949672960001L) >>> 32);
+   }
+
+   /**
+    * Builds the exception for an integer that can't be parsed, either a
+    * lightweight one or the one the JDK would throw
+    */
+   private static NumberFormatException invalidIntegral(CharSequence s,
+         long min, long max) {
+      if(LightweightExceptions.isEnabled()) {
+         return LightweightExceptions.numberFormat(s);
+      }
+      String text = (s == null) ? null : s.toString();
+      try {
+         if(max == Byte.MAX_VALUE) {
+            Byte.parseByte(text);
+         } else if(max == Short.MAX_VALUE) {
+            Short.parseShort(text);
+         } else if(max == Integer.MAX_VALUE) {
+            Integer.parseInt(text);
+         } else {
+            Long.parseLong(text);
+         }
+      } catch (NumberFormatException e) {
+         return e;
+      }
+      //Not reached, the JDK accepts nothing that was rejected
+      return new NumberFormatException("For input string: \"" + text + "\"");
+   }
+
+   /**
+    * Parses a boolean, see {@link Boolean#parseBoolean(String)}
+    * @param s The text to parse
+    * @return True if the text is "true", ignoring case
+    */
+   public static boolean parseBoolean(CharSequence s) {
+      if(s == null || s.length() != 4) {
+         return false;
+      }
+      return (s.charAt(0) | 0x20) == 't' && (s.charAt(1) | 0x20) == 'r' &&
+            (s.charAt(2) | 0x20) == 'u' && (s.charAt(3) | 0x20) == 'e';
+   }
+
+   /**
+    * Parses a double, see {@link Double#parseDouble(String)}. Plain decimal
+    * values are parsed in place with the same result as the JDK, anything
+    * else, such as hexadecimal, subnormal or padded values, falls back to
+    * the JDK.
+    * @param s The text to parse
+    * @return The parsed value
+    * @throws NumberFormatException If the text is not a valid double
+    */
+   public static double parseDouble(CharSequence s) {
+      if(s == null) {
+         throw new NullPointerException();
+      }
+      double value = parseDecimal(s, false);
+      if(value == value) {
+         return value;
+      }
+      if(LightweightExceptions.isEnabled() && !isFloatingPoint(s)) {
+         throw LightweightExceptions.numberFormat(s);
+      }
+      return Double.parseDouble(s.toString());
+   }
+
+   /**
+    * Parses a double without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not a valid double
+    * @return The parsed value, or defaultValue
+    */
+   public static double tryParseDouble(CharSequence s, double defaultValue) {
+      if(s == null) {
+         return defaultValue;
+      }
+      double value = parseDecimal(s, false);
+      if(value == value) {
+         return value;
+      }
+      return isFloatingPoint(s) ? Double.parseDouble(s.toString()) : defaultValue;
+   }
+
+   /**
+    * Parses a float, see {@link Float#parseFloat(String)}. Plain decimal
+    * values are parsed in place with the same result as the JDK, anything
+    * else, such as hexadecimal, subnormal or padded values, falls back to
+    * the JDK.
+    * @param s The text to parse
+    * @return The parsed value
+    * @throws NumberFormatException If the text is not a valid float
+    */
+   public static float parseFloat(CharSequence s) {
+      if(s == null) {
+         throw new NullPointerException();
+      }
+      double value = parseDecimal(s, true);
+      if(value == value) {
+         return (float)value;
+      }
+      if(LightweightExceptions.isEnabled() && !isFloatingPoint(s)) {
+         throw LightweightExceptions.numberFormat(s);
+      }
+      return Float.parseFloat(s.toString());
+   }
+
+   /**
+    * Parses a float without throwing
+    * @param s The text to parse
+    * @param defaultValue The value to return if the text is not a valid float
+    * @return The parsed value, or defaultValue
+    */
+   public static float tryParseFloat(CharSequence s, float defaultValue) {
+      if(s == null) {
+         return defaultValue;
+      }
+      double value = parseDecimal(s, true);
+      if(value == value) {
+         return (float)value;
+      }
+      return isFloatingPoint(s) ? Float.parseFloat(s.toString()) : defaultValue;
+   }
+
+   /**
+    * Checks if the text is valid input for {@link Double#parseDouble}, that
+    * is a decimal or hexadecimal floating point literal, NaN or Infinity,
+    * with optional sign, type suffix and surrounding whitespace.
+    * @param s The text to check
+    * @return True if the text can be parsed
+    */
+   public static boolean isFloatingPoint(CharSequence s) {
+      int start = 0;
+      int end = s.length();
+      while(start < end && s.charAt(start) <= ' ') {
+         ++start;
+      }
+      while(end > start && s.charAt(end - 1) <= ' ') {
+         --end;
+      }
+      if(start < end && (s.charAt(start) == '-' || s.charAt(start) == '+')) {
+         ++start;
+      }
+      if(regionEquals(s, start, end, "NaN") ||
+            regionEquals(s, start, end, "Infinity")) {
+         return true;
+      }
+      char last = (end > start) ? s.charAt(end - 1) : 0;
+      if(last == 'f' || last == 'F' || last == 'd' || last == 'D') {
+         --end;
+      }
+
+      int pos = start;
+      boolean hex = end - pos > 2 && s.charAt(pos) == '0' &&
+            (s.charAt(pos + 1) == 'x' || s.charAt(pos + 1) == 'X');
+      if(hex) {
+         pos += 2;
+      }
+      int radix = hex ? 16 : 10;
+      int digits = 0;
+      while(pos < end && Character.digit(s.charAt(pos), radix) >= 0 &&
+            s.charAt(pos) < 0x80) {
+         ++pos;
+         ++digits;
+      }
+      if(pos < end && s.charAt(pos) == '.') {
+         ++pos;
+         while(pos < end && Character.digit(s.charAt(pos), radix) >= 0 &&
+               s.charAt(pos) < 0x80) {
+            ++pos;
+            ++digits;
+         }
+      }
+      if(digits == 0) {
+         return false;
+      }
+
+      //Exponent, required for hexadecimal
+      char marker = (pos < end) ? s.charAt(pos) : 0;
+      if(hex ? (marker == 'p' || marker == 'P') : (marker == 'e' || marker == 'E')) {
+         ++pos;
+         if(pos < end && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+            ++pos;
+         }
+         int exponentDigits = 0;
+         while(pos < end && s.charAt(pos) >= '0' && s.charAt(pos) <= '9') {
+            ++pos;
+            ++exponentDigits;
+         }
+         if(exponentDigits == 0) {
+            return false;
+         }
+      } else if(hex) {
+         return false;
+      }
+      return pos == end;
+   }
+
+   private static boolean regionEquals(CharSequence s, int start, int end,
+         String value) {
+      if(end - start != value.length()) {
+         return false;
+      }
+      for(int i = 0; i < value.length(); ++i) {
+         if(s.charAt(start + i) != value.charAt(i)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Parses the text if it is a plain decimal number, [sign] digits
+    * [. digits] [e [sign] digits]. Up to 19 significant digits are kept as
+    * the mantissa. If the mantissa and power of ten are both exactly
+    * representable the result only takes a single multiplication or
+    * division, which is correctly rounded. Otherwise the result comes from
+    * {@link EiselLemire}; if digits were dropped the result is only used if
+    * rounding the mantissa up gives the same value.
+    * @param s The text to parse
+    * @param asFloat True to compute the result in float precision
+    * @return The parsed value, or NaN if the text can't be parsed here
+    */
+   private static double parseDecimal(CharSequence s, boolean asFloat) {
+      int length = s.length();
+      int pos = 0;
+      boolean negative = false;
+      if(pos < length && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+         negative = s.charAt(pos++) == '-';
+      }
+
+      long mantissa = 0;
+      int significantDigits = 0;
+      int digits = 0;
+      int exponent = 0;
+      boolean truncated = false;
+      boolean seenPoint = false;
+      for(; pos < length; ++pos) {
+         char c = s.charAt(pos);
+         if(c >= '0' && c <= '9') {
+            ++digits;
+            if(significantDigits < MAX_SIGNIFICANT_DIGITS) {
+               mantissa = mantissa * 10 + (c - '0');
+               if(mantissa != 0) {
+                  ++significantDigits;
+               }
+               if(seenPoint) {
+                  --exponent;
+               }
+            } else {
+               truncated |= c != '0';
+               if(!seenPoint) {
+                  ++exponent;
+               }
+            }
+         } else if(c == '.' && !seenPoint) {
+            seenPoint = true;
+         } else {
+            break;
+         }
+      }
+      if(digits == 0) {
+         return Double.NaN;
+      }
+
+      if(pos < length && (s.charAt(pos) == 'e' || s.charAt(pos) == 'E')) {
+         ++pos;
+         boolean negativeExponent = false;
+         if(pos < length && (s.charAt(pos) == '-' || s.charAt(pos) == '+')) {
+            negativeExponent = s.charAt(pos++) == '-';
+         }
+         int exponentDigits = 0;
+         int explicit = 0;
+         for(; pos < length; ++pos) {
+            char c = s.charAt(pos);
+            if(c < '0' || c > '9') {
+               break;
+            }
+            //Anything this large is zero or infinite
+            if(explicit < 100000) {
+               explicit = explicit * 10 + (c - '0');
+            }
+            ++exponentDigits;
+         }
+         if(exponentDigits == 0) {
+            return Double.NaN;
+         }
+         exponent += negativeExponent ? -explicit : explicit;
+      }
+      if(pos != length) {
+         return Double.NaN;
+      }
+      if(mantissa == 0) {
+         return negative ? -0.0 : 0.0;
+      }
+
+      if(!truncated) {
+         if(asFloat) {
+            if(Long.compareUnsigned(mantissa, MAX_FLOAT_MANTISSA) <= 0 &&
+                  exponent >= -MAX_FLOAT_POW10 && exponent <= MAX_FLOAT_POW10) {
+               float f = (float)mantissa;
+               f = (exponent < 0) ? f / FLOAT_POW10[-exponent] :
+                     f * FLOAT_POW10[exponent];
+               return negative ? -f : f;
+            }
+         } else if(Long.compareUnsigned(mantissa, MAX_DOUBLE_MANTISSA) <= 0 &&
+               exponent >= -MAX_DOUBLE_POW10 && exponent <= MAX_DOUBLE_POW10) {
+            double d = (exponent < 0) ? mantissa / DOUBLE_POW10[-exponent] :
+                  mantissa * DOUBLE_POW10[exponent];
+            return negative ? -d : d;
+         }
+      }
+
+      double value = asFloat ? EiselLemire.toFloat(mantissa, exponent, negative)
+            : EiselLemire.toDouble(mantissa, exponent, negative);
+      if(truncated && value == value) {
+         double roundedUp = asFloat ?
+               EiselLemire.toFloat(mantissa + 1, exponent, negative) :
+               EiselLemire.toDouble(mantissa + 1, exponent, negative);
+         if(roundedUp != value) {
+            return Double.NaN;
+         }
+      }
+      return value;
+   }
+
+   /** Most digits that always fit in a long **/
+   static final int MAX_SWAR_DIGITS = 18;
+
+   /** Most significant digits that always fit in an unsigned long **/
+   private static final int MAX_SIGNIFICANT_DIGITS = 19;
+
+   /** Largest mantissas that are exactly representable **/
+   private static final long MAX_DOUBLE_MANTISSA = 1L << 53;
+   private static final long MAX_FLOAT_MANTISSA = 1L << 24;
+
+   /** Largest powers of ten that are exactly representable **/
+   private static final int MAX_DOUBLE_POW10 = 22;
+   private static final int MAX_FLOAT_POW10 = 10;
+
+   private static final double[] DOUBLE_POW10 = new double[MAX_DOUBLE_POW10 + 1];
+   private static final float[] FLOAT_POW10 = new float[MAX_FLOAT_POW10 + 1];
+   static {
+      DOUBLE_POW10[0] = 1;
+      for(int i = 1; i < DOUBLE_POW10.length; ++i) {
+         DOUBLE_POW10[i] = DOUBLE_POW10[i - 1] * 10;
+      }
+      FLOAT_POW10[0] = 1;
+      for(int i = 1; i < FLOAT_POW10.length; ++i) {
+         FLOAT_POW10[i] = FLOAT_POW10[i - 1] * 10;
+      }
+   }
+}
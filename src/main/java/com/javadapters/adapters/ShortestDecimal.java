@@ -0,0 +1,342 @@
+package com.javadapters.adapters;
+
+import java.math.BigInteger;
+
+/**
+ * Formats doubles and floats with the fewest significant digits that parse
+ * back to the same value, choosing the closest of those if there are
+ * several, with the Schubfach algorithm. When one digit is enough the
+ * closest decimal of one or two digits is chosen instead, which is the
+ * choice {@link Double#toString(double)} makes from JDK 19. The layout is the same as
+ * {@link Double#toString(double)}, so values from 10^-3 up to 10^7 are
+ * written in plain notation and others in computerized scientific notation,
+ * but the digits may be fewer since the JDK does not always find the
+ * shortest.
+ * @see <a href="https://drive.google.com/file/d/1IEeATSVnEE6TkrHlCYNY2GjaraBjOT4f">
+ * The Schubfach way to render doubles</a>
+ */
+final class ShortestDecimal {
+
+   private ShortestDecimal() {
+   }
+
+   /** Most characters written for a double **/
+   static final int MAX_DOUBLE_LENGTH = 24;
+   /** Most characters written for a float **/
+   static final int MAX_FLOAT_LENGTH = 15;
+
+   /**
+    * Writes the shortest decimal of a double
+    * @param v The value
+    * @param to The array to write to, with room for {@link #MAX_DOUBLE_LENGTH}
+    * characters
+    * @param offset The index to write at
+    * @return The index after the last character written
+    */
+   static int formatDouble(double v, char[] to, int offset) {
+      long bits = Double.doubleToRawLongBits(v);
+      long t = bits & DOUBLE_T_MASK;
+      int bq = (int)(bits >>> 52) & 0x7FF;
+      if(bq == 0x7FF) {
+         return special(t != 0, bits < 0, to, offset);
+      }
+      if(bits < 0) {
+         to[offset++] = '-';
+      }
+      if(bq != 0) {
+         //Normal value
+         int mq = -DOUBLE_Q_MIN + 1 - bq;
+         long c = DOUBLE_C_MIN | t;
+         if(0 < mq && mq < 53) {
+            //Integers are exact
+            long f = c >> mq;
+            if(f << mq == c) {
+               return layout(f, 0, to, offset);
+            }
+         }
+         return toDecimal(-mq, c, 0, to, offset);
+      }
+      if(t != 0) {
+         //Subnormal value
+         return (t < DOUBLE_C_TINY) ? toDecimal(DOUBLE_Q_MIN, 10 * t, -1, to, offset)
+               : toDecimal(DOUBLE_Q_MIN, t, 0, to, offset);
+      }
+      return copy("0.0", to, offset);
+   }
+
+   /**
+    * Writes the shortest decimal of a float
+    * @param v The value
+    * @param to The array to write to, with room for {@link #MAX_FLOAT_LENGTH}
+    * characters
+    * @param offset The index to write at
+    * @return The index after the last character written
+    */
+   static int formatFloat(float v, char[] to, int offset) {
+      int bits = Float.floatToRawIntBits(v);
+      int t = bits & FLOAT_T_MASK;
+      int bq = (bits >>> 23) & 0xFF;
+      if(bq == 0xFF) {
+         return special(t != 0, bits < 0, to, offset);
+      }
+      if(bits < 0) {
+         to[offset++] = '-';
+      }
+      if(bq != 0) {
+         int mq = -FLOAT_Q_MIN + 1 - bq;
+         int c = FLOAT_C_MIN | t;
+         if(0 < mq && mq < 24) {
+            int f = c >> mq;
+            if(f << mq == c) {
+               return layout(f, 0, to, offset);
+            }
+         }
+         return toDecimal(-mq, c, 0, to, offset);
+      }
+      if(t != 0) {
+         return (t < FLOAT_C_TINY) ? toDecimal(FLOAT_Q_MIN, 10 * t, -1, to, offset)
+               : toDecimal(FLOAT_Q_MIN, t, 0, to, offset);
+      }
+      return copy("0.0", to, offset);
+   }
+
+   /**
+    * Finds the decimal for the double c 2^q, see figure 7 of the paper
+    */
+   private static int toDecimal(int q, long c, int dk, char[] to, int offset) {
+      int out = (int)c & 0x1;
+      long cb = c << 2;
+      long cbr = cb + 2;
+      long cbl;
+      int k;
+      if(c != DOUBLE_C_MIN || q == DOUBLE_Q_MIN) {
+         //Regular spacing
+         cbl = cb - 2;
+         k = flog10pow2(q);
+      } else {
+         //Irregular spacing, the value is a power of two
+         cbl = cb - 1;
+         k = flog10threeQuartersPow2(q);
+      }
+      int h = q + flog2pow10(-k) + 2;
+
+      int index = (-k - MIN_POW10) * 2;
+      long g1 = G[index];
+      long g0 = G[index + 1];
+      long vb = rop(g1, g0, cb << h);
+      long vbl = rop(g1, g0, cbl << h);
+      long vbr = rop(g1, g0, cbr << h);
+
+      long s = vb >> 2;
+      if(s >= 100) {
+         //Try one digit less first, sp10 = 10 floor(s / 10)
+         long sp10 = 10 * Math.multiplyHigh(s, 115292150460684698L << 4);
+         long tp10 = sp10 + 10;
+         boolean upin = vbl + out <= sp10 << 2;
+         boolean wpin = (tp10 << 2) + out <= vbr;
+         if(upin != wpin) {
+            return layout(upin ? sp10 : tp10, k, to, offset);
+         }
+      }
+      long t = s + 1;
+      boolean uin = vbl + out <= s << 2;
+      boolean win = (t << 2) + out <= vbr;
+      if(uin != win) {
+         return layout(uin ? s : t, k + dk, to, offset);
+      }
+      //Both are in the rounding interval, take the closest
+      long cmp = vb - ((s + t) << 1);
+      return layout((cmp < 0 || (cmp == 0 && (s & 0x1) == 0)) ? s : t, k + dk,
+            to, offset);
+   }
+
+   /**
+    * Finds the decimal for the float c 2^q, see figure 7 of the paper
+    */
+   private static int toDecimal(int q, int c, int dk, char[] to, int offset) {
+      int out = c & 0x1;
+      long cb = c << 2;
+      long cbr = cb + 2;
+      long cbl;
+      int k;
+      if(c != FLOAT_C_MIN || q == FLOAT_Q_MIN) {
+         cbl = cb - 2;
+         k = flog10pow2(q);
+      } else {
+         cbl = cb - 1;
+         k = flog10threeQuartersPow2(q);
+      }
+      int h = q + flog2pow10(-k) + 33;
+
+      long g = G[(-k - MIN_POW10) * 2] + 1;
+      int vb = rop(g, cb << h);
+      int vbl = rop(g, cbl << h);
+      int vbr = rop(g, cbr << h);
+
+      int s = vb >> 2;
+      if(s >= 100) {
+         int sp10 = 10 * (int)((s * 1717986919L) >>> 34);
+         int tp10 = sp10 + 10;
+         boolean upin = vbl + out <= sp10 << 2;
+         boolean wpin = (tp10 << 2) + out <= vbr;
+         if(upin != wpin) {
+            return layout(upin ? sp10 : tp10, k, to, offset);
+         }
+      }
+      int t = s + 1;
+      boolean uin = vbl + out <= s << 2;
+      boolean win = (t << 2) + out <= vbr;
+      if(uin != win) {
+         return layout(uin ? s : t, k + dk, to, offset);
+      }
+      int cmp = vb - ((s + t) << 1);
+      return layout((cmp < 0 || (cmp == 0 && (s & 0x1) == 0)) ? s : t, k + dk,
+            to, offset);
+   }
+
+   /**
+    * Computes rop(cp g 2^-127) where g = g1 2^63 + g0, see figure 8 of the
+    * paper
+    */
+   private static long rop(long g1, long g0, long cp) {
+      long x1 = Math.multiplyHigh(g0, cp);
+      long y0 = g1 * cp;
+      long y1 = Math.multiplyHigh(g1, cp);
+      long z = (y0 >>> 1) + x1;
+      long vbp = y1 + (z >>> 63);
+      return vbp | (((z & MASK_63) + MASK_63) >>> 63);
+   }
+
+   /**
+    * Computes rop(cp g 2^-95)
+    */
+   private static int rop(long g, long cp) {
+      long x1 = Math.multiplyHigh(g, cp);
+      long vbp = x1 >>> 31;
+      return (int)(vbp | (((x1 & MASK_32) + MASK_32) >>> 32));
+   }
+
+   /** floor(log10(2^e)) **/
+   private static int flog10pow2(int e) {
+      return (int)((e * 661971961083L) >> 41);
+   }
+
+   /** floor(log10(3/4 2^e)) **/
+   private static int flog10threeQuartersPow2(int e) {
+      return (int)((e * 661971961083L - 274743187321L) >> 41);
+   }
+
+   /** floor(log2(10^e)) **/
+   private static int flog2pow10(int e) {
+      return (int)((e * 913124641741L) >> 38);
+   }
+
+   /**
+    * Writes f 10^e in the layout of {@link Double#toString(double)}
+    * @param f The significant digits
+    * @param e The power of ten
+    * @param to The array to write to
+    * @param offset The index to write at
+    * @return The index after the last character written
+    */
+   private static int layout(long f, int e, char[] to, int offset) {
+      while(f % 10 == 0) {
+         f /= 10;
+         ++e;
+      }
+      int length = NumberFormatter.digitCount(f);
+      //The value is 0.d1...dn 10^exponent
+      int exponent = e + length;
+      if(0 < exponent && exponent <= 7) {
+         if(length <= exponent) {
+            int end = NumberFormatter.formatDigits(f, length, to, offset);
+            for(int i = length; i < exponent; ++i) {
+               to[end++] = '0';
+            }
+            to[end++] = '.';
+            to[end++] = '0';
+            return end;
+         }
+         int end = NumberFormatter.formatDigits(f, length, to, offset + 1);
+         System.arraycopy(to, offset + 1, to, offset, exponent);
+         to[offset + exponent] = '.';
+         return end;
+      }
+      if(-3 < exponent && exponent <= 0) {
+         to[offset++] = '0';
+         to[offset++] = '.';
+         for(int i = exponent; i < 0; ++i) {
+            to[offset++] = '0';
+         }
+         return NumberFormatter.formatDigits(f, length, to, offset);
+      }
+      int end = NumberFormatter.formatDigits(f, length, to, offset + 1);
+      to[offset] = to[offset + 1];
+      to[offset + 1] = '.';
+      if(length == 1) {
+         to[end++] = '0';
+      }
+      to[end++] = 'E';
+      return NumberFormatter.formatLong(exponent - 1, to, end);
+   }
+
+   private static int special(boolean nan, boolean negative, char[] to,
+         int offset) {
+      if(nan) {
+         return copy("NaN", to, offset);
+      }
+      return copy(negative ? "-Infinity" : "Infinity", to, offset);
+   }
+
+   private static int copy(String text, char[] to, int offset) {
+      text.getChars(0, text.length(), to, offset);
+      return offset + text.length();
+   }
+
+   private static final int DOUBLE_Q_MIN = -1074;
+   private static final long DOUBLE_C_MIN = 1L << 52;
+   private static final long DOUBLE_T_MASK = DOUBLE_C_MIN - 1;
+   private static final long DOUBLE_C_TINY = 3;
+   private static final int FLOAT_Q_MIN = -149;
+   private static final int FLOAT_C_MIN = 1 << 23;
+   private static final int FLOAT_T_MASK = FLOAT_C_MIN - 1;
+   private static final int FLOAT_C_TINY = 8;
+   private static final long MASK_63 = Long.MAX_VALUE;
+   private static final long MASK_32 = 0xFFFFFFFFL;
+
+   /** Range of the powers of ten in the table **/
+   private static final int MIN_POW10 = -292;
+   private static final int MAX_POW10 = 324;
+
+   /**
+    * The powers of ten from 10^MIN_POW10 to 10^MAX_POW10, each as
+    * g = floor(10^e 2^-r) + 1 with r chosen so that 2^125 &lt;= g &lt; 2^126,
+    * stored as the high 63 bits and then the low 63 bits of g
+    */
+   private static final long[] G = new long[(MAX_POW10 - MIN_POW10 + 1) * 2];
+   static {
+      BigInteger mask63 = BigInteger.valueOf(MASK_63);
+      for(int e = MIN_POW10; e <= MAX_POW10; ++e) {
+         BigInteger g;
+         if(e >= 0) {
+            BigInteger power = BigInteger.TEN.pow(e);
+            int r = power.bitLength() - 126;
+            g = (r < 0) ? power.shiftLeft(-r) : power.shiftRight(r);
+         } else {
+            BigInteger power = BigInteger.TEN.pow(-e);
+            int s = 125 + power.bitLength();
+            g = BigInteger.ONE.shiftLeft(s).divide(power);
+            while(g.bitLength() > 126) {
+               g = BigInteger.ONE.shiftLeft(--s).divide(power);
+            }
+            while(g.bitLength() < 126) {
+               g = BigInteger.ONE.shiftLeft(++s).divide(power);
+            }
+         }
+         g = g.add(BigInteger.ONE);
+         int index = (e - MIN_POW10) * 2;
+         G[index] = g.shiftRight(63).longValue();
+         G[index + 1] = g.and(mask63).longValue();
+      }
+   }
+}
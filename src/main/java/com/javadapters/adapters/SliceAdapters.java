@@ -0,0 +1,377 @@
+package com.javadapters.adapters;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.ClassPair;
+import com.javadapters.adapters.EnumLookup.Match;
+
+/**
+ * Set of default adapters to convert {@link CharSlice} and {@link ByteSlice}
+ * fields to java built in types without first copying them into a String.
+ * The results are the same as the matching {@link StringAdapters}. These are
+ * added by default to the {@link AdapterFactory}.
+ */
+public abstract class SliceAdapters {
+
+   /**
+    * @return A list of all {@link SliceAdapters}
+    */
+   public static Map<ClassPair<?, ?>, Adapter<?, ?>> getAllAdapters() {
+      Map<ClassPair<?, ?>, Adapter<?, ?>> adapters =
+            new HashMap<ClassPair<?, ?>, Adapter<?, ?>>();
+      addAdapters(adapters, CharSlice.class);
+      addAdapters(adapters, ByteSlice.class);
+      return adapters;
+   }
+
+   /**
+    * Adds all the slice adapters for the given slice type
+    * @param adapters The map to add to
+    * @param fromType The slice type
+    */
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   private static <S extends CharSequence> void addAdapters(
+         Map<ClassPair<?, ?>, Adapter<?, ?>> adapters, Class<S> fromType) {
+      adapters.put(new ClassPair<S, Boolean>(fromType, Boolean.class),
+            new SliceToBooleanAdapter<S>());
+      adapters.put(new ClassPair<S, Byte>(fromType, Byte.class),
+            new SliceToByteAdapter<S>());
+      adapters.put(new ClassPair<S, Character>(fromType, Character.class),
+            new SliceToCharacterAdapter<S>());
+      adapters.put(new ClassPair<S, Date>(fromType, Date.class),
+            new SliceToDateAdapter<S>());
+      adapters.put(new ClassPair<S, Double>(fromType, Double.class),
+            new SliceToDoubleAdapter<S>());
+      adapters.put(new ClassPair<S, Enum>(fromType, Enum.class),
+            new SliceToEnumAdapter());
+      adapters.put(new ClassPair<S, Float>(fromType, Float.class),
+            new SliceToFloatAdapter<S>());
+      adapters.put(new ClassPair<S, Integer>(fromType, Integer.class),
+            new SliceToIntegerAdapter<S>());
+      adapters.put(new ClassPair<S, Long>(fromType, Long.class),
+            new SliceToLongAdapter<S>());
+      adapters.put(new ClassPair<S, Short>(fromType, Short.class),
+            new SliceToShortAdapter<S>());
+      adapters.put(new ClassPair<S, String>(fromType, String.class),
+            new SliceToStringAdapter<S>());
+   }
+
+   /**
+    * Slice to Boolean adapter
+    * @param <S> The slice type
+    */
+   @AdapterFor(from = CharSlice.class, to = Boolean.class)
+   @AdapterFor(from = ByteSlice.class, to = Boolean.class)
+   public static class SliceToBooleanAdapter<S extends CharSequence>
+         implements Adapter<S, Boolean>, ToBooleanAdapter<S> {
+      @Override
+      public Boolean convert(S from, Class<Boolean> clazz) {
+         return NumberParser.parseBoolean(from);
+      }
+
+      @Override
+      public boolean convertToBoolean(S from) {
+         return NumberParser.parseBoolean(from);
+      }
+   }
+
+   /**
+    * Slice to Byte adapter
+    * @param <S> The slice type
+    */
+   @AdapterFor(from = CharSlice.class, to = Byte.class)
+   @AdapterFor(from = ByteSlice.class, to = Byte.class)
+   public static class SliceToByteAdapter<S extends CharSequence>
+         implements Adapter<S, Byte> {
+      @Override
+      public Byte convert(S from, Class<Byte> clazz) {
+         return NumberParser.parseByte(from);
+      }
+
+      @Override
+      public Byte tryConvert(S from, Class<Byte> clazz,
+            Byte defaultValue) {
+         return NumberParser.tryParseBoxedByte(from, defaultValue);
+      }
+   }
+
+   /**
+    * Slice to Character adapter
+    * @param <S> The slice type
+    */
+   @AdapterFor(from = CharSlice.class, to = Character.class)
+   @AdapterFor(from = ByteSlice.class, to = Character.class)
+   public static class SliceToCharacterAdapter<S extends CharSequence>
+         implements Adapter<S, Character> {
+      @Override
+      public Character convert(S from, Class<Character> clazz) {
+         if(from == null || from.length() == 0) {
+            return null;
+         }
+         char c = from.charAt(0);
+         //Decode multi byte UTF-8 characters
+         return (c < 0x80 || !(from instanceof ByteSlice)) ? c :
+               from.toString().charAt(0);
+      }
+   }
+
+   /**
+    * Slice to Date adapter, see {@link StringAdapters.StringToDateAdapter}
+    * @param <S> The slice type
+    */
+   @AdapterFor(from = CharSlice.class, to = Date.class)
+   @AdapterFor(from = ByteSlice.class, to = Date.class)
+   public static class SliceToDateAdapter<S extends CharSequence>
+         implements Adapter<S, Date> {
+
+      /**
+       * Constructor
+       */
+      public SliceToDateAdapter() {
+         this(false);
+      }
+
+      /**
+       * Constructor
+       * @param sticky True to remember the last matching date format and try
+       * it first. Only use a sticky adapter for a single column of data.
+       */
+      public SliceToDateAdapter(boolean sticky) {
+         parser = new DateParser(sticky);
+      }
+
+      @Override
+      public Date convert(S from, Class<Date> clazz) {
+         return parser.parse(from);
+      }
+
+      /** The parser used to convert **/
+      private final DateParser parser;
+   }
+
+   /**
+    * Slice to Double adapter
+    * @param <S> The slice type
+    */
+   @AdapterFor(from = CharSlice.class, to = Double.class)
+   @AdapterFor(from = ByteSlice.class, to = Double.class)
+   public static class SliceToDoubleAdapter<S extends CharSequence>
+         implements Adapter<S, Double>, ToDoubleAdapter<S> {
+      @Override
+      public Double convert(S from, Class<Double> clazz) {
+         return NumberParser.parseDouble(from);
+      }
+
+      @Override
+      public Double tryConvert(S from, Class<Double> clazz,
+            Double defaultValue) {
+         return NumberParser.tryParseBoxedDouble(from, defaultValue);
+      }
+
+      @Override
+      public double convertToDouble(S from) {
+         return NumberParser.parseDouble(from);
+      }
+
+      @Override
+      public double tryConvertToDouble(S from, double defaultValue) {
+         return NumberParser.tryParseDouble(from, defaultValue);
+      }
+   }
+
+   /**
+    * Generic slice to Enum adapter, see
+    * {@link StringAdapters.StringToEnumAdapter}
+    * @param <S> The slice type
+    * @param <E> The enum type
+    */
+   @AdapterFor(from = CharSlice.class, to = Enum.class)
+   @AdapterFor(from = ByteSlice.class, to = Enum.class)
+   public static class SliceToEnumAdapter<S extends CharSequence, E extends Enum<E>>
+         implements Adapter<S, E> {
+
+      /**
+       * Constructor for exact matching that throws on unknown names
+       */
+      public SliceToEnumAdapter() {
+         this(EnumSet.of(Match.EXACT), false);
+      }
+
+      /**
+       * Constructor
+       * @param matches The ways names may match a constant
+       * @param nullIfUnknown True to return null for unknown names rather
+       * than throwing
+       */
+      public SliceToEnumAdapter(Set<Match> matches, boolean nullIfUnknown) {
+         this(null, matches, nullIfUnknown);
+      }
+
+      /**
+       * Constructor
+       * @param lookup The lookup to match names of its enum type with, such
+       * as one with aliases, see {@link EnumLookup#withAlias}
+       * @param matches The ways names may match a constant
+       * @param nullIfUnknown True to return null for unknown names rather
+       * than throwing
+       */
+      public SliceToEnumAdapter(EnumLookup<E> lookup, Set<Match> matches,
+            boolean nullIfUnknown) {
+         this.lookup = lookup;
+         this.matches = EnumSet.copyOf(matches);
+         this.nullIfUnknown = nullIfUnknown;
+      }
+
+      @Override
+      public E convert(S from, Class<E> clazz) {
+         E constant = find(from, clazz);
+         if(constant == null && !nullIfUnknown) {
+            throw StringAdapters.unknownConstant(clazz, from);
+         }
+         return constant;
+      }
+
+      @Override
+      public E tryConvert(S from, Class<E> clazz, E defaultValue) {
+         E constant = find(from, clazz);
+         return (constant == null) ? defaultValue : constant;
+      }
+
+      private E find(S from, Class<E> clazz) {
+         EnumLookup<E> lookup = EnumLookup.of(this.lookup, clazz);
+         E constant = lookup.find(from, matches);
+         if(constant == null && from instanceof ByteSlice &&
+               !((ByteSlice)from).isAscii()) {
+            //Decode the UTF-8 bytes to match non ASCII names
+            constant = lookup.find(from.toString(), matches);
+         }
+         return constant;
+      }
+
+      /** The lookup for its enum type, or null to use the shared lookups **/
+      private final EnumLookup<E> lookup;
+      /** The ways names may match a constant **/
+      private final Set<Match> matches;
+      /** True to return null for unknown names **/
+      private final boolean nullIfUnknown;
+   }
+
+   /**
+    * Slice to Float adapter
+    * @param <S> The slice type
+    */
+   @AdapterFor(from = CharSlice.class, to = Float.class)
+   @AdapterFor(from = ByteSlice.class, to = Float.class)
+   public static class SliceToFloatAdapter<S extends CharSequence>
+         implements Adapter<S, Float> {
+      @Override
+      public Float convert(S from, Class<Float> clazz) {
+         return NumberParser.parseFloat(from);
+      }
+
+      @Override
+      public Float tryConvert(S from, Class<Float> clazz,
+            Float defaultValue) {
+         return NumberParser.tryParseBoxedFloat(from, defaultValue);
+      }
+   }
+
+   /**
+    * Slice to Integer adapter
+    * @param <S> The slice type
+    */
+   @AdapterFor(from = CharSlice.class, to = Integer.class)
+   @AdapterFor(from = ByteSlice.class, to = Integer.class)
+   public static class SliceToIntegerAdapter<S extends CharSequence>
+         implements Adapter<S, Integer>, ToIntAdapter<S> {
+      @Override
+      public Integer convert(S from, Class<Integer> clazz) {
+         return NumberParser.parseInt(from);
+      }
+
+      @Override
+      public Integer tryConvert(S from, Class<Integer> clazz,
+            Integer defaultValue) {
+         return NumberParser.tryParseBoxedInt(from, defaultValue);
+      }
+
+      @Override
+      public int convertToInt(S from) {
+         return NumberParser.parseInt(from);
+      }
+
+      @Override
+      public int tryConvertToInt(S from, int defaultValue) {
+         return NumberParser.tryParseInt(from, defaultValue);
+      }
+   }
+
+   /**
+    * Slice to Long adapter
+    * @param <S> The slice type
+    */
+   @AdapterFor(from = CharSlice.class, to = Long.class)
+   @AdapterFor(from = ByteSlice.class, to = Long.class)
+   public static class SliceToLongAdapter<S extends CharSequence>
+         implements Adapter<S, Long>, ToLongAdapter<S> {
+      @Override
+      public Long convert(S from, Class<Long> clazz) {
+         return NumberParser.parseLong(from);
+      }
+
+      @Override
+      public Long tryConvert(S from, Class<Long> clazz,
+            Long defaultValue) {
+         return NumberParser.tryParseBoxedLong(from, defaultValue);
+      }
+
+      @Override
+      public long convertToLong(S from) {
+         return NumberParser.parseLong(from);
+      }
+
+      @Override
+      public long tryConvertToLong(S from, long defaultValue) {
+         return NumberParser.tryParseLong(from, defaultValue);
+      }
+   }
+
+   /**
+    * Slice to Short adapter
+    * @param <S> The slice type
+    */
+   @AdapterFor(from = CharSlice.class, to = Short.class)
+   @AdapterFor(from = ByteSlice.class, to = Short.class)
+   public static class SliceToShortAdapter<S extends CharSequence>
+         implements Adapter<S, Short> {
+      @Override
+      public Short convert(S from, Class<Short> clazz) {
+         return NumberParser.parseShort(from);
+      }
+
+      @Override
+      public Short tryConvert(S from, Class<Short> clazz,
+            Short defaultValue) {
+         return NumberParser.tryParseBoxedShort(from, defaultValue);
+      }
+   }
+
+   /**
+    * Slice to String adapter, decodes {@link ByteSlice}s as UTF-8
+    * @param <S> The slice type
+    */
+   @AdapterFor(from = CharSlice.class, to = String.class)
+   @AdapterFor(from = ByteSlice.class, to = String.class)
+   public static class SliceToStringAdapter<S extends CharSequence>
+         implements Adapter<S, String> {
+      @Override
+      public String convert(S from, Class<String> clazz) {
+         return (from == null) ? null : from.toString();
+      }
+   }
+}
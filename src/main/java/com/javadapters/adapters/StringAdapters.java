@@ -1,13 +1,14 @@
 package com.javadapters.adapters;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import com.javadapters.AdapterFactory;
 import com.javadapters.ClassPair;
+import com.javadapters.adapters.EnumLookup.Match;
 
 /**
  * Set of default string adapters to convert between different java built in
@@ -48,26 +49,41 @@ public abstract class StringAdapters {
    /**
     * String to Boolean adapter
     */
-   public static class StringToBooleanAdapter implements Adapter<String, Boolean> {
+   @AdapterFor(from = String.class, to = Boolean.class)
+   public static class StringToBooleanAdapter implements Adapter<String, Boolean>,
+         ToBooleanAdapter<String> {
       @Override
       public Boolean convert(String from, Class<Boolean> clazz) {
          return Boolean.valueOf(from);
       }
+
+      @Override
+      public boolean convertToBoolean(String from) {
+         return Boolean.parseBoolean(from);
+      }
    }
 
    /**
     * String to Byte adapter
     */
+   @AdapterFor(from = String.class, to = Byte.class)
    public static class StringToByteAdapter implements Adapter<String, Byte> {
       @Override
       public Byte convert(String from, Class<Byte> clazz) {
-         return Byte.valueOf(from);
+         return NumberParser.parseByte(from);
+      }
+
+      @Override
+      public Byte tryConvert(String from, Class<Byte> clazz,
+            Byte defaultValue) {
+         return NumberParser.tryParseBoxedByte(from, defaultValue);
       }
    }
 
    /**
     * String to Character adapter
     */
+   @AdapterFor(from = String.class, to = Character.class)
    public static class StringToCharacterAdapter implements Adapter<String, Character> {
       @Override
       public Character convert(String from, Class<Character> clazz) {
@@ -77,132 +93,236 @@ public abstract class StringAdapters {
 
    /**
     * String to Date adapter. Tries to convert a string to a date using some
-    * default set of date formats. Logic and regexps in here adapted from DateUtil
-    * by BalusC.
-    * @see
-    * @link http://balusc.blogspot.com/2007/09/dateutil.html
+    * default set of date formats, see {@link DateParser}. Returns null if the
+    * string is not a valid date in one of those formats.
     */
+   @AdapterFor(from = String.class, to = Date.class)
    public static class StringToDateAdapter implements Adapter<String, Date> {
-      @Override
-      public Date convert(String from, Class<Date> clazz) {
-         Date date = null;
-         String dateFormat = determineDateFormat(from);
-         if(dateFormat != null) {
-            SimpleDateFormat simpleDateFormat = new SimpleDateFormat(dateFormat);
-            simpleDateFormat.setLenient(false); // Don't automatically convert invalid date\
-            try {
-               date = simpleDateFormat.parse(from);
-            } catch (ParseException e) {
-               date = null;
-            }
-         }
-         return date;
+
+      /**
+       * Constructor
+       */
+      public StringToDateAdapter() {
+         this(false);
       }
 
       /**
-       * Determine SimpleDateFormat pattern matching with the given date string.
-       * Returns null if format is unknown.
-       * @param dateString The date string to determine the SimpleDateFormat
-       * @return The matching SimpleDateFormat pattern, or null if unknown
-       * @see SimpleDateFormat
+       * Constructor
+       * @param sticky True to remember the last matching date format and try
+       * it first. Only use a sticky adapter for a single column of data.
        */
-      private String determineDateFormat(String dateString) {
-         for (String regexp : sDateFormatRegexps.keySet()) {
-            if (dateString.toLowerCase().matches(regexp)) {
-               return sDateFormatRegexps.get(regexp);
-            }
-         }
-         return null; // Unknown format.
-      }
-
-      /** Set of regexps for date formats **/
-      private static final Map<String, String> sDateFormatRegexps =
-            new HashMap<String, String>();
-      static {
-         sDateFormatRegexps.put("^\\d{8}$", "yyyyMMdd");
-         sDateFormatRegexps.put("^\\d{1,2}-\\d{1,2}-\\d{4}$", "dd-MM-yyyy");
-         sDateFormatRegexps.put("^\\d{4}-\\d{1,2}-\\d{1,2}$", "yyyy-MM-dd");
-         sDateFormatRegexps.put("^\\d{1,2}/\\d{1,2}/\\d{4}$", "MM/dd/yyyy");
-         sDateFormatRegexps.put("^\\d{4}/\\d{1,2}/\\d{1,2}$", "yyyy/MM/dd");
-         sDateFormatRegexps.put("^\\d{1,2}\\s[a-z]{3}\\s\\d{4}$", "dd MMM yyyy");
-         sDateFormatRegexps.put("^\\d{1,2}\\s[a-z]{4,}\\s\\d{4}$", "dd MMMM yyyy");
-         sDateFormatRegexps.put("^\\d{12}$", "yyyyMMddHHmm");
-         sDateFormatRegexps.put("^\\d{8}\\s\\d{4}$", "yyyyMMdd HHmm");
-         sDateFormatRegexps.put("^\\d{1,2}-\\d{1,2}-\\d{4}\\s\\d{1,2}:\\d{2}$", "dd-MM-yyyy HH:mm");
-         sDateFormatRegexps.put("^\\d{4}-\\d{1,2}-\\d{1,2}\\s\\d{1,2}:\\d{2}$", "yyyy-MM-dd HH:mm");
-         sDateFormatRegexps.put("^\\d{1,2}/\\d{1,2}/\\d{4}\\s\\d{1,2}:\\d{2}$", "MM/dd/yyyy HH:mm");
-         sDateFormatRegexps.put("^\\d{4}/\\d{1,2}/\\d{1,2}\\s\\d{1,2}:\\d{2}$", "yyyy/MM/dd HH:mm");
-         sDateFormatRegexps.put("^\\d{1,2}\\s[a-z]{3}\\s\\d{4}\\s\\d{1,2}:\\d{2}$", "dd MMM yyyy HH:mm");
-         sDateFormatRegexps.put("^\\d{1,2}\\s[a-z]{4,}\\s\\d{4}\\s\\d{1,2}:\\d{2}$", "dd MMMM yyyy HH:mm");
-         sDateFormatRegexps.put("^\\d{14}$", "yyyyMMddHHmmss");
-         sDateFormatRegexps.put("^\\d{8}\\s\\d{6}$", "yyyyMMdd HHmmss");
-         sDateFormatRegexps.put("^\\d{1,2}-\\d{1,2}-\\d{4}\\s\\d{1,2}:\\d{2}:\\d{2}$", "dd-MM-yyyy HH:mm:ss");
-         sDateFormatRegexps.put("^\\d{4}-\\d{1,2}-\\d{1,2}\\s\\d{1,2}:\\d{2}:\\d{2}$", "yyyy-MM-dd HH:mm:ss");
-         sDateFormatRegexps.put("^\\d{1,2}/\\d{1,2}/\\d{4}\\s\\d{1,2}:\\d{2}:\\d{2}$", "MM/dd/yyyy HH:mm:ss");
-         sDateFormatRegexps.put("^\\d{4}/\\d{1,2}/\\d{1,2}\\s\\d{1,2}:\\d{2}:\\d{2}$", "yyyy/MM/dd HH:mm:ss");
-         sDateFormatRegexps.put("^\\d{1,2}\\s[a-z]{3}\\s\\d{4}\\s\\d{1,2}:\\d{2}:\\d{2}$", "dd MMM yyyy HH:mm:ss");
-         sDateFormatRegexps.put("^\\d{1,2}\\s[a-z]{4,}\\s\\d{4}\\s\\d{1,2}:\\d{2}:\\d{2}$", "dd MMMM yyyy HH:mm:ss");
+      public StringToDateAdapter(boolean sticky) {
+         parser = new DateParser(sticky);
       }
+
+      @Override
+      public Date convert(String from, Class<Date> clazz) {
+         return parser.parse(from);
+      }
+
+      /** The parser used to convert **/
+      private final DateParser parser;
    }
 
    /**
     * String to Double adapter
     */
-   public static class StringToDoubleAdapter implements Adapter<String, Double> {
+   @AdapterFor(from = String.class, to = Double.class)
+   public static class StringToDoubleAdapter
+         implements Adapter<String, Double>, ToDoubleAdapter<String> {
       @Override
       public Double convert(String from, Class<Double> clazz) {
-         return Double.valueOf(from);
+         return NumberParser.parseDouble(from);
+      }
+
+      @Override
+      public Double tryConvert(String from, Class<Double> clazz,
+            Double defaultValue) {
+         return NumberParser.tryParseBoxedDouble(from, defaultValue);
+      }
+
+      @Override
+      public double convertToDouble(String from) {
+         return NumberParser.parseDouble(from);
+      }
+
+      @Override
+      public double tryConvertToDouble(String from, double defaultValue) {
+         return NumberParser.tryParseDouble(from, defaultValue);
       }
    }
 
    /**
-    * Generic String to Enum adapter
+    * Generic String to Enum adapter. By default only matches the exact
+    * constant names, or the aliases of a lookup it's given (see
+    * {@link EnumLookup}), and throws {@link IllegalArgumentException} like
+    * {@link Enum#valueOf} for anything else, but it can be set to also match
+    * ignoring case or by ordinal, and to return null for unknown names rather
+    * than throwing.
     * @param <E>
     */
+   @AdapterFor(from = String.class, to = Enum.class)
    public static class StringToEnumAdapter<E extends Enum<E>> implements Adapter<String, E> {
+
+      /**
+       * Constructor for exact matching that throws on unknown names
+       */
+      public StringToEnumAdapter() {
+         this(EnumSet.of(Match.EXACT), false);
+      }
+
+      /**
+       * Constructor
+       * @param matches The ways names may match a constant
+       * @param nullIfUnknown True to return null for unknown names rather
+       * than throwing
+       */
+      public StringToEnumAdapter(Set<Match> matches, boolean nullIfUnknown) {
+         this(null, matches, nullIfUnknown);
+      }
+
+      /**
+       * Constructor
+       * @param lookup The lookup to match names of its enum type with, such
+       * as one with aliases, see {@link EnumLookup#withAlias}
+       * @param matches The ways names may match a constant
+       * @param nullIfUnknown True to return null for unknown names rather
+       * than throwing
+       */
+      public StringToEnumAdapter(EnumLookup<E> lookup, Set<Match> matches,
+            boolean nullIfUnknown) {
+         this.lookup = lookup;
+         this.matches = EnumSet.copyOf(matches);
+         this.nullIfUnknown = nullIfUnknown;
+      }
+
       @Override
       public E convert(String from, Class<E> clazz) {
-         return Enum.valueOf(clazz, from);
+         E constant = EnumLookup.of(lookup, clazz).find(from, matches);
+         if(constant == null && !nullIfUnknown) {
+            throw unknownConstant(clazz, from);
+         }
+         return constant;
+      }
+
+      @Override
+      public E tryConvert(String from, Class<E> clazz, E defaultValue) {
+         E constant = EnumLookup.of(lookup, clazz).find(from, matches);
+         return (constant == null) ? defaultValue : constant;
       }
+
+      /** The lookup for its enum type, or null to use the shared lookups **/
+      private final EnumLookup<E> lookup;
+      /** The ways names may match a constant **/
+      private final Set<Match> matches;
+      /** True to return null for unknown names **/
+      private final boolean nullIfUnknown;
+   }
+
+   /**
+    * Builds the same exception as {@link Enum#valueOf} for an unknown name
+    * @param clazz The enum type
+    * @param name The unknown name
+    * @return The exception to throw
+    */
+   static RuntimeException unknownConstant(Class<?> clazz, CharSequence name) {
+      if(name == null) {
+         return new NullPointerException("Name is null");
+      }
+      if(LightweightExceptions.isEnabled()) {
+         return LightweightExceptions.unknownConstant(clazz, name);
+      }
+      return new IllegalArgumentException("No enum constant " +
+            clazz.getCanonicalName() + "." + name);
    }
 
    /**
     * String to Float adapter
     */
+   @AdapterFor(from = String.class, to = Float.class)
    public static class StringToFloatAdapter implements Adapter<String, Float> {
       @Override
       public Float convert(String from, Class<Float> clazz) {
-         return Float.valueOf(from);
+         return NumberParser.parseFloat(from);
+      }
+
+      @Override
+      public Float tryConvert(String from, Class<Float> clazz,
+            Float defaultValue) {
+         return NumberParser.tryParseBoxedFloat(from, defaultValue);
       }
    }
 
    /**
     * String to Integer adapter
     */
-   public static class StringToIntegerAdapter implements Adapter<String, Integer> {
+   @AdapterFor(from = String.class, to = Integer.class)
+   public static class StringToIntegerAdapter
+         implements Adapter<String, Integer>, ToIntAdapter<String> {
       @Override
       public Integer convert(String from, Class<Integer> clazz) {
-         return Integer.valueOf(from);
+         return NumberParser.parseInt(from);
+      }
+
+      @Override
+      public Integer tryConvert(String from, Class<Integer> clazz,
+            Integer defaultValue) {
+         return NumberParser.tryParseBoxedInt(from, defaultValue);
+      }
+
+      @Override
+      public int convertToInt(String from) {
+         return NumberParser.parseInt(from);
+      }
+
+      @Override
+      public int tryConvertToInt(String from, int defaultValue) {
+         return NumberParser.tryParseInt(from, defaultValue);
       }
    }
 
    /**
     * String to Long adapter
     */
-   public static class StringToLongAdapter implements Adapter<String, Long> {
+   @AdapterFor(from = String.class, to = Long.class)
+   public static class StringToLongAdapter
+         implements Adapter<String, Long>, ToLongAdapter<String> {
       @Override
       public Long convert(String from, Class<Long> clazz) {
-         return Long.valueOf(from);
+         return NumberParser.parseLong(from);
+      }
+
+      @Override
+      public Long tryConvert(String from, Class<Long> clazz,
+            Long defaultValue) {
+         return NumberParser.tryParseBoxedLong(from, defaultValue);
+      }
+
+      @Override
+      public long convertToLong(String from) {
+         return NumberParser.parseLong(from);
+      }
+
+      @Override
+      public long tryConvertToLong(String from, long defaultValue) {
+         return NumberParser.tryParseLong(from, defaultValue);
       }
    }
 
    /**
     * String to Short adapter
     */
+   @AdapterFor(from = String.class, to = Short.class)
    public static class StringToShortAdapter implements Adapter<String, Short> {
       @Override
       public Short convert(String from, Class<Short> clazz) {
-         return Short.valueOf(from);
+         return NumberParser.parseShort(from);
+      }
+
+      @Override
+      public Short tryConvert(String from, Class<Short> clazz,
+            Short defaultValue) {
+         return NumberParser.tryParseBoxedShort(from, defaultValue);
       }
    }
 }
@@ -0,0 +1,506 @@
+package com.javadapters.adapters;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.ClassPair;
+
+/**
+ * Set of default adapters to convert java built in types back to text, the
+ * reverse of {@link StringAdapters}. These are added by default to the
+ * {@link AdapterFactory}. Each one is also a {@link ToTextAdapter}, so values
+ * can be written straight into a buffer without creating a String.
+ */
+public abstract class TextAdapters {
+
+   /**
+    * @return A list of all {@link TextAdapters}
+    */
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public static Map<ClassPair<?, String>, Adapter<?, String>> getAllAdapters() {
+      Map<ClassPair<?, String>, Adapter<?, String>> adapters =
+            new HashMap<ClassPair<?, String>, Adapter<?, String>>();
+      adapters.put(new ClassPair<Boolean, String>(Boolean.class, String.class),
+            new BooleanToStringAdapter());
+      adapters.put(new ClassPair<Byte, String>(Byte.class, String.class),
+            new ByteToStringAdapter());
+      adapters.put(new ClassPair<Character, String>(Character.class, String.class),
+            new CharacterToStringAdapter());
+      adapters.put(new ClassPair<Date, String>(Date.class, String.class),
+            new DateToStringAdapter());
+      adapters.put(new ClassPair<Double, String>(Double.class, String.class),
+            new DoubleToStringAdapter());
+      adapters.put(new ClassPair<Enum, String>(Enum.class, String.class),
+            new EnumToStringAdapter());
+      adapters.put(new ClassPair<Float, String>(Float.class, String.class),
+            new FloatToStringAdapter());
+      adapters.put(new ClassPair<Integer, String>(Integer.class, String.class),
+            new IntegerToStringAdapter());
+      adapters.put(new ClassPair<Long, String>(Long.class, String.class),
+            new LongToStringAdapter());
+      adapters.put(new ClassPair<Short, String>(Short.class, String.class),
+            new ShortToStringAdapter());
+      return adapters;
+   }
+
+   /**
+    * Wraps an adapter that only converts to a String so that it can be used
+    * as a {@link ToTextAdapter}. Each value is still converted to a String
+    * first, which is then copied.
+    * @param adapter The adapter to wrap
+    * @return The text adapter
+    */
+   public static <F> ToTextAdapter<F> fromStringAdapter(
+         final Adapter<F,String> adapter) {
+      if(adapter instanceof ToTextAdapter) {
+         @SuppressWarnings("unchecked")
+         ToTextAdapter<F> text = (ToTextAdapter<F>)adapter;
+         return text;
+      }
+      return new ToTextAdapter<F>() {
+         @Override
+         public void appendTo(F from, StringBuilder to) {
+            String text = adapter.convert(from, String.class);
+            if(text != null) {
+               to.append(text);
+            }
+         }
+
+         @Override
+         public void appendTo(F from, Appendable to) throws IOException {
+            String text = adapter.convert(from, String.class);
+            if(text != null) {
+               to.append(text);
+            }
+         }
+
+         @Override
+         public int write(F from, char[] to, int offset) {
+            String text = adapter.convert(from, String.class);
+            if(text == null) {
+               return offset;
+            }
+            if(text.length() > to.length - offset) {
+               throw tooSmall(text.length(), to, offset);
+            }
+            text.getChars(0, text.length(), to, offset);
+            return offset + text.length();
+         }
+
+         @Override
+         public void write(F from, ByteBuffer to) {
+            String text = adapter.convert(from, String.class);
+            if(text != null) {
+               byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+               if(bytes.length > to.remaining()) {
+                  throw new BufferOverflowException();
+               }
+               to.put(bytes);
+            }
+         }
+      };
+   }
+
+   /**
+    * Base class for the adapters, which format a value into a char array
+    * and copy it to the other kinds of destination from there. Values are
+    * formatted straight into the destination array when it has room for the
+    * longest text of the value, and otherwise through a scratch array kept
+    * per thread.
+    * @param <F> From type
+    */
+   public static abstract class FormattingAdapter<F>
+         implements Adapter<F, String>, ToTextAdapter<F> {
+
+      /**
+       * @param from The value to format, not null
+       * @return The most characters the value may format to
+       */
+      protected abstract int maxLength(F from);
+
+      /**
+       * Formats a value
+       * @param from The value to format, not null
+       * @param to The array to write to, with room for maxLength characters
+       * @param offset The index to write at
+       * @return The index after the last character written
+       */
+      protected abstract int format(F from, char[] to, int offset);
+
+      @Override
+      public String convert(F from, Class<String> clazz) {
+         if(from == null) {
+            return null;
+         }
+         char[] buffer = scratch(maxLength(from));
+         return new String(buffer, 0, format(from, buffer, 0));
+      }
+
+      @Override
+      public void appendTo(F from, StringBuilder to) {
+         if(from != null) {
+            char[] buffer = scratch(maxLength(from));
+            to.append(buffer, 0, format(from, buffer, 0));
+         }
+      }
+
+      @Override
+      public void appendTo(F from, Appendable to) throws IOException {
+         if(to instanceof StringBuilder) {
+            appendTo(from, (StringBuilder)to);
+         } else if(from != null) {
+            char[] buffer = scratch(maxLength(from));
+            int length = format(from, buffer, 0);
+            for(int i = 0; i < length; ++i) {
+               to.append(buffer[i]);
+            }
+         }
+      }
+
+      @Override
+      public int write(F from, char[] to, int offset) {
+         if(from == null) {
+            return offset;
+         }
+         int maxLength = maxLength(from);
+         if(offset >= 0 && to.length - offset >= maxLength) {
+            return format(from, to, offset);
+         }
+         char[] buffer = scratch(maxLength);
+         int length = format(from, buffer, 0);
+         if(offset < 0 || length > to.length - offset) {
+            throw tooSmall(length, to, offset);
+         }
+         System.arraycopy(buffer, 0, to, offset, length);
+         return offset + length;
+      }
+
+      @Override
+      public void write(F from, ByteBuffer to) {
+         if(from == null) {
+            return;
+         }
+         char[] buffer = scratch(maxLength(from));
+         int length = format(from, buffer, 0);
+         int size = length;
+         for(int i = 0; i < length; ++i) {
+            char c = buffer[i];
+            if(c >= 0x80) {
+               size += (c < 0x800 || Character.isSurrogate(c)) ? 1 : 2;
+            }
+         }
+         if(size > to.remaining()) {
+            throw new BufferOverflowException();
+         }
+         if(size == length) {
+            for(int i = 0; i < length; ++i) {
+               to.put((byte)buffer[i]);
+            }
+         } else {
+            encode(buffer, length, to);
+         }
+      }
+   }
+
+   /**
+    * Boolean to String adapter
+    */
+   @AdapterFor(from = Boolean.class, to = String.class)
+   public static class BooleanToStringAdapter extends FormattingAdapter<Boolean> {
+      @Override
+      protected int maxLength(Boolean from) {
+         return 5;
+      }
+
+      @Override
+      protected int format(Boolean from, char[] to, int offset) {
+         String text = from.booleanValue() ? "true" : "false";
+         text.getChars(0, text.length(), to, offset);
+         return offset + text.length();
+      }
+   }
+
+   /**
+    * Byte to String adapter
+    */
+   @AdapterFor(from = Byte.class, to = String.class)
+   public static class ByteToStringAdapter extends FormattingAdapter<Byte> {
+      @Override
+      protected int maxLength(Byte from) {
+         return 4;
+      }
+
+      @Override
+      protected int format(Byte from, char[] to, int offset) {
+         return NumberFormatter.formatInt(from.byteValue(), to, offset);
+      }
+   }
+
+   /**
+    * Character to String adapter
+    */
+   @AdapterFor(from = Character.class, to = String.class)
+   public static class CharacterToStringAdapter
+         extends FormattingAdapter<Character> {
+      @Override
+      protected int maxLength(Character from) {
+         return 1;
+      }
+
+      @Override
+      protected int format(Character from, char[] to, int offset) {
+         to[offset] = from.charValue();
+         return offset + 1;
+      }
+   }
+
+   /**
+    * Date to String adapter. Writes the date to the second as
+    * uuuu-MM-dd HH:mm:ss, which {@link StringAdapters.StringToDateAdapter}
+    * reads back.
+    */
+   @AdapterFor(from = Date.class, to = String.class)
+   public static class DateToStringAdapter extends FormattingAdapter<Date> {
+
+      /**
+       * Constructor for dates in the system default time zone
+       */
+      public DateToStringAdapter() {
+         this(ZoneId.systemDefault());
+      }
+
+      /**
+       * Constructor
+       * @param zone The time zone to write dates in
+       */
+      public DateToStringAdapter(ZoneId zone) {
+         this.rules = zone.getRules();
+      }
+
+      @Override
+      protected int maxLength(Date from) {
+         //Up to 9 year digits and a sign
+         return 25;
+      }
+
+      @Override
+      protected int format(Date from, char[] to, int offset) {
+         long millis = from.getTime();
+         long seconds = Math.floorDiv(millis, 1000) +
+               rules.getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds();
+         long days = Math.floorDiv(seconds, 86400);
+         int time = Math.floorMod(seconds, 86400);
+
+         //Civil date from days since 1970-01-01, by 400 year eras
+         long z = days + 719468;
+         long era = Math.floorDiv(z, 146097);
+         int dayOfEra = (int)(z - era * 146097);
+         int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 -
+               dayOfEra / 146096) / 365;
+         int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 -
+               yearOfEra / 100);
+         int mp = (5 * dayOfYear + 2) / 153;
+         int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+         int month = (mp < 10) ? mp + 3 : mp - 9;
+         long year = yearOfEra + era * 400 + ((month <= 2) ? 1 : 0);
+
+         if(year < 0) {
+            to[offset++] = '-';
+            year = -year;
+         } else if(year > 9999) {
+            to[offset++] = '+';
+         }
+         if(year > 9999) {
+            offset = NumberFormatter.formatLong(year, to, offset);
+         } else {
+            offset = pad(year / 100, to, offset);
+            offset = pad(year % 100, to, offset);
+         }
+         to[offset++] = '-';
+         offset = pad(month, to, offset);
+         to[offset++] = '-';
+         offset = pad(day, to, offset);
+         to[offset++] = ' ';
+         offset = pad(time / 3600, to, offset);
+         to[offset++] = ':';
+         offset = pad(time / 60 % 60, to, offset);
+         to[offset++] = ':';
+         return pad(time % 60, to, offset);
+      }
+
+      /** The rules of the time zone to write dates in **/
+      private final ZoneRules rules;
+   }
+
+   /**
+    * Double to String adapter. Writes the shortest text that parses back to
+    * the same value, see {@link NumberFormatter#formatDouble}.
+    */
+   @AdapterFor(from = Double.class, to = String.class)
+   public static class DoubleToStringAdapter extends FormattingAdapter<Double> {
+      @Override
+      protected int maxLength(Double from) {
+         return NumberFormatter.MAX_DOUBLE_LENGTH;
+      }
+
+      @Override
+      protected int format(Double from, char[] to, int offset) {
+         return ShortestDecimal.formatDouble(from.doubleValue(), to, offset);
+      }
+   }
+
+   /**
+    * Generic Enum to String adapter, writes the constant name
+    * @param <E>
+    */
+   @AdapterFor(from = Enum.class, to = String.class)
+   public static class EnumToStringAdapter<E extends Enum<E>>
+         extends FormattingAdapter<E> {
+      @Override
+      protected int maxLength(E from) {
+         return from.name().length();
+      }
+
+      @Override
+      protected int format(E from, char[] to, int offset) {
+         String name = from.name();
+         name.getChars(0, name.length(), to, offset);
+         return offset + name.length();
+      }
+   }
+
+   /**
+    * Float to String adapter. Writes the shortest text that parses back to
+    * the same value, see {@link NumberFormatter#formatFloat}.
+    */
+   @AdapterFor(from = Float.class, to = String.class)
+   public static class FloatToStringAdapter extends FormattingAdapter<Float> {
+      @Override
+      protected int maxLength(Float from) {
+         return NumberFormatter.MAX_FLOAT_LENGTH;
+      }
+
+      @Override
+      protected int format(Float from, char[] to, int offset) {
+         return ShortestDecimal.formatFloat(from.floatValue(), to, offset);
+      }
+   }
+
+   /**
+    * Integer to String adapter
+    */
+   @AdapterFor(from = Integer.class, to = String.class)
+   public static class IntegerToStringAdapter extends FormattingAdapter<Integer> {
+      @Override
+      protected int maxLength(Integer from) {
+         return NumberFormatter.MAX_INT_LENGTH;
+      }
+
+      @Override
+      protected int format(Integer from, char[] to, int offset) {
+         return NumberFormatter.formatInt(from.intValue(), to, offset);
+      }
+   }
+
+   /**
+    * Long to String adapter
+    */
+   @AdapterFor(from = Long.class, to = String.class)
+   public static class LongToStringAdapter extends FormattingAdapter<Long> {
+      @Override
+      protected int maxLength(Long from) {
+         return NumberFormatter.MAX_LONG_LENGTH;
+      }
+
+      @Override
+      protected int format(Long from, char[] to, int offset) {
+         return NumberFormatter.formatLong(from.longValue(), to, offset);
+      }
+   }
+
+   /**
+    * Short to String adapter
+    */
+   @AdapterFor(from = Short.class, to = String.class)
+   public static class ShortToStringAdapter extends FormattingAdapter<Short> {
+      @Override
+      protected int maxLength(Short from) {
+         return 6;
+      }
+
+      @Override
+      protected int format(Short from, char[] to, int offset) {
+         return NumberFormatter.formatInt(from.shortValue(), to, offset);
+      }
+   }
+
+   /**
+    * Writes the two digits of a value below 100
+    */
+   private static int pad(long value, char[] to, int offset) {
+      to[offset] = (char)('0' + value / 10);
+      to[offset + 1] = (char)('0' + value % 10);
+      return offset + 2;
+   }
+
+   /**
+    * Encodes chars as UTF-8, writing lone surrogates as '?' like
+    * {@link String#getBytes}
+    */
+   private static void encode(char[] buffer, int length, ByteBuffer to) {
+      for(int i = 0; i < length; ++i) {
+         char c = buffer[i];
+         if(c < 0x80) {
+            to.put((byte)c);
+         } else if(c < 0x800) {
+            to.put((byte)(0xC0 | (c >> 6)));
+            to.put((byte)(0x80 | (c & 0x3F)));
+         } else if(!Character.isSurrogate(c)) {
+            to.put((byte)(0xE0 | (c >> 12)));
+            to.put((byte)(0x80 | ((c >> 6) & 0x3F)));
+            to.put((byte)(0x80 | (c & 0x3F)));
+         } else if(Character.isHighSurrogate(c) && i + 1 < length &&
+               Character.isLowSurrogate(buffer[i + 1])) {
+            int cp = Character.toCodePoint(c, buffer[++i]);
+            to.put((byte)(0xF0 | (cp >> 18)));
+            to.put((byte)(0x80 | ((cp >> 12) & 0x3F)));
+            to.put((byte)(0x80 | ((cp >> 6) & 0x3F)));
+            to.put((byte)(0x80 | (cp & 0x3F)));
+         } else {
+            to.put((byte)'?');
+         }
+      }
+   }
+
+   /**
+    * @param length The size of the text
+    * @return A scratch array for this thread with room for length chars
+    */
+   private static char[] scratch(int length) {
+      char[] buffer = sScratch.get();
+      if(buffer.length < length) {
+         buffer = new char[Math.max(length, buffer.length * 2)];
+         sScratch.set(buffer);
+      }
+      return buffer;
+   }
+
+   private static ArrayIndexOutOfBoundsException tooSmall(int length,
+         char[] to, int offset) {
+      return new ArrayIndexOutOfBoundsException("Need " + length +
+            " characters at " + offset + " of " + to.length);
+   }
+
+   /** Scratch array to format into per thread **/
+   private static final ThreadLocal<char[]> sScratch =
+         ThreadLocal.withInitial(() -> new char[32]);
+}
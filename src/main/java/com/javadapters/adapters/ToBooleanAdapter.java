@@ -0,0 +1,59 @@
+package com.javadapters.adapters;
+
+import com.javadapters.ConversionErrors;
+
+/**
+ * Adapter interface used to convert values of some type to a primitive
+ * boolean without boxing the result into a {@link Boolean}.
+ *
+ * @param <F> From type
+ */
+public interface ToBooleanAdapter<F> {
+
+   /**
+    * Converts from type F to boolean
+    * @param from The value to convert from
+    * @return boolean value
+    */
+   public boolean convertToBoolean(F from);
+
+   /**
+    * Converts from type F to boolean without throwing. The built-in adapters
+    * validate their input rather than catching exceptions.
+    * @param from The value to convert from
+    * @param defaultValue The value to return if from can't be converted
+    * @return boolean value, or defaultValue if from can't be converted
+    */
+   public default boolean tryConvertToBoolean(F from, boolean defaultValue) {
+      try {
+         return convertToBoolean(from);
+      } catch (RuntimeException e) {
+         return defaultValue;
+      }
+   }
+
+   /**
+    * Converts the values in the range [start, end) of from into the same
+    * indexes of to. A value that fails to convert is set to false and its
+    * error is recorded, the rest of the range is still converted.
+    * @param from The values to convert from
+    * @param to The array to hold the boolean values
+    * @param start The first index to convert
+    * @param end The index after the last index to convert
+    * @param errors Records the errors, or null to throw the first error
+    */
+   public default void convertAllToBoolean(F[] from, boolean[] to, int start,
+         int end, ConversionErrors errors) {
+      for(int i = start; i < end; ++i) {
+         try {
+            to[i] = convertToBoolean(from[i]);
+         } catch (RuntimeException e) {
+            if(errors == null) {
+               throw e;
+            }
+            to[i] = false;
+            errors.add(i, e);
+         }
+      }
+   }
+}
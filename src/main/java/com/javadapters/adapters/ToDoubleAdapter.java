@@ -0,0 +1,59 @@
+package com.javadapters.adapters;
+
+import com.javadapters.ConversionErrors;
+
+/**
+ * Adapter interface used to convert values of some type to a primitive
+ * double without boxing the result into a {@link Double}.
+ *
+ * @param <F> From type
+ */
+public interface ToDoubleAdapter<F> {
+
+   /**
+    * Converts from type F to double
+    * @param from The value to convert from
+    * @return double value
+    */
+   public double convertToDouble(F from);
+
+   /**
+    * Converts from type F to double without throwing. The built-in adapters
+    * validate their input rather than catching exceptions.
+    * @param from The value to convert from
+    * @param defaultValue The value to return if from can't be converted
+    * @return double value, or defaultValue if from can't be converted
+    */
+   public default double tryConvertToDouble(F from, double defaultValue) {
+      try {
+         return convertToDouble(from);
+      } catch (RuntimeException e) {
+         return defaultValue;
+      }
+   }
+
+   /**
+    * Converts the values in the range [start, end) of from into the same
+    * indexes of to. A value that fails to convert is set to 0 and its
+    * error is recorded, the rest of the range is still converted.
+    * @param from The values to convert from
+    * @param to The array to hold the double values
+    * @param start The first index to convert
+    * @param end The index after the last index to convert
+    * @param errors Records the errors, or null to throw the first error
+    */
+   public default void convertAllToDouble(F[] from, double[] to, int start, int end,
+         ConversionErrors errors) {
+      for(int i = start; i < end; ++i) {
+         try {
+            to[i] = convertToDouble(from[i]);
+         } catch (RuntimeException e) {
+            if(errors == null) {
+               throw e;
+            }
+            to[i] = 0;
+            errors.add(i, e);
+         }
+      }
+   }
+}
@@ -0,0 +1,59 @@
+package com.javadapters.adapters;
+
+import com.javadapters.ConversionErrors;
+
+/**
+ * Adapter interface used to convert values of some type to a primitive
+ * long without boxing the result into a {@link Long}.
+ *
+ * @param <F> From type
+ */
+public interface ToLongAdapter<F> {
+
+   /**
+    * Converts from type F to long
+    * @param from The value to convert from
+    * @return long value
+    */
+   public long convertToLong(F from);
+
+   /**
+    * Converts from type F to long without throwing. The built-in adapters
+    * validate their input rather than catching exceptions.
+    * @param from The value to convert from
+    * @param defaultValue The value to return if from can't be converted
+    * @return long value, or defaultValue if from can't be converted
+    */
+   public default long tryConvertToLong(F from, long defaultValue) {
+      try {
+         return convertToLong(from);
+      } catch (RuntimeException e) {
+         return defaultValue;
+      }
+   }
+
+   /**
+    * Converts the values in the range [start, end) of from into the same
+    * indexes of to. A value that fails to convert is set to 0 and its
+    * error is recorded, the rest of the range is still converted.
+    * @param from The values to convert from
+    * @param to The array to hold the long values
+    * @param start The first index to convert
+    * @param end The index after the last index to convert
+    * @param errors Records the errors, or null to throw the first error
+    */
+   public default void convertAllToLong(F[] from, long[] to, int start, int end,
+         ConversionErrors errors) {
+      for(int i = start; i < end; ++i) {
+         try {
+            to[i] = convertToLong(from[i]);
+         } catch (RuntimeException e) {
+            if(errors == null) {
+               throw e;
+            }
+            to[i] = 0;
+            errors.add(i, e);
+         }
+      }
+   }
+}
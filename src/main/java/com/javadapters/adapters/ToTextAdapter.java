@@ -0,0 +1,51 @@
+package com.javadapters.adapters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Adapter interface used to write values of some type as text straight into
+ * a caller supplied buffer, without creating a String for each value. The
+ * text is the same as converting the value to a String with the adapter,
+ * and a null value writes nothing.
+ *
+ * @param <F> From type
+ */
+public interface ToTextAdapter<F> {
+
+   /**
+    * Appends the text of a value
+    * @param from The value to write
+    * @param to The builder to append to
+    */
+   public void appendTo(F from, StringBuilder to);
+
+   /**
+    * Appends the text of a value
+    * @param from The value to write
+    * @param to The destination to append to
+    * @throws IOException If the destination throws
+    */
+   public void appendTo(F from, Appendable to) throws IOException;
+
+   /**
+    * Writes the text of a value into a char array
+    * @param from The value to write
+    * @param to The array to write to
+    * @param offset The index to write at
+    * @return The index after the last character written
+    * @throws ArrayIndexOutOfBoundsException If the text doesn't fit, in
+    * which case nothing is written
+    */
+   public int write(F from, char[] to, int offset);
+
+   /**
+    * Writes the text of a value as UTF-8 at the position of a buffer, and
+    * moves the position past it
+    * @param from The value to write
+    * @param to The buffer to write to
+    * @throws java.nio.BufferOverflowException If the text doesn't fit, in
+    * which case nothing is written
+    */
+   public void write(F from, ByteBuffer to);
+}
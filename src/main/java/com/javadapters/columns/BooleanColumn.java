@@ -0,0 +1,41 @@
+package com.javadapters.columns;
+
+/**
+ * Off-heap column of boolean values, one byte each
+ */
+public class BooleanColumn extends Column {
+
+   /**
+    * Constructor with the default chunk size
+    */
+   public BooleanColumn() {
+      this(DEFAULT_CHUNK_SIZE);
+   }
+
+   /**
+    * Constructor
+    * @param chunkSize The number of values in each chunk of memory, a power
+    * of two
+    */
+   public BooleanColumn(int chunkSize) {
+      super(1, chunkSize);
+   }
+
+   /**
+    * Appends a value
+    * @param value The value
+    */
+   public void append(boolean value) {
+      long index = add(true);
+      chunkAt(index).put(offset(index), (byte)(value ? 1 : 0));
+   }
+
+   /**
+    * @param index The row
+    * @return The value of the row, or false if it's null
+    * @throws IndexOutOfBoundsException If there is no such row
+    */
+   public boolean get(long index) {
+      return chunk(index).get(offset(index)) != 0;
+   }
+}
@@ -0,0 +1,246 @@
+package com.javadapters.columns;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Column of primitive values stored off the Java heap, so that large data
+ * sets add nothing for the garbage collector to trace or copy. Values are
+ * appended and read by a long index, and the column grows one fixed size
+ * chunk of direct memory at a time, so values never move and a column can
+ * hold more than 2GB. Each chunk also holds a validity bitmap with a set bit
+ * for each row that has a value, null rows read as zero.
+ * <p>
+ * The memory is released by {@link #close()}, after which the column can't be
+ * used, or by {@link ColumnArena#close()} for columns created by an arena.
+ * Direct memory is limited by -XX:MaxDirectMemorySize, which defaults to the
+ * maximum heap size. A column is not thread safe.
+ */
+public abstract class Column implements AutoCloseable {
+
+   /** Default number of values in each chunk **/
+   public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+   /**
+    * Constructor
+    * @param width The number of bytes of each value, a power of two
+    * @param chunkSize The number of values in each chunk, a power of two
+    */
+   Column(int width, int chunkSize) {
+      int max = MAX_CHUNK_BYTES / width;
+      if(chunkSize < 8 || chunkSize > max || Integer.bitCount(chunkSize) != 1) {
+         throw new IllegalArgumentException(
+               "chunkSize must be a power of two from 8 to " + max + ": " +
+               chunkSize);
+      }
+      this.widthShift = Integer.numberOfTrailingZeros(width);
+      this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+      this.indexMask = chunkSize - 1;
+      this.validityOffset = chunkSize << widthShift;
+      this.chunkBytes = validityOffset + (chunkSize >>> 3);
+   }
+
+   /**
+    * @return The number of rows
+    */
+   public long size() {
+      return size;
+   }
+
+   /**
+    * @return The number of rows that can be held without allocating
+    */
+   public long capacity() {
+      return (long)chunkCount << chunkShift;
+   }
+
+   /**
+    * @return The number of null rows
+    */
+   public long getNullCount() {
+      return nullCount;
+   }
+
+   /**
+    * @return The number of bytes of direct memory allocated
+    */
+   public long getMemorySize() {
+      return (long)chunkCount * chunkBytes;
+   }
+
+   /**
+    * @param index The row
+    * @return True if the row is null, because the value was null or failed
+    * to convert
+    * @throws IndexOutOfBoundsException If there is no such row
+    */
+   public boolean isNull(long index) {
+      ByteBuffer chunk = chunk(index);
+      int i = (int)index & indexMask;
+      return (chunk.get(validityOffset + (i >>> 3)) & (1 << (i & 7))) == 0;
+   }
+
+   /**
+    * Appends a null row
+    */
+   public void appendNull() {
+      long index = add(false);
+      ByteBuffer chunk = chunks[(int)(index >>> chunkShift)];
+      int offset = offset(index);
+      switch(widthShift) {
+      case 0:
+         chunk.put(offset, (byte)0);
+         break;
+      case 2:
+         chunk.putInt(offset, 0);
+         break;
+      default:
+         chunk.putLong(offset, 0);
+      }
+   }
+
+   /**
+    * Allocates enough chunks to hold the given number of rows
+    * @param capacity The number of rows
+    */
+   public void ensureCapacity(long capacity) {
+      checkOpen();
+      long needed = (capacity + indexMask) >>> chunkShift;
+      if(needed > chunkCount) {
+         if(needed > chunks.length) {
+            chunks = Arrays.copyOf(chunks, (int)Math.max(needed,
+                  chunks.length * 2L));
+         }
+         while(chunkCount < needed) {
+            chunks[chunkCount++] = OffHeapMemory.allocate(chunkBytes);
+         }
+      }
+   }
+
+   /**
+    * Removes all the rows, keeping the memory to append new rows into
+    */
+   public void clear() {
+      checkOpen();
+      size = 0;
+      nullCount = 0;
+   }
+
+   /**
+    * @return True if the memory has been released
+    */
+   public boolean isClosed() {
+      return closed;
+   }
+
+   /**
+    * Releases the memory of the column. Does nothing if it's already closed.
+    */
+   @Override
+   public void close() {
+      if(closed) {
+         return;
+      }
+      closed = true;
+      for(int i = 0; i < chunkCount; ++i) {
+         OffHeapMemory.free(chunks[i]);
+         chunks[i] = null;
+      }
+      chunkCount = 0;
+      size = 0;
+      nullCount = 0;
+   }
+
+   @Override
+   public String toString() {
+      return getClass().getSimpleName() + "[size=" + size + ", nulls=" +
+            nullCount + (closed ? ", closed]" : "]");
+   }
+
+   /**
+    * Adds a row, growing the column if it's full
+    * @param valid False if the row is null
+    * @return The index of the row, which the caller writes the value into
+    */
+   final long add(boolean valid) {
+      checkOpen();
+      long index = size;
+      int chunkIndex = (int)(index >>> chunkShift);
+      if(chunkIndex == chunkCount) {
+         ensureCapacity(index + 1);
+      }
+      ByteBuffer chunk = chunks[chunkIndex];
+      int i = (int)index & indexMask;
+      int offset = validityOffset + (i >>> 3);
+      int bit = 1 << (i & 7);
+      int bits = chunk.get(offset);
+      if(valid) {
+         chunk.put(offset, (byte)(bits | bit));
+      } else {
+         chunk.put(offset, (byte)(bits & ~bit));
+         ++nullCount;
+      }
+      size = index + 1;
+      return index;
+   }
+
+   /**
+    * @param index A row
+    * @return The chunk holding the row
+    * @throws IndexOutOfBoundsException If there is no such row
+    */
+   final ByteBuffer chunk(long index) {
+      checkOpen();
+      if(index < 0 || index >= size) {
+         throw new IndexOutOfBoundsException("Index " + index +
+               " out of bounds for size " + size);
+      }
+      return chunks[(int)(index >>> chunkShift)];
+   }
+
+   /**
+    * @param index A row
+    * @return The chunk holding the row, which must be in bounds
+    */
+   final ByteBuffer chunkAt(long index) {
+      return chunks[(int)(index >>> chunkShift)];
+   }
+
+   /**
+    * @param index A row
+    * @return The offset of the value of the row in its chunk
+    */
+   final int offset(long index) {
+      return ((int)index & indexMask) << widthShift;
+   }
+
+   private void checkOpen() {
+      if(closed) {
+         throw new IllegalStateException("Column is closed");
+      }
+   }
+
+   /** The largest chunk, leaving room for the validity bitmap **/
+   private static final int MAX_CHUNK_BYTES = 1 << 30;
+
+   /** Log2 of the number of bytes of each value **/
+   private final int widthShift;
+   /** Log2 of the number of values in each chunk **/
+   private final int chunkShift;
+   /** Mask of the index of a row within its chunk **/
+   private final int indexMask;
+   /** Offset of the validity bitmap in each chunk **/
+   private final int validityOffset;
+   /** The number of bytes of each chunk **/
+   private final int chunkBytes;
+   /** The chunks, of which the first chunkCount are allocated **/
+   private ByteBuffer[] chunks = new ByteBuffer[4];
+   /** The number of chunks allocated **/
+   private int chunkCount;
+   /** The number of rows **/
+   private long size;
+   /** The number of null rows **/
+   private long nullCount;
+   /** True once the memory has been released **/
+   private boolean closed;
+}
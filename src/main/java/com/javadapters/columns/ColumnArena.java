@@ -0,0 +1,154 @@
+package com.javadapters.columns;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.AdapterRegistry;
+
+/**
+ * Creates columns that share a lifetime, and releases the memory of all of
+ * them when it's closed. Columns may still be closed one at a time before
+ * that. An arena is not thread safe.
+ */
+public class ColumnArena implements AutoCloseable {
+
+   /**
+    * Constructor creating columns with the default chunk size
+    */
+   public ColumnArena() {
+      this(Column.DEFAULT_CHUNK_SIZE);
+   }
+
+   /**
+    * Constructor
+    * @param chunkSize The number of values in each chunk of memory of the
+    * columns, a power of two
+    */
+   public ColumnArena(int chunkSize) {
+      this.chunkSize = chunkSize;
+   }
+
+   /**
+    * @return A new empty column
+    */
+   public IntColumn newIntColumn() {
+      return register(new IntColumn(chunkSize));
+   }
+
+   /**
+    * @return A new empty column
+    */
+   public LongColumn newLongColumn() {
+      return register(new LongColumn(chunkSize));
+   }
+
+   /**
+    * @return A new empty column
+    */
+   public DoubleColumn newDoubleColumn() {
+      return register(new DoubleColumn(chunkSize));
+   }
+
+   /**
+    * @return A new empty column
+    */
+   public BooleanColumn newBooleanColumn() {
+      return register(new BooleanColumn(chunkSize));
+   }
+
+   /**
+    * Creates a column for the given type and a writer converting to it with
+    * the adapters of the {@link AdapterFactory}
+    * @param fromType The type to convert from
+    * @param toType The type to convert to, see
+    * {@link #newWriter(AdapterRegistry, Class, Class)}
+    * @return The writer, whose column belongs to this arena
+    * @throws AdapterNotFoundException
+    */
+   public <F> ColumnWriter<F> newWriter(Class<F> fromType, Class<?> toType)
+         throws AdapterNotFoundException {
+      return newWriter(AdapterFactory.getDefaultRegistry(), fromType, toType);
+   }
+
+   /**
+    * Creates a column for the given type and a writer converting to it with
+    * the adapters of a registry. Ints, longs, doubles and booleans are held in
+    * columns of the same type, dates in a {@link LongColumn} of milliseconds
+    * since the epoch, and enums in an {@link IntColumn} of ordinals.
+    * @param registry The registry to get the adapter from
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @return The writer, whose column belongs to this arena
+    * @throws AdapterNotFoundException
+    * @throws IllegalArgumentException If there is no column for toType
+    */
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   public <F> ColumnWriter<F> newWriter(AdapterRegistry registry,
+         Class<F> fromType, Class<?> toType) throws AdapterNotFoundException {
+      Class<?> type = AdapterFactory.getWrapper(toType);
+      //Resolve the adapter first so a missing one leaves no empty column
+      if(type == Integer.class) {
+         return ColumnWriter.ofInt(registry.getIntAdapter(fromType),
+               newIntColumn());
+      } else if(type == Long.class) {
+         return ColumnWriter.ofLong(registry.getLongAdapter(fromType),
+               newLongColumn());
+      } else if(type == Double.class) {
+         return ColumnWriter.ofDouble(registry.getDoubleAdapter(fromType),
+               newDoubleColumn());
+      } else if(type == Boolean.class) {
+         return ColumnWriter.ofBoolean(registry.getBooleanAdapter(fromType),
+               newBooleanColumn());
+      } else if(type == Date.class) {
+         return ColumnWriter.ofDate(registry.getAdapter(fromType, Date.class),
+               newLongColumn());
+      } else if(type.isEnum()) {
+         return ColumnWriter.ofEnum(registry.getAdapter(fromType, (Class)type),
+               (Class)type, newIntColumn());
+      }
+      throw new IllegalArgumentException("No column for " + toType.getName());
+   }
+
+   /**
+    * @return The number of bytes of direct memory allocated by the columns
+    * that are still open
+    */
+   public long getMemorySize() {
+      long total = 0;
+      for(Column column : columns) {
+         total += column.getMemorySize();
+      }
+      return total;
+   }
+
+   /**
+    * Closes every column created by this arena, after which no more can be
+    * created. Does nothing if it's already closed.
+    */
+   @Override
+   public void close() {
+      closed = true;
+      for(Column column : columns) {
+         column.close();
+      }
+      columns.clear();
+   }
+
+   private <C extends Column> C register(C column) {
+      if(closed) {
+         throw new IllegalStateException("Arena is closed");
+      }
+      columns.add(column);
+      return column;
+   }
+
+   /** The number of values in each chunk of the columns **/
+   private final int chunkSize;
+   /** The columns created by this arena **/
+   private final List<Column> columns = new ArrayList<Column>();
+   /** True once the columns have been closed **/
+   private boolean closed;
+}
@@ -0,0 +1,271 @@
+package com.javadapters.columns;
+
+import java.util.Date;
+
+import com.javadapters.ConversionErrors;
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.ToBooleanAdapter;
+import com.javadapters.adapters.ToDoubleAdapter;
+import com.javadapters.adapters.ToIntAdapter;
+import com.javadapters.adapters.ToLongAdapter;
+
+/**
+ * Converts values with an adapter and appends the results to a column, so
+ * text can be staged off the heap with exactly the results of the adapters
+ * used on the heap. A null value, or one that fails to convert, appends a
+ * null row.
+ * <p>
+ * {@link #write(Object)} uses the non throwing conversions of the adapter,
+ * which the built-in adapters implement without exceptions, while
+ * {@link #writeAll} records why each value failed. Dates are written as
+ * milliseconds since the epoch and enum constants as their ordinals.
+ * @param <F> The type to convert from
+ */
+public abstract class ColumnWriter<F> {
+
+   /**
+    * Constructor
+    * @param column The column to append to
+    */
+   ColumnWriter(Column column) {
+      if(column == null) {
+         throw new NullPointerException("column");
+      }
+      this.column = column;
+   }
+
+   /**
+    * Converts a value and appends it
+    * @param from The value to convert
+    * @return True if the value converted, false if a null row was appended
+    */
+   public boolean write(F from) {
+      if(from == null || !tryAppend(from)) {
+         column.appendNull();
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * Converts the values in the range [start, end) of from and appends them in
+    * order. A value that fails to convert appends a null row and its error is
+    * recorded by its index in from, null values are not errors.
+    * @param from The values to convert
+    * @param start The first index to convert
+    * @param end The index after the last index to convert
+    * @param errors Records the errors, or null to throw the first error
+    */
+   public void writeAll(F[] from, int start, int end, ConversionErrors errors) {
+      column.ensureCapacity(column.size() + (end - start));
+      for(int i = start; i < end; ++i) {
+         F value = from[i];
+         if(value == null) {
+            column.appendNull();
+            continue;
+         }
+         try {
+            append(value);
+         } catch (RuntimeException e) {
+            if(errors == null) {
+               throw e;
+            }
+            column.appendNull();
+            errors.add(i, e);
+         }
+      }
+   }
+
+   /**
+    * @return The column being appended to
+    */
+   public Column getColumn() {
+      return column;
+   }
+
+   /**
+    * Converts a value to an int
+    * @param adapter The adapter to convert with
+    * @param column The column to append to
+    * @return The writer
+    */
+   public static <F> ColumnWriter<F> ofInt(final ToIntAdapter<F> adapter,
+         final IntColumn column) {
+      return new ColumnWriter<F>(column) {
+         @Override
+         boolean tryAppend(F from) {
+            int value = adapter.tryConvertToInt(from, 0);
+            if(value == 0 && adapter.tryConvertToInt(from, 1) == 1) {
+               return false;
+            }
+            column.append(value);
+            return true;
+         }
+
+         @Override
+         void append(F from) {
+            column.append(adapter.convertToInt(from));
+         }
+      };
+   }
+
+   /**
+    * Converts a value to a long
+    * @param adapter The adapter to convert with
+    * @param column The column to append to
+    * @return The writer
+    */
+   public static <F> ColumnWriter<F> ofLong(final ToLongAdapter<F> adapter,
+         final LongColumn column) {
+      return new ColumnWriter<F>(column) {
+         @Override
+         boolean tryAppend(F from) {
+            long value = adapter.tryConvertToLong(from, 0);
+            if(value == 0 && adapter.tryConvertToLong(from, 1) == 1) {
+               return false;
+            }
+            column.append(value);
+            return true;
+         }
+
+         @Override
+         void append(F from) {
+            column.append(adapter.convertToLong(from));
+         }
+      };
+   }
+
+   /**
+    * Converts a value to a double
+    * @param adapter The adapter to convert with
+    * @param column The column to append to
+    * @return The writer
+    */
+   public static <F> ColumnWriter<F> ofDouble(final ToDoubleAdapter<F> adapter,
+         final DoubleColumn column) {
+      return new ColumnWriter<F>(column) {
+         @Override
+         boolean tryAppend(F from) {
+            //0 and -0 both parse to themselves with a default of 1
+            double value = adapter.tryConvertToDouble(from, 0);
+            if(value == 0 && adapter.tryConvertToDouble(from, 1) == 1) {
+               return false;
+            }
+            column.append(value);
+            return true;
+         }
+
+         @Override
+         void append(F from) {
+            column.append(adapter.convertToDouble(from));
+         }
+      };
+   }
+
+   /**
+    * Converts a value to a boolean
+    * @param adapter The adapter to convert with
+    * @param column The column to append to
+    * @return The writer
+    */
+   public static <F> ColumnWriter<F> ofBoolean(final ToBooleanAdapter<F> adapter,
+         final BooleanColumn column) {
+      return new ColumnWriter<F>(column) {
+         @Override
+         boolean tryAppend(F from) {
+            boolean value = adapter.tryConvertToBoolean(from, false);
+            if(!value && adapter.tryConvertToBoolean(from, true)) {
+               return false;
+            }
+            column.append(value);
+            return true;
+         }
+
+         @Override
+         void append(F from) {
+            column.append(adapter.convertToBoolean(from));
+         }
+      };
+   }
+
+   /**
+    * Converts a value to a date, written as milliseconds since the epoch
+    * @param adapter The adapter to convert with
+    * @param column The column to append to
+    * @return The writer
+    */
+   public static <F> ColumnWriter<F> ofDate(final Adapter<F, Date> adapter,
+         final LongColumn column) {
+      return new ColumnWriter<F>(column) {
+         @Override
+         boolean tryAppend(F from) {
+            Date date = adapter.tryConvert(from, Date.class, null);
+            if(date == null) {
+               return false;
+            }
+            column.append(date.getTime());
+            return true;
+         }
+
+         @Override
+         void append(F from) {
+            Date date = adapter.convert(from, Date.class);
+            if(date == null) {
+               throw new IllegalArgumentException("Not a date: " + from);
+            }
+            column.append(date.getTime());
+         }
+      };
+   }
+
+   /**
+    * Converts a value to an enum constant, written as its ordinal
+    * @param adapter The adapter to convert with
+    * @param type The enum type
+    * @param column The column to append to
+    * @return The writer
+    */
+   public static <F, E extends Enum<E>> ColumnWriter<F> ofEnum(
+         final Adapter<F, E> adapter, final Class<E> type,
+         final IntColumn column) {
+      return new ColumnWriter<F>(column) {
+         @Override
+         boolean tryAppend(F from) {
+            E constant = adapter.tryConvert(from, type, null);
+            if(constant == null) {
+               return false;
+            }
+            column.append(constant.ordinal());
+            return true;
+         }
+
+         @Override
+         void append(F from) {
+            E constant = adapter.convert(from, type);
+            if(constant == null) {
+               throw new IllegalArgumentException("No enum constant " +
+                     type.getCanonicalName() + "." + from);
+            }
+            column.append(constant.ordinal());
+         }
+      };
+   }
+
+   /**
+    * Converts a value and appends it, without throwing
+    * @param from The value, not null
+    * @return True if it was appended, false if it failed to convert and
+    * nothing was appended
+    */
+   abstract boolean tryAppend(F from);
+
+   /**
+    * Converts a value and appends it
+    * @param from The value, not null
+    * @throws RuntimeException If it fails to convert, nothing is appended
+    */
+   abstract void append(F from);
+
+   /** The column being appended to **/
+   private final Column column;
+}
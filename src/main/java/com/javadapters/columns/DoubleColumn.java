@@ -0,0 +1,41 @@
+package com.javadapters.columns;
+
+/**
+ * Off-heap column of double values
+ */
+public class DoubleColumn extends Column {
+
+   /**
+    * Constructor with the default chunk size
+    */
+   public DoubleColumn() {
+      this(DEFAULT_CHUNK_SIZE);
+   }
+
+   /**
+    * Constructor
+    * @param chunkSize The number of values in each chunk of memory, a power
+    * of two
+    */
+   public DoubleColumn(int chunkSize) {
+      super(8, chunkSize);
+   }
+
+   /**
+    * Appends a value
+    * @param value The value
+    */
+   public void append(double value) {
+      long index = add(true);
+      chunkAt(index).putDouble(offset(index), value);
+   }
+
+   /**
+    * @param index The row
+    * @return The value of the row, or 0 if it's null
+    * @throws IndexOutOfBoundsException If there is no such row
+    */
+   public double get(long index) {
+      return chunk(index).getDouble(offset(index));
+   }
+}
@@ -0,0 +1,42 @@
+package com.javadapters.columns;
+
+/**
+ * Off-heap column of int values. Also holds the
+ * ordinals of enum constants.
+ */
+public class IntColumn extends Column {
+
+   /**
+    * Constructor with the default chunk size
+    */
+   public IntColumn() {
+      this(DEFAULT_CHUNK_SIZE);
+   }
+
+   /**
+    * Constructor
+    * @param chunkSize The number of values in each chunk of memory, a power
+    * of two
+    */
+   public IntColumn(int chunkSize) {
+      super(4, chunkSize);
+   }
+
+   /**
+    * Appends a value
+    * @param value The value
+    */
+   public void append(int value) {
+      long index = add(true);
+      chunkAt(index).putInt(offset(index), value);
+   }
+
+   /**
+    * @param index The row
+    * @return The value of the row, or 0 if it's null
+    * @throws IndexOutOfBoundsException If there is no such row
+    */
+   public int get(long index) {
+      return chunk(index).getInt(offset(index));
+   }
+}
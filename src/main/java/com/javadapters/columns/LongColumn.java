@@ -0,0 +1,42 @@
+package com.javadapters.columns;
+
+/**
+ * Off-heap column of long values. Also holds dates as
+ * milliseconds since the epoch.
+ */
+public class LongColumn extends Column {
+
+   /**
+    * Constructor with the default chunk size
+    */
+   public LongColumn() {
+      this(DEFAULT_CHUNK_SIZE);
+   }
+
+   /**
+    * Constructor
+    * @param chunkSize The number of values in each chunk of memory, a power
+    * of two
+    */
+   public LongColumn(int chunkSize) {
+      super(8, chunkSize);
+   }
+
+   /**
+    * Appends a value
+    * @param value The value
+    */
+   public void append(long value) {
+      long index = add(true);
+      chunkAt(index).putLong(offset(index), value);
+   }
+
+   /**
+    * @param index The row
+    * @return The value of the row, or 0 if it's null
+    * @throws IndexOutOfBoundsException If there is no such row
+    */
+   public long get(long index) {
+      return chunk(index).getLong(offset(index));
+   }
+}
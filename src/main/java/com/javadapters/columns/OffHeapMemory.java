@@ -0,0 +1,72 @@
+package com.javadapters.columns;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Allocates and frees the direct buffers that hold column data. A direct
+ * buffer is normally only freed once the garbage collector finds it
+ * unreachable, so where the JVM allows it the memory is released straight
+ * away with the cleaner of the buffer instead.
+ */
+final class OffHeapMemory {
+
+   private OffHeapMemory() {
+   }
+
+   /**
+    * Allocates zeroed memory
+    * @param bytes The number of bytes
+    * @return A direct buffer in native byte order
+    */
+   static ByteBuffer allocate(int bytes) {
+      return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+   }
+
+   /**
+    * Frees the memory of a buffer from {@link #allocate(int)}. The buffer
+    * must not be used afterwards.
+    * @param buffer The buffer to free
+    */
+   static void free(ByteBuffer buffer) {
+      if(sCleaner != null) {
+         try {
+            sCleaner.invokeExact(buffer);
+         } catch (Throwable e) {
+            //Left for the garbage collector
+         }
+      }
+   }
+
+   /**
+    * @return True if memory is released when it's freed, otherwise it's
+    * released when the garbage collector finds the buffer unreachable
+    */
+   static boolean isExplicitFreeSupported() {
+      return sCleaner != null;
+   }
+
+   /**
+    * @return Unsafe.invokeCleaner bound to the Unsafe instance, or null if
+    * it's not available
+    */
+   private static MethodHandle findCleaner() {
+      try {
+         Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+         Field field = unsafeClass.getDeclaredField("theUnsafe");
+         field.setAccessible(true);
+         return MethodHandles.lookup().findVirtual(unsafeClass, "invokeCleaner",
+               MethodType.methodType(void.class, ByteBuffer.class))
+               .bindTo(field.get(null));
+      } catch (ReflectiveOperationException | RuntimeException e) {
+         return null;
+      }
+   }
+
+   /** Frees a direct buffer, or null if buffers are left to the GC **/
+   private static final MethodHandle sCleaner = findCleaner();
+}
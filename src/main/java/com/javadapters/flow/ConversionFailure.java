@@ -0,0 +1,54 @@
+package com.javadapters.flow;
+
+/**
+ * A value that a {@link ConversionProcessor} failed to convert, which is
+ * passed to its failure handler rather than ending the stream
+ * @param <F> The type converted from
+ */
+public final class ConversionFailure<F> {
+
+   /**
+    * Constructor
+    * @param value The value that failed to convert
+    * @param error The error
+    * @param index The position of the value in the stream
+    */
+   ConversionFailure(F value, RuntimeException error, long index) {
+      this.value = value;
+      this.error = error;
+      this.index = index;
+   }
+
+   /**
+    * @return The value that failed to convert
+    */
+   public F getValue() {
+      return value;
+   }
+
+   /**
+    * @return The error
+    */
+   public RuntimeException getError() {
+      return error;
+   }
+
+   /**
+    * @return The position of the value in the stream, counting from 0
+    */
+   public long getIndex() {
+      return index;
+   }
+
+   @Override
+   public String toString() {
+      return "ConversionFailure[" + index + "=" + value + ", " + error + "]";
+   }
+
+   /** The value that failed to convert **/
+   private final F value;
+   /** The error **/
+   private final RuntimeException error;
+   /** The position of the value in the stream **/
+   private final long index;
+}
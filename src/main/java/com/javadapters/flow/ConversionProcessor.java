@@ -0,0 +1,694 @@
+package com.javadapters.flow;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.adapters.Adapter;
+
+/**
+ * Reactive stream stage that converts each value published to it with an
+ * adapter and publishes the results, in order, to a single subscriber.
+ * <p>
+ * Values are converted in batches. A batch is converted once it is full,
+ * once the values requested from the publisher have all arrived, or as soon
+ * as nothing else is being converted, so a publisher that goes quiet never
+ * leaves values waiting. Values that arrive during a conversion are gathered
+ * into the next batch, and a publisher that sends values while they are
+ * requested fills whole batches, so the executor, the locking and the
+ * requests to the publisher are paid once per batch rather than once per
+ * value under load. With an executor, up to maxInFlight batches are
+ * converted at once and the results are still published in the order the
+ * values arrived. Without one, each value is converted on the thread that
+ * publishes it as it arrives. On newer JDKs a virtual thread per task
+ * executor can be used.
+ * <p>
+ * Results are only published as the subscriber requests them. The stage
+ * requests values from its publisher ahead of that demand, but never holds
+ * more than batchSize * (maxInFlight + 1) values, so a slow subscriber slows
+ * the publisher down. A value that fails to convert, or converts to null, is
+ * passed to the failure handler and the stream goes on. Without a handler
+ * the first failure cancels the publisher and is sent to the subscriber's
+ * onError, after the results before it.
+ * @param <F> The type to convert from
+ * @param <T> The type to convert to
+ */
+public class ConversionProcessor<F,T> implements Flow.Processor<F,T> {
+
+   /** Default maximum number of values in a batch **/
+   public static final int DEFAULT_BATCH_SIZE = 256;
+
+   /** Number of values a batch has room for before it grows **/
+   private static final int INITIAL_BATCH_CAPACITY = 16;
+
+   private ConversionProcessor(Builder<F,T> builder) {
+      this.adapter = builder.adapter;
+      this.toType = builder.toType;
+      this.batchSize = builder.batchSize;
+      this.executor = builder.executor;
+      this.maxInFlight = builder.maxInFlight;
+      this.failureHandler = builder.failureHandler;
+      this.capacity = (long)batchSize * (maxInFlight + 1);
+   }
+
+   /**
+    * @param adapter The adapter to convert with
+    * @param toType The type to convert to
+    * @return A builder for a processor converting with the given adapter
+    */
+   public static <F,T> Builder<F,T> builder(Adapter<F,T> adapter,
+         Class<T> toType) {
+      return new Builder<F,T>(adapter, toType);
+   }
+
+   /**
+    * @param fromType The type to convert from
+    * @param toType The type to convert to
+    * @return A builder for a processor converting with the adapter of the
+    * {@link AdapterFactory}
+    * @throws AdapterNotFoundException
+    */
+   public static <F,T> Builder<F,T> builder(Class<F> fromType, Class<T> toType)
+         throws AdapterNotFoundException {
+      return builder(AdapterFactory.getAdapter(fromType, toType), toType);
+   }
+
+   /**
+    * Builds a {@link ConversionProcessor}
+    * @param <F> The type to convert from
+    * @param <T> The type to convert to
+    */
+   public static class Builder<F,T> {
+
+      private Builder(Adapter<F,T> adapter, Class<T> toType) {
+         this.adapter = Objects.requireNonNull(adapter, "adapter");
+         this.toType = AdapterFactory.getWrapper(
+               Objects.requireNonNull(toType, "toType"));
+      }
+
+      /**
+       * @param batchSize The maximum number of values converted as one task,
+       * {@link ConversionProcessor#DEFAULT_BATCH_SIZE} by default
+       * @return This builder
+       */
+      public Builder<F,T> batchSize(int batchSize) {
+         if(batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " +
+                  batchSize);
+         }
+         this.batchSize = batchSize;
+         return this;
+      }
+
+      /**
+       * Converts batches on an executor rather than on the publishing thread
+       * @param executor The executor to convert on
+       * @param maxInFlight The maximum number of batches converted at once
+       * @return This builder
+       */
+      public Builder<F,T> executor(Executor executor, int maxInFlight) {
+         if(maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " +
+                  maxInFlight);
+         }
+         this.executor = Objects.requireNonNull(executor, "executor");
+         this.maxInFlight = maxInFlight;
+         return this;
+      }
+
+      /**
+       * @param handler Receives the values that fail to convert, in order, on
+       * the thread publishing the results
+       * @return This builder
+       */
+      public Builder<F,T> onFailure(Consumer<? super ConversionFailure<F>> handler) {
+         this.failureHandler = Objects.requireNonNull(handler, "handler");
+         return this;
+      }
+
+      /**
+       * @return The processor
+       */
+      public ConversionProcessor<F,T> build() {
+         return new ConversionProcessor<F,T>(this);
+      }
+
+      private final Adapter<F,T> adapter;
+      private final Class<T> toType;
+      private int batchSize = DEFAULT_BATCH_SIZE;
+      private Executor executor;
+      private int maxInFlight = 1;
+      private Consumer<? super ConversionFailure<F>> failureHandler;
+   }
+
+   /**
+    * Subscribes the single subscriber of the results. Any later subscriber
+    * receives an {@link IllegalStateException}.
+    */
+   @Override
+   public void subscribe(Flow.Subscriber<? super T> subscriber) {
+      Objects.requireNonNull(subscriber, "subscriber");
+      boolean accepted = false;
+      synchronized(lock) {
+         if(downstream == null) {
+            downstream = subscriber;
+            accepted = true;
+         }
+      }
+      if(!accepted) {
+         subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+         });
+         subscriber.onError(new IllegalStateException(
+               "ConversionProcessor already has a subscriber"));
+         return;
+      }
+      subscriber.onSubscribe(new ResultSubscription());
+      requestUpstream();
+      drain();
+   }
+
+   @Override
+   public void onSubscribe(Flow.Subscription subscription) {
+      Objects.requireNonNull(subscription, "subscription");
+      boolean accepted = false;
+      synchronized(lock) {
+         if(upstream == null && !terminated) {
+            upstream = subscription;
+            accepted = true;
+         }
+      }
+      if(!accepted) {
+         subscription.cancel();
+         return;
+      }
+      requestUpstream();
+   }
+
+   @Override
+   public void onNext(F item) {
+      Objects.requireNonNull(item, "item");
+      Batch dispatch;
+      synchronized(lock) {
+         if(terminated) {
+            return;
+         }
+         --upstreamPending;
+         ++buffered;
+         if(current == null) {
+            current = new Batch(nextIndex);
+            queue.add(current);
+         }
+         current.add(item);
+         ++nextIndex;
+         if(current.size == batchSize || upstreamPending == 0) {
+            seal();
+         } else {
+            sealIfIdle();
+         }
+         dispatch = nextDispatch();
+      }
+      if(dispatch != null) {
+         dispatch(dispatch);
+      }
+   }
+
+   @Override
+   public void onError(Throwable throwable) {
+      Objects.requireNonNull(throwable, "throwable");
+      Batch dispatch;
+      synchronized(lock) {
+         if(terminated || upstreamDone) {
+            return;
+         }
+         upstreamDone = true;
+         upstreamError = throwable;
+         seal();
+         dispatch = nextDispatch();
+      }
+      if(dispatch != null) {
+         dispatch(dispatch);
+      }
+      drain();
+   }
+
+   @Override
+   public void onComplete() {
+      Batch dispatch;
+      synchronized(lock) {
+         if(terminated || upstreamDone) {
+            return;
+         }
+         upstreamDone = true;
+         seal();
+         dispatch = nextDispatch();
+      }
+      if(dispatch != null) {
+         dispatch(dispatch);
+      }
+      drain();
+   }
+
+   /**
+    * The subscription of the subscriber to the results
+    */
+   private final class ResultSubscription implements Flow.Subscription {
+
+      @Override
+      public void request(long n) {
+         if(n <= 0) {
+            fail(new IllegalArgumentException(
+                  "Requests must be positive: " + n));
+            return;
+         }
+         synchronized(lock) {
+            demand += n;
+            if(demand < 0) {
+               demand = Long.MAX_VALUE;
+            }
+         }
+         drain();
+      }
+
+      @Override
+      public void cancel() {
+         Flow.Subscription subscription;
+         synchronized(lock) {
+            if(cancelled) {
+               return;
+            }
+            cancelled = true;
+            subscription = terminate();
+         }
+         if(subscription != null) {
+            subscription.cancel();
+         }
+      }
+   }
+
+   /**
+    * A run of values converted as one task
+    */
+   private final class Batch implements Runnable {
+
+      Batch(long firstIndex) {
+         this.firstIndex = firstIndex;
+         this.values = new Object[Math.min(batchSize, INITIAL_BATCH_CAPACITY)];
+      }
+
+      /**
+       * @param value A value to convert, growing the batch if it's full
+       */
+      void add(Object value) {
+         if(size == values.length) {
+            values = Arrays.copyOf(values, Math.min(size * 2, batchSize));
+         }
+         values[size++] = value;
+      }
+
+      /**
+       * Replaces each value with its result, leaving the values that fail
+       */
+      @Override
+      @SuppressWarnings("unchecked")
+      public void run() {
+         for(int i = 0; i < size; ++i) {
+            try {
+               T result = adapter.convert((F)values[i], toType);
+               if(result == null) {
+                  throw new IllegalArgumentException("Converted " + values[i] +
+                        " to null");
+               }
+               values[i] = result;
+            } catch (RuntimeException e) {
+               if(errors == null) {
+                  errors = new RuntimeException[size];
+               }
+               errors[i] = e;
+            }
+         }
+         converted(this);
+      }
+
+      /**
+       * @param i The index of a value in the batch
+       * @return The error converting the value, or null if it converted
+       */
+      RuntimeException getError(int i) {
+         return (errors == null) ? null : errors[i];
+      }
+
+      /** The position of the first value in the stream **/
+      final long firstIndex;
+      /** The values, replaced by their results once converted **/
+      Object[] values;
+      /** The errors of the values that failed, or null if none did **/
+      RuntimeException[] errors;
+      /** The number of values **/
+      int size;
+      /** The number of results published **/
+      int delivered;
+      /** True once converted **/
+      boolean done;
+   }
+
+   /**
+    * Ends the batch values are being added to, so it can be converted. Must
+    * hold the lock.
+    */
+   private void seal() {
+      if(current != null) {
+         undispatched.add(current);
+         current = null;
+      }
+   }
+
+   /**
+    * Ends the batch values are being added to if nothing is being converted,
+    * so its values don't wait for more that may never come. With an executor
+    * this waits for a request to the publisher to return, since the
+    * publisher may send the values during the request, and a task per value
+    * would cost more than the conversions. Must hold the lock.
+    */
+   private void sealIfIdle() {
+      if(inFlight == 0 && undispatched.isEmpty() &&
+            (executor == null || requesting == 0)) {
+         seal();
+      }
+   }
+
+   /**
+    * Starts the next ended batch if there is a free slot. Must hold the lock.
+    * @return The batch to dispatch, or null if there is none
+    */
+   private Batch nextDispatch() {
+      if(inFlight >= maxInFlight || undispatched.isEmpty()) {
+         return null;
+      }
+      ++inFlight;
+      return undispatched.poll();
+   }
+
+   /**
+    * Converts a batch on the executor, or on this thread if there is none
+    * @param batch The batch
+    */
+   private void dispatch(Batch batch) {
+      if(executor == null) {
+         batch.run();
+         return;
+      }
+      try {
+         executor.execute(batch);
+      } catch (RejectedExecutionException e) {
+         fail(e);
+      }
+   }
+
+   /**
+    * Called once a batch is converted, to start the next and publish it
+    * @param batch The batch
+    */
+   private void converted(Batch batch) {
+      Batch next;
+      synchronized(lock) {
+         --inFlight;
+         batch.done = true;
+         next = null;
+         if(!terminated) {
+            sealIfIdle();
+            next = nextDispatch();
+         }
+      }
+      if(next != null) {
+         dispatch(next);
+      }
+      drain();
+   }
+
+   /**
+    * Requests more values from the publisher if there is room for them
+    */
+   private void requestUpstream() {
+      Flow.Subscription subscription;
+      long n;
+      synchronized(lock) {
+         subscription = upstream;
+         n = upstreamRequest();
+      }
+      if(n > 0) {
+         requestValues(subscription, n);
+      }
+   }
+
+   /**
+    * Requests values from the publisher, then converts the values it sent
+    * during the request if nothing else is being converted
+    * @param subscription The subscription to the publisher
+    * @param n The number of values to request
+    */
+   private void requestValues(Flow.Subscription subscription, long n) {
+      synchronized(lock) {
+         ++requesting;
+      }
+      Batch dispatch = null;
+      try {
+         subscription.request(n);
+      } finally {
+         synchronized(lock) {
+            --requesting;
+            if(!terminated) {
+               sealIfIdle();
+               dispatch = nextDispatch();
+            }
+         }
+      }
+      if(dispatch != null) {
+         dispatch(dispatch);
+      }
+   }
+
+   /**
+    * Must hold the lock
+    * @return The number of values to request from the publisher, a whole
+    * number of batches so they fill, or 0 if there isn't room for a batch
+    */
+   private long upstreamRequest() {
+      if(upstream == null || downstream == null || terminated || upstreamDone) {
+         return 0;
+      }
+      long room = capacity - buffered - upstreamPending;
+      room -= room % batchSize;
+      if(room == 0) {
+         return 0;
+      }
+      upstreamPending += room;
+      return room;
+   }
+
+   /**
+    * Ends the stream with an error
+    * @param error The error to send to the subscriber
+    */
+   private void fail(Throwable error) {
+      Flow.Subscription subscription;
+      synchronized(lock) {
+         if(terminated) {
+            return;
+         }
+         failure = error;
+         subscription = terminate();
+      }
+      if(subscription != null) {
+         subscription.cancel();
+      }
+      drain();
+   }
+
+   /**
+    * Stops converting and drops the values held. Must hold the lock.
+    * @return The subscription to the publisher to cancel, or null if there is
+    * none
+    */
+   private Flow.Subscription terminate() {
+      terminated = true;
+      queue.clear();
+      undispatched.clear();
+      current = null;
+      return upstreamDone ? null : upstream;
+   }
+
+   /**
+    * Publishes the converted results the subscriber has requested and the end
+    * of the stream. Only one thread publishes at a time, a call while another
+    * thread is publishing makes that thread check again.
+    */
+   @SuppressWarnings("unchecked")
+   private void drain() {
+      synchronized(lock) {
+         if(emitting) {
+            missed = true;
+            return;
+         }
+         emitting = true;
+      }
+      for(;;) {
+         Flow.Subscriber<? super T> subscriber;
+         Flow.Subscription subscription;
+         Batch batch = null;
+         int start = 0;
+         int end = 0;
+         long request = 0;
+         boolean cancel = false;
+         boolean complete = false;
+         Throwable error = null;
+         synchronized(lock) {
+            subscriber = downstream;
+            subscription = upstream;
+            if(subscriber == null || cancelled || signalled) {
+               emitting = false;
+               return;
+            }
+            Batch head = queue.peek();
+            if(failure != null) {
+               signalled = true;
+               error = failure;
+            } else if(head != null && head.done) {
+               int i = head.delivered;
+               long remaining = demand;
+               while(i < head.size) {
+                  RuntimeException e = head.getError(i);
+                  if(e != null) {
+                     if(failureHandler == null) {
+                        failure = e;
+                        break;
+                     }
+                  } else if(remaining == 0) {
+                     break;
+                  } else {
+                     --remaining;
+                  }
+                  ++i;
+               }
+               if(i > head.delivered) {
+                  batch = head;
+                  start = head.delivered;
+                  end = i;
+                  head.delivered = i;
+                  demand = remaining;
+                  buffered -= end - start;
+                  if(i == head.size) {
+                     queue.poll();
+                  }
+               }
+               if(failure != null) {
+                  cancel = terminate() != null;
+               } else {
+                  request = upstreamRequest();
+               }
+            } else if(head == null && upstreamDone) {
+               signalled = true;
+               error = upstreamError;
+               complete = (error == null);
+            }
+            if(batch == null && error == null && !complete && !cancel &&
+                  failure == null) {
+               if(!missed) {
+                  emitting = false;
+                  return;
+               }
+               missed = false;
+               continue;
+            }
+         }
+         if(request > 0) {
+            requestValues(subscription, request);
+         }
+         if(cancel) {
+            subscription.cancel();
+         }
+         for(int i = start; i < end; ++i) {
+            RuntimeException e = batch.getError(i);
+            if(e == null) {
+               subscriber.onNext((T)batch.values[i]);
+            } else {
+               failureHandler.accept(new ConversionFailure<F>((F)batch.values[i],
+                     e, batch.firstIndex + i));
+            }
+         }
+         if(error != null) {
+            subscriber.onError(error);
+         } else if(complete) {
+            subscriber.onComplete();
+         }
+      }
+   }
+
+   /** The adapter to convert with **/
+   private final Adapter<F,T> adapter;
+   /** The type to convert to **/
+   private final Class<T> toType;
+   /** The maximum number of values in a batch **/
+   private final int batchSize;
+   /** The executor to convert on, or null to convert on the publishing thread **/
+   private final Executor executor;
+   /** The maximum number of batches converted at once **/
+   private final int maxInFlight;
+   /** Receives the values that fail, or null to end the stream on a failure **/
+   private final Consumer<? super ConversionFailure<F>> failureHandler;
+   /** The maximum number of values held or requested from the publisher **/
+   private final long capacity;
+
+   /** Guards the state below **/
+   private final Object lock = new Object();
+   /** The subscription to the publisher **/
+   private Flow.Subscription upstream;
+   /** The subscriber to the results **/
+   private Flow.Subscriber<? super T> downstream;
+   /** The number of results requested and not yet published **/
+   private long demand;
+   /** The number of values requested from the publisher and not yet received **/
+   private long upstreamPending;
+   /** The number of values received and not yet published **/
+   private long buffered;
+   /** The position in the stream of the next value **/
+   private long nextIndex;
+   /** The batches not yet fully published, in order **/
+   private final ArrayDeque<Batch> queue = new ArrayDeque<Batch>();
+   /** The ended batches waiting for a free slot to convert, in order **/
+   private final ArrayDeque<Batch> undispatched = new ArrayDeque<Batch>();
+   /** The batch values are being added to, or null to start a new one **/
+   private Batch current;
+   /** The number of batches being converted **/
+   private int inFlight;
+   /** The number of requests to the publisher that haven't returned **/
+   private int requesting;
+   /** True once the publisher has completed or failed **/
+   private boolean upstreamDone;
+   /** The error of the publisher, or null **/
+   private Throwable upstreamError;
+   /** The error ending the stream early, or null **/
+   private Throwable failure;
+   /** True once no more values are converted **/
+   private boolean terminated;
+   /** True once the subscriber has cancelled **/
+   private boolean cancelled;
+   /** True once onComplete or onError has been sent to the subscriber **/
+   private boolean signalled;
+   /** True while a thread is publishing results **/
+   private boolean emitting;
+   /** True if there may be more to publish since publishing started **/
+   private boolean missed;
+}
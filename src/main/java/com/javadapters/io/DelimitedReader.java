@@ -0,0 +1,454 @@
+package com.javadapters.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.Binder;
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.ByteSlice;
+
+/**
+ * Reads records from a delimited (CSV, TSV etc.) file. The file is memory
+ * mapped one window at a time, and each field of the current record is a
+ * {@link ByteSlice} over the mapped bytes, so reading a record allocates
+ * nothing and memory use does not grow with the size of the file. Fields are
+ * converted with the {@link ByteSlice} adapters registered in the
+ * {@link AdapterFactory}.
+ * <p>
+ * Records end with \n or \r\n and blank lines are skipped. Fields may be
+ * quoted, in which case they may contain delimiters and line breaks, and a
+ * doubled quote stands for a single quote. The delimiter and quote must be
+ * ASCII characters, and text fields are decoded as UTF-8.
+ * <p>
+ * Either step through the records with {@link #next()} and read the fields
+ * of each, or use one of the stream methods to map each record to an object.
+ * A reader is not thread safe.
+ */
+public class DelimitedReader implements Closeable {
+
+   /** Quote character to use to turn off quoting **/
+   public static final char NO_QUOTE = '\0';
+
+   /** Default size of the mapped window of the file **/
+   public static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+   /**
+    * Constructor for a comma separated file with a header record and
+    * double quoted fields
+    * @param path The file to read
+    * @throws IOException If the file can't be opened
+    */
+   public DelimitedReader(Path path) throws IOException {
+      this(path, ',', '"', true);
+   }
+
+   /**
+    * Constructor
+    * @param path The file to read
+    * @param delimiter The field delimiter
+    * @param quote The quote character, or {@link #NO_QUOTE}
+    * @param header True if the first record holds the names of the columns
+    * @throws IOException If the file can't be opened
+    */
+   public DelimitedReader(Path path, char delimiter, char quote, boolean header)
+         throws IOException {
+      this(path, delimiter, quote, header, DEFAULT_WINDOW_SIZE);
+   }
+
+   /**
+    * Constructor
+    * @param path The file to read
+    * @param delimiter The field delimiter
+    * @param quote The quote character, or {@link #NO_QUOTE}
+    * @param header True if the first record holds the names of the columns
+    * @param windowSize The number of bytes of the file to map at a time. The
+    * window grows if a single record is larger.
+    * @throws IOException If the file can't be opened
+    */
+   public DelimitedReader(Path path, char delimiter, char quote, boolean header,
+         int windowSize) throws IOException {
+      if(delimiter == 0 || delimiter > 0x7F || quote > 0x7F ||
+            delimiter == quote || delimiter == '\n' || quote == '\n') {
+         throw new IllegalArgumentException("Invalid delimiter or quote");
+      }
+      if(windowSize < 1) {
+         throw new IllegalArgumentException("windowSize must be positive: " +
+               windowSize);
+      }
+      this.delimiter = (byte)delimiter;
+      this.quote = (byte)quote;
+      this.windowSize = windowSize;
+      channel = FileChannel.open(path, StandardOpenOption.READ);
+      try {
+         fileSize = channel.size();
+         if(header && next()) {
+            columns = new String[fieldCount];
+            for(int i = 0; i < fieldCount; ++i) {
+               columns[i] = fields[i].toString();
+            }
+            recordNumber = 0;
+         }
+      } catch (IOException | RuntimeException e) {
+         channel.close();
+         throw e;
+      }
+   }
+
+   /**
+    * Advances to the next record
+    * @return True if there is a record, false at the end of the file
+    * @throws IOException If the file can't be read
+    */
+   public boolean next() throws IOException {
+      while(position < fileSize) {
+         if(window == null || position < windowStart ||
+               position >= windowStart + windowLength) {
+            map(position, windowSize);
+         }
+         int end = scan((int)(position - windowStart));
+         if(end < 0) {
+            //The record runs past the window, map again from its start
+            int size = (windowStart == position) ? (int)Math.min(
+                  2L * windowLength, Integer.MAX_VALUE) : windowSize;
+            if(windowStart == position && windowLength == Integer.MAX_VALUE) {
+               throw new IOException("Record at " + position + " is too long");
+            }
+            map(position, size);
+            continue;
+         }
+         position = windowStart + end;
+         if(!blank) {
+            ++recordNumber;
+            return true;
+         }
+      }
+      fieldCount = 0;
+      return false;
+   }
+
+   /**
+    * @return The number of fields in the current record
+    */
+   public int getFieldCount() {
+      return fieldCount;
+   }
+
+   /**
+    * Gets a field of the current record. The slice is reused, and only valid
+    * until the next call to {@link #next()}.
+    * @param index The index of the field
+    * @return The field
+    */
+   public ByteSlice getField(int index) {
+      if(index < 0 || index >= fieldCount) {
+         throw new IndexOutOfBoundsException("index " + index + ", fields " +
+               fieldCount);
+      }
+      return fields[index];
+   }
+
+   /**
+    * @return The names of the columns from the header record, or null if the
+    * file has no header
+    */
+   public String[] getColumns() {
+      return (columns == null) ? null : columns.clone();
+   }
+
+   /**
+    * @return The number of the current record, counting from 1 and not
+    * counting the header
+    */
+   public long getRecordNumber() {
+      return recordNumber;
+   }
+
+   /**
+    * Streams the remaining records mapped by the given mapper. Closing the
+    * stream closes this reader.
+    * @param mapper Maps each record
+    * @return The stream of mapped records
+    */
+   public <T> Stream<T> stream(final RowMapper<T> mapper) {
+      Iterator<T> iterator = new Iterator<T>() {
+         @Override
+         public boolean hasNext() {
+            if(!advanced) {
+               try {
+                  hasRecord = DelimitedReader.this.next();
+               } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+               }
+               advanced = true;
+            }
+            return hasRecord;
+         }
+
+         @Override
+         public T next() {
+            if(!hasNext()) {
+               throw new NoSuchElementException();
+            }
+            advanced = false;
+            return mapper.map(DelimitedReader.this);
+         }
+
+         private boolean advanced;
+         private boolean hasRecord;
+      };
+      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+            Spliterator.ORDERED), false).onClose(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               close();
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+         }
+      });
+   }
+
+   /**
+    * Streams the remaining records as arrays of values, converting each
+    * column to the given type. Missing fields are null. The adapters are
+    * resolved once up front.
+    * @param columnTypes The type of each column
+    * @return The stream of converted records
+    * @throws AdapterNotFoundException If a column type can't be converted to
+    */
+   @SuppressWarnings("unchecked")
+   public Stream<Object[]> streamRows(final Class<?>... columnTypes)
+         throws AdapterNotFoundException {
+      final Adapter<ByteSlice, Object>[] adapters =
+            (Adapter<ByteSlice, Object>[])new Adapter<?,?>[columnTypes.length];
+      final Class<Object>[] types = (Class<Object>[])new Class<?>[columnTypes.length];
+      for(int i = 0; i < columnTypes.length; ++i) {
+         adapters[i] = (Adapter<ByteSlice, Object>)AdapterFactory.getAdapter(
+               ByteSlice.class, columnTypes[i]);
+         types[i] = (Class<Object>)AdapterFactory.getWrapper(columnTypes[i]);
+      }
+      return stream(new RowMapper<Object[]>() {
+         @Override
+         public Object[] map(DelimitedReader reader) {
+            Object[] row = new Object[adapters.length];
+            int count = Math.min(adapters.length, reader.getFieldCount());
+            for(int i = 0; i < count; ++i) {
+               row[i] = adapters[i].convert(reader.getField(i), types[i]);
+            }
+            return row;
+         }
+      });
+   }
+
+   /**
+    * Streams the remaining records as new objects of the given type, binding
+    * each column to the property named by the header record. Columns with no
+    * matching property are ignored. The setters and adapters are resolved
+    * once up front.
+    * @param type The type to bind
+    * @return The stream of bound objects
+    * @see AdapterFactory#binderFor(Class)
+    */
+   @SuppressWarnings("unchecked")
+   public <T> Stream<T> bind(Class<T> type) {
+      if(columns == null) {
+         throw new IllegalStateException("Binding requires a header record");
+      }
+      final Binder<T> binder = AdapterFactory.binderFor(type);
+      final Binder.Setter<T, ByteSlice>[] setters =
+            (Binder.Setter<T, ByteSlice>[])new Binder.Setter<?,?>[columns.length];
+      for(int i = 0; i < columns.length; ++i) {
+         setters[i] = binder.setterFor(columns[i], ByteSlice.class);
+      }
+      return stream(new RowMapper<T>() {
+         @Override
+         public T map(DelimitedReader reader) {
+            T target = binder.newInstance();
+            int count = Math.min(setters.length, reader.getFieldCount());
+            for(int i = 0; i < count; ++i) {
+               if(setters[i] != null) {
+                  setters[i].set(target, reader.getField(i));
+               }
+            }
+            return target;
+         }
+      });
+   }
+
+   @Override
+   public void close() throws IOException {
+      window = null;
+      channel.close();
+   }
+
+   /**
+    * Maps a window of the file
+    * @param start The offset in the file to start at
+    * @param size The size of the window, cut short at the end of the file
+    */
+   private void map(long start, int size) throws IOException {
+      windowStart = start;
+      windowLength = (int)Math.min(size, fileSize - start);
+      window = channel.map(MapMode.READ_ONLY, start, windowLength);
+   }
+
+   /**
+    * Splits the record starting at the given offset of the window into
+    * fields
+    * @param start The offset of the record in the window
+    * @return The offset after the end of the record, or -1 if the record
+    * runs past the end of the window
+    */
+   private int scan(int start) {
+      boolean atEof = windowStart + windowLength == fileSize;
+      int end = windowLength;
+      int pos = start;
+      fieldCount = 0;
+      while(true) {
+         boolean quoted = quote != NO_QUOTE && pos < end &&
+               window.get(pos) == quote;
+         boolean escaped = false;
+         int contentStart;
+         int contentEnd;
+         if(quoted) {
+            contentStart = ++pos;
+            while(true) {
+               if(pos >= end) {
+                  if(!atEof) {
+                     return -1;
+                  }
+                  //Unterminated quote, take the rest of the file
+                  contentEnd = pos;
+                  break;
+               }
+               if(window.get(pos) == quote) {
+                  if(pos + 1 >= end && !atEof) {
+                     return -1;
+                  }
+                  if(pos + 1 < end && window.get(pos + 1) == quote) {
+                     escaped = true;
+                     pos += 2;
+                     continue;
+                  }
+                  contentEnd = pos++;
+                  break;
+               }
+               ++pos;
+            }
+            //Skip anything between the closing quote and the delimiter
+            while(pos < end && window.get(pos) != delimiter &&
+                  window.get(pos) != '\n') {
+               ++pos;
+            }
+         } else {
+            contentStart = pos;
+            while(pos < end && window.get(pos) != delimiter &&
+                  window.get(pos) != '\n') {
+               ++pos;
+            }
+            contentEnd = pos;
+         }
+         if(pos >= end && !atEof) {
+            return -1;
+         }
+
+         boolean endOfRecord = pos >= end || window.get(pos) == '\n';
+         if(endOfRecord && !quoted && contentEnd > contentStart &&
+               window.get(contentEnd - 1) == '\r') {
+            --contentEnd;
+         }
+         addField(contentStart, contentEnd, escaped);
+         if(endOfRecord) {
+            blank = fieldCount == 1 && !quoted && contentEnd == contentStart;
+            return (pos < end) ? pos + 1 : pos;
+         }
+         ++pos;
+      }
+   }
+
+   /**
+    * Adds a field to the current record
+    * @param start The offset of the field in the window
+    * @param end The offset after the end of the field in the window
+    * @param escaped True if the field contains doubled quotes
+    */
+   private void addField(int start, int end, boolean escaped) {
+      if(fieldCount == fields.length) {
+         int size = fields.length * 2;
+         fields = Arrays.copyOf(fields, size);
+         scratch = Arrays.copyOf(scratch, size);
+      }
+      ByteSlice field = fields[fieldCount];
+      if(field == null) {
+         field = fields[fieldCount] = new ByteSlice();
+      }
+      if(escaped) {
+         //Copy the field without the doubled quotes
+         byte[] buffer = scratch[fieldCount];
+         if(buffer == null || buffer.length < end - start) {
+            buffer = scratch[fieldCount] = new byte[Math.max(end - start, 64)];
+         }
+         int length = 0;
+         for(int i = start; i < end; ++i) {
+            byte b = window.get(i);
+            buffer[length++] = b;
+            if(b == quote) {
+               ++i;
+            }
+         }
+         field.set(buffer, 0, length);
+      } else {
+         field.set(window, start, end - start);
+      }
+      ++fieldCount;
+   }
+
+   /** The file being read **/
+   private final FileChannel channel;
+   /** The size of the file **/
+   private final long fileSize;
+   /** The field delimiter **/
+   private final byte delimiter;
+   /** The quote character **/
+   private final byte quote;
+   /** The size of the window to map **/
+   private final int windowSize;
+   /** Names of the columns, or null if there is no header **/
+   private String[] columns;
+
+   /** The currently mapped window of the file **/
+   private MappedByteBuffer window;
+   /** Offset of the window in the file **/
+   private long windowStart;
+   /** Length of the window **/
+   private int windowLength;
+   /** Offset of the next record in the file **/
+   private long position;
+   /** The number of the current record **/
+   private long recordNumber;
+
+   /** Fields of the current record **/
+   private ByteSlice[] fields = new ByteSlice[16];
+   /** Buffers for fields that had to be unescaped **/
+   private byte[][] scratch = new byte[16][];
+   /** The number of fields in the current record **/
+   private int fieldCount;
+   /** True if the last scanned record was a blank line **/
+   private boolean blank;
+}
@@ -0,0 +1,16 @@
+package com.javadapters.io;
+
+/**
+ * Maps the current record of a {@link DelimitedReader} to an object
+ * @param <T> The type of object
+ */
+public interface RowMapper<T> {
+
+   /**
+    * Maps the current record. The fields of the reader are only valid
+    * during this call.
+    * @param reader The reader positioned on the record
+    * @return The mapped object
+    */
+   public T map(DelimitedReader reader);
+}
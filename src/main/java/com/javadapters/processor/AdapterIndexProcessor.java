@@ -0,0 +1,243 @@
+package com.javadapters.processor;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that writes the classes annotated with
+ * {@code @AdapterFor} to an index resource, which registries read to register
+ * the adapters lazily. Each line of the index holds the binary names of the
+ * from type, the to type and the adapter class. The index is named by the
+ * {@value #INDEX_OPTION} option and defaults to {@value #DEFAULT_INDEX}.
+ * <p>
+ * Annotated classes are checked to be public, concrete, top level or static
+ * adapters with a public constructor taking no arguments, since they are
+ * constructed by reflection.
+ */
+public class AdapterIndexProcessor extends AbstractProcessor {
+
+   /** Directory of the index resources **/
+   public static final String INDEX_DIRECTORY = "META-INF/javadapters/";
+   /** Name of the index of the adapters of an application **/
+   public static final String DEFAULT_INDEX = "adapters";
+   /** Option naming the index to write **/
+   public static final String INDEX_OPTION = "javadapters.index";
+
+   @Override
+   public Set<String> getSupportedAnnotationTypes() {
+      return Set.of(ADAPTER_FOR, ADAPTER_FOR_LIST);
+   }
+
+   @Override
+   public Set<String> getSupportedOptions() {
+      return Set.of(INDEX_OPTION);
+   }
+
+   @Override
+   public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+   }
+
+   @Override
+   public boolean process(Set<? extends TypeElement> annotations,
+         RoundEnvironment roundEnv) {
+      if(roundEnv.processingOver()) {
+         if(!entries.isEmpty()) {
+            writeIndex();
+         }
+         return false;
+      }
+      for(TypeElement annotation : annotations) {
+         for(Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if(validate(element)) {
+               addEntries((TypeElement)element);
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Checks that an annotated element can be constructed as an adapter
+    * @param element The annotated element
+    * @return True if it's valid, otherwise an error has been reported
+    */
+   private boolean validate(Element element) {
+      Messager messager = processingEnv.getMessager();
+      if(element.getKind() != ElementKind.CLASS) {
+         messager.printMessage(Diagnostic.Kind.ERROR,
+               "@AdapterFor can only be used on classes", element);
+         return false;
+      }
+      TypeElement type = (TypeElement)element;
+      Set<Modifier> modifiers = type.getModifiers();
+      if(!modifiers.contains(Modifier.PUBLIC) ||
+            modifiers.contains(Modifier.ABSTRACT) ||
+            (type.getNestingKind() != NestingKind.TOP_LEVEL &&
+            (type.getNestingKind() != NestingKind.MEMBER ||
+            !modifiers.contains(Modifier.STATIC)))) {
+         messager.printMessage(Diagnostic.Kind.ERROR,
+               "@AdapterFor class must be public, concrete and top level or static",
+               element);
+         return false;
+      }
+      boolean hasConstructor = false;
+      for(ExecutableElement constructor :
+            ElementFilter.constructorsIn(type.getEnclosedElements())) {
+         if(constructor.getParameters().isEmpty() &&
+               constructor.getModifiers().contains(Modifier.PUBLIC)) {
+            hasConstructor = true;
+         }
+      }
+      if(!hasConstructor) {
+         messager.printMessage(Diagnostic.Kind.ERROR,
+               "@AdapterFor class must have a public constructor with no arguments",
+               element);
+         return false;
+      }
+      Types types = processingEnv.getTypeUtils();
+      TypeElement adapter = processingEnv.getElementUtils().getTypeElement(ADAPTER);
+      if(adapter == null || !types.isAssignable(types.erasure(type.asType()),
+            types.erasure(adapter.asType()))) {
+         messager.printMessage(Diagnostic.Kind.ERROR,
+               "@AdapterFor class must implement " + ADAPTER, element);
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * Adds an index entry for each {@code @AdapterFor} annotation of a class
+    * @param type The annotated class
+    */
+   private void addEntries(TypeElement type) {
+      Elements elements = processingEnv.getElementUtils();
+      String adapter = elements.getBinaryName(type).toString();
+      for(AnnotationMirror mirror : forAnnotations(type)) {
+         String from = null;
+         String to = null;
+         for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value :
+               mirror.getElementValues().entrySet()) {
+            String name = typeName((TypeMirror)value.getValue().getValue(),
+                  type, mirror);
+            if(value.getKey().getSimpleName().contentEquals("from")) {
+               from = name;
+            } else {
+               to = name;
+            }
+         }
+         if(from != null && to != null) {
+            entries.add(from + " " + to + " " + adapter);
+            originatingElements.add(type);
+         }
+      }
+   }
+
+   /**
+    * @param type An annotated class
+    * @return Its {@code @AdapterFor} annotations, including repeated ones
+    */
+   private List<AnnotationMirror> forAnnotations(TypeElement type) {
+      List<AnnotationMirror> result = new ArrayList<AnnotationMirror>();
+      for(AnnotationMirror mirror : type.getAnnotationMirrors()) {
+         String name = ((TypeElement)mirror.getAnnotationType().asElement())
+               .getQualifiedName().toString();
+         if(name.equals(ADAPTER_FOR)) {
+            result.add(mirror);
+         } else if(name.equals(ADAPTER_FOR_LIST)) {
+            for(AnnotationValue value : mirror.getElementValues().values()) {
+               for(Object repeated : (List<?>)value.getValue()) {
+                  result.add((AnnotationMirror)((AnnotationValue)repeated).getValue());
+               }
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Gets the binary name of a type, boxing primitive types since registries
+    * look adapters up by the wrapper types
+    * @param mirror The type
+    * @param element The annotated class, to report errors on
+    * @param annotation The annotation, to report errors on
+    * @return The binary name, or null if the type can't be registered
+    */
+   private String typeName(TypeMirror mirror, Element element,
+         AnnotationMirror annotation) {
+      Types types = processingEnv.getTypeUtils();
+      if(mirror.getKind().isPrimitive()) {
+         mirror = types.boxedClass(types.getPrimitiveType(mirror.getKind())).asType();
+      }
+      if(mirror.getKind() != TypeKind.DECLARED) {
+         processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+               "@AdapterFor types must be classes or interfaces, not " + mirror,
+               element, annotation);
+         return null;
+      }
+      TypeElement type = (TypeElement)((DeclaredType)mirror).asElement();
+      return processingEnv.getElementUtils().getBinaryName(type).toString();
+   }
+
+   /**
+    * Writes the index resource, sorted so that builds are reproducible
+    */
+   private void writeIndex() {
+      String index = processingEnv.getOptions().getOrDefault(INDEX_OPTION,
+            DEFAULT_INDEX);
+      try {
+         FileObject resource = processingEnv.getFiler().createResource(
+               StandardLocation.CLASS_OUTPUT, "", INDEX_DIRECTORY + index,
+               originatingElements.toArray(new Element[0]));
+         try(Writer writer = new OutputStreamWriter(resource.openOutputStream(),
+               StandardCharsets.UTF_8)) {
+            writer.write("# Generated by " + getClass().getName() + "\n");
+            for(String entry : entries) {
+               writer.write(entry);
+               writer.write('\n');
+            }
+         }
+      } catch (IOException e) {
+         processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+               "Can't write the adapter index " + index + ": " + e.getMessage());
+      }
+   }
+
+   private static final String ADAPTER = "com.javadapters.adapters.Adapter";
+   private static final String ADAPTER_FOR = "com.javadapters.adapters.AdapterFor";
+   private static final String ADAPTER_FOR_LIST = ADAPTER_FOR + ".List";
+
+   /** The index entries found so far, sorted **/
+   private final Set<String> entries = new TreeSet<String>();
+   /** The annotated classes, which the index is generated from **/
+   private final List<Element> originatingElements = new ArrayList<Element>();
+}
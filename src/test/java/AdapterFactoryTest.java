@@ -0,0 +1,120 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.ChainedAdapter;
+import com.javadapters.adapters.SameTypeAdapter;
+
+
+public class AdapterFactoryTest {
+
+   /** Type only used by these tests so registrations don't leak **/
+   public static class Widget {
+   }
+
+   /** Type only reachable through a chain of adapters **/
+   public static class Timestamp {
+      Timestamp(long millis) {
+         this.millis = millis;
+      }
+
+      final long millis;
+   }
+
+   @Test
+   public void cachedLookupTest() {
+      try {
+         Adapter<String, Integer> adapter1 =
+               AdapterFactory.getAdapter(String.class, Integer.class);
+         Adapter<String, Integer> adapter2 =
+               AdapterFactory.getAdapter(String.class, Integer.class);
+         assertSame(adapter1, adapter2);
+         assertSame(adapter1, AdapterFactory.getAdapter(String.class, int.class));
+         assertTrue(AdapterFactory.getAdapter(int.class, Integer.class)
+               instanceof SameTypeAdapter);
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void replaceAdapterTest() {
+      try {
+         AdapterFactory.getAdapter(String.class, Widget.class);
+         fail("Adapter should not exist");
+      } catch (AdapterNotFoundException e) {
+         //expected
+      }
+
+      try {
+         Adapter<String, Widget> first = new Adapter<String, Widget>() {
+            @Override
+            public Widget convert(String from, Class<Widget> clazz) {
+               return new Widget();
+            }
+         };
+         AdapterFactory.addAdapter(String.class, Widget.class, first);
+         assertSame(first, AdapterFactory.getAdapter(String.class, Widget.class));
+
+         Adapter<String, Widget> second = new Adapter<String, Widget>() {
+            @Override
+            public Widget convert(String from, Class<Widget> clazz) {
+               return null;
+            }
+         };
+         AdapterFactory.addAdapter(String.class, Widget.class, second);
+         assertSame(second, AdapterFactory.getAdapter(String.class, Widget.class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void chainedAdapterTest() {
+      try {
+         AdapterFactory.addAdapter(Long.class, Timestamp.class,
+               new Adapter<Long, Timestamp>() {
+            @Override
+            public Timestamp convert(Long from, Class<Timestamp> clazz) {
+               return new Timestamp(from);
+            }
+         });
+         Adapter<String, Timestamp> adapter =
+               AdapterFactory.getAdapter(String.class, Timestamp.class);
+         assertTrue(adapter instanceof ChainedAdapter);
+         assertSame(adapter, AdapterFactory.getAdapter(String.class,
+               Timestamp.class));
+         assertEquals(1234L, adapter.convert("1234", Timestamp.class).millis);
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+
+      try {
+         AdapterFactory.getAdapter(Timestamp.class, String.class);
+         fail("Adapter should not exist");
+      } catch (AdapterNotFoundException e) {
+         //expected
+      }
+
+      //Values are not formatted as text to be parsed as another type
+      Class<?>[][] lossy = {{Double.class, Integer.class},
+            {Boolean.class, Integer.class}, {Long.class, Boolean.class},
+            {Date.class, Long.class}};
+      for(Class<?>[] pair : lossy) {
+         try {
+            AdapterFactory.getAdapter(pair[0], pair[1]);
+            fail("Adapter should not exist from " + pair[0] + " to " + pair[1]);
+         } catch (AdapterNotFoundException e) {
+            //expected
+         }
+      }
+   }
+}
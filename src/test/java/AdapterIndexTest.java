@@ -0,0 +1,208 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.AdapterRegistry;
+import com.javadapters.ClassPair;
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.AdapterFor;
+import com.javadapters.adapters.StringAdapters.StringToDateAdapter;
+
+
+public class AdapterIndexTest {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   /**
+    * Indexed when the tests are compiled, so it's in the default registry
+    * without being added
+    */
+   @AdapterFor(from = String.class, to = Version.class)
+   public static class StringToVersionAdapter implements Adapter<String, Version> {
+      @Override
+      public Version convert(String from, Class<Version> clazz) {
+         String[] parts = from.split("\\.");
+         return new Version(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+      }
+   }
+
+   public static class Version {
+      Version(int major, int minor) {
+         this.major = major;
+         this.minor = minor;
+      }
+
+      final int major;
+      final int minor;
+   }
+
+   @Test
+   public void defaultsTest() {
+      try {
+         AdapterRegistry registry = AdapterRegistry.builder().addDefaults().build();
+         ClassPair<String, Date> pair = new ClassPair<String, Date>(String.class,
+               Date.class);
+         //Not constructed until it's looked up
+         assertFalse(registry.getAdapters().get(pair) instanceof StringToDateAdapter);
+         assertTrue(registry.getAdapter(String.class, Date.class)
+               instanceof StringToDateAdapter);
+         assertEquals(42, registry.getAdapters().size());
+
+         Version version = AdapterFactory.getAdapter(String.class, Version.class)
+               .convert("1.12", Version.class);
+         assertEquals(1, version.major);
+         assertEquals(12, version.minor);
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void processorTest() throws Exception {
+      File out = compile("example/Celsius.java",
+            "package example;\n" +
+            "public class Celsius { public double value; }",
+            "example/CelsiusAdapters.java",
+            "package example;\n" +
+            "import com.javadapters.adapters.Adapter;\n" +
+            "import com.javadapters.adapters.AdapterFor;\n" +
+            "public class CelsiusAdapters {\n" +
+            "   @AdapterFor(from = String.class, to = Celsius.class)\n" +
+            "   @AdapterFor(from = CharSequence.class, to = Celsius.class)\n" +
+            "   public static class Parse implements Adapter<CharSequence, Celsius> {\n" +
+            "      public static int sCreated;\n" +
+            "      public Parse() { ++sCreated; }\n" +
+            "      public Celsius convert(CharSequence from, Class<Celsius> clazz) {\n" +
+            "         Celsius c = new Celsius();\n" +
+            "         c.value = Double.parseDouble(from.toString());\n" +
+            "         return c;\n" +
+            "      }\n" +
+            "   }\n" +
+            "   @AdapterFor(from = double.class, to = Celsius.class)\n" +
+            "   public static class FromDouble implements Adapter<Double, Celsius> {\n" +
+            "      public Celsius convert(Double from, Class<Celsius> clazz) {\n" +
+            "         Celsius c = new Celsius();\n" +
+            "         c.value = from;\n" +
+            "         return c;\n" +
+            "      }\n" +
+            "   }\n" +
+            "}");
+      List<String> index = Files.readAllLines(
+            new File(out, "META-INF/javadapters/adapters").toPath());
+      assertEquals(Arrays.asList(
+            "# Generated by com.javadapters.processor.AdapterIndexProcessor",
+            "java.lang.CharSequence example.Celsius example.CelsiusAdapters$Parse",
+            "java.lang.Double example.Celsius example.CelsiusAdapters$FromDouble",
+            "java.lang.String example.Celsius example.CelsiusAdapters$Parse"),
+            index);
+
+      try(URLClassLoader loader = new URLClassLoader(new URL[] {out.toURI().toURL()},
+            getClass().getClassLoader())) {
+         AdapterRegistry registry = AdapterRegistry.builder().addIndexed(loader)
+               .build();
+         Class<Object> celsius = (Class<Object>)loader.loadClass("example.Celsius");
+         Class<?> parse = loader.loadClass("example.CelsiusAdapters$Parse");
+         assertEquals(0, parse.getField("sCreated").getInt(null));
+         Object value = registry.getAdapter(String.class, celsius)
+               .convert("21.5", celsius);
+         assertEquals(21.5, celsius.getField("value").getDouble(value), 0);
+         assertEquals(1, parse.getField("sCreated").getInt(null));
+         value = registry.getAdapter(double.class, celsius).convert(3.0, celsius);
+         assertEquals(3.0, celsius.getField("value").getDouble(value), 0);
+         assertEquals(1, parse.getField("sCreated").getInt(null));
+      }
+   }
+
+   @Test
+   public void processorErrorTest() throws IOException {
+      String errors = compileErrors("example/Bad.java",
+            "package example;\n" +
+            "import com.javadapters.adapters.Adapter;\n" +
+            "import com.javadapters.adapters.AdapterFor;\n" +
+            "@AdapterFor(from = String.class, to = Integer.class)\n" +
+            "public class Bad implements Adapter<String, Integer> {\n" +
+            "   public Bad(int radix) { }\n" +
+            "   public Integer convert(String from, Class<Integer> clazz) {\n" +
+            "      return null;\n" +
+            "   }\n" +
+            "}");
+      assertTrue(errors, errors.contains("public constructor with no arguments"));
+      errors = compileErrors("example/NotAdapter.java",
+            "package example;\n" +
+            "import com.javadapters.adapters.AdapterFor;\n" +
+            "@AdapterFor(from = String.class, to = Integer.class)\n" +
+            "public class NotAdapter { }");
+      assertTrue(errors, errors.contains("must implement"));
+   }
+
+   /**
+    * Compiles sources with the annotation processor
+    * @param sources Pairs of file name and content
+    * @return The output directory
+    */
+   private File compile(String... sources) throws IOException {
+      ByteArrayOutputStream errors = new ByteArrayOutputStream();
+      File out = run(errors, sources);
+      if(out == null) {
+         fail(errors.toString());
+      }
+      return out;
+   }
+
+   /**
+    * Compiles sources that should fail to compile
+    * @param sources Pairs of file name and content
+    * @return The compiler errors
+    */
+   private String compileErrors(String... sources) throws IOException {
+      ByteArrayOutputStream errors = new ByteArrayOutputStream();
+      assertNull(run(errors, sources));
+      return errors.toString();
+   }
+
+   /**
+    * @return The output directory, or null if compiling failed
+    */
+   private File run(ByteArrayOutputStream errors, String... sources)
+         throws IOException {
+      File src = folder.newFolder();
+      File out = folder.newFolder();
+      List<String> args = new ArrayList<String>(Arrays.asList("-processor",
+            "com.javadapters.processor.AdapterIndexProcessor", "-classpath",
+            System.getProperty("java.class.path"), "-d", out.getPath()));
+      for(int i = 0; i < sources.length; i += 2) {
+         File file = new File(src, sources[i]);
+         file.getParentFile().mkdirs();
+         Files.write(file.toPath(), sources[i + 1].getBytes(StandardCharsets.UTF_8));
+         args.add(file.getPath());
+      }
+      JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+      int result = compiler.run(null, null, errors, args.toArray(new String[0]));
+      return (result == 0) ? out : null;
+   }
+}
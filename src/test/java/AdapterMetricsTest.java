@@ -0,0 +1,106 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterMetrics;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.AdapterRegistry;
+import com.javadapters.AdapterStats;
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.ToIntAdapter;
+
+
+public class AdapterMetricsTest {
+
+   @Test
+   public void metricsTest() {
+      try {
+         AdapterRegistry registry = AdapterRegistry.builder().addDefaults()
+               .build();
+         AdapterMetrics metrics = registry.getMetrics();
+         Adapter<String, Integer> plain =
+               registry.getAdapter(String.class, Integer.class);
+         assertFalse(metrics.isEnabled());
+         assertTrue(metrics.snapshot().isEmpty());
+
+         registry.setMetricsEnabled(true);
+         metrics.setSampleRate(1);
+         Adapter<String, Integer> adapter =
+               registry.getAdapter(String.class, Integer.class);
+         assertEquals(Integer.valueOf(5), adapter.convert("5", Integer.class));
+         try {
+            adapter.convert("five", Integer.class);
+            fail("Should not convert");
+         } catch (NumberFormatException e) {
+            //expected
+         }
+         ToIntAdapter<String> intAdapter = registry.getIntAdapter(String.class);
+         assertEquals(7, intAdapter.convertToInt("7"));
+         assertNull(registry.tryGetAdapter(String.class, Thread.class));
+
+         AdapterStats stats = metrics.snapshot(String.class, int.class);
+         assertEquals("java.lang.String", stats.getFromType());
+         assertEquals("java.lang.Integer", stats.getToType());
+         assertEquals(2, stats.getLookups());
+         assertEquals(0, stats.getMisses());
+         assertEquals(3, stats.getConversions());
+         assertEquals(1, stats.getFailures());
+         assertEquals(2, stats.getSampledConversions());
+         assertTrue(stats.latencyPercentileNanos(50) >= 0);
+         assertEquals(1, metrics.snapshot(String.class, Thread.class).getMisses());
+         assertEquals(2, metrics.snapshot().size());
+         assertEquals(3, metrics.getLookups());
+         assertEquals(1, metrics.getFailures());
+
+         //Frozen copies keep recording, into their own metrics
+         AdapterRegistry frozen = registry.freeze();
+         frozen.getAdapter(String.class, Integer.class).convert("1", Integer.class);
+         assertEquals(1, frozen.getMetrics().snapshot(String.class, Integer.class)
+               .getConversions());
+         assertEquals(3, metrics.getConversions());
+
+         registry.setMetricsEnabled(false);
+         assertSame(plain, registry.getAdapter(String.class, Integer.class));
+         assertEquals(3, metrics.getLookups());
+         metrics.reset();
+         assertEquals(0, metrics.getConversions());
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void mbeanTest() throws JMException {
+      AdapterRegistry registry = AdapterRegistry.builder().addDefaults().build();
+      registry.setMetricsEnabled(true);
+      registry.tryGetAdapter(String.class, Long.class);
+      ObjectName name = registry.getMetrics().registerMBean("mbeanTest");
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      try {
+         assertEquals(Boolean.TRUE, server.getAttribute(name, "Enabled"));
+         assertEquals(1L, server.getAttribute(name, "Lookups"));
+         Object stats = server.getAttribute(name, "Stats");
+         CompositeData data = (CompositeData)((Object[])stats)[0];
+         assertEquals("java.lang.Long", data.get("toType"));
+         server.invoke(name, "reset", null, null);
+         assertEquals(0L, server.getAttribute(name, "Lookups"));
+      } finally {
+         server.unregisterMBean(name);
+      }
+      List<AdapterStats> snapshot = registry.getMetrics().getStats();
+      assertEquals(1, snapshot.size());
+   }
+}
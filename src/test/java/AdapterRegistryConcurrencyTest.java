@@ -0,0 +1,188 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterRegistry;
+import com.javadapters.adapters.Adapter;
+
+/**
+ * Races lookups against adapter replacements, in the style of jcstress: each
+ * case runs many times, the outcomes seen are counted, and every one of them
+ * must be an allowed outcome.
+ */
+public class AdapterRegistryConcurrencyTest {
+
+   /** Type whose adapter is replaced **/
+   public static class Widget {
+      Widget(int version) {
+         this.version = version;
+      }
+
+      final int version;
+   }
+
+   /** Number of times each race is run **/
+   private static final int ITERATIONS = 2000;
+
+   /** Number of threads looking up adapters **/
+   private static final int READERS = 3;
+
+   @Test
+   public void replaceRaceTest() throws Exception {
+      final CyclicBarrier barrier = new CyclicBarrier(2);
+      Map<String, Integer> outcomes = new TreeMap<String, Integer>();
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         for(int i = 0; i < ITERATIONS; ++i) {
+            final AdapterRegistry registry = AdapterRegistry.builder()
+                  .add(String.class, Widget.class, version(1)).build();
+            //Resolve the first version so the replacement has to drop it
+            registry.tryGetAdapter(String.class, Widget.class);
+            Future<?> writer = executor.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws Exception {
+                  barrier.await();
+                  registry.addAdapter(String.class, Widget.class, version(2));
+                  return null;
+               }
+            });
+            Future<Integer> reader = executor.submit(new Callable<Integer>() {
+               @Override
+               public Integer call() throws Exception {
+                  barrier.await();
+                  return convert(registry);
+               }
+            });
+            writer.get(10, TimeUnit.SECONDS);
+            int seen = reader.get(10, TimeUnit.SECONDS);
+            //Once the replacement has returned every lookup must see it
+            int after = convert(registry);
+            outcomes.merge(seen + ", " + after, 1, Integer::sum);
+         }
+      } finally {
+         executor.shutdown();
+      }
+      outcomes.keySet().removeAll(List.of("1, 2", "2, 2"));
+      assertTrue("Forbidden outcomes " + outcomes, outcomes.isEmpty());
+   }
+
+   @Test
+   public void monotonicReplacementTest() throws Exception {
+      final AdapterRegistry registry = AdapterRegistry.builder()
+            .addDefaults().add(String.class, Widget.class, version(0)).build();
+      final int versions = 500;
+      final CyclicBarrier barrier = new CyclicBarrier(READERS + 1);
+      ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+      try {
+         List<Future<String>> readers = new ArrayList<Future<String>>();
+         for(int r = 0; r < READERS; ++r) {
+            readers.add(executor.submit(new Callable<String>() {
+               @Override
+               public String call() throws Exception {
+                  barrier.await();
+                  //Versions seen by one thread never go back
+                  int last = 0;
+                  while(last < versions) {
+                     int seen = convert(registry);
+                     if(seen < last) {
+                        return "saw version " + seen + " after " + last;
+                     }
+                     last = seen;
+                     //Other lookups race with the replacements too
+                     if(registry.tryGetAdapter(String.class, int.class) == null) {
+                        return "lost the adapter to int";
+                     }
+                  }
+                  return null;
+               }
+            }));
+         }
+         barrier.await();
+         for(int v = 1; v <= versions; ++v) {
+            registry.addAdapter(String.class, Widget.class, version(v));
+            Thread.yield();
+         }
+         for(Future<String> reader : readers) {
+            assertEquals(null, reader.get(30, TimeUnit.SECONDS));
+         }
+      } finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void concurrentResolutionTest() throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(READERS);
+      try {
+         for(int i = 0; i < ITERATIONS / 10; ++i) {
+            //A fresh registry, so the threads race to resolve the chain
+            final AdapterRegistry registry = AdapterRegistry.builder()
+                  .addDefaults().add(Long.class, Widget.class,
+                        new Adapter<Long, Widget>() {
+               @Override
+               public Widget convert(Long from, Class<Widget> clazz) {
+                  return new Widget(from.intValue());
+               }
+            }).build();
+            final CyclicBarrier barrier = new CyclicBarrier(READERS);
+            List<Future<Adapter<String, Widget>>> lookups =
+                  new ArrayList<Future<Adapter<String, Widget>>>();
+            for(int r = 0; r < READERS; ++r) {
+               lookups.add(executor.submit(
+                     new Callable<Adapter<String, Widget>>() {
+                  @Override
+                  public Adapter<String, Widget> call() throws Exception {
+                     barrier.await();
+                     return registry.tryGetAdapter(String.class, Widget.class);
+                  }
+               }));
+            }
+            //Every thread gets the one adapter that was resolved
+            Adapter<String, Widget> first = lookups.get(0).get(10, TimeUnit.SECONDS);
+            assertNotNull(first);
+            for(Future<Adapter<String, Widget>> lookup : lookups) {
+               assertSame(first, lookup.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(7, first.convert("7", Widget.class).version);
+         }
+      } finally {
+         executor.shutdown();
+      }
+   }
+
+   /**
+    * @param registry The registry to convert with
+    * @return The version of the adapter found
+    */
+   private static int convert(AdapterRegistry registry) {
+      return registry.tryGetAdapter(String.class, Widget.class)
+            .convert("", Widget.class).version;
+   }
+
+   /**
+    * @param version The version of widget to create
+    * @return An adapter that creates widgets of the given version
+    */
+   private static Adapter<String, Widget> version(final int version) {
+      return new Adapter<String, Widget>() {
+         @Override
+         public Widget convert(String from, Class<Widget> clazz) {
+            return new Widget(version);
+         }
+      };
+   }
+}
@@ -0,0 +1,248 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.annotation.ElementType;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterMetrics;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.AdapterRegistry;
+import com.javadapters.Types;
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.SameTypeAdapter;
+
+
+public class AdapterRegistryTest {
+
+   /** Type only used by these tests so registrations don't leak **/
+   public static class Tenant {
+      Tenant(String name) {
+         this.name = name;
+      }
+
+      final String name;
+   }
+
+   private static final Adapter<String, Tenant> sTenantAdapter =
+         new Adapter<String, Tenant>() {
+      @Override
+      public Tenant convert(String from, Class<Tenant> clazz) {
+         return new Tenant(from);
+      }
+   };
+
+   @Test
+   public void independentRegistriesTest() {
+      AdapterRegistry first = AdapterRegistry.builder()
+            .add(String.class, Tenant.class, sTenantAdapter)
+            .build();
+      AdapterRegistry second = AdapterRegistry.builder().addDefaults().build();
+
+      assertSame(sTenantAdapter, first.tryGetAdapter(String.class, Tenant.class));
+      assertNull(first.tryGetAdapter(String.class, Integer.class));
+      assertNull(second.tryGetAdapter(String.class, Tenant.class));
+      assertNull(AdapterFactory.tryGetAdapter(String.class, Tenant.class));
+      assertSame(AdapterFactory.getDefaultRegistry().tryGetAdapter(
+            String.class, Integer.class),
+            AdapterFactory.tryGetAdapter(String.class, Integer.class));
+
+      second.addAdapter(String.class, Tenant.class, sTenantAdapter);
+      assertSame(sTenantAdapter, second.tryGetAdapter(String.class, Tenant.class));
+      assertNull(AdapterFactory.tryGetAdapter(String.class, Tenant.class));
+   }
+
+   @Test
+   public void frozenRegistryTest() {
+      try {
+         AdapterRegistry registry = AdapterRegistry.builder().addDefaults()
+               .add(String.class, Tenant.class, sTenantAdapter)
+               .build();
+         AdapterRegistry frozen = registry.freeze();
+         assertFalse(registry.isFrozen());
+         assertTrue(frozen.isFrozen());
+         assertSame(frozen, frozen.freeze());
+
+         assertSame(sTenantAdapter, frozen.getAdapter(String.class, Tenant.class));
+         assertSame(registry.getAdapter(String.class, Integer.class),
+               frozen.getAdapter(String.class, int.class));
+         assertEquals(42, frozen.getIntAdapter(String.class)
+               .convertToInt("42"));
+         assertEquals(ElementType.TYPE, frozen.getAdapter(String.class,
+               ElementType.class).convert("TYPE", ElementType.class));
+         assertTrue(frozen.getAdapter(long.class, Long.class)
+               instanceof SameTypeAdapter);
+         assertNull(frozen.tryGetAdapter(Tenant.class, String.class));
+         assertEquals("bob", frozen.binderFor(Holder.class).bind(
+               Collections.singletonMap("tenant", "bob")).tenant.name);
+
+         //Later changes to the original don't show through
+         registry.addAdapter(Tenant.class, String.class,
+               new Adapter<Tenant, String>() {
+            @Override
+            public String convert(Tenant from, Class<String> clazz) {
+               return from.name;
+            }
+         });
+         assertNull(frozen.tryGetAdapter(Tenant.class, String.class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test(expected = UnsupportedOperationException.class)
+   public void frozenRegistryRejectsAddTest() {
+      AdapterRegistry.builder().build().freeze()
+            .addAdapter(String.class, Tenant.class, sTenantAdapter);
+   }
+
+   @Test
+   public void hierarchyTest() {
+      @SuppressWarnings("unchecked")
+      Class<Comparable<?>> comparable =
+            (Class<Comparable<?>>)(Class<?>)Comparable.class;
+      Adapter<Number, String> numberAdapter = new Adapter<Number, String>() {
+         @Override
+         public String convert(Number from, Class<String> clazz) {
+            return "n" + from;
+         }
+      };
+      Adapter<Comparable<?>, String> comparableAdapter =
+            new Adapter<Comparable<?>, String>() {
+         @Override
+         public String convert(Comparable<?> from, Class<String> clazz) {
+            return "c" + from;
+         }
+      };
+      Adapter<CharSequence, Tenant> sequenceAdapter =
+            new Adapter<CharSequence, Tenant>() {
+         @Override
+         public Tenant convert(CharSequence from, Class<Tenant> clazz) {
+            return new Tenant(from.toString());
+         }
+      };
+      Adapter<String, Integer> intAdapter = new Adapter<String, Integer>() {
+         @Override
+         public Integer convert(String from, Class<Integer> clazz) {
+            return Integer.valueOf(from);
+         }
+      };
+      try {
+         AdapterRegistry registry = AdapterRegistry.builder()
+               .add(Number.class, String.class, numberAdapter)
+               .add(comparable, String.class, comparableAdapter)
+               .add(CharSequence.class, Tenant.class, sequenceAdapter)
+               .add(String.class, Integer.class, intAdapter)
+               .build();
+
+         //The superclass is walked before the interfaces
+         assertSame(numberAdapter, registry.getAdapter(Integer.class, String.class));
+         assertSame(numberAdapter, registry.getAdapter(long.class, String.class));
+         assertSame(numberAdapter, registry.getAdapter(AtomicLong.class,
+               String.class));
+         assertEquals("n7", registry.getAdapter(AtomicLong.class, String.class)
+               .convert(new AtomicLong(7), String.class));
+         assertSame(comparableAdapter, registry.getAdapter(ElementType.class,
+               String.class));
+         assertEquals("bob", registry.getAdapter(StringBuilder.class,
+               Tenant.class).convert(new StringBuilder("bob"), Tenant.class).name);
+
+         //Adapters to a subtype of the target, or none if it already is one
+         assertSame(intAdapter, registry.getAdapter(String.class, Number.class));
+         assertTrue(registry.getAdapter(String.class, CharSequence.class)
+               instanceof SameTypeAdapter);
+         assertTrue(registry.getAdapter(Integer.class, Object.class)
+               instanceof SameTypeAdapter);
+
+         //Resolved once, including types with no adapter
+         assertSame(registry.getAdapter(Short.class, String.class),
+               registry.getAdapter(Short.class, String.class));
+         assertNull(registry.tryGetAdapter(Tenant.class, String.class));
+         assertNull(registry.tryGetAdapter(Tenant.class, String.class));
+
+         //An exact registration wins over a supertype
+         Adapter<Integer, String> exact = new Adapter<Integer, String>() {
+            @Override
+            public String convert(Integer from, Class<String> clazz) {
+               return from.toString();
+            }
+         };
+         registry.addAdapter(Integer.class, String.class, exact);
+         assertSame(exact, registry.getAdapter(Integer.class, String.class));
+         assertSame(numberAdapter, registry.getAdapter(Long.class, String.class));
+         assertSame(numberAdapter, registry.freeze().getAdapter(Double.class,
+               String.class));
+
+         //Adapters to different subtypes of the target are ambiguous
+         registry.addAdapter(String.class, Long.class, new Adapter<String, Long>() {
+            @Override
+            public Long convert(String from, Class<Long> clazz) {
+               return Long.valueOf(from);
+            }
+         });
+         assertNull(registry.tryGetAdapter(String.class, Number.class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void discardedRegistryTest() throws InterruptedException {
+      AdapterRegistry registry = AdapterRegistry.builder().addDefaults()
+            .add(String.class, Tenant.class, sTenantAdapter)
+            .build();
+      registry.setMetricsEnabled(true);
+      //Resolve through every cache, then drop it for a new one
+      assertEquals(42, (int)registry.tryGetAdapter(String.class, Integer.class)
+            .convert("42", Integer.class));
+      assertNotNull(registry.tryGetAdapter(String.class,
+            Types.listOf(Integer.class)));
+      assertNotNull(registry.binderFor(Holder.class));
+      registry.addAdapter(String.class, Tenant.class, sTenantAdapter);
+      assertNotNull(registry.tryGetAdapter(String.class, Tenant.class));
+      assertNotNull(registry.binderFor(Holder.class));
+      AdapterRegistry frozen = registry.freeze();
+      assertNotNull(frozen.tryGetAdapter(String.class, Tenant.class));
+      assertNotNull(frozen.binderFor(Holder.class));
+
+      WeakReference<AdapterRegistry> ref =
+            new WeakReference<AdapterRegistry>(registry);
+      WeakReference<AdapterRegistry> frozenRef =
+            new WeakReference<AdapterRegistry>(frozen);
+      WeakReference<AdapterMetrics> metricsRef =
+            new WeakReference<AdapterMetrics>(frozen.getMetrics());
+      assertTrue(frozen.getMetrics().getLookups() > 0);
+      registry = null;
+      frozen = null;
+      assertCollected(ref);
+      assertCollected(frozenRef);
+      assertCollected(metricsRef);
+   }
+
+   /**
+    * Runs the garbage collector until the referent is collected
+    * @param ref The reference to the object that must be collectable
+    */
+   private static void assertCollected(WeakReference<?> ref)
+         throws InterruptedException {
+      for(int i = 0; i < 50 && ref.get() != null; ++i) {
+         System.gc();
+         Thread.sleep(10);
+      }
+      assertNull("Still reachable", ref.get());
+   }
+
+   /** Type bound through a frozen registry **/
+   public static class Holder {
+      public Tenant tenant;
+   }
+}
@@ -0,0 +1,77 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.BatchConverter;
+import com.javadapters.ConversionErrors;
+
+
+public class BatchConverterTest {
+
+   @Test
+   public void smallBatchTest() {
+      try {
+         String[] from = new String[] {"1", "2", "x", "4"};
+         ConversionErrors errors = new ConversionErrors();
+         int[] ints = AdapterFactory.convertAllToInt(String.class, from, null,
+               errors);
+         assertArrayEquals(new int[] {1, 2, 0, 4}, ints);
+         assertArrayEquals(new int[] {2}, errors.getIndexes());
+         assertTrue(errors.getError(2) instanceof NumberFormatException);
+
+         errors.clear();
+         Integer[] boxed = new Integer[4];
+         assertSame(boxed, AdapterFactory.convertAll(String.class, int.class,
+               from, boxed, errors));
+         assertArrayEquals(new Integer[] {1, 2, null, 4}, boxed);
+         assertEquals(1, errors.size());
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+
+      try {
+         AdapterFactory.convertAllToLong(String.class, new String[] {"x"}, null,
+               null);
+         fail("Expected NumberFormatException");
+      } catch (NumberFormatException e) {
+         //expected
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void parallelBatchTest() {
+      try {
+         int size = 100000;
+         String[] from = new String[size];
+         for(int i = 0; i < size; ++i) {
+            from[i] = (i % 1000 == 999) ? "bad" : Integer.toString(i);
+         }
+         BatchConverter batch = new BatchConverter(new ForkJoinPool(4), 1000);
+         ConversionErrors errors = new ConversionErrors();
+         double[] doubles = batch.convertToDouble(
+               AdapterFactory.getDoubleAdapter(String.class), from,
+               new double[size], errors);
+         assertEquals(size / 1000, errors.size());
+         int[] indexes = errors.getIndexes();
+         for(int i = 0; i < indexes.length; ++i) {
+            assertEquals(i * 1000 + 999, indexes[i]);
+         }
+         for(int i = 0; i < size; ++i) {
+            assertTrue(doubles[i] == ((i % 1000 == 999) ? 0 : i));
+         }
+         batch.getPool().shutdown();
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+}
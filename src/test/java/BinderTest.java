@@ -0,0 +1,153 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.annotation.ElementType;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.Binder;
+
+
+public class BinderTest {
+
+   public static class Record {
+      public String name;
+      public Date created;
+      public final int constant = 1;
+
+      public void setCount(int count) {
+         this.count = count;
+      }
+
+      public void setTotal(long total) {
+         this.total = total;
+      }
+
+      public void setPrice(double price) {
+         this.price = price;
+      }
+
+      public void setActive(boolean active) {
+         this.active = active;
+      }
+
+      public void setRatio(Float ratio) {
+         this.ratio = ratio;
+      }
+
+      public void setType(ElementType type) {
+         this.type = type;
+      }
+
+      public void setURL(String url) {
+         this.url = url;
+      }
+
+      public void setUnsupported(Record other) {
+      }
+
+      int count;
+      long total;
+      double price;
+      boolean active;
+      Float ratio;
+      ElementType type;
+      String url;
+   }
+
+   /** Generic setter, which classes implement through a bridge method **/
+   public interface HasId<I> {
+      void setId(I id);
+   }
+
+   public static class Account implements HasId<Long> {
+      @Override
+      public void setId(Long id) {
+         this.id = id;
+      }
+
+      public void setOwner(Object owner) {
+         this.owner = owner;
+      }
+
+      public void setOwner(CharSequence owner) {
+         this.owner = "sequence";
+      }
+
+      public void setOwner(String owner) {
+         this.owner = owner;
+      }
+
+      Long id;
+      Object owner;
+   }
+
+   @Test
+   public void genericSetterTest() {
+      Map<String, String> record = new HashMap<String, String>();
+      record.put("id", "42");
+      record.put("owner", "bob");
+      Account account = AdapterFactory.binderFor(Account.class).bind(record);
+      assertEquals(Long.valueOf(42), account.id);
+      //The setter with the most specific parameter type wins
+      assertEquals("bob", account.owner);
+   }
+
+   @Test
+   public void bindTest() {
+      Binder<Record> binder = AdapterFactory.binderFor(Record.class);
+      assertSame(binder, AdapterFactory.binderFor(Record.class));
+      assertTrue(binder.getPropertyNames().contains("URL"));
+      assertFalse(binder.getPropertyNames().contains("unsupported"));
+      assertFalse(binder.getPropertyNames().contains("constant"));
+
+      Map<String, String> record = new HashMap<String, String>();
+      record.put("name", "widget");
+      record.put("created", "2013-07-17");
+      record.put("count", "5");
+      record.put("total", "10000000000");
+      record.put("price", "1.5");
+      record.put("active", "true");
+      record.put("ratio", "0.25");
+      record.put("type", "FIELD");
+      record.put("URL", "http://example.com");
+      record.put("unknown", "ignored");
+
+      Record r = binder.bind(record);
+      assertEquals("widget", r.name);
+      assertEquals(AdapterFactory.binderFor(Record.class).getType(), Record.class);
+      assertEquals(5, r.count);
+      assertEquals(10000000000L, r.total);
+      assertTrue(r.price == 1.5);
+      assertTrue(r.active);
+      assertEquals(Float.valueOf(0.25f), r.ratio);
+      assertEquals(ElementType.FIELD, r.type);
+      assertEquals("http://example.com", r.url);
+      Calendar cal = Calendar.getInstance();
+      cal.clear();
+      cal.set(2013, Calendar.JULY, 17);
+      assertEquals(cal.getTime(), r.created);
+
+      Record partial = new Record();
+      assertTrue(binder.bind(partial, "count", "7"));
+      assertFalse(binder.bind(partial, "unknown", "7"));
+      assertEquals(7, partial.count);
+      assertNull(partial.name);
+
+      try {
+         binder.bind(partial, "count", "seven");
+         fail("Expected NumberFormatException");
+      } catch (NumberFormatException e) {
+         //expected
+      }
+   }
+}
@@ -0,0 +1,132 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.ByteSlice;
+import com.javadapters.adapters.CachingAdapter;
+import com.javadapters.adapters.CharSlice;
+import com.javadapters.adapters.StringAdapters.StringToDateAdapter;
+
+
+public class CachingAdapterTest {
+
+   @Test
+   public void evictionTest() {
+      CachingAdapter<String, Date> adapter = new CachingAdapter<String, Date>(
+            new StringToDateAdapter(), Date.class, 2, null);
+      Date d1 = adapter.convert("2013-07-17", Date.class);
+      assertSame(d1, adapter.convert("2013-07-17", Date.class));
+      adapter.convert("2013-07-18", Date.class);
+      assertEquals(1, adapter.getHits());
+      assertEquals(2, adapter.getMisses());
+
+      //2013-07-17 was used so 2013-07-18 is evicted instead
+      adapter.convert("2013-07-19", Date.class);
+      assertEquals(2, adapter.size());
+      assertEquals(1, adapter.getEvictions());
+      assertSame(d1, adapter.convert("2013-07-17", Date.class));
+      adapter.convert("2013-07-18", Date.class);
+      assertEquals(4, adapter.getMisses());
+      assertTrue(adapter.getHitRate() > 0.3);
+   }
+
+   @Test
+   public void reusedSliceTest() {
+      CachingAdapter<CharSequence, Integer> adapter =
+            new CachingAdapter<CharSequence, Integer>(
+            new Adapter<CharSequence, Integer>() {
+         @Override
+         public Integer convert(CharSequence from, Class<Integer> clazz) {
+            return Integer.valueOf(from.toString());
+         }
+      }, Integer.class, 4, null);
+      //The same slice pointed at different text is looked up by its text
+      String line = "12,34,12";
+      CharSlice slice = new CharSlice();
+      assertEquals(Integer.valueOf(12), adapter.convert(slice.set(line, 0, 2),
+            Integer.class));
+      assertEquals(Integer.valueOf(34), adapter.convert(slice.set(line, 3, 5),
+            Integer.class));
+      assertEquals(Integer.valueOf(12), adapter.convert(slice.set(line, 6, 8),
+            Integer.class));
+      assertEquals(Integer.valueOf(34), adapter.convert("34", Integer.class));
+      assertEquals(2, adapter.getHits());
+      assertEquals(2, adapter.size());
+   }
+
+   @Test
+   public void byteSliceTest() {
+      CachingAdapter<CharSequence, String> adapter =
+            new CachingAdapter<CharSequence, String>(
+            new Adapter<CharSequence, String>() {
+         @Override
+         public String convert(CharSequence from, Class<String> clazz) {
+            return from.toString();
+         }
+      }, String.class, 4, null);
+      byte[] line = "abc,caf\u00e9".getBytes(StandardCharsets.UTF_8);
+      ByteSlice slice = new ByteSlice();
+      assertEquals("abc", adapter.convert(slice.set(line, 0, 3), String.class));
+      assertEquals("abc", adapter.convert(new CharSlice("xabc", 1, 4),
+            String.class));
+      //Not ASCII, so looked up by the decoded text
+      assertEquals("caf\u00e9", adapter.convert(slice.set(line, 4, line.length - 4),
+            String.class));
+      assertEquals("caf\u00e9", adapter.convert("caf\u00e9", String.class));
+      assertEquals(2, adapter.getHits());
+      assertEquals(2, adapter.size());
+   }
+
+   @Test
+   public void factoryTest() {
+      try {
+         CachingAdapter<String, RetentionPolicy> enumAdapter =
+               AdapterFactory.addCachingAdapter(String.class,
+                     RetentionPolicy.class, 16);
+         assertSame(enumAdapter, AdapterFactory.getAdapter(String.class,
+               RetentionPolicy.class));
+         for(int i = 0; i < 10; ++i) {
+            assertEquals(RetentionPolicy.CLASS, AdapterFactory.getAdapter(
+                  String.class, RetentionPolicy.class).convert("CLASS",
+                        RetentionPolicy.class));
+         }
+         assertEquals(9, enumAdapter.getHits());
+         AdapterFactory.addAdapter(String.class, RetentionPolicy.class,
+               enumAdapter.getAdapter());
+
+         CachingAdapter<String, Date> dateAdapter =
+               AdapterFactory.addCachingAdapter(String.class, Date.class, 16);
+         Adapter<String, Date> adapter =
+               AdapterFactory.getAdapter(String.class, Date.class);
+         Date d1 = adapter.convert("2013-07-17", Date.class);
+         Date d2 = adapter.convert("2013-07-17", Date.class);
+         assertEquals(d1, d2);
+         assertNotSame(d1, d2);
+         assertEquals(1, dateAdapter.getHits());
+         AdapterFactory.addAdapter(String.class, Date.class,
+               dateAdapter.getAdapter());
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+
+      try {
+         AdapterFactory.addCachingAdapter(String.class, StringBuilder.class, 16);
+         fail("Expected an exception");
+      } catch (IllegalArgumentException e) {
+         //expected
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+}
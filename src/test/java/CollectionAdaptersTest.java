@@ -0,0 +1,222 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.AdapterRegistry;
+import com.javadapters.Types;
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.ByteSlice;
+import com.javadapters.adapters.CharSlice;
+import com.javadapters.adapters.CollectionAdapters.ToIntArrayAdapter;
+
+
+public class CollectionAdaptersTest {
+
+   public enum Color {
+      RED, GREEN, BLUE
+   }
+
+   /** Types from reflection, to check they match the ones from Types **/
+   public List<Integer> integerList;
+   public Map<String, ? extends Number> numberMap;
+
+   @Test
+   public void arrayTest() {
+      try {
+         Adapter<String, int[]> ints = AdapterFactory.getAdapter(String.class,
+               int[].class);
+         assertTrue(ints instanceof ToIntArrayAdapter);
+         assertArrayEquals(new int[] {1, -2, 3}, ints.convert(" 1, -2 ,3 ",
+               int[].class));
+         assertArrayEquals(new int[0], ints.convert(" ", int[].class));
+         assertNull(ints.convert(null, int[].class));
+         int[] many = new int[100];
+         StringBuilder text = new StringBuilder();
+         for(int i = 0; i < many.length; ++i) {
+            many[i] = i * 7;
+            text.append(i > 0 ? "," : "").append(i * 7);
+         }
+         assertArrayEquals(many, ints.convert(text.toString(), int[].class));
+         try {
+            ints.convert("1,,3", int[].class);
+            fail("Expected NumberFormatException");
+         } catch (NumberFormatException e) {
+            //expected
+         }
+
+         assertArrayEquals(new long[] {9007199254740993L, 0},
+               AdapterFactory.getAdapter(String.class, long[].class)
+               .convert("9007199254740993,0", long[].class));
+         assertArrayEquals(new double[] {0.5, 1e10},
+               AdapterFactory.getAdapter(String.class, double[].class)
+               .convert("0.5,1e10", double[].class), 0);
+         assertArrayEquals(new boolean[] {true, false},
+               AdapterFactory.getAdapter(String.class, boolean[].class)
+               .convert("true, false", boolean[].class));
+         assertArrayEquals(new float[] {1.5f, 2},
+               AdapterFactory.getAdapter(String.class, float[].class)
+               .convert("1.5,2", float[].class), 0);
+         assertArrayEquals(new String[] {"a b", "", "c"},
+               AdapterFactory.getAdapter(String.class, String[].class)
+               .convert("a b,  ,c", String[].class));
+         assertArrayEquals(new Color[] {Color.BLUE, Color.RED},
+               AdapterFactory.getAdapter(String.class, Color[].class)
+               .convert("BLUE,RED", Color[].class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   public void collectionTest() throws Exception {
+      Type listType = getClass().getField("integerList").getGenericType();
+      assertEquals(listType, Types.listOf(Integer.class));
+      assertEquals(Types.listOf(Integer.class), listType);
+      assertEquals(listType.hashCode(), Types.listOf(Integer.class).hashCode());
+
+      Adapter<String, List<Integer>> list = AdapterFactory.getAdapter(
+            String.class, listType);
+      assertSame(list, AdapterFactory.getAdapter(String.class,
+            Types.listOf(Integer.class)));
+      assertEquals(Arrays.asList(4, 5, 6), list.convert("4,5,6", (Class)List.class));
+      assertEquals(Collections.emptyList(), list.convert("", (Class)List.class));
+
+      Adapter<String, Set<Color>> set = AdapterFactory.getAdapter(String.class,
+            Types.setOf(Color.class));
+      Set<Color> colors = set.convert("GREEN,RED,GREEN", (Class)Set.class);
+      assertTrue(colors instanceof LinkedHashSet);
+      assertEquals(Arrays.asList(Color.GREEN, Color.RED),
+            Arrays.asList(colors.toArray()));
+
+      //Adapters convert to several subtypes of the bound of ? extends Number
+      try {
+         AdapterFactory.getAdapter(String.class,
+               getClass().getField("numberMap").getGenericType());
+         fail("Expected AdapterNotFoundException");
+      } catch (AdapterNotFoundException e) {
+         assertTrue(e.getMessage(), e.getMessage().contains(
+               "java.util.Map<java.lang.String, ? extends java.lang.Number>"));
+      }
+   }
+
+   @Test
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   public void mapTest() {
+      try {
+         Adapter<String, Map<String, Double>> map = AdapterFactory.getAdapter(
+               String.class, Types.mapOf(String.class, Double.class));
+         Map<String, Double> values = map.convert("b = 1.5, a=2=3",
+               (Class)Map.class);
+         fail("Expected NumberFormatException " + values);
+      } catch (NumberFormatException e) {
+         //expected, only the first = separates
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+      try {
+         Adapter<String, Map<Color, Long>> map = AdapterFactory.getAdapter(
+               String.class, Types.mapOf(Color.class, Long.class));
+         Map<Color, Long> values = map.convert("RED=1, BLUE = 22",
+               (Class)Map.class);
+         assertEquals(Arrays.asList(Color.RED, Color.BLUE),
+               Arrays.asList(values.keySet().toArray()));
+         assertEquals(Long.valueOf(22), values.get(Color.BLUE));
+         try {
+            map.convert("RED", (Class)Map.class);
+            fail("Expected IllegalArgumentException");
+         } catch (IllegalArgumentException e) {
+            //expected
+         }
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   public void byteSliceTest() {
+      try {
+         byte[] bytes = "caf\u00e9, na\u00efve".getBytes(StandardCharsets.UTF_8);
+         ByteSlice slice = new ByteSlice(bytes, 0, bytes.length);
+         Adapter<ByteSlice, List<String>> list = AdapterFactory.getAdapter(
+               ByteSlice.class, Types.listOf(String.class));
+         assertEquals(Arrays.asList("caf\u00e9", "na\u00efve"),
+               list.convert(slice, (Class)List.class));
+         byte[] numbers = "x12,34".getBytes(StandardCharsets.US_ASCII);
+         assertArrayEquals(new int[] {12, 34}, AdapterFactory.getAdapter(
+               ByteSlice.class, int[].class).convert(
+               new ByteSlice(numbers, 1, numbers.length - 1), int[].class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   public void sharedViewTest() {
+      try {
+         //The reused field view must not become the elements
+         Adapter<String, List<CharSequence>> sequences = AdapterFactory.getAdapter(
+               String.class, Types.listOf(CharSequence.class));
+         assertEquals(Arrays.asList("a", "b", "c"),
+               sequences.convert("a,b,c", (Class)List.class));
+         Adapter<String, List<Object>> objects = AdapterFactory.getAdapter(
+               String.class, Types.listOf(Object.class));
+         assertEquals(Arrays.asList("x", "y", "z"),
+               objects.convert("x, y, z", (Class)List.class));
+         assertArrayEquals(new Object[] {"x", "y", "z"}, (Object[])AdapterFactory
+               .getAdapter(String.class, CharSequence[].class)
+               .convert("x,y,z", CharSequence[].class));
+         Adapter<String, Map<String, Object>> map = AdapterFactory.getAdapter(
+               String.class, Types.mapOf(String.class, Object.class));
+         Map<String, Object> entries = map.convert("k=v,m=w", (Class)Map.class);
+         assertEquals("v", entries.get("k"));
+         assertEquals("w", entries.get("m"));
+         byte[] bytes = "p,q".getBytes(StandardCharsets.US_ASCII);
+         Adapter<ByteSlice, List<Object>> fromBytes = AdapterFactory.getAdapter(
+               ByteSlice.class, Types.listOf(Object.class));
+         assertEquals(Arrays.asList("p", "q"), fromBytes.convert(
+               new ByteSlice(bytes, 0, bytes.length), (Class)List.class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+      AdapterRegistry registry = AdapterFactory.getDefaultRegistry();
+      assertNull(registry.tryGetAdapter((Type)String.class,
+            (Type)Types.listOf(CharSlice.class)));
+      assertNull(registry.tryGetAdapter((Type)ByteSlice.class,
+            (Type)ByteSlice[].class));
+   }
+
+   @Test
+   public void registryTest() {
+      AdapterRegistry registry = AdapterRegistry.builder().addDefaults().build()
+            .freeze();
+      try {
+         assertArrayEquals(new int[] {1, 2}, registry.getAdapter(String.class,
+               int[].class).convert("1,2", int[].class));
+         assertNull(registry.tryGetAdapter(Integer.class,
+               (Type)Types.listOf(Integer.class)));
+         assertSame(registry.getAdapter(String.class, Integer.class),
+               registry.getAdapter((Type)String.class, (Type)Integer.class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+}
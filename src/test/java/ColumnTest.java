@@ -0,0 +1,202 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.ConversionErrors;
+import com.javadapters.adapters.CharSlice;
+import com.javadapters.columns.BooleanColumn;
+import com.javadapters.columns.Column;
+import com.javadapters.columns.ColumnArena;
+import com.javadapters.columns.ColumnWriter;
+import com.javadapters.columns.DoubleColumn;
+import com.javadapters.columns.IntColumn;
+import com.javadapters.columns.LongColumn;
+
+
+public class ColumnTest {
+
+   public enum Color {
+      RED, GREEN, BLUE
+   }
+
+   @Test
+   public void growTest() {
+      try(IntColumn column = new IntColumn(64)) {
+         assertEquals(0, column.capacity());
+         for(int i = 0; i < 1000; ++i) {
+            if(i % 7 == 0) {
+               column.appendNull();
+            } else {
+               column.append(-i);
+            }
+         }
+         assertEquals(1000, column.size());
+         assertEquals(1024, column.capacity());
+         assertEquals(143, column.getNullCount());
+         for(int i = 0; i < 1000; ++i) {
+            assertEquals(i % 7 == 0, column.isNull(i));
+            assertEquals((i % 7 == 0) ? 0 : -i, column.get(i));
+         }
+
+         column.clear();
+         column.append(5);
+         assertEquals(1, column.size());
+         assertEquals(1024, column.capacity());
+         assertFalse(column.isNull(0));
+         try {
+            column.get(1);
+            fail("Expected IndexOutOfBoundsException");
+         } catch (IndexOutOfBoundsException e) {
+            //expected
+         }
+      }
+
+      try {
+         new LongColumn(1 << 28);
+         fail("Expected IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+         //expected
+      }
+   }
+
+   @Test
+   public void writerTest() {
+      try(ColumnArena arena = new ColumnArena(64)) {
+         String[] ints = new String[] {"1", "0", "x", null, "-0", "2147483647"};
+         ColumnWriter<String> writer = arena.newWriter(String.class, int.class);
+         for(String value : ints) {
+            writer.write(value);
+         }
+         IntColumn intColumn = (IntColumn)writer.getColumn();
+         assertEquals(6, intColumn.size());
+         assertEquals(2, intColumn.getNullCount());
+         assertTrue(intColumn.isNull(2));
+         assertTrue(intColumn.isNull(3));
+         assertEquals(0, intColumn.get(1));
+         assertFalse(intColumn.isNull(4));
+         assertEquals(Integer.MAX_VALUE, intColumn.get(5));
+
+         //Matches the results on the heap
+         String[] doubles = new String[] {"1.5", "-0", "1e400", "NaN", "", "0x1p3"};
+         ConversionErrors errors = new ConversionErrors();
+         double[] expected = AdapterFactory.convertAllToDouble(String.class,
+               doubles, null, errors);
+         ColumnWriter<String> doubleWriter = arena.newWriter(String.class,
+               Double.class);
+         ConversionErrors columnErrors = new ConversionErrors();
+         doubleWriter.writeAll(doubles, 0, doubles.length, columnErrors);
+         assertArrayEquals(errors.getIndexes(), columnErrors.getIndexes());
+         DoubleColumn doubleColumn = (DoubleColumn)doubleWriter.getColumn();
+         for(int i = 0; i < doubles.length; ++i) {
+            assertEquals(errors.getError(i) != null, doubleColumn.isNull(i));
+            assertEquals(expected[i], doubleColumn.get(i), 0);
+            doubleWriter.write(doubles[i]);
+            assertEquals(doubleColumn.isNull(i), doubleColumn.isNull(i + 6));
+            assertEquals(Double.doubleToLongBits(doubleColumn.get(i)),
+                  Double.doubleToLongBits(doubleColumn.get(i + 6)));
+         }
+
+         ColumnWriter<String> boolWriter = arena.newWriter(String.class,
+               boolean.class);
+         boolWriter.writeAll(new String[] {"true", "false", "maybe"}, 0, 3,
+               null);
+         BooleanColumn boolColumn = (BooleanColumn)boolWriter.getColumn();
+         assertTrue(boolColumn.get(0));
+         assertFalse(boolColumn.get(1));
+         //Like Boolean.parseBoolean anything else is false
+         assertFalse(boolColumn.get(2));
+         assertEquals(0, boolColumn.getNullCount());
+
+         ColumnWriter<String> dateWriter = arena.newWriter(String.class,
+               Date.class);
+         assertTrue(dateWriter.write("2016-01-02 03:04:05"));
+         assertFalse(dateWriter.write("not a date"));
+         LongColumn dateColumn = (LongColumn)dateWriter.getColumn();
+         assertEquals(AdapterFactory.getAdapter(String.class, Date.class)
+               .convert("2016-01-02 03:04:05", Date.class).getTime(),
+               dateColumn.get(0));
+         assertTrue(dateColumn.isNull(1));
+
+         ColumnWriter<CharSlice> enumWriter = arena.newWriter(CharSlice.class,
+               Color.class);
+         CharSlice slice = new CharSlice();
+         String text = "RED,BLUE,PINK";
+         enumWriter.write(slice.set(text, 0, 3));
+         enumWriter.write(slice.set(text, 4, 8));
+         enumWriter.write(slice.set(text, 9, 13));
+         IntColumn enumColumn = (IntColumn)enumWriter.getColumn();
+         assertEquals(Color.RED.ordinal(), enumColumn.get(0));
+         assertEquals(Color.BLUE.ordinal(), enumColumn.get(1));
+         assertTrue(enumColumn.isNull(2));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void writeAllErrorsTest() {
+      try(LongColumn column = new LongColumn()) {
+         ColumnWriter<String> writer = ColumnWriter.ofLong(
+               AdapterFactory.getLongAdapter(String.class), column);
+         try {
+            writer.writeAll(new String[] {"1", "x", "3"}, 0, 3, null);
+            fail("Expected NumberFormatException");
+         } catch (NumberFormatException e) {
+            //expected
+         }
+         assertEquals(1, column.size());
+         ConversionErrors errors = new ConversionErrors();
+         writer.writeAll(new String[] {"1", "x", "3"}, 1, 3, errors);
+         assertEquals(3, column.size());
+         assertTrue(column.isNull(1));
+         assertEquals(3, column.get(2));
+         assertArrayEquals(new int[] {1}, errors.getIndexes());
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void closeTest() {
+      Column column;
+      try(ColumnArena arena = new ColumnArena()) {
+         column = arena.newLongColumn();
+         ((LongColumn)column).append(1);
+         assertEquals(Column.DEFAULT_CHUNK_SIZE * 8 + Column.DEFAULT_CHUNK_SIZE / 8,
+               arena.getMemorySize());
+      }
+      assertTrue(column.isClosed());
+      assertEquals(0, column.size());
+      assertEquals(0, column.getMemorySize());
+      try {
+         ((LongColumn)column).get(0);
+         fail("Expected IllegalStateException");
+      } catch (IllegalStateException e) {
+         //expected
+      }
+      try {
+         column.appendNull();
+         fail("Expected IllegalStateException");
+      } catch (IllegalStateException e) {
+         //expected
+      }
+      column.close();
+
+      try {
+         ColumnArena arena = new ColumnArena();
+         arena.close();
+         arena.newIntColumn();
+         fail("Expected IllegalStateException");
+      } catch (IllegalStateException e) {
+         //expected
+      }
+   }
+}
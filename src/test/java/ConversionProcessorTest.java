@@ -0,0 +1,283 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.javadapters.adapters.Adapter;
+import com.javadapters.flow.ConversionFailure;
+import com.javadapters.flow.ConversionProcessor;
+
+
+public class ConversionProcessorTest {
+
+   @Test
+   public void failureHandlerTest() throws Exception {
+      List<ConversionFailure<String>> failures =
+            new ArrayList<ConversionFailure<String>>();
+      ConversionProcessor<String, Integer> processor = ConversionProcessor
+            .builder(String.class, int.class).onFailure(failures::add).build();
+      ListPublisher<String> publisher = new ListPublisher<String>(
+            Arrays.asList("1", "x", "3", "", "5"));
+      Results<Integer> results = new Results<Integer>(Long.MAX_VALUE);
+      publisher.subscribe(processor);
+      processor.subscribe(results);
+
+      assertTrue(results.done.await(10, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList(1, 3, 5), results.items);
+      assertNull(results.error);
+      assertEquals(2, failures.size());
+      assertEquals("x", failures.get(0).getValue());
+      assertEquals(1, failures.get(0).getIndex());
+      assertTrue(failures.get(0).getError() instanceof NumberFormatException);
+      assertEquals(3, failures.get(1).getIndex());
+   }
+
+   @Test
+   public void backpressureTest() throws Exception {
+      ConversionProcessor<String, Long> processor = ConversionProcessor
+            .builder(String.class, Long.class).batchSize(8).build();
+      List<String> values = new ArrayList<String>();
+      for(int i = 0; i < 100; ++i) {
+         values.add(Integer.toString(i));
+      }
+      ListPublisher<String> publisher = new ListPublisher<String>(values);
+      Results<Long> results = new Results<Long>(3);
+      publisher.subscribe(processor);
+      processor.subscribe(results);
+
+      assertEquals(Arrays.asList(0L, 1L, 2L), results.items);
+      //At most two batches are held
+      assertTrue(publisher.emitted <= 16);
+      results.subscription.request(50);
+      assertEquals(53, results.items.size());
+      assertTrue(publisher.emitted <= 53 + 16);
+      assertEquals(1, results.done.getCount());
+      results.subscription.request(Long.MAX_VALUE);
+      assertTrue(results.done.await(10, TimeUnit.SECONDS));
+      assertEquals(100, results.items.size());
+      assertEquals(Long.valueOf(99), results.items.get(99));
+   }
+
+   @Test
+   public void parallelOrderTest() throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+         Adapter<String, Integer> slow = new Adapter<String, Integer>() {
+            @Override
+            public Integer convert(String from, Class<Integer> clazz) {
+               if(ThreadLocalRandom.current().nextInt(100) == 0) {
+                  Thread.yield();
+               }
+               return Integer.valueOf(from);
+            }
+         };
+         ConversionProcessor<String, Integer> processor = ConversionProcessor
+               .builder(slow, Integer.class).batchSize(16)
+               .executor(executor, 4).build();
+         Results<Integer> results = new Results<Integer>(Long.MAX_VALUE);
+         processor.subscribe(results);
+         int size = 20000;
+         try(SubmissionPublisher<String> publisher = new SubmissionPublisher<String>()) {
+            publisher.subscribe(processor);
+            for(int i = 0; i < size; ++i) {
+               publisher.submit(Integer.toString(i));
+            }
+         }
+
+         assertTrue(results.done.await(30, TimeUnit.SECONDS));
+         assertNull(results.error);
+         assertEquals(size, results.items.size());
+         for(int i = 0; i < size; ++i) {
+            assertEquals(i, results.items.get(i).intValue());
+         }
+      } finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void batchingTest() throws Exception {
+      final AtomicInteger tasks = new AtomicInteger();
+      ConversionProcessor<String, Integer> processor = ConversionProcessor
+            .builder(String.class, Integer.class).batchSize(256)
+            .executor(r -> {
+               tasks.incrementAndGet();
+               r.run();
+            }, 4).build();
+      int size = 10000;
+      List<String> values = new ArrayList<String>();
+      for(int i = 0; i < size; ++i) {
+         values.add(Integer.toString(i));
+      }
+      ListPublisher<String> publisher = new ListPublisher<String>(values);
+      Results<Integer> results = new Results<Integer>(Long.MAX_VALUE);
+      publisher.subscribe(processor);
+      processor.subscribe(results);
+
+      assertTrue(results.done.await(10, TimeUnit.SECONDS));
+      assertEquals(size, results.items.size());
+      assertEquals(size - 1, results.items.get(size - 1).intValue());
+      //Full batches, apart from the last
+      assertEquals((size + 255) / 256, tasks.get());
+   }
+
+   @Test
+   public void idlePublisherTest() throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try(SubmissionPublisher<String> publisher = new SubmissionPublisher<String>()) {
+         ConversionProcessor<String, Integer> processor = ConversionProcessor
+               .builder(String.class, Integer.class).executor(executor, 2)
+               .build();
+         Results<Integer> results = new Results<Integer>(Long.MAX_VALUE);
+         publisher.subscribe(processor);
+         processor.subscribe(results);
+         for(int i = 0; i < 10; ++i) {
+            publisher.submit(Integer.toString(i));
+         }
+
+         //The publisher stays open, the values must not wait for more
+         for(int i = 0; i < 1000 && results.items.size() < 10; ++i) {
+            Thread.sleep(10);
+         }
+         assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), results.items);
+         assertEquals(1, results.done.getCount());
+      } finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void failureTest() throws Exception {
+      ConversionProcessor<String, Integer> processor = ConversionProcessor
+            .builder(String.class, Integer.class).build();
+      ListPublisher<String> publisher = new ListPublisher<String>(
+            Arrays.asList("1", "2", "x", "4"));
+      Results<Integer> results = new Results<Integer>(Long.MAX_VALUE);
+      publisher.subscribe(processor);
+      processor.subscribe(results);
+
+      assertTrue(results.done.await(10, TimeUnit.SECONDS));
+      assertEquals(Arrays.asList(1, 2), results.items);
+      assertTrue(results.error instanceof NumberFormatException);
+      assertTrue(publisher.cancelled);
+
+      Results<Integer> second = new Results<Integer>(1);
+      processor.subscribe(second);
+      assertTrue(second.error instanceof IllegalStateException);
+   }
+
+   @Test
+   public void cancelTest() throws Exception {
+      ConversionProcessor<String, Integer> processor = ConversionProcessor
+            .builder(String.class, Integer.class).build();
+      ListPublisher<String> publisher = new ListPublisher<String>(
+            Collections.nCopies(1000, "7"));
+      Results<Integer> results = new Results<Integer>(5);
+      publisher.subscribe(processor);
+      processor.subscribe(results);
+      results.subscription.cancel();
+      assertTrue(publisher.cancelled);
+      results.subscription.request(10);
+      assertEquals(5, results.items.size());
+      assertEquals(1, results.done.getCount());
+   }
+
+   /**
+    * Publishes a list on the requesting thread
+    */
+   private static class ListPublisher<E> implements Flow.Publisher<E> {
+
+      ListPublisher(List<E> values) {
+         this.values = values;
+      }
+
+      @Override
+      public void subscribe(final Flow.Subscriber<? super E> subscriber) {
+         subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+               demand += n;
+               if(emitting) {
+                  return;
+               }
+               emitting = true;
+               while(demand > 0 && !cancelled && emitted < values.size()) {
+                  --demand;
+                  subscriber.onNext(values.get(emitted++));
+               }
+               if(emitted == values.size() && !cancelled && !completed) {
+                  completed = true;
+                  subscriber.onComplete();
+               }
+               emitting = false;
+            }
+
+            @Override
+            public void cancel() {
+               cancelled = true;
+            }
+         });
+      }
+
+      final List<E> values;
+      long demand;
+      int emitted;
+      boolean emitting;
+      boolean completed;
+      volatile boolean cancelled;
+   }
+
+   /**
+    * Collects the results, requesting a number of them to start with
+    */
+   private static class Results<E> implements Flow.Subscriber<E> {
+
+      Results(long initialRequest) {
+         this.initialRequest = initialRequest;
+      }
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+         this.subscription = subscription;
+         subscription.request(initialRequest);
+      }
+
+      @Override
+      public void onNext(E item) {
+         items.add(item);
+      }
+
+      @Override
+      public void onError(Throwable throwable) {
+         error = throwable;
+         done.countDown();
+      }
+
+      @Override
+      public void onComplete() {
+         assertFalse(done.getCount() == 0);
+         done.countDown();
+      }
+
+      final long initialRequest;
+      final List<E> items = Collections.synchronizedList(new ArrayList<E>());
+      final CountDownLatch done = new CountDownLatch(1);
+      Flow.Subscription subscription;
+      volatile Throwable error;
+   }
+}
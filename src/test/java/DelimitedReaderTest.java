@@ -0,0 +1,104 @@
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.io.DelimitedReader;
+
+
+public class DelimitedReaderTest {
+
+   @Rule
+   public TemporaryFolder folder = new TemporaryFolder();
+
+   public static class Item {
+      public String name;
+      public int count;
+      public ElementType type;
+   }
+
+   private Path write(String contents) throws IOException {
+      Path path = folder.newFile().toPath();
+      Files.write(path, contents.getBytes(StandardCharsets.UTF_8));
+      return path;
+   }
+
+   @Test
+   public void nextTest() throws IOException {
+      Path path = write("a,b,c\r\n1,\"x,\"\"y\"\"\",3\n\n4,,\"multi\nline\"\n5");
+      //A tiny window so records straddle the window boundaries
+      try(DelimitedReader reader = new DelimitedReader(path, ',', '"', true, 4)) {
+         assertArrayEquals(new String[] {"a", "b", "c"}, reader.getColumns());
+
+         assertTrue(reader.next());
+         assertEquals(1, reader.getRecordNumber());
+         assertEquals(3, reader.getFieldCount());
+         assertEquals("1", reader.getField(0).toString());
+         assertEquals("x,\"y\"", reader.getField(1).toString());
+         assertEquals("3", reader.getField(2).toString());
+
+         assertTrue(reader.next());
+         assertEquals(2, reader.getRecordNumber());
+         assertEquals("4", reader.getField(0).toString());
+         assertEquals("", reader.getField(1).toString());
+         assertEquals("multi\nline", reader.getField(2).toString());
+
+         assertTrue(reader.next());
+         assertEquals(1, reader.getFieldCount());
+         assertEquals("5", reader.getField(0).toString());
+
+         assertFalse(reader.next());
+      }
+   }
+
+   @Test
+   public void typedStreamTest() throws IOException, AdapterNotFoundException {
+      Path path = write("id\tprice\tactive\n1\t1.5\ttrue\n2\t2.25\tfalse\n");
+      try(DelimitedReader reader = new DelimitedReader(path, '\t',
+            DelimitedReader.NO_QUOTE, true, 8);
+            Stream<Object[]> rows = reader.streamRows(long.class, Double.class,
+                  Boolean.class)) {
+         List<Object[]> list = rows.collect(Collectors.toList());
+         assertEquals(2, list.size());
+         assertArrayEquals(new Object[] {1L, 1.5, true}, list.get(0));
+         assertArrayEquals(new Object[] {2L, 2.25, false}, list.get(1));
+      }
+      //A single column is a typed row, not a bound object
+      try(DelimitedReader reader = new DelimitedReader(path, '\t',
+            DelimitedReader.NO_QUOTE, true, 8);
+            Stream<Object[]> rows = reader.streamRows(Integer.class)) {
+         assertArrayEquals(new Object[] {1}, rows.findFirst().get());
+      }
+   }
+
+   @Test
+   public void boundStreamTest() throws IOException {
+      Path path = write("name,count,ignored,type\n" +
+            "\u00e9t\u00e9,5,x,FIELD\nwinter,7,y,METHOD\n");
+      try(DelimitedReader reader = new DelimitedReader(path);
+            Stream<Item> items = reader.bind(Item.class)) {
+         List<Item> list = items.collect(Collectors.toList());
+         assertEquals(2, list.size());
+         assertEquals("\u00e9t\u00e9", list.get(0).name);
+         assertEquals(5, list.get(0).count);
+         assertEquals(ElementType.FIELD, list.get(0).type);
+         assertEquals("winter", list.get(1).name);
+         assertEquals(7, list.get(1).count);
+         assertEquals(ElementType.METHOD, list.get(1).type);
+      }
+   }
+}
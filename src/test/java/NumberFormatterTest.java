@@ -0,0 +1,154 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.javadapters.adapters.NumberFormatter;
+
+
+/**
+ * Checks that formatted numbers parse back to the same value, with no more
+ * digits than needed and in the same layout as the JDK
+ */
+public class NumberFormatterTest {
+
+   @Test
+   public void layoutTest() {
+      assertEquals("0.0", NumberFormatter.toString(0.0));
+      assertEquals("-0.0", NumberFormatter.toString(-0.0));
+      assertEquals("NaN", NumberFormatter.toString(Double.NaN));
+      assertEquals("-Infinity", NumberFormatter.toString(Double.NEGATIVE_INFINITY));
+      assertEquals("1.0", NumberFormatter.toString(1.0));
+      assertEquals("100.0", NumberFormatter.toString(100.0));
+      assertEquals("-12.375", NumberFormatter.toString(-12.375));
+      assertEquals("1234567.0", NumberFormatter.toString(1234567.0));
+      assertEquals("1.2345678E7", NumberFormatter.toString(12345678.0));
+      assertEquals("1.0E7", NumberFormatter.toString(1e7));
+      assertEquals("0.001", NumberFormatter.toString(0.001));
+      assertEquals("1.0E-4", NumberFormatter.toString(0.0001));
+      assertEquals("0.1", NumberFormatter.toString(0.1));
+      assertEquals("0.30000000000000004", NumberFormatter.toString(0.1 + 0.2));
+      assertEquals("1.0E23", NumberFormatter.toString(1e23));
+      assertEquals("4.9E-324", NumberFormatter.toString(Double.MIN_VALUE));
+      assertEquals("1.7976931348623157E308", NumberFormatter.toString(Double.MAX_VALUE));
+      assertEquals("2.2250738585072014E-308", NumberFormatter.toString(Double.MIN_NORMAL));
+      assertEquals("1.4E-45", NumberFormatter.toString(Float.MIN_VALUE));
+      assertEquals("3.4028235E38", NumberFormatter.toString(Float.MAX_VALUE));
+      assertEquals("0.3", NumberFormatter.toString(0.3f));
+      assertEquals("1.0E10", NumberFormatter.toString(1e10f));
+
+      char[] chars = new char[30];
+      int end = NumberFormatter.formatLong(Long.MIN_VALUE, chars, 1);
+      assertEquals("-9223372036854775808", new String(chars, 1, end - 1));
+      end = NumberFormatter.formatInt(-2147483648, chars, 0);
+      assertEquals("-2147483648", new String(chars, 0, end));
+      end = NumberFormatter.formatInt(0, chars, 0);
+      assertEquals("0", new String(chars, 0, end));
+      //Fits exactly even though there is less room than the longest double
+      end = NumberFormatter.formatDouble(0.5, chars, 27);
+      assertEquals("0.5", new String(chars, 27, end - 27));
+   }
+
+   @Test
+   public void integersTest() {
+      Random random = new Random(17);
+      char[] chars = new char[NumberFormatter.MAX_LONG_LENGTH];
+      for(int i = 0; i < 50000; ++i) {
+         long value = random.nextLong() >> random.nextInt(64);
+         int end = NumberFormatter.formatLong(value, chars, 0);
+         assertEquals(Long.toString(value), new String(chars, 0, end));
+         end = NumberFormatter.formatInt((int)value, chars, 0);
+         assertEquals(Integer.toString((int)value), new String(chars, 0, end));
+      }
+   }
+
+   @Test
+   public void randomDoublesTest() {
+      Random random = new Random(20131017);
+      for(int i = 0; i < 50000; ++i) {
+         double d = Double.longBitsToDouble(random.nextLong());
+         if(Double.isNaN(d) || Double.isInfinite(d)) {
+            continue;
+         }
+         assertShortestDouble(d);
+         assertShortestDouble((double)random.nextInt() / (1 + random.nextInt(1000)));
+         float f = Float.intBitsToFloat(random.nextInt());
+         if(!Float.isNaN(f) && !Float.isInfinite(f)) {
+            assertShortestFloat(f);
+         }
+      }
+   }
+
+   @Test
+   public void powersTest() {
+      //Powers of two have a closer neighbor below than above
+      for(int e = -1074; e <= 1023; ++e) {
+         double d = Math.scalb(1.0, e);
+         assertShortestDouble(d);
+         assertShortestDouble(Math.nextUp(d));
+         assertShortestDouble(Math.nextDown(d));
+      }
+      for(int e = -149; e <= 127; ++e) {
+         assertShortestFloat(Math.scalb(1.0f, e));
+      }
+      for(int e = -323; e <= 308; ++e) {
+         assertShortestDouble(Double.parseDouble("1e" + e));
+      }
+   }
+
+   private static void assertShortestDouble(double d) {
+      String text = NumberFormatter.toString(d);
+      assertEquals(text, Double.doubleToRawLongBits(d),
+            Double.doubleToRawLongBits(Double.parseDouble(text)));
+      if(Math.abs(d) >= 3 * Double.MIN_VALUE) {
+         //The two smallest subnormals keep two digits like the JDK
+         assertLayout(Double.toString(d), text);
+         BigDecimal exact = new BigDecimal(d);
+         int shortest = 1;
+         while(Double.parseDouble(exact.round(new MathContext(shortest,
+               RoundingMode.HALF_EVEN)).toString()) != d) {
+            ++shortest;
+         }
+         //Two digits are allowed when they are closer than one
+         assertTrue(text, digits(text) <= Math.max(2, shortest));
+      }
+   }
+
+   private static void assertShortestFloat(float f) {
+      String text = NumberFormatter.toString(f);
+      assertEquals(text, Float.floatToRawIntBits(f),
+            Float.floatToRawIntBits(Float.parseFloat(text)));
+      if(Math.abs(f) >= 8 * Float.MIN_VALUE) {
+         assertLayout(Float.toString(f), text);
+         BigDecimal exact = new BigDecimal(f);
+         int shortest = 1;
+         while(Float.parseFloat(exact.round(new MathContext(shortest,
+               RoundingMode.HALF_EVEN)).toString()) != f) {
+            ++shortest;
+         }
+         assertTrue(text, digits(text) <= Math.max(2, shortest));
+      }
+   }
+
+   /**
+    * Checks the text is laid out the same as the JDK with no more digits
+    */
+   private static void assertLayout(String jdk, String text) {
+      assertEquals(text, jdk.indexOf('E') < 0, text.indexOf('E') < 0);
+      assertTrue(text, digits(text) <= Math.max(2, digits(jdk)));
+   }
+
+   /**
+    * @return The number of significant digits in the text
+    */
+   private static int digits(String text) {
+      int e = text.indexOf('E');
+      String mantissa = (e < 0) ? text : text.substring(0, e);
+      return new BigDecimal(mantissa).stripTrailingZeros().precision();
+   }
+}
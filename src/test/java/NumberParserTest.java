@@ -0,0 +1,202 @@
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.javadapters.adapters.ByteSlice;
+import com.javadapters.adapters.NumberParser;
+
+
+/**
+ * Checks that floating point parsing gives bit for bit the same results as
+ * the JDK, over hard cases and randomly generated input
+ */
+public class NumberParserTest {
+
+   private static final String[] HARD_CASES = {
+      "0", "-0", "0.0", "-0.0", "0e999", "1", "-1", "0.1", "0.3",
+      "9007199254740993", "9007199254740992", "9007199254740991",
+      "18014398509481985", "1.7976931348623157e308", "1.7976931348623158e308",
+      "1.7976931348623159e308", "1.8e308", "2.2250738585072011e-308",
+      "2.2250738585072012e-308", "2.2250738585072014e-308", "4.9e-324",
+      "2.4703282292062327e-324", "2.4703282292062328e-324", "1e-400",
+      "1e400", "123456789012345678901234567890", "0.000000000000000000001",
+      "9999999999999999999", "10000000000000000000", "18446744073709551615",
+      "18446744073709551616", "3.4028235e38", "3.4028236e38", "1.4e-45",
+      "7.0e-46", "1.17549435E-38", "16777217", "16777216.5", "33554435",
+      "7.038531e-26", "1.00000005960464477539062499",
+      "1.000000059604644775390625", "1.00000005960464477539062501",
+      "8.98846567431158e307", "1.0000000000000002220446049250313080847263336181640625",
+      "1.00000000000000011102230246251565404236316680908203125",
+      "1.00000000000000011102230246251565404236316680908203124",
+      "1.00000000000000011102230246251565404236316680908203126",
+      "2.2250738585072012e-308", "0.1e-10", ".5", "5.", "-.5e+2",
+   };
+
+   @Test
+   public void hardCasesTest() {
+      for(String text : HARD_CASES) {
+         assertSameDouble(text);
+         assertSameFloat(text);
+      }
+   }
+
+   @Test
+   public void randomValuesTest() {
+      Random random = new Random(20131016);
+      for(int i = 0; i < 50000; ++i) {
+         double d = Double.longBitsToDouble(random.nextLong());
+         if(Double.isNaN(d) || Double.isInfinite(d)) {
+            continue;
+         }
+         assertSameDouble(Double.toString(d));
+         assertSameDouble(new BigDecimal(d).round(new MathContext(
+               1 + random.nextInt(25))).toString());
+         float f = Float.intBitsToFloat(random.nextInt());
+         if(!Float.isNaN(f) && !Float.isInfinite(f)) {
+            assertSameFloat(Float.toString(f));
+            assertSameFloat(String.format(Locale.ROOT, "%." +
+                  random.nextInt(12) + "e", f));
+         }
+      }
+   }
+
+   @Test
+   public void randomDigitsTest() {
+      Random random = new Random(1234567);
+      StringBuilder sb = new StringBuilder();
+      for(int i = 0; i < 50000; ++i) {
+         sb.setLength(0);
+         if(random.nextBoolean()) {
+            sb.append('-');
+         }
+         int digits = 1 + random.nextInt(random.nextBoolean() ? 8 : 30);
+         int point = random.nextInt(digits + 1);
+         for(int j = 0; j < digits; ++j) {
+            if(j == point) {
+               sb.append('.');
+            }
+            sb.append((char)('0' + random.nextInt(10)));
+         }
+         if(random.nextInt(3) == 0) {
+            sb.append('e').append(random.nextInt(700) - 350);
+         }
+         String text = sb.toString();
+         assertSameDouble(text);
+         assertSameFloat(text);
+      }
+   }
+
+   @Test
+   public void halfwayTest() {
+      //Values exactly and nearly halfway between two doubles and floats
+      Random random = new Random(42);
+      for(int i = 0; i < 10000; ++i) {
+         double d = Double.longBitsToDouble(random.nextLong() & Long.MAX_VALUE);
+         if(Double.isNaN(d) || Double.isInfinite(d)) {
+            continue;
+         }
+         BigDecimal low = new BigDecimal(d);
+         BigDecimal high = new BigDecimal(Math.nextUp(d));
+         BigDecimal half = low.add(high).divide(BigDecimal.valueOf(2));
+         assertSameDouble(half.toString());
+         assertSameDouble(half.round(new MathContext(17)).toString());
+         float f = Float.intBitsToFloat(random.nextInt() & Integer.MAX_VALUE);
+         if(!Float.isNaN(f) && !Float.isInfinite(f)) {
+            BigDecimal fHalf = new BigDecimal(f).add(new BigDecimal(
+                  Math.nextUp(f))).divide(BigDecimal.valueOf(2));
+            assertSameFloat(fHalf.toString());
+            assertSameFloat(fHalf.toPlainString());
+         }
+      }
+   }
+
+   @Test
+   public void byteSliceTest() {
+      byte[] bytes = "x,-12.375e-3,3.4028235e38,y".getBytes(StandardCharsets.US_ASCII);
+      ByteSlice slice = new ByteSlice().set(bytes, 2, 10);
+      assertEquals(Double.doubleToRawLongBits(-12.375e-3),
+            Double.doubleToRawLongBits(NumberParser.parseDouble(slice)));
+      slice.set(bytes, 13, 12);
+      assertEquals(Float.floatToRawIntBits(3.4028235e38f),
+            Float.floatToRawIntBits(NumberParser.parseFloat(slice)));
+   }
+
+   @Test
+   public void fixedWidthIntegerTest() {
+      Random random = new Random(8);
+      ByteBuffer direct = ByteBuffer.allocateDirect(32);
+      String[] bad = {":", "/", " ", "a", "\u0660", "\u00b9", "-", "."};
+      for(int i = 0; i < 50000; ++i) {
+         int width = 8 + random.nextInt(12);
+         String digits = String.format(Locale.ROOT, "%0" + width + "d",
+               (random.nextLong() & Long.MAX_VALUE) % pow10(Math.min(width, 18)));
+         if(random.nextInt(4) == 0) {
+            int at = random.nextInt(width);
+            digits = digits.substring(0, at) + bad[random.nextInt(bad.length)] +
+                  digits.substring(at + 1);
+         }
+         String text = random.nextBoolean() ? "-" + digits : digits;
+         assertSameLong(text, text);
+         if(text.chars().allMatch(c -> c < 0x80)) {
+            byte[] bytes = ("  " + text).getBytes(StandardCharsets.US_ASCII);
+            direct.clear();
+            direct.put(bytes);
+            assertSameLong(text, new ByteSlice().set(bytes, 2, text.length()));
+            assertSameLong(text, new ByteSlice().set(direct, 2, text.length()));
+         }
+      }
+      assertEquals(12345678, NumberParser.parseInt("12345678"));
+      assertEquals(-2147483648, NumberParser.parseInt("-2147483648"));
+      assertEquals(7, NumberParser.parseInt("+00000007"));
+   }
+
+   private static long pow10(int exponent) {
+      long value = 1;
+      for(int i = 0; i < exponent; ++i) {
+         value *= 10;
+      }
+      return value;
+   }
+
+   private static void assertSameLong(String text, CharSequence s) {
+      Object expected;
+      try {
+         expected = Long.parseLong(text);
+      } catch (NumberFormatException e) {
+         expected = e.getMessage();
+      }
+      Object actual;
+      try {
+         actual = NumberParser.parseLong(s);
+      } catch (NumberFormatException e) {
+         actual = e.getMessage();
+      }
+      assertEquals(text, expected, actual);
+      int expectedInt;
+      try {
+         expectedInt = Integer.parseInt(text);
+      } catch (NumberFormatException e) {
+         expectedInt = -1;
+      }
+      assertEquals(text, expectedInt, NumberParser.tryParseInt(s, -1));
+   }
+
+   private static void assertSameDouble(String text) {
+      assertEquals(text, Double.doubleToRawLongBits(Double.parseDouble(text)),
+            Double.doubleToRawLongBits(NumberParser.parseDouble(text)));
+      assertEquals(text, Double.doubleToRawLongBits(Double.parseDouble(text)),
+            Double.doubleToRawLongBits(NumberParser.tryParseDouble(text, 0)));
+   }
+
+   private static void assertSameFloat(String text) {
+      assertEquals(text, Float.floatToRawIntBits(Float.parseFloat(text)),
+            Float.floatToRawIntBits(NumberParser.parseFloat(text)));
+   }
+}
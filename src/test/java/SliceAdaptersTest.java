@@ -0,0 +1,131 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.annotation.ElementType;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.ByteSlice;
+import com.javadapters.adapters.CharSlice;
+
+
+public class SliceAdaptersTest {
+
+   private static final String LINE =
+         "42,-9000000000,true,x,1.25,-0.5e3,TYPE,07/17/2013 12:00:00,7,300";
+
+   @Test
+   public void charSliceTest() {
+      try {
+         CharSlice slice = new CharSlice();
+         assertEquals(Integer.valueOf(42), AdapterFactory.getAdapter(
+               CharSlice.class, Integer.class).convert(field(slice, 0), Integer.class));
+         assertEquals(Long.valueOf(-9000000000L), AdapterFactory.getAdapter(
+               CharSlice.class, long.class).convert(field(slice, 1), Long.class));
+         assertTrue(AdapterFactory.getBooleanAdapter(CharSlice.class)
+               .convertToBoolean(field(slice, 2)));
+         assertEquals(Character.valueOf('x'), AdapterFactory.getAdapter(
+               CharSlice.class, Character.class).convert(field(slice, 3),
+                     Character.class));
+         assertTrue(AdapterFactory.getDoubleAdapter(CharSlice.class)
+               .convertToDouble(field(slice, 4)) == 1.25);
+         assertEquals(Float.valueOf(-500f), AdapterFactory.getAdapter(
+               CharSlice.class, Float.class).convert(field(slice, 5), Float.class));
+         assertEquals(ElementType.TYPE, AdapterFactory.getAdapter(
+               CharSlice.class, ElementType.class).convert(field(slice, 6),
+                     ElementType.class));
+         Date expected = AdapterFactory.getAdapter(String.class, Date.class)
+               .convert("07/17/2013 12:00:00", Date.class);
+         assertEquals(expected, AdapterFactory.getAdapter(CharSlice.class,
+               Date.class).convert(field(slice, 7), Date.class));
+         assertEquals(Byte.valueOf((byte)7), AdapterFactory.getAdapter(
+               CharSlice.class, Byte.class).convert(field(slice, 8), Byte.class));
+         assertEquals(Short.valueOf((short)300), AdapterFactory.getAdapter(
+               CharSlice.class, Short.class).convert(field(slice, 9), Short.class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void byteSliceTest() {
+      try {
+         byte[] bytes = ("  " + LINE).getBytes(StandardCharsets.US_ASCII);
+         ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+         direct.put(bytes);
+         Adapter<ByteSlice, Integer> intAdapter =
+               AdapterFactory.getAdapter(ByteSlice.class, Integer.class);
+         Adapter<ByteSlice, Double> doubleAdapter =
+               AdapterFactory.getAdapter(ByteSlice.class, Double.class);
+
+         ByteSlice slice = new ByteSlice(bytes, 2, 2);
+         assertEquals(Integer.valueOf(42), intAdapter.convert(slice, Integer.class));
+         slice.set(direct, 2, 2);
+         assertEquals(Integer.valueOf(42), intAdapter.convert(slice, Integer.class));
+         slice.set(ByteBuffer.wrap(bytes, 1, 10).slice(), 1, 2);
+         assertEquals(Integer.valueOf(42), intAdapter.convert(slice, Integer.class));
+         slice.set(bytes, 2 + LINE.indexOf("1.25"), 4);
+         assertTrue(doubleAdapter.convert(slice, Double.class) == 1.25);
+         slice.set(bytes, 2 + LINE.indexOf("true"), 3);
+         assertFalse(AdapterFactory.getBooleanAdapter(ByteSlice.class)
+               .convertToBoolean(slice));
+
+         byte[] utf8 = "\u00e9t\u00e9".getBytes(StandardCharsets.UTF_8);
+         slice.set(utf8, 0, utf8.length);
+         assertFalse(slice.isAscii());
+         assertEquals("\u00e9t\u00e9", slice.toString());
+         assertEquals(Character.valueOf('\u00e9'), AdapterFactory.getAdapter(
+               ByteSlice.class, Character.class).convert(slice, Character.class));
+         slice.set(utf8, 0, 0);
+         assertNull(AdapterFactory.getAdapter(ByteSlice.class, Character.class)
+               .convert(slice, Character.class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void invalidSliceTest() {
+      try {
+         Adapter<CharSlice, Integer> adapter =
+               AdapterFactory.getAdapter(CharSlice.class, Integer.class);
+         adapter.convert(new CharSlice("12a", 0, 3), Integer.class);
+         fail("Expected NumberFormatException");
+      } catch (NumberFormatException e) {
+         //expected
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+
+      try {
+         AdapterFactory.getAdapter(CharSlice.class, ElementType.class).convert(
+               new CharSlice("type", 0, 4), ElementType.class);
+         fail("Expected IllegalArgumentException");
+      } catch (IllegalArgumentException e) {
+         //expected
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   /**
+    * Points the slice at the given comma separated field of {@link #LINE}
+    */
+   private static CharSlice field(CharSlice slice, int index) {
+      int start = 0;
+      for(int i = 0; i < index; ++i) {
+         start = LINE.indexOf(',', start) + 1;
+      }
+      int end = LINE.indexOf(',', start);
+      return slice.set(LINE, start, (end < 0) ? LINE.length() : end);
+   }
+}
@@ -1,20 +1,43 @@
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Random;
 
 import org.junit.Test;
 
 import com.javadapters.AdapterFactory;
 import com.javadapters.AdapterNotFoundException;
 import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.EnumLookup;
+import com.javadapters.adapters.EnumLookup.Match;
 import com.javadapters.adapters.StringAdapters.StringToBooleanAdapter;
 import com.javadapters.adapters.StringAdapters.StringToByteAdapter;
 import com.javadapters.adapters.StringAdapters.StringToCharacterAdapter;
+import com.javadapters.adapters.StringAdapters.StringToDateAdapter;
+import com.javadapters.adapters.StringAdapters.StringToEnumAdapter;
+import com.javadapters.adapters.ToBooleanAdapter;
+import com.javadapters.adapters.ToDoubleAdapter;
+import com.javadapters.adapters.ToIntAdapter;
+import com.javadapters.adapters.ToLongAdapter;
 
 
 public class StringAdaptersTest {
@@ -91,11 +114,197 @@ public class StringAdaptersTest {
          assertNotNull(d1);
          Date d2 = adapter.convert("07 JUL 2013 03:30:00", Date.class);
          assertNotNull(d2);
+         assertNull(adapter.convert("07/32/2013", Date.class));
+         assertNull(adapter.convert("not a date", Date.class));
       } catch (AdapterNotFoundException e) {
          fail(e.getMessage());
       }
    }
 
+   @Test
+   public void stringToDateFormatsTest() {
+      Calendar cal = Calendar.getInstance();
+      cal.clear();
+      cal.set(2013, Calendar.JULY, 7, 3, 30, 15);
+      Date withSeconds = cal.getTime();
+      cal.set(Calendar.SECOND, 0);
+      Date withMinutes = cal.getTime();
+      cal.set(Calendar.HOUR_OF_DAY, 0);
+      cal.set(Calendar.MINUTE, 0);
+      Date dateOnly = cal.getTime();
+
+      String[] dates = new String[] {"20130707", "7-7-2013", "2013-07-07",
+            "07/07/2013", "2013/7/7", "7 Jul 2013", "07 july 2013"};
+      String[] minutes = new String[] {"201307070330", "20130707 0330",
+            "07-07-2013 3:30", "2013-7-7 03:30", "7/7/2013 3:30",
+            "2013/07/07 3:30", "7 JUL 2013 3:30", "7 July 2013 03:30"};
+      String[] seconds = new String[] {"20130707033015", "20130707 033015",
+            "07-07-2013 3:30:15", "2013-7-7 03:30:15", "7/7/2013 3:30:15",
+            "2013/07/07 3:30:15", "7 jul 2013 3:30:15", "7 JULY 2013 03:30:15"};
+
+      for(StringToDateAdapter adapter : new StringToDateAdapter[] {
+            new StringToDateAdapter(false), new StringToDateAdapter(true)}) {
+         for(String s : dates) {
+            assertEquals(s, dateOnly, adapter.convert(s, Date.class));
+         }
+         for(String s : minutes) {
+            assertEquals(s, withMinutes, adapter.convert(s, Date.class));
+         }
+         for(String s : seconds) {
+            assertEquals(s, withSeconds, adapter.convert(s, Date.class));
+         }
+      }
+   }
+
+   @Test
+   public void compactDateTest() {
+      //The all digit formats must accept exactly what the formatters do
+      String[] patterns = {"uuuuMMdd", "uuuuMMddHHmm", "uuuuMMddHHmmss"};
+      StringToDateAdapter adapter = new StringToDateAdapter();
+      Random random = new Random(16);
+      for(int i = 0; i < 20000; ++i) {
+         int fields = random.nextInt(3);
+         String text = String.format(Locale.ROOT, "%04d%02d%02d",
+               random.nextInt(10000), random.nextInt(14), random.nextInt(33));
+         if(fields > 0) {
+            text += String.format(Locale.ROOT, "%02d%02d", random.nextInt(25),
+                  random.nextInt(61));
+         }
+         if(fields > 1) {
+            text += String.format(Locale.ROOT, "%02d", random.nextInt(61));
+         }
+         DateTimeFormatter formatter = DateTimeFormatter.ofPattern(
+               patterns[fields]).withResolverStyle(ResolverStyle.STRICT);
+         Date expected;
+         try {
+            TemporalAccessor parsed = formatter.parse(text);
+            LocalDateTime dateTime = (fields == 0) ?
+                  LocalDate.from(parsed).atStartOfDay() :
+                  LocalDateTime.from(parsed);
+            expected = Date.from(dateTime.atZone(ZoneId.systemDefault())
+                  .toInstant());
+         } catch (DateTimeParseException e) {
+            expected = null;
+         }
+         assertEquals(text, expected, adapter.convert(text, Date.class));
+      }
+      assertNull(adapter.convert("2013070a", Date.class));
+      assertNull(adapter.convert("20130229", Date.class));
+      assertNotNull(adapter.convert("20120229", Date.class));
+   }
+
+   @Test
+   public void stringToEnumTest() {
+      try {
+         Adapter<String, RetentionPolicy> adapter =
+               AdapterFactory.getAdapter(String.class, RetentionPolicy.class);
+         assertEquals(RetentionPolicy.RUNTIME,
+               adapter.convert("RUNTIME", RetentionPolicy.class));
+         try {
+            adapter.convert("runtime", RetentionPolicy.class);
+            fail("Expected IllegalArgumentException");
+         } catch (IllegalArgumentException e) {
+            //expected
+         }
+
+         EnumLookup<RetentionPolicy> aliased = EnumLookup.of(
+               RetentionPolicy.class).withAlias("RT", RetentionPolicy.RUNTIME);
+         StringToEnumAdapter<RetentionPolicy> exact =
+               new StringToEnumAdapter<RetentionPolicy>(aliased,
+                     EnumSet.of(Match.EXACT), false);
+         assertEquals(RetentionPolicy.RUNTIME,
+               exact.convert("RT", RetentionPolicy.class));
+         //The alias doesn't change the shared lookup
+         assertNull(EnumLookup.of(RetentionPolicy.class).find("RT"));
+         try {
+            adapter.convert("RT", RetentionPolicy.class);
+            fail("Expected IllegalArgumentException");
+         } catch (IllegalArgumentException e) {
+            //expected
+         }
+
+         StringToEnumAdapter<RetentionPolicy> lenient =
+               new StringToEnumAdapter<RetentionPolicy>(aliased,
+                     EnumSet.allOf(Match.class), true);
+         assertEquals(RetentionPolicy.RUNTIME,
+               lenient.convert("Runtime", RetentionPolicy.class));
+         assertEquals(RetentionPolicy.RUNTIME,
+               lenient.convert("rt", RetentionPolicy.class));
+         assertEquals(RetentionPolicy.SOURCE,
+               lenient.convert("0", RetentionPolicy.class));
+         assertNull(lenient.convert("3", RetentionPolicy.class));
+         assertNull(lenient.convert("unknown", RetentionPolicy.class));
+         assertNull(lenient.convert(null, RetentionPolicy.class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void tryConvertTest() {
+      try {
+         Adapter<String, Integer> intAdapter =
+               AdapterFactory.getAdapter(String.class, Integer.class);
+         assertEquals(Integer.valueOf(5), intAdapter.tryConvert("5", Integer.class, -1));
+         assertEquals(Integer.valueOf(0), intAdapter.tryConvert("0", Integer.class, -1));
+         assertEquals(Integer.valueOf(-1), intAdapter.tryConvert("x", Integer.class, -1));
+         assertNull(intAdapter.tryConvert("3000000000", Integer.class, null));
+         assertNull(intAdapter.tryConvert(null, Integer.class, null));
+         assertTrue(AdapterFactory.getIntAdapter(String.class)
+               .tryConvertToInt("-2147483648", 0) == Integer.MIN_VALUE);
+         assertTrue(AdapterFactory.getLongAdapter(String.class)
+               .tryConvertToLong("9223372036854775808", 7) == 7);
+
+         Adapter<String, Short> shortAdapter =
+               AdapterFactory.getAdapter(String.class, Short.class);
+         assertNull(shortAdapter.tryConvert("40000", Short.class, null));
+
+         ToDoubleAdapter<String> doubleAdapter =
+               AdapterFactory.getDoubleAdapter(String.class);
+         assertTrue(doubleAdapter.tryConvertToDouble(" 1e400 ", 0) ==
+               Double.POSITIVE_INFINITY);
+         assertTrue(doubleAdapter.tryConvertToDouble("0x1.8p1", 0) == 3);
+         assertTrue(doubleAdapter.tryConvertToDouble("1.5f", 0) == 1.5);
+         assertTrue(doubleAdapter.tryConvertToDouble("1.5.5", -1) == -1);
+         assertTrue(doubleAdapter.tryConvertToDouble("0x1.8", -1) == -1);
+         assertTrue(Double.isNaN(doubleAdapter.tryConvertToDouble("-NaN", 0)));
+
+         Adapter<String, ElementType> enumAdapter =
+               AdapterFactory.getAdapter(String.class, ElementType.class);
+         assertEquals(ElementType.FIELD, enumAdapter.tryConvert("bad",
+               ElementType.class, ElementType.FIELD));
+
+         assertNull(AdapterFactory.tryGetAdapter(String.class, StringBuilder.class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void lightweightExceptionTest() {
+      AdapterFactory.setLightweightExceptions(true);
+      try {
+         AdapterFactory.getAdapter(String.class, Integer.class).convert("x",
+               Integer.class);
+         fail("Expected NumberFormatException");
+      } catch (NumberFormatException e) {
+         assertEquals(0, e.getStackTrace().length);
+         assertEquals("For input string: \"x\"", e.getMessage());
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+
+      try {
+         AdapterFactory.getAdapter(String.class, StringBuilder.class);
+         fail("Expected AdapterNotFoundException");
+      } catch (AdapterNotFoundException e) {
+         assertEquals(0, e.getStackTrace().length);
+         assertTrue(e.getMessage().contains("StringBuilder"));
+      } finally {
+         AdapterFactory.setLightweightExceptions(false);
+      }
+   }
+
    @SuppressWarnings({ "unchecked", "rawtypes" })
    @Test
    public void stringToNumberTest() {
@@ -143,6 +352,25 @@ public class StringAdaptersTest {
       }
    }
 
+   @Test
+   public void stringToPrimitiveTest() {
+      try {
+         ToIntAdapter<String> intAdapter = AdapterFactory.getIntAdapter(String.class);
+         assertTrue(intAdapter.convertToInt("100") == 100);
 
+         ToLongAdapter<String> longAdapter = AdapterFactory.getLongAdapter(String.class);
+         assertTrue(longAdapter.convertToLong("10000000000") == 10000000000L);
 
+         ToDoubleAdapter<String> doubleAdapter =
+               AdapterFactory.getDoubleAdapter(String.class);
+         assertTrue(doubleAdapter.convertToDouble("1.5") == 1.5);
+
+         ToBooleanAdapter<String> booleanAdapter =
+               AdapterFactory.getBooleanAdapter(String.class);
+         assertTrue(booleanAdapter.convertToBoolean("true"));
+         assertFalse(booleanAdapter.convertToBoolean("false"));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
 }
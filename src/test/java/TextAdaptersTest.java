@@ -0,0 +1,176 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.annotation.ElementType;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.javadapters.AdapterFactory;
+import com.javadapters.AdapterNotFoundException;
+import com.javadapters.AdapterRegistry;
+import com.javadapters.adapters.Adapter;
+import com.javadapters.adapters.TextAdapters.DateToStringAdapter;
+import com.javadapters.adapters.TextAdapters.DoubleToStringAdapter;
+import com.javadapters.adapters.ToTextAdapter;
+
+
+public class TextAdaptersTest {
+
+   @Test
+   public void toStringTest() {
+      try {
+         assertEquals("true", AdapterFactory.getAdapter(Boolean.class,
+               String.class).convert(true, String.class));
+         assertEquals("-128", AdapterFactory.getAdapter(byte.class,
+               String.class).convert((byte)-128, String.class));
+         assertEquals("\u00e9", AdapterFactory.getAdapter(Character.class,
+               String.class).convert('\u00e9', String.class));
+         assertEquals("0.1", AdapterFactory.getAdapter(Double.class,
+               String.class).convert(0.1, String.class));
+         assertEquals("FIELD", AdapterFactory.getAdapter(ElementType.class,
+               String.class).convert(ElementType.FIELD, String.class));
+         assertEquals("1.0E-5", AdapterFactory.getAdapter(Float.class,
+               String.class).convert(1e-5f, String.class));
+         assertEquals("-2147483648", AdapterFactory.getAdapter(int.class,
+               String.class).convert(Integer.MIN_VALUE, String.class));
+         assertEquals("9223372036854775807", AdapterFactory.getAdapter(Long.class,
+               String.class).convert(Long.MAX_VALUE, String.class));
+         assertEquals("-32768", AdapterFactory.getAdapter(Short.class,
+               String.class).convert(Short.MIN_VALUE, String.class));
+         assertNull(AdapterFactory.getAdapter(Integer.class, String.class)
+               .convert(null, String.class));
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void buffersTest() throws IOException {
+      try {
+         ToTextAdapter<Integer> ints = AdapterFactory.getTextAdapter(Integer.class);
+         StringBuilder sb = new StringBuilder("x=");
+         ints.appendTo(42, sb);
+         ints.appendTo(null, sb);
+         assertEquals("x=42", sb.toString());
+
+         StringWriter writer = new StringWriter();
+         AdapterFactory.getTextAdapter(Double.class).appendTo(-1.5e300, writer);
+         assertEquals("-1.5E300", writer.toString());
+
+         char[] chars = new char[8];
+         int end = ints.write(-1234567, chars, 0);
+         assertEquals("-1234567", new String(chars, 0, end));
+         end = ints.write(9, chars, 7);
+         assertEquals(8, end);
+         try {
+            ints.write(10, chars, 7);
+            fail("Should not fit");
+         } catch (ArrayIndexOutOfBoundsException e) {
+            assertEquals('9', chars[7]);
+         }
+
+         ToTextAdapter<Character> characters =
+               AdapterFactory.getTextAdapter(Character.class);
+         ByteBuffer bytes = ByteBuffer.allocate(4);
+         characters.write('\u20ac', bytes);
+         assertEquals(3, bytes.position());
+         try {
+            characters.write('\u00e9', bytes);
+            fail("Should not fit");
+         } catch (BufferOverflowException e) {
+            assertEquals(3, bytes.position());
+         }
+         characters.write('a', bytes);
+         assertEquals("\u20aca", new String(bytes.array(), StandardCharsets.UTF_8));
+
+         ByteBuffer direct = ByteBuffer.allocateDirect(16);
+         AdapterFactory.getTextAdapter(ElementType.class)
+               .write(ElementType.TYPE_USE, direct);
+         assertEquals(8, direct.position());
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void dateTest() {
+      DateToStringAdapter utc = new DateToStringAdapter(ZoneOffset.UTC);
+      assertEquals("1970-01-01 00:00:00", utc.convert(new Date(0), String.class));
+      assertEquals("1969-12-31 23:59:59", utc.convert(new Date(-1), String.class));
+      assertEquals("2000-02-29 13:05:09", utc.convert(toDate(
+            LocalDateTime.of(2000, 2, 29, 13, 5, 9, 999000000), ZoneOffset.UTC),
+            String.class));
+      assertEquals("-0001-12-31 00:00:00", utc.convert(toDate(
+            LocalDateTime.of(-1, 12, 31, 0, 0), ZoneOffset.UTC), String.class));
+      assertEquals("+10000-01-01 00:00:00", utc.convert(toDate(
+            LocalDateTime.of(10000, 1, 1, 0, 0), ZoneOffset.UTC), String.class));
+
+      //Each date reads back with the default adapters
+      try {
+         Adapter<Date, String> adapter =
+               AdapterFactory.getAdapter(Date.class, String.class);
+         Adapter<String, Date> parser =
+               AdapterFactory.getAdapter(String.class, Date.class);
+         DateTimeFormatter format = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm:ss");
+         for(long seconds = -5000000000L; seconds < 5000000000L; seconds += 7777777) {
+            Date date = new Date(seconds * 1000);
+            String text = adapter.convert(date, String.class);
+            assertEquals(text, date, parser.convert(text, Date.class));
+            assertEquals(format.format(LocalDateTime.ofInstant(date.toInstant(),
+                  ZoneId.systemDefault())), text);
+         }
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   @Test
+   public void stringOnlyAdapterTest() throws IOException {
+      //Adapters that only convert to a String still write to buffers
+      AdapterRegistry registry = AdapterRegistry.builder().add(Double.class,
+            String.class, new Adapter<Double, String>() {
+               @Override
+               public String convert(Double from, Class<String> clazz) {
+                  return "<" + from + ">";
+               }
+            }).build();
+      try {
+         ToTextAdapter<Double> adapter = registry.getTextAdapter(Double.class);
+         char[] chars = new char[5];
+         assertEquals(5, adapter.write(1.0, chars, 0));
+         assertEquals("<1.0>", new String(chars));
+         ByteBuffer bytes = ByteBuffer.allocate(5);
+         adapter.write(2.0, bytes);
+         assertEquals(5, bytes.position());
+
+         //Metrics wrap the adapters but keep writing to buffers
+         AdapterRegistry defaults = AdapterRegistry.builder().addDefaults().build();
+         defaults.setMetricsEnabled(true);
+         ToTextAdapter<Double> instrumented = defaults.getTextAdapter(Double.class);
+         assertTrue(!(instrumented instanceof DoubleToStringAdapter));
+         StringBuilder sb = new StringBuilder();
+         instrumented.appendTo(2.5, sb);
+         assertEquals("2.5", sb.toString());
+         assertEquals(1, defaults.getMetrics().snapshot(Double.class, String.class)
+               .getConversions());
+      } catch (AdapterNotFoundException e) {
+         fail(e.getMessage());
+      }
+   }
+
+   private static Date toDate(LocalDateTime dateTime, ZoneOffset offset) {
+      return Date.from(dateTime.toInstant(offset));
+   }
+}